@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil;
+
+import java.io.EOFException;
+
+/**
+ * Creates the exceptions thrown by readers and writers at the end of the data.
+ * <p>
+ * By default every end of the data gets a new exception with a stack trace. Code which reads until the end of the data in a tight loop,
+ * or which relies on {@link java.io.EOFException} to retry reading later, pays for walking the stack every time.
+ * In stackless mode, enabled with {@link #setStackless(boolean)} or the system property {@value #STACKLESS_PROPERTY}, a single preallocated exception without a stack trace is thrown instead.
+ * As that exception is shared, it should not be kept around, and suppressed exceptions should not be added to it.
+ *
+ * @author Joachim Vandersmissen
+ */
+public final class EndOfStream {
+    /**
+     * The system property enabling stackless mode when set to true.
+     */
+    public static final String STACKLESS_PROPERTY = "com.jvdsn.ioutil.stacklessEOF";
+
+    private static final EOFException STACKLESS = new StacklessEOFException();
+    private static volatile boolean stackless = Boolean.getBoolean(STACKLESS_PROPERTY);
+
+    private EndOfStream() {
+    }
+
+    /**
+     * Returns whether stackless mode is enabled.
+     *
+     * @return true if the preallocated exception is thrown
+     */
+    public static boolean isStackless() {
+        return stackless;
+    }
+
+    /**
+     * Enables or disables stackless mode.
+     *
+     * @param stackless true to throw the preallocated exception, false to create a new exception every time
+     */
+    public static void setStackless(boolean stackless) {
+        EndOfStream.stackless = stackless;
+    }
+
+    /**
+     * Returns the exception to throw at the end of the data.
+     *
+     * @return the preallocated exception in stackless mode, or a new exception otherwise
+     */
+    public static EOFException exception() {
+        return stackless ? STACKLESS : new EOFException("End of stream.");
+    }
+
+    private static final class StacklessEOFException extends EOFException {
+        private static final long serialVersionUID = 1L;
+
+        private StacklessEOFException() {
+            super("End of stream.");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
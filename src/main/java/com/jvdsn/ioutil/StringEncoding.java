@@ -10,6 +10,8 @@
 
 package com.jvdsn.ioutil;
 
+import com.jvdsn.ioutil.pool.BufferPool;
+
 import java.io.IOException;
 import java.io.UTFDataFormatException;
 
@@ -21,10 +23,8 @@ import java.io.UTFDataFormatException;
 public enum StringEncoding {
     UTF_8() {
         @Override
-        public byte[] encode(String string) throws UTFDataFormatException {
+        protected int encode(String string, byte[] data) throws UTFDataFormatException {
             int length = string.length();
-            // Up to 3 bytes encoded per char.
-            byte[] data = new byte[length * 3];
             int j = 0;
             for (int i = 0; i < length; i++) {
                 int c = string.charAt(i);
@@ -62,14 +62,11 @@ public enum StringEncoding {
                 }
             }
 
-            byte[] newData = new byte[j];
-            System.arraycopy(data, 0, newData, 0, j);
-            return newData;
+            return j;
         }
 
         @Override
-        public String decode(byte... bytes) throws UTFDataFormatException {
-            char[] chars = new char[bytes.length];
+        protected int decode(byte[] bytes, char[] chars) throws UTFDataFormatException {
             int i = 0;
             int j = 0;
             while (j < bytes.length) {
@@ -129,15 +126,13 @@ public enum StringEncoding {
                 }
             }
 
-            return new String(chars, 0, i);
+            return i;
         }
     },
     CESU_8() {
         @Override
-        public byte[] encode(String string) throws UTFDataFormatException {
+        protected int encode(String string, byte[] data) throws UTFDataFormatException {
             int length = string.length();
-            // Up to 3 bytes encoded per char.
-            byte[] data = new byte[length * 3];
             int j = 0;
             for (int i = 0; i < length; i++) {
                 int c = string.charAt(i);
@@ -178,14 +173,11 @@ public enum StringEncoding {
                 }
             }
 
-            byte[] newData = new byte[j];
-            System.arraycopy(data, 0, newData, 0, j);
-            return newData;
+            return j;
         }
 
         @Override
-        public String decode(byte... bytes) throws UTFDataFormatException {
-            char[] chars = new char[bytes.length];
+        protected int decode(byte[] bytes, char[] chars) throws UTFDataFormatException {
             int i = 0;
             int j = 0;
             while (j < bytes.length) {
@@ -247,15 +239,13 @@ public enum StringEncoding {
                 }
             }
 
-            return new String(chars, 0, i);
+            return i;
         }
     },
     MUTF_8() {
         @Override
-        public byte[] encode(String string) throws UTFDataFormatException {
+        protected int encode(String string, byte[] data) throws UTFDataFormatException {
             int length = string.length();
-            // Up to 3 bytes encoded per char
-            byte[] data = new byte[length * 3];
             int j = 0;
             for (int i = 0; i < length; i++) {
                 int c = string.charAt(i);
@@ -296,14 +286,11 @@ public enum StringEncoding {
                 }
             }
 
-            byte[] newData = new byte[j];
-            System.arraycopy(data, 0, newData, 0, j);
-            return newData;
+            return j;
         }
 
         @Override
-        public String decode(byte... bytes) throws UTFDataFormatException {
-            char[] chars = new char[bytes.length];
+        protected int decode(byte[] bytes, char[] chars) throws UTFDataFormatException {
             int i = 0;
             int j = 0;
             while (j < bytes.length) {
@@ -369,17 +356,46 @@ public enum StringEncoding {
                 }
             }
 
-            return new String(chars, 0, i);
+            return i;
         }
     };
 
+    /**
+     * Encodes a string in a byte array which is large enough to hold 3 bytes per char.
+     *
+     * @param string the string to encode
+     * @param data   the byte array to encode in
+     * @return the amount of encoded bytes
+     */
+    protected abstract int encode(String string, byte[] data) throws IOException;
+
+    /**
+     * Decodes a string in a char array which is large enough to hold 1 char per byte.
+     *
+     * @param bytes the encoded bytes
+     * @param chars the char array to decode in
+     * @return the amount of decoded chars
+     */
+    protected abstract int decode(byte[] bytes, char[] chars) throws IOException;
+
     /**
      * Encodes a string.
      *
      * @param string the string to encode
      * @return the encoded bytes
      */
-    public abstract byte[] encode(String string) throws IOException;
+    public byte[] encode(String string) throws IOException {
+        // Up to 3 bytes encoded per char, encode in a pooled byte array and only copy the encoded bytes.
+        byte[] data = BufferPool.DEFAULT.acquireBytes(string.length() * 3);
+        try {
+            int length = this.encode(string, data);
+            byte[] newData = new byte[length];
+            System.arraycopy(data, 0, newData, 0, length);
+            return newData;
+        } finally {
+            BufferPool.DEFAULT.releaseBytes(data);
+        }
+    }
 
     /**
      * Decodes a string.
@@ -387,5 +403,13 @@ public enum StringEncoding {
      * @param bytes the encoded bytes
      * @return the decoded string
      */
-    public abstract String decode(byte... bytes) throws IOException;
+    public String decode(byte... bytes) throws IOException {
+        // Up to 1 char decoded per byte.
+        char[] chars = BufferPool.DEFAULT.acquireChars(bytes.length);
+        try {
+            return new String(chars, 0, this.decode(bytes, chars));
+        } finally {
+            BufferPool.DEFAULT.releaseChars(chars);
+        }
+    }
 }
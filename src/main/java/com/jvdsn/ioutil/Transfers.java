@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil;
+
+import com.jvdsn.ioutil.pool.BufferPool;
+import com.jvdsn.ioutil.reader.ChannelReader;
+import com.jvdsn.ioutil.reader.FileChannelReader;
+import com.jvdsn.ioutil.reader.Reader;
+import com.jvdsn.ioutil.writer.ChannelWriter;
+import com.jvdsn.ioutil.writer.Writer;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Transfers bytes between readers and writers.
+ *
+ * @author Joachim Vandersmissen
+ */
+public final class Transfers {
+    /**
+     * The size of the buffer used when bytes have to be copied through the Java heap.
+     */
+    public static final int TRANSFER_BUFFER_SIZE = 65536;
+
+    private Transfers() {
+    }
+
+    /**
+     * Transfers length bytes from a reader to a writer.
+     * If the writer is a channel writer and the reader is a file channel reader or a channel reader, the bytes are transferred between the channels directly.
+     * If either channel is a file channel, the bytes are then not copied through the Java heap if the operating system supports it.
+     * Otherwise, the bytes are copied through a pooled buffer.
+     *
+     * @param reader the reader to read from
+     * @param writer the writer to write to
+     * @param length the amount of bytes to transfer
+     * @throws EOFException if no more data can be read or written
+     */
+    public static void transfer(Reader reader, Writer writer, long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        if (writer instanceof ChannelWriter && (reader instanceof FileChannelReader || reader instanceof ChannelReader)) {
+            ChannelWriter channelWriter = (ChannelWriter) writer;
+            // The bytes written before should end up before the transferred bytes.
+            channelWriter.flush();
+            if (reader instanceof FileChannelReader) {
+                ((FileChannelReader) reader).transferTo(channelWriter.channel(), length);
+            } else {
+                ((ChannelReader) reader).transferTo(channelWriter.channel(), length);
+            }
+
+            return;
+        }
+
+        byte[] buffer = BufferPool.DEFAULT.acquireBytes((int) Math.min(length, TRANSFER_BUFFER_SIZE));
+        try {
+            while (length > 0) {
+                int n = (int) Math.min(length, buffer.length);
+                reader.readBytes(buffer, 0, n);
+                writer.writeBytes(buffer, 0, n);
+                length -= n;
+            }
+        } finally {
+            BufferPool.DEFAULT.releaseBytes(buffer);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.async;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Adapts the completion handlers of an asynchronous file channel to completable futures.
+ *
+ * @author Joachim Vandersmissen
+ */
+final class AsyncChannels {
+    private AsyncChannels() {
+    }
+
+    /**
+     * Reads from a position in the file until the buffer is full or the end of the file is reached.
+     *
+     * @param channel  the channel to read from
+     * @param buffer   the buffer to read into
+     * @param position the position in the file
+     * @return a future completing with the buffer, positioned after the read bytes
+     */
+    static CompletableFuture<ByteBuffer> read(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+        CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+        int start = buffer.position();
+        CompletionHandler<Integer, Void> handler = new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer result, Void attachment) {
+                if (result < 0 || !buffer.hasRemaining()) {
+                    future.complete(buffer);
+                    return;
+                }
+
+                // A short read, continue after the bytes read so far.
+                try {
+                    channel.read(buffer, position + buffer.position() - start, null, this);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Throwable exc, Void attachment) {
+                future.completeExceptionally(exc);
+            }
+        };
+
+        try {
+            channel.read(buffer, position, null, handler);
+        } catch (RuntimeException e) {
+            // For example if the channel was not opened for reading.
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer to a position in the file.
+     *
+     * @param channel  the channel to write to
+     * @param buffer   the buffer to write
+     * @param position the position in the file
+     * @return a future completing once every byte has been written
+     */
+    static CompletableFuture<Void> write(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        int start = buffer.position();
+        CompletionHandler<Integer, Void> handler = new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer result, Void attachment) {
+                if (!buffer.hasRemaining()) {
+                    future.complete(null);
+                    return;
+                }
+
+                // A short write, continue after the bytes written so far.
+                try {
+                    channel.write(buffer, position + buffer.position() - start, null, this);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Throwable exc, Void attachment) {
+                future.completeExceptionally(exc);
+            }
+        };
+
+        try {
+            channel.write(buffer, position, null, handler);
+        } catch (RuntimeException e) {
+            // For example if the channel was not opened for writing.
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.async;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.reader.ByteBufferReader;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Fetches regions of a file without blocking, and decodes them in memory with a regular reader once they have been fetched.
+ * Any amount of regions can be fetched at the same time. The channel is not closed by the reader, as it can be shared.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class AsyncFileReader {
+    protected final Endianness endianness;
+    protected final AsynchronousFileChannel channel;
+
+    /**
+     * Constructs a new asynchronous file reader.
+     *
+     * @param endianness the endianness of the returned readers
+     * @param channel    the channel to read from
+     */
+    public AsyncFileReader(Endianness endianness, AsynchronousFileChannel channel) {
+        this.endianness = endianness;
+        this.channel = channel;
+    }
+
+    /**
+     * Fetches a region of the file.
+     * The returned future completes with a reader reading the region, or exceptionally with an {@link EOFException} if the region extends beyond the end of the file.
+     *
+     * @param position the position of the region in the file
+     * @param length   the length of the region
+     * @return the future
+     */
+    public CompletableFuture<ByteBufferReader> read(long position, int length) {
+        if (position < 0) {
+            throw new IllegalArgumentException("position " + position + " is before the start 0");
+        }
+
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        return AsyncChannels.read(this.channel, ByteBuffer.allocate(length), position).thenApply(buffer -> {
+            if (buffer.hasRemaining()) {
+                throw new CompletionException(EndOfStream.exception());
+            }
+
+            buffer.flip();
+            return new ByteBufferReader(this.endianness, buffer);
+        });
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.async;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.pool.BufferPool;
+import com.jvdsn.ioutil.writer.AbstractWriter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.AsynchronousFileChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes to a direct buffer, which is written to a file without blocking when it is full or submitted.
+ * The buffers are written to consecutive regions of the file, starting at the initial position, but they can complete in any order.
+ * At most a maximum amount of buffers are being written at the same time, submitting another buffer blocks until one of them has been written.
+ * The buffers are borrowed from the default buffer pool, reused by the writer once they have been written, and released when the writer is closed.
+ * <p>
+ * A writer should only be used by one thread.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class AsyncFileWriter extends AbstractWriter {
+    /**
+     * The default size of the buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+    /**
+     * The default maximum amount of buffers being written at the same time.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    protected final AsynchronousFileChannel channel;
+    protected final int bufferSize;
+    protected final int maxInFlight;
+    private final Semaphore inFlight;
+    // Written buffers, handed back by the I/O threads so they are reused and released by the writer thread.
+    private final ConcurrentLinkedQueue<ByteBuffer> written = new ConcurrentLinkedQueue<>();
+    protected ByteBuffer buffer;
+    // The position in the file of the first byte in the buffer.
+    protected long position;
+    // Completes once every submitted buffer has been written, exceptionally if any write failed, but never before all writes completed.
+    protected CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+
+    /**
+     * Constructs a new asynchronous file writer.
+     *
+     * @param endianness  the endianness of the writer
+     * @param channel     the channel to write to
+     * @param position    the position in the file to start writing at
+     * @param bufferSize  the minimum size of the buffer
+     * @param maxInFlight the maximum amount of buffers being written at the same time
+     */
+    public AsyncFileWriter(Endianness endianness, AsynchronousFileChannel channel, long position, int bufferSize, int maxInFlight) {
+        super(endianness);
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maximum in flight " + maxInFlight + " is not positive");
+        }
+
+        this.channel = channel;
+        this.position = position;
+        this.bufferSize = bufferSize;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.buffer = this.acquire();
+    }
+
+    /**
+     * Constructs a new asynchronous file writer with the default maximum amount of buffers being written.
+     *
+     * @param endianness the endianness of the writer
+     * @param channel    the channel to write to
+     * @param position   the position in the file to start writing at
+     * @param bufferSize the minimum size of the buffer
+     */
+    public AsyncFileWriter(Endianness endianness, AsynchronousFileChannel channel, long position, int bufferSize) {
+        this(endianness, channel, position, bufferSize, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Constructs a new asynchronous file writer with the default buffer size.
+     *
+     * @param endianness the endianness of the writer
+     * @param channel    the channel to write to
+     * @param position   the position in the file to start writing at
+     */
+    public AsyncFileWriter(Endianness endianness, AsynchronousFileChannel channel, long position) {
+        this(endianness, channel, position, DEFAULT_BUFFER_SIZE);
+    }
+
+    private ByteBuffer acquire() {
+        ByteBuffer buffer = this.written.poll();
+        if (buffer != null) {
+            buffer.clear();
+            return buffer;
+        }
+
+        return BufferPool.DEFAULT.acquireDirect(this.bufferSize).order(this.endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the position in the file of the next byte written.
+     *
+     * @return the position
+     */
+    public long position() {
+        return this.position + (this.buffer == null ? 0 : this.buffer.position());
+    }
+
+    /**
+     * Starts writing the buffered bytes without waiting for them to be written, unless the maximum amount of buffers are already being written.
+     *
+     * @return a future completing once every byte written so far has been written to the file, or every write completed if one failed
+     * @throws EOFException           if the writer has been closed
+     * @throws InterruptedIOException if the thread is interrupted while waiting for a buffer to be written
+     */
+    public CompletableFuture<Void> submit() throws IOException {
+        if (this.buffer == null) {
+            throw EndOfStream.exception();
+        }
+
+        if (this.buffer.position() == 0) {
+            return this.pending;
+        }
+
+        try {
+            this.inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a write");
+        }
+
+        this.buffer.flip();
+        // The buffer belongs to the channel until it has been written, so a new one is used for the next writes.
+        ByteBuffer buffer = this.buffer;
+        long position = this.position;
+        this.buffer = this.acquire();
+        this.position += buffer.remaining();
+        CompletableFuture<Void> write = AsyncChannels.write(this.channel, buffer, position).whenComplete((result, exception) -> {
+            this.written.add(buffer);
+            this.inFlight.release();
+        });
+        this.pending = CompletableFuture.allOf(this.pending, write);
+        return this.pending;
+    }
+
+    /**
+     * Makes sure at least length bytes (at most the size of the buffer) can be buffered.
+     *
+     * @param length the amount of bytes
+     * @throws EOFException if the writer has been closed
+     */
+    protected void require(int length) throws IOException {
+        if (this.buffer == null) {
+            throw EndOfStream.exception();
+        }
+
+        if (this.buffer.remaining() < length) {
+            this.submit();
+        }
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.require(1);
+        this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        while (length > 0) {
+            this.require(1);
+            int n = Math.min(length, this.buffer.remaining());
+            this.buffer.put(bytes, start, n);
+            start += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.require(2);
+        this.buffer.putShort((short) s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.require(2);
+        this.buffer.putShort(s);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.require(4);
+        this.buffer.putInt((int) i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.require(4);
+        this.buffer.putInt(i);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.require(8);
+        this.buffer.putLong(l);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.require(2);
+        this.buffer.putChar(c);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.require(4);
+        this.buffer.putFloat(f);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.require(8);
+        this.buffer.putDouble(d);
+    }
+
+    /**
+     * Submits the buffered bytes, and blocks until every byte written so far has been written to the file.
+     * Use {@link #submit()} instead to avoid blocking.
+     *
+     * @throws IOException if a write failed
+     */
+    @Override
+    public void flush() throws IOException {
+        CompletableFuture<Void> pending = this.submit();
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IOException("asynchronous write failed", e.getCause());
+        }
+    }
+
+    /**
+     * Flushes the writer, waits until every write has completed, also if one of them failed, and releases its buffers.
+     * The channel is not closed, as it can be shared.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.buffer == null) {
+            return;
+        }
+
+        try {
+            this.flush();
+        } finally {
+            BufferPool.DEFAULT.releaseDirect(this.buffer);
+            this.buffer = null;
+            // Every write has completed once all permits are back, even if flushing was interrupted, so no buffer is still owned by the channel.
+            this.inFlight.acquireUninterruptibly(this.maxInFlight);
+            this.inFlight.release(this.maxInFlight);
+            ByteBuffer buffer;
+            while ((buffer = this.written.poll()) != null) {
+                BufferPool.DEFAULT.releaseDirect(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of fixed-size blocks of a file, read with positional reads, for random reads without mapping the file.
+ * When the cache is full, blocks are evicted with the CLOCK policy: a block which was used since the clock hand last passed it gets a second chance.
+ * <p>
+ * The cache can be shared by any amount of threads. Hits do not take a lock, only misses do, and no lock is held while a block is read.
+ * Concurrent misses on the same block read it only once: the other threads wait for that read, and are counted as hits.
+ * Blocks are never modified after they have been read, so the file should not be modified while it is cached.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class BlockCache {
+    /**
+     * The default size of a block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final int blockSize;
+    // An open addressing hash table of the cached entries, with linear probing, which can be searched without the lock.
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+    // The remaining fields are guarded by this, except for the reference bits which hits set without the lock.
+    private final Entry[] entries;
+    private final AtomicIntegerArray referenced;
+    // The blocks which are being read, so threads missing the same block wait for the same read.
+    private final Map<Long, CompletableFuture<byte[]>> loading = new HashMap<>();
+    // The next slot the clock hand considers for eviction.
+    private int hand;
+    private int used;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new block cache.
+     *
+     * @param channel   the file channel to read from
+     * @param blockSize the size of a block
+     * @param capacity  the maximum amount of cached blocks
+     */
+    public BlockCache(FileChannel channel, int blockSize, int capacity) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("block size " + blockSize + " is not positive");
+        }
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity " + capacity + " is not positive");
+        }
+
+        this.channel = channel;
+        this.blockSize = blockSize;
+        // At most half full, so probe sequences stay short.
+        int tableSize = Integer.highestOneBit(Math.max(1, capacity - 1)) << 2;
+        this.table = new AtomicReferenceArray<>(tableSize);
+        this.mask = tableSize - 1;
+        this.entries = new Entry[capacity];
+        this.referenced = new AtomicIntegerArray(capacity);
+    }
+
+    /**
+     * Constructs a new block cache with the default block size.
+     *
+     * @param channel  the file channel to read from
+     * @param capacity the maximum amount of cached blocks
+     */
+    public BlockCache(FileChannel channel, int capacity) {
+        this(channel, DEFAULT_BLOCK_SIZE, capacity);
+    }
+
+    /**
+     * Returns the size of a block.
+     *
+     * @return the block size
+     */
+    public int blockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * Returns the size of the file.
+     *
+     * @return the size
+     * @throws IOException if an I/O error occurs
+     */
+    public long size() throws IOException {
+        return this.channel.size();
+    }
+
+    /**
+     * Returns a block of the file, reading it if it is not cached.
+     * The returned array should not be modified. It is shorter than the block size for the last block of the file, and empty beyond the end of the file.
+     *
+     * @param index the index of the block
+     * @return the bytes of the block
+     * @throws IOException if an I/O error occurs
+     */
+    public byte[] block(long index) throws IOException {
+        Entry entry = this.find(index);
+        if (entry != null) {
+            // The clock hand only has to see the reference bit eventually, so it is set without the lock.
+            this.referenced.lazySet(entry.slot, 1);
+            this.hits.increment();
+            return entry.block;
+        }
+
+        CompletableFuture<byte[]> loading;
+        boolean reading;
+        synchronized (this) {
+            // Another thread may have read the block in the meantime, or still be reading it.
+            entry = this.find(index);
+            if (entry != null) {
+                this.referenced.lazySet(entry.slot, 1);
+                this.hits.increment();
+                return entry.block;
+            }
+
+            loading = this.loading.get(index);
+            reading = loading == null;
+            if (reading) {
+                loading = new CompletableFuture<>();
+                this.loading.put(index, loading);
+            }
+        }
+
+        if (!reading) {
+            this.hits.increment();
+            return await(loading);
+        }
+
+        // Read without holding the lock, so other blocks are not blocked by this miss.
+        this.misses.increment();
+        byte[] block;
+        try {
+            block = this.read(index);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                this.loading.remove(index);
+            }
+
+            loading.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (this) {
+            int slot = this.victim();
+            entry = new Entry(index, block, slot);
+            this.entries[slot] = entry;
+            this.referenced.set(slot, 0);
+            this.insert(entry);
+            this.loading.remove(index);
+        }
+
+        loading.complete(block);
+        return block;
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> loading) throws IOException {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            throw new IOException("reading the block failed", e.getCause());
+        }
+    }
+
+    private int victim() {
+        if (this.used < this.entries.length) {
+            return this.used++;
+        }
+
+        while (this.referenced.get(this.hand) != 0) {
+            this.referenced.set(this.hand, 0);
+            this.hand = (this.hand + 1) % this.entries.length;
+        }
+
+        int slot = this.hand;
+        this.hand = (this.hand + 1) % this.entries.length;
+        this.remove(this.entries[slot].key);
+        this.evictions.increment();
+        return slot;
+    }
+
+    private int hash(long key) {
+        return Long.hashCode(key * 0x9E3779B97F4A7C15L) & this.mask;
+    }
+
+    /**
+     * Searches the table without the lock. Entries are immutable, so a found entry is always correct.
+     * An entry which is being moved by a concurrent removal can be missed, which is checked again with the lock.
+     */
+    private Entry find(long key) {
+        for (int i = this.hash(key), probes = 0; probes <= this.mask; i = i + 1 & this.mask, probes++) {
+            Entry entry = this.table.get(i);
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.key == key) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    private void insert(Entry entry) {
+        int i = this.hash(entry.key);
+        while (this.table.get(i) != null) {
+            i = i + 1 & this.mask;
+        }
+
+        this.table.set(i, entry);
+    }
+
+    private void remove(long key) {
+        int i = this.hash(key);
+        while (this.table.get(i).key != key) {
+            i = i + 1 & this.mask;
+        }
+
+        // Shift the following entries of the probe sequence back, so no tombstones are needed.
+        for (int j = i + 1 & this.mask; ; j = j + 1 & this.mask) {
+            Entry entry = this.table.get(j);
+            if (entry == null) {
+                break;
+            }
+
+            // The entry can be moved to the empty slot if its home slot is not cyclically between the empty slot and its current slot.
+            int home = this.hash(entry.key);
+            if ((j - home & this.mask) >= (j - i & this.mask)) {
+                this.table.set(i, entry);
+                i = j;
+            }
+        }
+
+        this.table.set(i, null);
+    }
+
+    private byte[] read(long index) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(this.blockSize);
+        long position = index * this.blockSize;
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            }
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Removes all blocks from the cache.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i <= this.mask; i++) {
+            this.table.set(i, null);
+        }
+
+        Arrays.fill(this.entries, null);
+        for (int i = 0; i < this.entries.length; i++) {
+            this.referenced.set(i, 0);
+        }
+
+        this.hand = 0;
+        this.used = 0;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     *
+     * @return the statistics
+     */
+    public BlockCacheStatistics statistics() {
+        return new BlockCacheStatistics(this.hits.sum(), this.misses.sum(), this.evictions.sum());
+    }
+
+    private static final class Entry {
+        private final long key;
+        private final byte[] block;
+        private final int slot;
+
+        private Entry(long key, byte[] block, int slot) {
+            this.key = key;
+            this.block = block;
+            this.slot = slot;
+        }
+    }
+}
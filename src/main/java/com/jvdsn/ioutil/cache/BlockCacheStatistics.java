@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.cache;
+
+/**
+ * A snapshot of the statistics of a block cache.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class BlockCacheStatistics {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    /**
+     * Constructs a new block cache statistics snapshot.
+     *
+     * @param hits      the amount of blocks found in the cache
+     * @param misses    the amount of blocks which had to be read
+     * @param evictions the amount of blocks evicted to make room for other blocks
+     */
+    public BlockCacheStatistics(long hits, long misses, long evictions) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Returns the amount of blocks found in the cache.
+     *
+     * @return the amount of hits
+     */
+    public long hits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the amount of blocks which had to be read.
+     *
+     * @return the amount of misses
+     */
+    public long misses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the amount of blocks evicted to make room for other blocks.
+     *
+     * @return the amount of evictions
+     */
+    public long evictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Returns the fraction of requested blocks which were found in the cache.
+     *
+     * @return the hit rate, between 0 and 1
+     */
+    public double hitRate() {
+        long total = this.hits + this.misses;
+        return total == 0 ? 0 : (double) this.hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "BlockCacheStatistics{hits=" + this.hits + ", misses=" + this.misses + ", evictions=" + this.evictions + "}";
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.checksum;
+
+import java.util.zip.Checksum;
+
+/**
+ * Computes a CRC-32C (Castagnoli) checksum in pure Java, for Java 8 which does not have {@code java.util.zip.CRC32C} yet.
+ * Eight bytes are processed per iteration using eight lookup tables (slicing-by-8).
+ * Use {@link Checksums#crc32c()} instead, which returns the hardware accelerated implementation of the JDK when it is available.
+ *
+ * @author Joachim Vandersmissen
+ */
+public final class CRC32C implements Checksum {
+    // The reversed Castagnoli polynomial.
+    private static final int POLYNOMIAL = 0x82F63B78;
+    private static final int[][] TABLES = tables();
+
+    private int crc = 0xFFFFFFFF;
+
+    private static int[][] tables() {
+        int[][] tables = new int[8][256];
+        for (int i = 0; i < 256; i++) {
+            int c = i;
+            for (int j = 0; j < 8; j++) {
+                c = (c & 1) != 0 ? c >>> 1 ^ POLYNOMIAL : c >>> 1;
+            }
+
+            tables[0][i] = c;
+        }
+
+        // Table k holds the CRC of a byte followed by k zero bytes.
+        for (int k = 1; k < 8; k++) {
+            for (int i = 0; i < 256; i++) {
+                int c = tables[k - 1][i];
+                tables[k][i] = c >>> 8 ^ tables[0][c & 0xFF];
+            }
+        }
+
+        return tables;
+    }
+
+    @Override
+    public void update(int b) {
+        this.crc = this.crc >>> 8 ^ TABLES[0][(this.crc ^ b) & 0xFF];
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+
+        int[] t0 = TABLES[0];
+        int[] t1 = TABLES[1];
+        int[] t2 = TABLES[2];
+        int[] t3 = TABLES[3];
+        int[] t4 = TABLES[4];
+        int[] t5 = TABLES[5];
+        int[] t6 = TABLES[6];
+        int[] t7 = TABLES[7];
+        int crc = this.crc;
+        while (len >= 8) {
+            int lo = crc ^ (b[off] & 0xFF | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24);
+            int hi = b[off + 4] & 0xFF | (b[off + 5] & 0xFF) << 8 | (b[off + 6] & 0xFF) << 16 | (b[off + 7] & 0xFF) << 24;
+            crc = t7[lo & 0xFF] ^ t6[lo >>> 8 & 0xFF] ^ t5[lo >>> 16 & 0xFF] ^ t4[lo >>> 24] ^ t3[hi & 0xFF] ^ t2[hi >>> 8 & 0xFF] ^ t1[hi >>> 16 & 0xFF] ^ t0[hi >>> 24];
+            off += 8;
+            len -= 8;
+        }
+
+        while (len > 0) {
+            crc = crc >>> 8 ^ t0[(crc ^ b[off]) & 0xFF];
+            off++;
+            len--;
+        }
+
+        this.crc = crc;
+    }
+
+    @Override
+    public long getValue() {
+        return ~this.crc & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public void reset() {
+        this.crc = 0xFFFFFFFF;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.checksum;
+
+import java.lang.reflect.Constructor;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+/**
+ * Creates checksums for the checksum readers and writers.
+ *
+ * @author Joachim Vandersmissen
+ */
+public final class Checksums {
+    // The CRC-32C implementation of the JDK (Java 9+), which uses the CRC32 instructions of the processor, or null if not available.
+    private static final Constructor<? extends Checksum> JDK_CRC32C = jdkCrc32c();
+
+    private Checksums() {
+    }
+
+    private static Constructor<? extends Checksum> jdkCrc32c() {
+        try {
+            return Class.forName("java.util.zip.CRC32C").asSubclass(Checksum.class).getConstructor();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a new CRC-32C (Castagnoli) checksum, as used by iSCSI, ext4 and many storage formats.
+     * On Java 9+ the hardware accelerated implementation of the JDK is used, on Java 8 a pure Java implementation.
+     *
+     * @return the checksum
+     */
+    public static Checksum crc32c() {
+        if (JDK_CRC32C != null) {
+            try {
+                return JDK_CRC32C.newInstance();
+            } catch (ReflectiveOperationException e) {
+                // Fall back to the pure Java implementation.
+            }
+        }
+
+        return new CRC32C();
+    }
+
+    /**
+     * Creates a new CRC-32 checksum, as used by ZIP and gzip.
+     *
+     * @return the checksum
+     */
+    public static Checksum crc32() {
+        return new CRC32();
+    }
+
+    /**
+     * Creates a new Adler-32 checksum, as used by zlib. It is faster to compute than a CRC, but weaker for short data.
+     *
+     * @return the checksum
+     */
+    public static Checksum adler32() {
+        return new Adler32();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.compress;
+
+/**
+ * The formats of deflate compressed data supported by the inflater readers and deflater writers.
+ *
+ * @author Joachim Vandersmissen
+ */
+public enum DeflateFormat {
+    /**
+     * Deflate compressed data with a zlib header and an Adler-32 trailer (RFC 1950).
+     */
+    ZLIB,
+    /**
+     * Raw deflate compressed data, without header or trailer (RFC 1951).
+     */
+    RAW,
+    /**
+     * Deflate compressed data with a gzip header and a CRC-32 trailer (RFC 1952). Only a single gzip member is supported.
+     */
+    GZIP;
+
+    /**
+     * Returns whether the inflater or deflater for this format should omit the zlib header and trailer.
+     *
+     * @return true for raw and gzip data
+     */
+    public boolean nowrap() {
+        return this != ZLIB;
+    }
+}
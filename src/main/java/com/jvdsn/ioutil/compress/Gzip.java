@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.compress;
+
+import com.jvdsn.ioutil.reader.Reader;
+import com.jvdsn.ioutil.writer.Writer;
+
+import java.io.IOException;
+import java.util.zip.ZipException;
+
+/**
+ * Reads and writes the header and trailer of a gzip member (RFC 1952).
+ * Multi-byte fields are always little endian, regardless of the endianness of the reader or writer.
+ *
+ * @author Joachim Vandersmissen
+ */
+public final class Gzip {
+    /**
+     * The size of the header written by {@link #writeHeader(Writer)}.
+     */
+    public static final int HEADER_SIZE = 10;
+    /**
+     * The size of the trailer.
+     */
+    public static final int TRAILER_SIZE = 8;
+
+    private static final int MAGIC = 0x8B1F;
+    private static final int DEFLATE = 8;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int OS_UNKNOWN = 255;
+
+    private Gzip() {
+    }
+
+    /**
+     * Writes a minimal header, without modification time, file name or comment.
+     *
+     * @param writer the writer to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeHeader(Writer writer) throws IOException {
+        writer.writeBytes(new byte[]{(byte) MAGIC, (byte) (MAGIC >> 8), DEFLATE, 0, 0, 0, 0, 0, 0, (byte) OS_UNKNOWN});
+    }
+
+    /**
+     * Reads a header, skipping the optional fields.
+     *
+     * @param reader the reader to read from
+     * @throws ZipException if the header is not a valid gzip header
+     * @throws IOException  if an I/O error occurs
+     */
+    public static void readHeader(Reader reader) throws IOException {
+        if ((reader.readUnsignedByte() | reader.readUnsignedByte() << 8) != MAGIC) {
+            throw new ZipException("not in gzip format");
+        }
+
+        if (reader.readUnsignedByte() != DEFLATE) {
+            throw new ZipException("unsupported compression method");
+        }
+
+        int flags = reader.readUnsignedByte();
+        // Skip the modification time, extra flags and operating system.
+        reader.skip(6);
+        if ((flags & FEXTRA) != 0) {
+            reader.skip(reader.readUnsignedByte() | reader.readUnsignedByte() << 8);
+        }
+
+        if ((flags & FNAME) != 0) {
+            while (reader.readUnsignedByte() != 0) {
+                // Skip the zero terminated file name.
+            }
+        }
+
+        if ((flags & FCOMMENT) != 0) {
+            while (reader.readUnsignedByte() != 0) {
+                // Skip the zero terminated comment.
+            }
+        }
+
+        if ((flags & FHCRC) != 0) {
+            reader.skip(2);
+        }
+    }
+
+    /**
+     * Returns the trailer of a member.
+     *
+     * @param crc  the CRC-32 of the uncompressed data
+     * @param size the size of the uncompressed data
+     * @return the trailer
+     */
+    public static byte[] trailer(long crc, long size) {
+        byte[] trailer = new byte[TRAILER_SIZE];
+        for (int i = 0; i < 4; i++) {
+            trailer[i] = (byte) (crc >>> (i * 8));
+            trailer[4 + i] = (byte) (size >>> (i * 8));
+        }
+
+        return trailer;
+    }
+
+    /**
+     * Checks that a trailer matches the uncompressed data.
+     *
+     * @param trailer the trailer
+     * @param crc     the CRC-32 of the uncompressed data
+     * @param size    the size of the uncompressed data
+     * @throws ZipException if the trailer does not match
+     */
+    public static void checkTrailer(byte[] trailer, long crc, long size) throws ZipException {
+        long expectedCrc = 0;
+        long expectedSize = 0;
+        for (int i = 3; i >= 0; i--) {
+            expectedCrc = expectedCrc << 8 | trailer[i] & 0xFF;
+            expectedSize = expectedSize << 8 | trailer[4 + i] & 0xFF;
+        }
+
+        if (expectedCrc != (crc & 0xFFFFFFFFL)) {
+            throw new ZipException("corrupt gzip trailer: expected crc " + Long.toHexString(expectedCrc) + " but was " + Long.toHexString(crc & 0xFFFFFFFFL));
+        }
+
+        if (expectedSize != (size & 0xFFFFFFFFL)) {
+            throw new ZipException("corrupt gzip trailer: expected size " + expectedSize + " but was " + (size & 0xFFFFFFFFL));
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.compress;
+
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compresses blocks in the LZ4 block format, so they can be decompressed by any LZ4 implementation.
+ * The compressor is greedy and uses a single hash table, like the fast mode of the reference implementation: it trades compression ratio for speed.
+ * <p>
+ * A compressor keeps its hash table between blocks to avoid clearing it, so it is not thread-safe. Every block is compressed independently.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class LZ4Compressor {
+    static final int MIN_MATCH = 4;
+    // The last literals of a block, which are never part of a match.
+    static final int LAST_LITERALS = 5;
+    // The last match must start at least this many bytes before the end of the block.
+    static final int MF_LIMIT = 12;
+    static final int MAX_DISTANCE = 65535;
+    private static final int HASH_LOG = 12;
+    // Every 2^SKIP_TRIGGER failed attempts, the step between attempts increases, so incompressible data is skipped quickly.
+    private static final int SKIP_TRIGGER = 6;
+
+    // Maps the hashes of 4 byte sequences to their last index. Entries of previous blocks are verified before use, so the table is never cleared.
+    private final int[] table = new int[1 << HASH_LOG];
+
+    /**
+     * Returns the maximum length of a compressed block, which is slightly larger than the uncompressed block for incompressible data.
+     *
+     * @param length the length of the uncompressed block
+     * @return the maximum compressed length
+     */
+    public static int maxCompressedLength(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        return length + length / 255 + 16;
+    }
+
+    private static int readInt(byte[] bytes, int i) {
+        return bytes[i] & 0xFF | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF) << 16 | bytes[i + 3] << 24;
+    }
+
+    private static int hash(int i) {
+        return i * -1640531535 >>> (32 - HASH_LOG);
+    }
+
+    /**
+     * Compresses a block from an array into another array.
+     *
+     * @param src       the array to compress from
+     * @param srcStart  the index of the block
+     * @param srcLength the length of the block
+     * @param dest      the array to compress into
+     * @param destStart the index to compress to
+     * @return the length of the compressed block
+     * @throws IllegalArgumentException if less than {@link #maxCompressedLength(int)} bytes remain after the index in the destination
+     */
+    public int compress(byte[] src, int srcStart, int srcLength, byte[] dest, int destStart) {
+        if (srcStart < 0 || srcLength < 0 || srcStart > src.length - srcLength) {
+            throw new ArrayIndexOutOfBoundsException("block " + srcStart + "+" + srcLength + " is out of bounds for length " + src.length);
+        }
+
+        if (destStart < 0 || destStart > dest.length - maxCompressedLength(srcLength)) {
+            throw new IllegalArgumentException("destination does not have room for " + maxCompressedLength(srcLength) + " bytes");
+        }
+
+        int srcEnd = srcStart + srcLength;
+        int matchLimit = srcEnd - LAST_LITERALS;
+        int mfLimit = srcEnd - MF_LIMIT;
+        int anchor = srcStart;
+        int d = destStart;
+        if (srcLength > MF_LIMIT) {
+            int i = srcStart + 1;
+            this.table[hash(readInt(src, srcStart))] = srcStart;
+            search:
+            while (true) {
+                int match;
+                int attempts = 1 << SKIP_TRIGGER;
+                while (true) {
+                    if (i > mfLimit) {
+                        break search;
+                    }
+
+                    int h = hash(readInt(src, i));
+                    match = this.table[h];
+                    this.table[h] = i;
+                    if (match >= srcStart && match < i && i - match <= MAX_DISTANCE && readInt(src, match) == readInt(src, i)) {
+                        break;
+                    }
+
+                    i += attempts++ >>> SKIP_TRIGGER;
+                }
+
+                // Extend the match backwards into the literals, and forwards up to the last literals.
+                while (i > anchor && match > srcStart && src[i - 1] == src[match - 1]) {
+                    i--;
+                    match--;
+                }
+
+                int matchLength = MIN_MATCH;
+                while (i + matchLength < matchLimit && src[i + matchLength] == src[match + matchLength]) {
+                    matchLength++;
+                }
+
+                d = writeSequence(src, anchor, i - anchor, dest, d, i - match, matchLength);
+                i += matchLength;
+                anchor = i;
+                if (i > mfLimit) {
+                    break;
+                }
+
+                this.table[hash(readInt(src, i - 2))] = i - 2;
+            }
+        }
+
+        d = writeSequence(src, anchor, srcEnd - anchor, dest, d, 0, 0);
+        return d - destStart;
+    }
+
+    /**
+     * Compresses a block from the position to the limit of a byte buffer into another byte buffer, advancing the positions of both buffers.
+     * Heap buffers are compressed in place, direct buffers are copied into pooled arrays first.
+     *
+     * @param src  the byte buffer to compress from
+     * @param dest the byte buffer to compress into
+     * @return the length of the compressed block
+     * @throws IllegalArgumentException if less than {@link #maxCompressedLength(int)} bytes remain in the destination
+     */
+    public int compress(ByteBuffer src, ByteBuffer dest) {
+        int length = src.remaining();
+        if (dest.remaining() < maxCompressedLength(length)) {
+            throw new IllegalArgumentException("destination does not have room for " + maxCompressedLength(length) + " bytes");
+        }
+
+        byte[] srcBytes = src.hasArray() ? src.array() : BufferPool.DEFAULT.acquireBytes(length);
+        int srcStart = src.hasArray() ? src.arrayOffset() + src.position() : 0;
+        byte[] destBytes = dest.hasArray() ? dest.array() : BufferPool.DEFAULT.acquireBytes(maxCompressedLength(length));
+        int destStart = dest.hasArray() ? dest.arrayOffset() + dest.position() : 0;
+        try {
+            if (!src.hasArray()) {
+                src.duplicate().get(srcBytes, 0, length);
+            }
+
+            int n = this.compress(srcBytes, srcStart, length, destBytes, destStart);
+            if (dest.hasArray()) {
+                dest.position(dest.position() + n);
+            } else {
+                dest.put(destBytes, 0, n);
+            }
+
+            src.position(src.limit());
+            return n;
+        } finally {
+            if (!src.hasArray()) {
+                BufferPool.DEFAULT.releaseBytes(srcBytes);
+            }
+
+            if (!dest.hasArray()) {
+                BufferPool.DEFAULT.releaseBytes(destBytes);
+            }
+        }
+    }
+
+    /**
+     * Writes a sequence of literals followed by a match, or only literals if the match length is 0.
+     */
+    private static int writeSequence(byte[] src, int literals, int literalLength, byte[] dest, int d, int offset, int matchLength) {
+        int token = d++;
+        int high;
+        if (literalLength >= 15) {
+            high = 15;
+            d = writeLength(dest, d, literalLength - 15);
+        } else {
+            high = literalLength;
+        }
+
+        System.arraycopy(src, literals, dest, d, literalLength);
+        d += literalLength;
+        int low = 0;
+        if (matchLength > 0) {
+            dest[d++] = (byte) offset;
+            dest[d++] = (byte) (offset >>> 8);
+            if (matchLength - MIN_MATCH >= 15) {
+                low = 15;
+                d = writeLength(dest, d, matchLength - MIN_MATCH - 15);
+            } else {
+                low = matchLength - MIN_MATCH;
+            }
+        }
+
+        dest[token] = (byte) (high << 4 | low);
+        return d;
+    }
+
+    private static int writeLength(byte[] dest, int d, int length) {
+        while (length >= 255) {
+            dest[d++] = (byte) 255;
+            length -= 255;
+        }
+
+        dest[d++] = (byte) length;
+        return d;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.compress;
+
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Decompresses blocks in the LZ4 block format, as written by {@link LZ4Compressor} or any other LZ4 implementation.
+ * Literals and matches are copied with {@link System#arraycopy(Object, int, Object, int, int)}, overlapping matches in doubling chunks.
+ * Every length and offset is checked, so corrupt blocks never read or write out of bounds.
+ *
+ * @author Joachim Vandersmissen
+ */
+public final class LZ4Decompressor {
+    private LZ4Decompressor() {
+    }
+
+    private static IOException corrupt(int index) {
+        return new IOException("corrupt LZ4 block at index " + index);
+    }
+
+    /**
+     * Decompresses a block from an array into another array.
+     *
+     * @param src        the array to decompress from
+     * @param srcStart   the index of the compressed block
+     * @param srcLength  the length of the compressed block
+     * @param dest       the array to decompress into
+     * @param destStart  the index to decompress to
+     * @param destLength the maximum length of the decompressed block
+     * @return the length of the decompressed block
+     * @throws IOException if the block is corrupt, or its decompressed length is more than the maximum length
+     */
+    public static int decompress(byte[] src, int srcStart, int srcLength, byte[] dest, int destStart, int destLength) throws IOException {
+        if (srcStart < 0 || srcLength < 0 || srcStart > src.length - srcLength) {
+            throw new ArrayIndexOutOfBoundsException("block " + srcStart + "+" + srcLength + " is out of bounds for length " + src.length);
+        }
+
+        if (destStart < 0 || destLength < 0 || destStart > dest.length - destLength) {
+            throw new ArrayIndexOutOfBoundsException("block " + destStart + "+" + destLength + " is out of bounds for length " + dest.length);
+        }
+
+        int srcEnd = srcStart + srcLength;
+        int destEnd = destStart + destLength;
+        int s = srcStart;
+        int d = destStart;
+        while (true) {
+            if (s >= srcEnd) {
+                throw corrupt(s);
+            }
+
+            int token = src[s++] & 0xFF;
+            int literalLength = token >>> 4;
+            if (literalLength == 15) {
+                int b;
+                do {
+                    if (s >= srcEnd) {
+                        throw corrupt(s);
+                    }
+
+                    b = src[s++] & 0xFF;
+                    literalLength += b;
+                } while (b == 255);
+            }
+
+            if (literalLength < 0 || literalLength > srcEnd - s || literalLength > destEnd - d) {
+                throw corrupt(s);
+            }
+
+            System.arraycopy(src, s, dest, d, literalLength);
+            s += literalLength;
+            d += literalLength;
+            if (s == srcEnd) {
+                // The last sequence only has literals.
+                return d - destStart;
+            }
+
+            if (s > srcEnd - 2) {
+                throw corrupt(s);
+            }
+
+            int offset = src[s] & 0xFF | (src[s + 1] & 0xFF) << 8;
+            if (offset == 0 || offset > d - destStart) {
+                throw corrupt(s);
+            }
+
+            s += 2;
+            int matchLength = token & 0x0F;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    if (s >= srcEnd) {
+                        throw corrupt(s);
+                    }
+
+                    b = src[s++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+
+            matchLength += LZ4Compressor.MIN_MATCH;
+            if (matchLength < 0 || matchLength > destEnd - d) {
+                throw corrupt(s);
+            }
+
+            // The match may overlap the bytes it produces, which repeats the last offset bytes.
+            // The distance between the copied and produced bytes grows with every chunk, so the chunks double in size.
+            int match = d - offset;
+            while (matchLength > 0) {
+                int n = Math.min(matchLength, d - match);
+                System.arraycopy(dest, match, dest, d, n);
+                d += n;
+                matchLength -= n;
+            }
+        }
+    }
+
+    /**
+     * Decompresses a block from the position to the limit of a byte buffer into another byte buffer, advancing the positions of both buffers.
+     * Heap buffers are decompressed in place, direct buffers are copied from or into pooled arrays.
+     *
+     * @param src  the byte buffer to decompress from
+     * @param dest the byte buffer to decompress into, from its position up to its limit
+     * @return the length of the decompressed block
+     * @throws IOException if the block is corrupt, or its decompressed length is more than the bytes remaining in the destination
+     */
+    public static int decompress(ByteBuffer src, ByteBuffer dest) throws IOException {
+        int srcLength = src.remaining();
+        int destLength = dest.remaining();
+        byte[] srcBytes = src.hasArray() ? src.array() : BufferPool.DEFAULT.acquireBytes(srcLength);
+        int srcStart = src.hasArray() ? src.arrayOffset() + src.position() : 0;
+        byte[] destBytes = dest.hasArray() ? dest.array() : BufferPool.DEFAULT.acquireBytes(destLength);
+        int destStart = dest.hasArray() ? dest.arrayOffset() + dest.position() : 0;
+        try {
+            if (!src.hasArray()) {
+                src.duplicate().get(srcBytes, 0, srcLength);
+            }
+
+            int n = decompress(srcBytes, srcStart, srcLength, destBytes, destStart, destLength);
+            if (dest.hasArray()) {
+                dest.position(dest.position() + n);
+            } else {
+                dest.put(destBytes, 0, n);
+            }
+
+            src.position(src.limit());
+            return n;
+        } finally {
+            if (!src.hasArray()) {
+                BufferPool.DEFAULT.releaseBytes(srcBytes);
+            }
+
+            if (!dest.hasArray()) {
+                BufferPool.DEFAULT.releaseBytes(destBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.compress;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A pool of inflaters and deflaters.
+ * Every inflater and deflater holds a native zlib context, which is expensive to create and is only freed when it is ended (or finalized),
+ * so reusing them is much cheaper than creating one per stream.
+ * Released inflaters and deflaters are reset and kept idle, up to a maximum amount per kind, any others are ended.
+ * <p>
+ * An inflater or deflater must not be used anymore after it has been released, and must not be released more than once.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ZlibPool {
+    /**
+     * The default maximum amount of idle inflaters or deflaters per kind.
+     */
+    public static final int DEFAULT_MAX_IDLE = 16;
+    /**
+     * The pool used by default by the inflater readers and deflater writers in this library.
+     */
+    public static final ZlibPool DEFAULT = new ZlibPool(DEFAULT_MAX_IDLE);
+
+    private final BlockingQueue<Inflater> inflaters;
+    private final BlockingQueue<Inflater> nowrapInflaters;
+    private final BlockingQueue<Deflater> deflaters;
+    private final BlockingQueue<Deflater> nowrapDeflaters;
+
+    /**
+     * Constructs a new pool.
+     *
+     * @param maxIdle the maximum amount of idle inflaters or deflaters per kind
+     */
+    public ZlibPool(int maxIdle) {
+        if (maxIdle <= 0) {
+            throw new IllegalArgumentException("maximum idle " + maxIdle + " is not positive");
+        }
+
+        this.inflaters = new ArrayBlockingQueue<>(maxIdle);
+        this.nowrapInflaters = new ArrayBlockingQueue<>(maxIdle);
+        this.deflaters = new ArrayBlockingQueue<>(maxIdle);
+        this.nowrapDeflaters = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    /**
+     * Acquires an inflater, creating a new one if none is idle.
+     *
+     * @param nowrap whether the inflater should omit the zlib header and trailer
+     * @return the inflater
+     */
+    public Inflater acquireInflater(boolean nowrap) {
+        Inflater inflater = (nowrap ? this.nowrapInflaters : this.inflaters).poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    /**
+     * Releases an inflater, resetting it so it can be acquired again.
+     *
+     * @param inflater the inflater
+     * @param nowrap   the value it was acquired with
+     */
+    public void releaseInflater(Inflater inflater, boolean nowrap) {
+        inflater.reset();
+        if (!(nowrap ? this.nowrapInflaters : this.inflaters).offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Acquires a deflater, creating a new one if none is idle.
+     *
+     * @param level    the compression level, from 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param strategy the compression strategy, one of {@link Deflater#DEFAULT_STRATEGY}, {@link Deflater#FILTERED} and {@link Deflater#HUFFMAN_ONLY}
+     * @param nowrap   whether the deflater should omit the zlib header and trailer
+     * @return the deflater
+     */
+    public Deflater acquireDeflater(int level, int strategy, boolean nowrap) {
+        Deflater deflater = (nowrap ? this.nowrapDeflaters : this.deflaters).poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, nowrap);
+        }
+
+        // A reset deflater has no input yet, so the parameters apply to all data.
+        deflater.setLevel(level);
+        deflater.setStrategy(strategy);
+        return deflater;
+    }
+
+    /**
+     * Releases a deflater, resetting it so it can be acquired again.
+     *
+     * @param deflater the deflater
+     * @param nowrap   the value it was acquired with
+     */
+    public void releaseDeflater(Deflater deflater, boolean nowrap) {
+        deflater.reset();
+        if (!(nowrap ? this.nowrapDeflaters : this.deflaters).offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Ends all idle inflaters and deflaters, freeing their native contexts.
+     */
+    public void clear() {
+        Inflater inflater;
+        while ((inflater = this.inflaters.poll()) != null || (inflater = this.nowrapInflaters.poll()) != null) {
+            inflater.end();
+        }
+
+        Deflater deflater;
+        while ((deflater = this.deflaters.poll()) != null || (deflater = this.nowrapDeflaters.poll()) != null) {
+            deflater.end();
+        }
+    }
+}
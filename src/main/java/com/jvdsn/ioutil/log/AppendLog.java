@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.log;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.reader.ByteBufferReader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An append-only log of records in a byte buffer, usually a mapped file, which many threads can append to concurrently.
+ * <p>
+ * A thread appends a record by reserving space for it, which only takes a compare-and-set on the tail of the log.
+ * The record is then written through a writer belonging to that thread, without any further coordination, and committed.
+ * Every record starts with a header of {@link #HEADER_SIZE} bytes, holding the length of the record plus 1. This header is written last, as the commit marker:
+ * a header of 0 means the record is not committed (yet), so a reader never sees a partially written record. Records are aligned to {@link #ALIGNMENT} bytes.
+ * <p>
+ * Records are committed in any order, so a reader stops at the first record which is not committed yet, even if records after it are.
+ * Every reserved record should therefore be committed, or readers will never get past it.
+ * <p>
+ * When a log is reopened, the bytes after the last committed record are cleared before anything is appended.
+ * Records which were reserved but not committed before a crash, and the records after them, are lost.
+ * Otherwise, their stale headers could be taken for committed records once new records with other lengths were appended over them.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class AppendLog implements AutoCloseable {
+    /**
+     * The size of the header of a record.
+     */
+    public static final int HEADER_SIZE = 4;
+    /**
+     * The alignment of the records in the log.
+     */
+    public static final int ALIGNMENT = 4;
+
+    protected final Endianness endianness;
+    protected final ByteBuffer buffer;
+    // The original buffer if the log mapped the file, as a slice of it can not be forced on Java 8.
+    protected final MappedByteBuffer mapped;
+    protected final FileChannel channel;
+    protected final AtomicLong tail;
+    private final ThreadLocal<AppendLogWriter> writers;
+
+    /**
+     * Constructs a new append log in the bytes between the position and the limit of a byte buffer.
+     * The log continues after the last committed record already in the buffer, so an existing log can be reopened.
+     * The buffer should be a direct buffer, on Java 8 the headers of a heap buffer are not accessed atomically.
+     *
+     * @param endianness the endianness of the log
+     * @param buffer     the byte buffer to store the log in
+     */
+    public AppendLog(Endianness endianness, ByteBuffer buffer) {
+        this(endianness, buffer, null);
+    }
+
+    /**
+     * Constructs a new append log in a file, mapping size bytes starting at the start of the file.
+     * The log continues after the last committed record already in the file, so an existing log can be reopened. The file channel is closed when the log is closed.
+     *
+     * @param endianness the endianness of the log
+     * @param channel    the file channel to map, which should be readable and writable
+     * @param size       the size of the log in bytes
+     * @throws IOException if an I/O error occurs
+     */
+    public AppendLog(Endianness endianness, FileChannel channel, int size) throws IOException {
+        this(endianness, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), channel);
+    }
+
+    private AppendLog(Endianness endianness, ByteBuffer buffer, FileChannel channel) {
+        this.endianness = endianness;
+        // Positions in the log are relative to the slice.
+        this.buffer = buffer.slice().order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        // Every direct buffer is a MappedByteBuffer, but on Java 8 forcing one which does not map a file throws.
+        this.mapped = channel != null ? (MappedByteBuffer) buffer : null;
+        this.channel = channel;
+        this.tail = new AtomicLong(this.recover());
+        this.writers = ThreadLocal.withInitial(() -> new AppendLogWriter(this.endianness, this.buffer));
+    }
+
+    private long recover() {
+        long position = 0;
+        while (this.isCommitted(position)) {
+            position = this.next(position);
+        }
+
+        // Only bytes which are not zero are written, so the pages of an empty log are not dirtied.
+        boolean cleared = false;
+        int capacity = this.buffer.capacity();
+        int i = (int) position;
+        for (; i <= capacity - 4; i += 4) {
+            if (this.buffer.getInt(i) != 0) {
+                this.buffer.putInt(i, 0);
+                cleared = true;
+            }
+        }
+
+        for (; i < capacity; i++) {
+            if (this.buffer.get(i) != 0) {
+                this.buffer.put(i, (byte) 0);
+                cleared = true;
+            }
+        }
+
+        // The cleared headers have to be stored before any new record is, or a crash could bring them back.
+        if (cleared && this.mapped != null) {
+            this.mapped.force();
+        }
+
+        return position;
+    }
+
+    /**
+     * Returns the amount of bytes a record of length bytes takes in the log, including its header and alignment.
+     *
+     * @param length the length of the record
+     * @return the size in the log
+     */
+    public static int size(int length) {
+        return HEADER_SIZE + length + ALIGNMENT - 1 & -ALIGNMENT;
+    }
+
+    /**
+     * Returns the size of the log in bytes.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return this.buffer.capacity();
+    }
+
+    /**
+     * Returns the position after the last reserved record.
+     *
+     * @return the tail
+     */
+    public long tail() {
+        return this.tail.get();
+    }
+
+    /**
+     * Reserves space for a record, and returns the writer of the current thread to write the record with.
+     * The writer only accepts length bytes, and commits the record when it is committed or closed.
+     *
+     * @param length the length of the record
+     * @return the writer
+     * @throws EOFException          if the log is full
+     * @throws IllegalStateException if the current thread has not committed its previous record yet
+     */
+    public AppendLogWriter reserve(int length) throws EOFException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        AppendLogWriter writer = this.writers.get();
+        if (writer.isReserved()) {
+            throw new IllegalStateException("previous record has not been committed");
+        }
+
+        int size = size(length);
+        long position;
+        do {
+            position = this.tail.get();
+            if (position > this.buffer.capacity() - size) {
+                throw EndOfStream.exception();
+            }
+        } while (!this.tail.compareAndSet(position, position + size));
+
+        writer.bind((int) position, length);
+        return writer;
+    }
+
+    /**
+     * Returns whether the record at a position has been committed.
+     *
+     * @param position the position of the record
+     * @return true if the record can be read
+     */
+    public boolean isCommitted(long position) {
+        return position <= this.buffer.capacity() - HEADER_SIZE && this.header(position) != 0;
+    }
+
+    /**
+     * Returns the position of the record after the committed record at a position.
+     *
+     * @param position the position of the record
+     * @return the position of the next record
+     * @throws IllegalStateException if the record has not been committed
+     */
+    public long next(long position) {
+        return position + size(this.length(position));
+    }
+
+    private int header(long position) {
+        int header = this.buffer.getInt((int) position);
+        // The record was written before its header, make sure it is not read before the header either.
+        Fences.acquireFence();
+        return header;
+    }
+
+    private int length(long position) {
+        int header = this.header(position);
+        if (header == 0) {
+            throw new IllegalStateException("record at " + position + " has not been committed");
+        }
+
+        return header - 1;
+    }
+
+    /**
+     * Returns a reader reading the committed record at a position, or null if the record has not been committed yet.
+     *
+     * @param position the position of the record
+     * @return the reader, or null
+     */
+    public ByteBufferReader read(long position) {
+        if (!this.isCommitted(position)) {
+            return null;
+        }
+
+        int length = this.length(position);
+        ByteBuffer record = this.buffer.duplicate();
+        record.position((int) position + HEADER_SIZE);
+        record.limit((int) position + HEADER_SIZE + length);
+        return new ByteBufferReader(this.endianness, record.slice());
+    }
+
+    /**
+     * Forces the committed records to the storage device, if the log mapped a file.
+     * A log constructed from a byte buffer is not forced, a mapped byte buffer should be forced by its owner.
+     */
+    public void force() {
+        if (this.mapped != null) {
+            this.mapped.force();
+        }
+    }
+
+    /**
+     * Closes the file channel, if the log is stored in a file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.channel != null) {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.log;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.writer.ByteBufferWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes one reserved record of an append log at a time. Every thread has its own writer per log.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class AppendLogWriter extends ByteBufferWriter {
+    // The position of the header of the reserved record, or -1 if no record is reserved.
+    protected int header = -1;
+    protected int length;
+
+    AppendLogWriter(Endianness endianness, ByteBuffer log) {
+        super(endianness, log);
+    }
+
+    void bind(int header, int length) {
+        this.header = header;
+        this.length = length;
+        this.buffer.clear();
+        this.buffer.position(header + AppendLog.HEADER_SIZE);
+        this.buffer.limit(header + AppendLog.HEADER_SIZE + length);
+    }
+
+    /**
+     * Returns whether a record is reserved and not committed yet.
+     *
+     * @return true if a record is reserved
+     */
+    public boolean isReserved() {
+        return this.header >= 0;
+    }
+
+    /**
+     * Commits the reserved record, making it visible to readers.
+     * Bytes of the record which were not written are zero, if the log was zeroed initially.
+     *
+     * @throws IllegalStateException if no record is reserved
+     */
+    public void commit() {
+        if (this.header < 0) {
+            throw new IllegalStateException("no record is reserved");
+        }
+
+        // Make sure the record is written before its header.
+        Fences.releaseFence();
+        this.buffer.putInt(this.header, this.length + 1);
+        this.header = -1;
+        this.buffer.position(this.buffer.limit());
+    }
+
+    /**
+     * Commits the reserved record, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.header >= 0) {
+            this.commit();
+        }
+    }
+}
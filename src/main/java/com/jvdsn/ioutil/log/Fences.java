@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.log;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Memory fences for data in byte buffers, which cannot be accessed with volatile semantics in Java 8.
+ * The fences of VarHandle are used if available (Java 9+), otherwise those of sun.misc.Unsafe (Java 8).
+ *
+ * @author Joachim Vandersmissen
+ */
+final class Fences {
+    private static final MethodHandle RELEASE_FENCE;
+    private static final MethodHandle ACQUIRE_FENCE;
+    // Only used if neither fence implementation is available.
+    private static volatile int fallback;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType type = MethodType.methodType(void.class);
+        MethodHandle releaseFence = null;
+        MethodHandle acquireFence = null;
+        try {
+            Class<?> varHandle = Class.forName("java.lang.invoke.VarHandle");
+            releaseFence = lookup.findStatic(varHandle, "releaseFence", type);
+            acquireFence = lookup.findStatic(varHandle, "acquireFence", type);
+        } catch (ReflectiveOperationException e) {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                Object unsafe = field.get(null);
+                releaseFence = lookup.findVirtual(unsafeClass, "storeFence", type).bindTo(unsafe);
+                acquireFence = lookup.findVirtual(unsafeClass, "loadFence", type).bindTo(unsafe);
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                releaseFence = null;
+                acquireFence = null;
+            }
+        }
+
+        RELEASE_FENCE = releaseFence;
+        ACQUIRE_FENCE = acquireFence;
+    }
+
+    private Fences() {
+    }
+
+    /**
+     * Prevents loads and stores before the fence from being reordered with stores after the fence.
+     */
+    static void releaseFence() {
+        if (RELEASE_FENCE == null) {
+            fallback = 0;
+            return;
+        }
+
+        try {
+            RELEASE_FENCE.invokeExact();
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Prevents loads before the fence from being reordered with loads and stores after the fence.
+     */
+    static void acquireFence() {
+        if (ACQUIRE_FENCE == null) {
+            int ignored = fallback;
+            return;
+        }
+
+        try {
+            ACQUIRE_FENCE.invokeExact();
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
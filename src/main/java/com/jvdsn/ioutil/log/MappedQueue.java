@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.log;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * The layout of a mapped queue, shared by {@link MappedQueueWriter} and {@link MappedQueueReader}.
+ * <p>
+ * A queue is a directory of files of a fixed size, numbered by their cycle. Every file starts with a header of {@link #HEADER_SIZE} bytes:
+ * a magic number, a flag which is set once the writer has moved on to the next file, and the committed position, after the last committed record.
+ * Every record is prefixed by its length as an int. The index of a record combines the cycle of its file and its position in the file.
+ *
+ * @author Joachim Vandersmissen
+ */
+final class MappedQueue {
+    static final int MAGIC = 0x494F5551;
+    static final int HEADER_SIZE = 64;
+    static final int MAGIC_OFFSET = 0;
+    static final int SEALED_OFFSET = 4;
+    static final int COMMITTED_OFFSET = 8;
+    static final String SUFFIX = ".queue";
+
+    private MappedQueue() {
+    }
+
+    static Path path(Path directory, int cycle) {
+        return directory.resolve(String.format("%010d", cycle) + SUFFIX);
+    }
+
+    /**
+     * Returns the cycles of the files in a queue directory, in order.
+     *
+     * @param directory the queue directory
+     * @return the cycles
+     * @throws IOException if an I/O error occurs
+     */
+    static int[] cycles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> path.getFileName().toString())
+                    .filter(name -> name.matches("\\d{10}\\.queue"))
+                    .mapToInt(name -> Integer.parseInt(name.substring(0, 10)))
+                    .sorted()
+                    .toArray();
+        }
+    }
+
+    static long index(int cycle, int position) {
+        return (long) cycle << 32 | position;
+    }
+
+    static int cycle(long index) {
+        return (int) (index >>> 32);
+    }
+
+    static int position(long index) {
+        return (int) index;
+    }
+
+    static void check(MappedByteBuffer map, Path path) throws IOException {
+        if (map.capacity() < HEADER_SIZE || map.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException(path + " is not a queue file of this endianness");
+        }
+    }
+
+    /**
+     * Returns the committed position of a queue file. Records before it are visible after this returns.
+     *
+     * @param map the mapped queue file
+     * @return the committed position
+     */
+    static int committed(MappedByteBuffer map) {
+        int committed = (int) map.getLong(COMMITTED_OFFSET);
+        Fences.acquireFence();
+        return committed;
+    }
+
+    static boolean sealed(MappedByteBuffer map) {
+        boolean sealed = map.getInt(SEALED_OFFSET) != 0;
+        Fences.acquireFence();
+        return sealed;
+    }
+}
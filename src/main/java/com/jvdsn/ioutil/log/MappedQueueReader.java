@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.log;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.reader.ByteBufferReader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tails a mapped queue, possibly while another process is writing it with a {@link MappedQueueWriter}.
+ * The reader moves from record to record with {@link #next()}, and reads the current record like any other reader.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class MappedQueueReader extends ByteBufferReader {
+    protected final Path directory;
+    protected int cycle;
+    protected MappedByteBuffer map;
+    // The position of the current record.
+    protected int current;
+    // The position of the next record.
+    protected int next;
+
+    /**
+     * Constructs a new mapped queue reader, starting before the first record of the first file in the directory.
+     *
+     * @param endianness the endianness of the reader
+     * @param directory  the queue directory
+     * @throws IOException if an I/O error occurs
+     */
+    public MappedQueueReader(Endianness endianness, Path directory) throws IOException {
+        super(endianness, ByteBuffer.allocate(0));
+        this.directory = directory;
+        int[] cycles = MappedQueue.cycles(directory);
+        if (cycles.length == 0) {
+            throw new IOException(directory + " does not contain a queue");
+        }
+
+        this.open(cycles[0]);
+        this.next = MappedQueue.HEADER_SIZE;
+    }
+
+    private void open(int cycle) throws IOException {
+        this.map = this.map(cycle);
+        this.cycle = cycle;
+        this.current = -1;
+    }
+
+    private MappedByteBuffer map(int cycle) throws IOException {
+        Path path = MappedQueue.path(this.directory, cycle);
+        MappedByteBuffer map;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        map.order(this.endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        MappedQueue.check(map, path);
+        return map;
+    }
+
+    /**
+     * Moves the reader to the next committed record, if there is one.
+     * If there is none (yet), the reader stays at the current record, and this can be called again later.
+     *
+     * @return true if the reader moved to the next record
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean next() throws IOException {
+        if (this.map == null) {
+            throw EndOfStream.exception();
+        }
+
+        while (true) {
+            // Check if the file is sealed before checking the committed position, so the last records are not missed.
+            boolean sealed = MappedQueue.sealed(this.map);
+            if (this.next < MappedQueue.committed(this.map)) {
+                int length = this.map.getInt(this.next);
+                ByteBuffer record = this.map.duplicate();
+                record.position(this.next + 4);
+                record.limit(this.next + 4 + length);
+                this.reset(record.slice());
+                this.current = this.next;
+                this.next += 4 + length;
+                return true;
+            }
+
+            if (!sealed) {
+                return false;
+            }
+
+            this.open(this.cycle + 1);
+            this.next = MappedQueue.HEADER_SIZE;
+        }
+    }
+
+    /**
+     * Returns the index of the current record.
+     *
+     * @return the index
+     * @throws IllegalStateException if the reader is not at a record
+     */
+    public long index() {
+        if (this.current < 0) {
+            throw new IllegalStateException("not at a record");
+        }
+
+        return MappedQueue.index(this.cycle, this.current);
+    }
+
+    /**
+     * Moves the reader before the record with an index, so {@link #next()} moves to that record.
+     * The index should have been returned by a writer or reader of the same queue.
+     *
+     * @param index the index of the record
+     * @throws EOFException if the record has not been committed, in which case the reader is not moved
+     * @throws IOException  if an I/O error occurs
+     */
+    public void moveTo(long index) throws IOException {
+        int cycle = MappedQueue.cycle(index);
+        int position = MappedQueue.position(index);
+        // The file is only switched to once the position is valid, so the reader stays where it was otherwise.
+        MappedByteBuffer map = this.map(cycle);
+        if (position < MappedQueue.HEADER_SIZE || position >= MappedQueue.committed(map)) {
+            throw EndOfStream.exception();
+        }
+
+        this.map = map;
+        this.cycle = cycle;
+        this.current = -1;
+        this.next = position;
+        this.reset(ByteBuffer.allocate(0));
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        this.map = null;
+    }
+}
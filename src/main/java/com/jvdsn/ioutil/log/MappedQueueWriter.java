@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.log;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.writer.ByteBufferWriter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends records to a mapped queue, which other processes can tail with a {@link MappedQueueReader} while it is being written.
+ * A queue should only have one writer at a time.
+ * <p>
+ * The bytes of a record are written directly to the mapped file, and become visible to readers when the record is committed.
+ * When a record does not fit in the current file anymore, the writer rolls over to a new file and moves the record there.
+ * A record can therefore be at most {@link #maxRecordSize()} bytes long.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class MappedQueueWriter extends ByteBufferWriter {
+    /**
+     * The default size of a queue file.
+     */
+    public static final int DEFAULT_FILE_SIZE = 64 << 20;
+
+    protected final Path directory;
+    protected final int fileSize;
+    protected int cycle;
+    protected FileChannel channel;
+    protected MappedByteBuffer map;
+    // The position of the length of the current record.
+    protected int start;
+
+    /**
+     * Constructs a new mapped queue writer, appending to the last file in the directory or creating the first one.
+     *
+     * @param endianness the endianness of the writer
+     * @param directory  the queue directory, which should exist
+     * @param fileSize   the size of the queue files
+     * @throws IOException if an I/O error occurs
+     */
+    public MappedQueueWriter(Endianness endianness, Path directory, int fileSize) throws IOException {
+        super(endianness, ByteBuffer.allocate(0));
+        if (fileSize <= MappedQueue.HEADER_SIZE + 4) {
+            throw new IllegalArgumentException("file size " + fileSize + " is too small");
+        }
+
+        this.directory = directory;
+        this.fileSize = fileSize;
+        int[] cycles = MappedQueue.cycles(directory);
+        if (cycles.length == 0) {
+            this.create(0);
+        } else {
+            if (cycles.length > 1) {
+                // The previous writer could have stopped between creating the last file and sealing the one before it.
+                this.seal(cycles[cycles.length - 2]);
+            }
+
+            this.open(cycles[cycles.length - 1]);
+        }
+    }
+
+    /**
+     * Constructs a new mapped queue writer with the default file size.
+     *
+     * @param endianness the endianness of the writer
+     * @param directory  the queue directory, which should exist
+     * @throws IOException if an I/O error occurs
+     */
+    public MappedQueueWriter(Endianness endianness, Path directory) throws IOException {
+        this(endianness, directory, DEFAULT_FILE_SIZE);
+    }
+
+    private void open(int cycle) throws IOException {
+        Path path = MappedQueue.path(this.directory, cycle);
+        this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.map(cycle, this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.channel.size()));
+        MappedQueue.check(this.map, path);
+        this.start = MappedQueue.committed(this.map);
+        if (this.start + 4 > this.buffer.limit()) {
+            // The previous writer committed a record which filled the file, without rolling over to a new one.
+            this.buffer.position(this.buffer.limit());
+            this.roll();
+        } else {
+            this.buffer.position(this.start + 4);
+        }
+    }
+
+    private void create(int cycle) throws IOException {
+        // Initialize the file before giving it its name, so readers never see an incomplete file.
+        Path path = MappedQueue.path(this.directory, cycle);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.map(cycle, this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.fileSize));
+        this.map.putInt(MappedQueue.MAGIC_OFFSET, MappedQueue.MAGIC);
+        this.map.putLong(MappedQueue.COMMITTED_OFFSET, MappedQueue.HEADER_SIZE);
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        this.start = MappedQueue.HEADER_SIZE;
+        this.buffer.position(this.start + 4);
+    }
+
+    private void seal(int cycle) throws IOException {
+        try (FileChannel channel = FileChannel.open(MappedQueue.path(this.directory, cycle), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.map(FileChannel.MapMode.READ_WRITE, 0, MappedQueue.HEADER_SIZE).putInt(MappedQueue.SEALED_OFFSET, 1);
+        }
+    }
+
+    private void map(int cycle, MappedByteBuffer map) {
+        this.cycle = cycle;
+        this.map = map;
+        this.map.order(this.endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        this.reset(map);
+    }
+
+    /**
+     * Returns the maximum size of a record.
+     *
+     * @return the maximum size
+     */
+    public int maxRecordSize() {
+        return this.fileSize - MappedQueue.HEADER_SIZE - 4;
+    }
+
+    /**
+     * Returns the index the current record will have once it is committed.
+     * The index changes if the record is moved to a new file while it is written.
+     *
+     * @return the index
+     */
+    public long index() {
+        return MappedQueue.index(this.cycle, this.start);
+    }
+
+    /**
+     * Makes sure at least length bytes can be written to the current record, rolling over to a new file if necessary.
+     *
+     * @param length the amount of bytes
+     * @throws EOFException if the record would become larger than the maximum size
+     */
+    @Override
+    protected void require(int length) throws EOFException {
+        if (this.map == null) {
+            throw EndOfStream.exception();
+        }
+
+        if (this.buffer.remaining() >= length) {
+            return;
+        }
+
+        int written = this.buffer.position() - this.start - 4;
+        if ((long) written + length > this.maxRecordSize()) {
+            throw EndOfStream.exception();
+        }
+
+        try {
+            this.roll();
+        } catch (IOException e) {
+            // Not the shared exception of stackless mode, which must not get a cause.
+            EOFException exception = new EOFException("Could not roll over to a new file.");
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    private void roll() throws IOException {
+        MappedByteBuffer previous = this.map;
+        FileChannel previousChannel = this.channel;
+        ByteBuffer record = this.buffer.duplicate();
+        record.limit(this.buffer.position());
+        record.position(Math.min(this.start + 4, record.limit()));
+
+        this.create(this.cycle + 1);
+        this.buffer.put(record);
+
+        // Readers only move on to the new file once the previous file is sealed, which happens after the new file exists.
+        Fences.releaseFence();
+        previous.putInt(MappedQueue.SEALED_OFFSET, 1);
+        previousChannel.close();
+    }
+
+    /**
+     * Commits the current record, making it visible to readers, and starts a new record.
+     *
+     * @return the index of the committed record
+     * @throws IOException if the writer has been closed or an I/O error occurs
+     */
+    public long commit() throws IOException {
+        if (this.map == null) {
+            throw EndOfStream.exception();
+        }
+
+        long index = this.index();
+        int end = this.buffer.position();
+        this.map.putInt(this.start, end - this.start - 4);
+        // Make sure the record is written before the committed position.
+        Fences.releaseFence();
+        this.map.putLong(MappedQueue.COMMITTED_OFFSET, end);
+        this.start = end;
+        if (this.buffer.remaining() < 4) {
+            this.roll();
+        } else {
+            this.buffer.position(end + 4);
+        }
+
+        return index;
+    }
+
+    /**
+     * Forces the committed records of the current file to the storage device.
+     */
+    @Override
+    public void flush() {
+        if (this.map != null) {
+            this.map.force();
+        }
+    }
+
+    /**
+     * Closes the current file. The current record is discarded if it has not been committed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.map == null) {
+            return;
+        }
+
+        this.map = null;
+        this.channel.close();
+    }
+}
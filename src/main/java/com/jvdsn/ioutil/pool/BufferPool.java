@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.pool;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of byte arrays, char arrays and direct byte buffers.
+ * Buffers are grouped in power of two size classes, so an acquired buffer can be larger than requested.
+ * Every size class has a small cache per thread, backed by a shared tier which is striped to reduce contention.
+ * Buffers larger than the maximum size class are allocated on every request and never pooled.
+ * <p>
+ * A buffer must not be used anymore after it has been released, and must not be released more than once.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class BufferPool {
+    /**
+     * The size of the smallest size class.
+     */
+    public static final int MIN_BUFFER_SIZE = 1 << 6;
+    /**
+     * The default size of the largest size class.
+     */
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 1 << 20;
+    /**
+     * The default amount of bytes which can be cached per thread and per size class.
+     */
+    public static final int DEFAULT_THREAD_CACHE_BYTES = 1 << 18;
+    /**
+     * The default amount of stripes in the shared tier.
+     */
+    public static final int DEFAULT_STRIPES = 8;
+    /**
+     * The default amount of bytes which can be retained per stripe and per size class.
+     */
+    public static final int DEFAULT_STRIPE_BYTES = 1 << 20;
+    /**
+     * The buffer pool used by default by the readers, writers and string encodings in this library.
+     */
+    public static final BufferPool DEFAULT = new BufferPool();
+
+    private final LongAdder threadCacheHits = new LongAdder();
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+    private final SizeClassPool<byte[]> bytes;
+    private final SizeClassPool<char[]> chars;
+    private final SizeClassPool<ByteBuffer> directBuffers;
+
+    /**
+     * Constructs a new buffer pool.
+     *
+     * @param maxBufferSize    the size of the largest size class, a power of two
+     * @param threadCacheBytes the amount of bytes which can be cached per thread and per size class
+     * @param stripes          the amount of stripes in the shared tier, a power of two
+     * @param stripeBytes      the amount of bytes which can be retained per stripe and per size class
+     */
+    public BufferPool(int maxBufferSize, int threadCacheBytes, int stripes, int stripeBytes) {
+        if (maxBufferSize < MIN_BUFFER_SIZE || Integer.bitCount(maxBufferSize) != 1) {
+            throw new IllegalArgumentException("maximum buffer size " + maxBufferSize + " is not a power of two of at least " + MIN_BUFFER_SIZE);
+        }
+
+        int minShift = Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+        int maxShift = Integer.numberOfTrailingZeros(maxBufferSize);
+        this.bytes = new SizeClassPool<byte[]>(minShift, maxShift, 0, threadCacheBytes, stripes, stripeBytes, this.threadCacheHits, this.sharedHits, this.misses, this.discards) {
+            @Override
+            byte[] allocate(int size) {
+                return new byte[size];
+            }
+
+            @Override
+            int size(byte[] buffer) {
+                return buffer.length;
+            }
+        };
+        // Chars are 2 bytes.
+        this.chars = new SizeClassPool<char[]>(minShift, maxShift, 1, threadCacheBytes, stripes, stripeBytes, this.threadCacheHits, this.sharedHits, this.misses, this.discards) {
+            @Override
+            char[] allocate(int size) {
+                return new char[size];
+            }
+
+            @Override
+            int size(char[] buffer) {
+                return buffer.length;
+            }
+        };
+        this.directBuffers = new SizeClassPool<ByteBuffer>(minShift, maxShift, 0, threadCacheBytes, stripes, stripeBytes, this.threadCacheHits, this.sharedHits, this.misses, this.discards) {
+            @Override
+            ByteBuffer allocate(int size) {
+                return ByteBuffer.allocateDirect(size);
+            }
+
+            @Override
+            int size(ByteBuffer buffer) {
+                return buffer.capacity();
+            }
+        };
+    }
+
+    /**
+     * Constructs a new buffer pool with the default limits.
+     */
+    public BufferPool() {
+        this(DEFAULT_MAX_BUFFER_SIZE, DEFAULT_THREAD_CACHE_BYTES, DEFAULT_STRIPES, DEFAULT_STRIPE_BYTES);
+    }
+
+    /**
+     * Acquires a byte array of at least length bytes.
+     * The contents of the byte array are undefined.
+     *
+     * @param length the minimum length of the byte array
+     * @return the byte array
+     */
+    public byte[] acquireBytes(int length) {
+        return this.bytes.acquire(length);
+    }
+
+    /**
+     * Releases a byte array back to the pool.
+     *
+     * @param bytes the byte array
+     */
+    public void releaseBytes(byte[] bytes) {
+        this.bytes.release(bytes);
+    }
+
+    /**
+     * Acquires a char array of at least length chars.
+     * The contents of the char array are undefined.
+     *
+     * @param length the minimum length of the char array
+     * @return the char array
+     */
+    public char[] acquireChars(int length) {
+        return this.chars.acquire(length);
+    }
+
+    /**
+     * Releases a char array back to the pool.
+     *
+     * @param chars the char array
+     */
+    public void releaseChars(char[] chars) {
+        this.chars.release(chars);
+    }
+
+    /**
+     * Acquires a cleared direct byte buffer with a capacity of at least capacity bytes.
+     * The contents and the byte order of the byte buffer are undefined.
+     *
+     * @param capacity the minimum capacity of the byte buffer
+     * @return the byte buffer
+     */
+    public ByteBuffer acquireDirect(int capacity) {
+        ByteBuffer buffer = this.directBuffers.acquire(capacity);
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Releases a direct byte buffer back to the pool.
+     * Only the byte buffers returned by {@link #acquireDirect(int)} should be released, not views (slices or duplicates) of them.
+     *
+     * @param buffer the byte buffer
+     */
+    public void releaseDirect(ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("buffer is not direct");
+        }
+
+        this.directBuffers.release(buffer);
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this pool.
+     *
+     * @return the statistics
+     */
+    public BufferPoolStatistics statistics() {
+        return new BufferPoolStatistics(this.threadCacheHits.sum(), this.sharedHits.sum(), this.misses.sum(), this.discards.sum(), this.bytes.retainedBytes() + this.chars.retainedBytes() + this.directBuffers.retainedBytes());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.pool;
+
+/**
+ * A snapshot of the statistics of a buffer pool.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class BufferPoolStatistics {
+    private final long threadCacheHits;
+    private final long sharedHits;
+    private final long misses;
+    private final long discards;
+    private final long retainedBytes;
+
+    /**
+     * Constructs a new buffer pool statistics snapshot.
+     *
+     * @param threadCacheHits the amount of buffers acquired from a thread cache
+     * @param sharedHits      the amount of buffers acquired from the shared tier
+     * @param misses          the amount of buffers which had to be allocated
+     * @param discards        the amount of released buffers which could not be pooled
+     * @param retainedBytes   the amount of bytes retained by the pool
+     */
+    public BufferPoolStatistics(long threadCacheHits, long sharedHits, long misses, long discards, long retainedBytes) {
+        this.threadCacheHits = threadCacheHits;
+        this.sharedHits = sharedHits;
+        this.misses = misses;
+        this.discards = discards;
+        this.retainedBytes = retainedBytes;
+    }
+
+    /**
+     * Returns the amount of buffers acquired from a thread cache.
+     *
+     * @return the amount of thread cache hits
+     */
+    public long threadCacheHits() {
+        return this.threadCacheHits;
+    }
+
+    /**
+     * Returns the amount of buffers acquired from the shared tier.
+     *
+     * @return the amount of shared hits
+     */
+    public long sharedHits() {
+        return this.sharedHits;
+    }
+
+    /**
+     * Returns the amount of buffers which had to be allocated.
+     *
+     * @return the amount of misses
+     */
+    public long misses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the amount of released buffers which could not be pooled, because the pool was full or the buffer was not allocated by the pool.
+     *
+     * @return the amount of discards
+     */
+    public long discards() {
+        return this.discards;
+    }
+
+    /**
+     * Returns the amount of bytes retained by the pool.
+     * The buffers cached by threads which have terminated since are not included, they are garbage collected with their thread.
+     *
+     * @return the amount of retained bytes
+     */
+    public long retainedBytes() {
+        return this.retainedBytes;
+    }
+
+    /**
+     * Returns the fraction of acquired buffers which did not have to be allocated.
+     *
+     * @return the hit rate, between 0 and 1
+     */
+    public double hitRate() {
+        long hits = this.threadCacheHits + this.sharedHits;
+        long total = hits + this.misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPoolStatistics{threadCacheHits=" + this.threadCacheHits + ", sharedHits=" + this.sharedHits + ", misses=" + this.misses + ", discards=" + this.discards + ", retainedBytes=" + this.retainedBytes + "}";
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.pool;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of buffers of one element type, grouped in power of two size classes (in elements).
+ * Each size class has a small cache per thread, backed by a striped shared tier.
+ *
+ * @param <T> the type of the buffers
+ * @author Joachim Vandersmissen
+ */
+abstract class SizeClassPool<T> {
+    private final int minShift;
+    private final int maxShift;
+    private final int elementShift;
+    private final int threadCacheBytes;
+    private final int stripeBytes;
+    // One array of stripes per size class.
+    private final ArrayDeque<T>[][] stripes;
+    private final ThreadLocal<ThreadCache<T>> threadCaches;
+    // The caches of the live threads, only used to compute the retained bytes.
+    // They are only weakly referenced, so the cache of a terminated thread is garbage collected with its buffers.
+    private final Set<WeakReference<ThreadCache<T>>> liveThreadCaches = ConcurrentHashMap.newKeySet();
+    // The references to garbage collected caches, removed whenever a thread creates its cache.
+    private final ReferenceQueue<ThreadCache<T>> collectedThreadCaches = new ReferenceQueue<>();
+    private final LongAdder threadCacheHits;
+    private final LongAdder sharedHits;
+    private final LongAdder misses;
+    private final LongAdder discards;
+    // The bytes retained by the shared tier, the thread caches keep their own count.
+    private final AtomicLong sharedRetainedBytes = new AtomicLong();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    SizeClassPool(int minShift, int maxShift, int elementShift, int threadCacheBytes, int stripes, int stripeBytes, LongAdder threadCacheHits, LongAdder sharedHits, LongAdder misses, LongAdder discards) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes " + stripes + " is not a power of two");
+        }
+
+        this.minShift = minShift;
+        this.maxShift = maxShift;
+        this.elementShift = elementShift;
+        this.threadCacheBytes = threadCacheBytes;
+        this.stripeBytes = stripeBytes;
+        this.stripes = new ArrayDeque[maxShift - minShift + 1][stripes];
+        for (ArrayDeque<T>[] sizeClass : this.stripes) {
+            for (int i = 0; i < stripes; i++) {
+                sizeClass[i] = new ArrayDeque<>();
+            }
+        }
+
+        int sizeClasses = maxShift - minShift + 1;
+        this.threadCaches = ThreadLocal.withInitial(() -> {
+            ArrayDeque<T>[] caches = new ArrayDeque[sizeClasses];
+            for (int i = 0; i < sizeClasses; i++) {
+                caches[i] = new ArrayDeque<>();
+            }
+
+            Reference<? extends ThreadCache<T>> collected;
+            while ((collected = this.collectedThreadCaches.poll()) != null) {
+                this.liveThreadCaches.remove(collected);
+            }
+
+            ThreadCache<T> threadCache = new ThreadCache<>(caches);
+            this.liveThreadCaches.add(new WeakReference<>(threadCache, this.collectedThreadCaches));
+            return threadCache;
+        });
+        this.threadCacheHits = threadCacheHits;
+        this.sharedHits = sharedHits;
+        this.misses = misses;
+        this.discards = discards;
+    }
+
+    /**
+     * Allocates a new buffer.
+     *
+     * @param size the size of the buffer
+     * @return the buffer
+     */
+    abstract T allocate(int size);
+
+    /**
+     * Returns the size of a buffer.
+     *
+     * @param buffer the buffer
+     * @return the size
+     */
+    abstract int size(T buffer);
+
+    /**
+     * Returns the size class for a minimum size, or -1 if the size is too large to be pooled.
+     */
+    private int sizeClass(int size) {
+        if (size <= 1 << this.minShift) {
+            return 0;
+        }
+
+        int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return shift > this.maxShift ? -1 : shift - this.minShift;
+    }
+
+    private ArrayDeque<T> stripe(int sizeClass) {
+        ArrayDeque<T>[] stripes = this.stripes[sizeClass];
+        return stripes[(int) Thread.currentThread().getId() & stripes.length - 1];
+    }
+
+    T acquire(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("negative size " + size);
+        }
+
+        int sizeClass = this.sizeClass(size);
+        if (sizeClass < 0) {
+            this.misses.increment();
+            return this.allocate(size);
+        }
+
+        int classSize = 1 << this.minShift + sizeClass;
+        ThreadCache<T> threadCache = this.threadCaches.get();
+        T buffer = threadCache.sizeClasses[sizeClass].pollFirst();
+        if (buffer != null) {
+            this.threadCacheHits.increment();
+            threadCache.retainedBytes -= (long) classSize << this.elementShift;
+            return buffer;
+        }
+
+        ArrayDeque<T> stripe = this.stripe(sizeClass);
+        synchronized (stripe) {
+            buffer = stripe.pollFirst();
+        }
+
+        if (buffer != null) {
+            this.sharedHits.increment();
+            this.sharedRetainedBytes.addAndGet(-((long) classSize << this.elementShift));
+            return buffer;
+        }
+
+        this.misses.increment();
+        return this.allocate(classSize);
+    }
+
+    void release(T buffer) {
+        int size = this.size(buffer);
+        int sizeClass = this.sizeClass(size);
+        // Only buffers which were allocated by this pool can be pooled again.
+        if (sizeClass < 0 || size != 1 << this.minShift + sizeClass) {
+            this.discards.increment();
+            return;
+        }
+
+        // The limits are in bytes, while the size is in elements.
+        int shift = this.minShift + sizeClass + this.elementShift;
+        ThreadCache<T> threadCache = this.threadCaches.get();
+        if (threadCache.sizeClasses[sizeClass].size() < Math.max(1, this.threadCacheBytes >>> shift)) {
+            threadCache.sizeClasses[sizeClass].addFirst(buffer);
+            threadCache.retainedBytes += (long) size << this.elementShift;
+            return;
+        }
+
+        ArrayDeque<T> stripe = this.stripe(sizeClass);
+        synchronized (stripe) {
+            if (stripe.size() < Math.max(1, this.stripeBytes >>> shift)) {
+                stripe.addFirst(buffer);
+                this.sharedRetainedBytes.addAndGet((long) size << this.elementShift);
+                return;
+            }
+        }
+
+        this.discards.increment();
+    }
+
+    /**
+     * Returns the amount of bytes retained by the shared tier and by the caches of the live threads.
+     * The caches of terminated threads are no longer counted, they are garbage collected once their thread is.
+     */
+    long retainedBytes() {
+        long retainedBytes = this.sharedRetainedBytes.get();
+        for (Iterator<WeakReference<ThreadCache<T>>> iterator = this.liveThreadCaches.iterator(); iterator.hasNext(); ) {
+            ThreadCache<T> threadCache = iterator.next().get();
+            Thread owner = threadCache == null ? null : threadCache.owner.get();
+            if (owner == null || !owner.isAlive()) {
+                iterator.remove();
+            } else {
+                retainedBytes += threadCache.retainedBytes;
+            }
+        }
+
+        return retainedBytes;
+    }
+
+    /**
+     * The cache of one thread, with one deque per size class.
+     */
+    private static final class ThreadCache<T> {
+        private final ArrayDeque<T>[] sizeClasses;
+        private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+        // Only written by the owner thread.
+        private volatile long retainedBytes;
+
+        private ThreadCache(ArrayDeque<T>[] sizeClasses) {
+            this.sizeClasses = sizeClasses;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads from a sequence of byte buffers (chunks), which subclasses provide one by one through {@link #current()}.
+ * Values which lie within a single chunk are read directly from that chunk, values which span multiple chunks are assembled byte per byte.
+ * The chunks should have the byte order of the endianness of the reader.
+ *
+ * @author Joachim Vandersmissen
+ */
+public abstract class AbstractChunkedReader extends AbstractReader {
+    /**
+     * Constructs a new chunked reader.
+     *
+     * @param endianness the endianness of the reader
+     */
+    protected AbstractChunkedReader(Endianness endianness) {
+        super(endianness);
+    }
+
+    /**
+     * Returns the current chunk, moving to the next chunk if the current one has no bytes remaining.
+     *
+     * @return the current chunk, or null at the end of the data
+     * @throws IOException if an I/O error occurs
+     */
+    protected abstract ByteBuffer current() throws IOException;
+
+    /**
+     * Returns the current chunk if it has at least length bytes remaining.
+     *
+     * @param length the amount of bytes which should remain
+     * @return the current chunk, or null if the value spans multiple chunks
+     * @throws IOException if an I/O error occurs
+     */
+    protected ByteBuffer current(int length) throws IOException {
+        ByteBuffer chunk = this.current();
+        return chunk != null && chunk.remaining() >= length ? chunk : null;
+    }
+
+    /**
+     * Reads a value of length bytes (at most 8) byte per byte, for values which span multiple chunks.
+     *
+     * @param length the amount of bytes in the value
+     * @return the value
+     * @throws EOFException if no more data can be read
+     */
+    protected long readSpanning(int length) throws IOException {
+        long result = 0;
+        switch (this.endianness) {
+            case BIG_ENDIAN:
+                for (int i = 0; i < length; i++) {
+                    result = result << 8 | this.readUnsignedByte();
+                }
+
+                return result;
+            case LITTLE_ENDIAN:
+                for (int i = 0; i < length; i++) {
+                    result |= (long) this.readUnsignedByte() << (i << 3);
+                }
+
+                return result;
+        }
+
+        throw new IllegalStateException("invalid endianness");
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        ByteBuffer chunk = this.current();
+        if (chunk == null) {
+            throw EndOfStream.exception();
+        }
+
+        return chunk.get() & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        while (length > 0) {
+            ByteBuffer chunk = this.current();
+            if (chunk == null) {
+                throw EndOfStream.exception();
+            }
+
+            int n = Math.min(length, chunk.remaining());
+            chunk.get(bytes, start, n);
+            start += n;
+            length -= n;
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        ByteBuffer chunk = this.current(2);
+        return chunk != null ? chunk.getShort() & 0xFFFF : (int) this.readSpanning(2);
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        ByteBuffer chunk = this.current(2);
+        return chunk != null ? chunk.getShort() : (short) this.readSpanning(2);
+    }
+
+    @Override
+    public long readUnsignedInt() throws IOException {
+        ByteBuffer chunk = this.current(4);
+        return chunk != null ? chunk.getInt() & 0xFFFFFFFFL : this.readSpanning(4);
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        ByteBuffer chunk = this.current(4);
+        return chunk != null ? chunk.getInt() : (int) this.readSpanning(4);
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        ByteBuffer chunk = this.current(8);
+        return chunk != null ? chunk.getLong() : this.readSpanning(8);
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        ByteBuffer chunk = this.current(2);
+        return chunk != null ? chunk.getChar() : (char) this.readSpanning(2);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        ByteBuffer chunk = this.current(4);
+        return chunk != null ? chunk.getFloat() : Float.intBitsToFloat((int) this.readSpanning(4));
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        ByteBuffer chunk = this.current(8);
+        return chunk != null ? chunk.getDouble() : Double.longBitsToDouble(this.readSpanning(8));
+    }
+
+    @Override
+    public long readUnsignedLEB128() throws IOException {
+        // Bytes are read from the current chunk directly, only moving to the next chunk if the value spans it.
+        ByteBuffer chunk = this.current();
+        long result = 0;
+        long i = 0;
+        int b;
+        do {
+            b = chunk != null && chunk.hasRemaining() ? chunk.get() & 0xFF : this.readUnsignedByte();
+            // The 7 last bits in the byte are the 7 most significant ones as of yet
+            result |= (b & 0b01111111L) << i;
+            i += 7;
+            // If the first bit is not set, no more data is coming
+        } while ((b & 0b10000000) != 0);
+        return result;
+    }
+
+    @Override
+    public int readSignedLEB128() throws IOException {
+        // Bytes are read from the current chunk directly, only moving to the next chunk if the value spans it.
+        ByteBuffer chunk = this.current();
+        int result = 0;
+        int i = 0;
+        int b;
+        do {
+            b = chunk != null && chunk.hasRemaining() ? chunk.get() & 0xFF : this.readUnsignedByte();
+            // The 7 last bits in the byte are the 7 most significant ones as of yet
+            result |= (b & 0b01111111) << i;
+            i += 7;
+            // If the first bit is not set, no more data is coming
+        } while ((b & 0b10000000) != 0);
+        // If the last sign bit is set, sign extend
+        if (i < 31 && (b & 0b01000000) != 0) {
+            result |= 0b11111111111111111111111111111111 << i;
+        }
+
+        return result;
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        while (length > 0) {
+            ByteBuffer chunk = this.current();
+            if (chunk == null) {
+                throw EndOfStream.exception();
+            }
+
+            int n = (int) Math.min(length, chunk.remaining());
+            chunk.position(chunk.position() + n);
+            length -= n;
+        }
+    }
+}
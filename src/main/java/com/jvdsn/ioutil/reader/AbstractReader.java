@@ -21,6 +21,11 @@ import java.math.BigInteger;
  * @author Joachim Vandersmissen
  */
 public abstract class AbstractReader implements Reader {
+    /**
+     * The maximum size of the scratch buffer used to skip bytes.
+     */
+    protected static final int SKIP_BUFFER_SIZE = 8192;
+
     protected final Endianness endianness;
 
     /**
@@ -156,4 +161,9 @@ public abstract class AbstractReader implements Reader {
 
         return result;
     }
+
+    @Override
+    public Reader slice(long length) throws IOException {
+        return new LimitedReader(this.endianness, this, length);
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.cache.BlockCache;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads from a file through a block cache, for random reads without mapping the file.
+ * Values which span multiple blocks are read byte per byte, all other values are read directly from the cached block.
+ * Many readers can share one cache, the cache is not closed when the reader is closed.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class BlockCacheReader extends AbstractChunkedReader implements SeekableReader {
+    protected final BlockCache cache;
+    protected final int blockSize;
+    protected long blockIndex;
+    // The current block, or null if it has not been loaded yet.
+    protected ByteBuffer block;
+    // The offset in the current block while it has not been loaded yet.
+    protected int offset;
+    protected boolean closed;
+
+    /**
+     * Constructs a new block cache reader.
+     *
+     * @param endianness the endianness of the reader
+     * @param cache      the block cache to read from
+     * @param position   the position in the file to start reading at
+     */
+    public BlockCacheReader(Endianness endianness, BlockCache cache, long position) {
+        super(endianness);
+        this.cache = cache;
+        this.blockSize = cache.blockSize();
+        this.move(position);
+    }
+
+    /**
+     * Constructs a new block cache reader reading from the start of the file.
+     *
+     * @param endianness the endianness of the reader
+     * @param cache      the block cache to read from
+     */
+    public BlockCacheReader(Endianness endianness, BlockCache cache) {
+        this(endianness, cache, 0);
+    }
+
+    private void move(long position) {
+        this.blockIndex = position / this.blockSize;
+        this.offset = (int) (position % this.blockSize);
+        this.block = null;
+    }
+
+    private void load(long index, int offset) throws IOException {
+        byte[] block = this.cache.block(index);
+        this.blockIndex = index;
+        this.block = ByteBuffer.wrap(block).order(this.endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        this.block.position(Math.min(offset, block.length));
+    }
+
+    /**
+     * Returns the position of the reader in the file.
+     *
+     * @return the position
+     */
+    @Override
+    public long position() {
+        return this.blockIndex * this.blockSize + (this.block == null ? this.offset : this.block.position());
+    }
+
+    /**
+     * Returns the amount of bytes remaining in the file.
+     *
+     * @return the amount of bytes remaining
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public long remaining() throws IOException {
+        return this.closed ? 0 : Math.max(0, this.cache.size() - this.position());
+    }
+
+    /**
+     * Moves the reader to a new position in the file.
+     *
+     * @param position the new position
+     * @throws EOFException             if the position is beyond the end of the file
+     * @throws IllegalArgumentException if the position is before the start of the file
+     */
+    @Override
+    public void seek(long position) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position " + position + " is before the start 0");
+        }
+
+        long size = this.cache.size();
+        if (position > size) {
+            this.move(size);
+            throw EndOfStream.exception();
+        }
+
+        this.move(position);
+    }
+
+    /**
+     * Returns the current block, moving to the next block if the current one has no bytes remaining.
+     *
+     * @return the current block, or null at the end of the file
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected ByteBuffer current() throws IOException {
+        if (this.closed) {
+            return null;
+        }
+
+        if (this.block == null) {
+            this.load(this.blockIndex, this.offset);
+        }
+
+        while (!this.block.hasRemaining()) {
+            // Only the last block of the file is shorter than the block size.
+            if (this.block.limit() < this.blockSize) {
+                return null;
+            }
+
+            this.load(this.blockIndex + 1, 0);
+        }
+
+        return this.block;
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        if (this.closed) {
+            throw EndOfStream.exception();
+        }
+
+        this.seek(this.position() + length);
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.block = null;
+    }
+}
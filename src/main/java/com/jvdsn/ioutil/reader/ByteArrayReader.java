@@ -10,6 +10,7 @@
 
 package com.jvdsn.ioutil.reader;
 
+import com.jvdsn.ioutil.EndOfStream;
 import com.jvdsn.ioutil.Endianness;
 
 import java.io.EOFException;
@@ -17,13 +18,15 @@ import java.io.IOException;
 
 /**
  * Reads from a byte array.
+ * Positional reads can be performed by multiple threads concurrently, but only while the reader is not being reset:
+ * the byte array is rebound without synchronization, so a reset reader must be safely published to other threads again.
  *
  * @author Joachim Vandersmissen
  */
-public class ByteArrayReader extends AbstractReader {
-    protected final byte[] bytes;
-    protected final int start;
-    protected final int length;
+public class ByteArrayReader extends AbstractReader implements PositionalReader {
+    protected byte[] bytes;
+    protected int start;
+    protected int length;
     protected int pos;
 
     /**
@@ -52,12 +55,37 @@ public class ByteArrayReader extends AbstractReader {
         this(endianness, bytes, 0, bytes.length);
     }
 
+    /**
+     * Rebinds the reader to a new byte array, so it can be reused instead of constructing a new reader.
+     * This must not be called while other threads are performing positional reads.
+     *
+     * @param bytes  the byte array to read from
+     * @param start  the position to start reading at
+     * @param length the amount of bytes to read before throwing EOFException
+     */
+    public void reset(byte[] bytes, int start, int length) {
+        this.bytes = bytes;
+        this.start = start;
+        this.length = length;
+        this.pos = start;
+    }
+
+    /**
+     * Rebinds the reader to a new entire byte array, so it can be reused instead of constructing a new reader.
+     *
+     * @param bytes the byte array to read from
+     */
+    public void reset(byte... bytes) {
+        this.reset(bytes, 0, bytes.length);
+    }
+
     /**
      * Returns the position of the reader in the byte array.
      *
      * @return the position
      */
-    public int position() {
+    @Override
+    public long position() {
         return this.pos;
     }
 
@@ -66,10 +94,237 @@ public class ByteArrayReader extends AbstractReader {
      *
      * @return the amount of bytes remaining
      */
-    public int remaining() {
+    @Override
+    public long remaining() {
         return this.length - this.pos + this.start;
     }
 
+    /**
+     * Moves the reader to a new position in the byte array.
+     *
+     * @param position the new position
+     * @throws EOFException             if the position is beyond the end of the data
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    @Override
+    public void seek(long position) throws IOException {
+        if (position < this.start) {
+            throw new IllegalArgumentException("position " + position + " is before the start " + this.start);
+        }
+
+        if (position > this.start + this.length) {
+            this.pos = this.start + this.length;
+            throw EndOfStream.exception();
+        }
+
+        this.pos = (int) position;
+    }
+
+    /**
+     * Checks that length bytes can be read at an absolute position, without modifying the position of the reader.
+     *
+     * @param position the position to read at
+     * @param length   the amount of bytes to read
+     * @return the position as an index in the byte array
+     * @throws EOFException             if the data ends before position + length
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    protected int index(long position, int length) throws EOFException {
+        if (position < this.start) {
+            throw new IllegalArgumentException("position " + position + " is before the start " + this.start);
+        }
+
+        // Also check for the actual byte array length, just to be sure.
+        if (position > this.bytes.length - length || position - this.start > this.length - length) {
+            throw EndOfStream.exception();
+        }
+
+        return (int) position;
+    }
+
+    @Override
+    public int readUnsignedByteAt(long position) throws IOException {
+        return this.bytes[this.index(position, 1)] & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytesAt(long position, byte[] bytes, int start, int length) throws IOException {
+        System.arraycopy(this.bytes, this.index(position, length), bytes, start, length);
+        return bytes;
+    }
+
+    @Override
+    public short readShortAt(long position) throws IOException {
+        return this.getShort(this.index(position, 2));
+    }
+
+    @Override
+    public int readIntAt(long position) throws IOException {
+        return this.getInt(this.index(position, 4));
+    }
+
+    @Override
+    public long readLongAt(long position) throws IOException {
+        return this.getLong(this.index(position, 8));
+    }
+
+    private short getShort(int i) {
+        int b1 = this.bytes[i] & 0xFF;
+        int b2 = this.bytes[i + 1] & 0xFF;
+        switch (this.endianness) {
+            case BIG_ENDIAN:
+                return (short) (b1 << 8 | b2);
+            case LITTLE_ENDIAN:
+                return (short) (b2 << 8 | b1);
+        }
+
+        throw new IllegalStateException("invalid endianness");
+    }
+
+    private int getInt(int i) {
+        int b1 = this.bytes[i] & 0xFF;
+        int b2 = this.bytes[i + 1] & 0xFF;
+        int b3 = this.bytes[i + 2] & 0xFF;
+        int b4 = this.bytes[i + 3] & 0xFF;
+        switch (this.endianness) {
+            case BIG_ENDIAN:
+                return b1 << 24 | b2 << 16 | b3 << 8 | b4;
+            case LITTLE_ENDIAN:
+                return b4 << 24 | b3 << 16 | b2 << 8 | b1;
+        }
+
+        throw new IllegalStateException("invalid endianness");
+    }
+
+    private long getLong(int i) {
+        long result = 0;
+        switch (this.endianness) {
+            case BIG_ENDIAN:
+                for (int j = 0; j < 8; j++) {
+                    result = result << 8 | this.bytes[i + j] & 0xFF;
+                }
+
+                return result;
+            case LITTLE_ENDIAN:
+                for (int j = 7; j >= 0; j--) {
+                    result = result << 8 | this.bytes[i + j] & 0xFF;
+                }
+
+                return result;
+        }
+
+        throw new IllegalStateException("invalid endianness");
+    }
+
+    /**
+     * Checks once that at least length bytes remain, moving the reader to the end of the data if not.
+     * The next length bytes can then be read with the unchecked methods, without checking the bounds of the reader for every value:
+     * <pre>
+     * reader.ensure(14);
+     * int id = reader.readIntUnchecked();
+     * long timestamp = reader.readLongUnchecked();
+     * short flags = reader.readShortUnchecked();
+     * </pre>
+     *
+     * @param length the amount of bytes which should remain
+     * @throws EOFException if less than length bytes remain
+     */
+    public void ensure(int length) throws EOFException {
+        // Also check for the actual byte array length, just to be sure.
+        if (this.pos > this.bytes.length - length || this.pos - this.start > this.length - length) {
+            this.pos = this.start + this.length;
+            throw EndOfStream.exception();
+        }
+    }
+
+    /**
+     * Reads an unsigned byte (8-bit integer) without checking the bounds of the reader, which should have been checked with {@link #ensure(int)}.
+     * Reading beyond the end of the reader is not detected, unless it is also beyond the end of the byte array.
+     *
+     * @return the unsigned byte
+     */
+    public int readUnsignedByteUnchecked() {
+        return this.bytes[this.pos++] & 0xFF;
+    }
+
+    /**
+     * Reads an unsigned short (16-bit integer) without checking the bounds of the reader, which should have been checked with {@link #ensure(int)}.
+     *
+     * @return the unsigned short
+     */
+    public int readUnsignedShortUnchecked() {
+        return this.readShortUnchecked() & 0xFFFF;
+    }
+
+    /**
+     * Reads a signed short (16-bit integer) without checking the bounds of the reader, which should have been checked with {@link #ensure(int)}.
+     *
+     * @return the short
+     */
+    public short readShortUnchecked() {
+        short s = this.getShort(this.pos);
+        this.pos += 2;
+        return s;
+    }
+
+    /**
+     * Reads an unsigned int (32-bit integer) without checking the bounds of the reader, which should have been checked with {@link #ensure(int)}.
+     *
+     * @return the unsigned int
+     */
+    public long readUnsignedIntUnchecked() {
+        return this.readIntUnchecked() & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Reads a signed int (32-bit integer) without checking the bounds of the reader, which should have been checked with {@link #ensure(int)}.
+     *
+     * @return the int
+     */
+    public int readIntUnchecked() {
+        int i = this.getInt(this.pos);
+        this.pos += 4;
+        return i;
+    }
+
+    /**
+     * Reads a signed long (64-bit integer) without checking the bounds of the reader, which should have been checked with {@link #ensure(int)}.
+     *
+     * @return the long
+     */
+    public long readLongUnchecked() {
+        long l = this.getLong(this.pos);
+        this.pos += 8;
+        return l;
+    }
+
+    /**
+     * Reads a char (16-bit UTF-16 code unit) without checking the bounds of the reader, which should have been checked with {@link #ensure(int)}.
+     *
+     * @return the char
+     */
+    public char readCharUnchecked() {
+        return (char) this.readShortUnchecked();
+    }
+
+    /**
+     * Reads a float (32-bit floating point) without checking the bounds of the reader, which should have been checked with {@link #ensure(int)}.
+     *
+     * @return the float
+     */
+    public float readFloatUnchecked() {
+        return Float.intBitsToFloat(this.readIntUnchecked());
+    }
+
+    /**
+     * Reads a double (64-bit floating point) without checking the bounds of the reader, which should have been checked with {@link #ensure(int)}.
+     *
+     * @return the double
+     */
+    public double readDoubleUnchecked() {
+        return Double.longBitsToDouble(this.readLongUnchecked());
+    }
+
     @Override
     public int readUnsignedByte() throws IOException {
         // Also check for the actual byte array length, just to be sure.
@@ -78,20 +333,94 @@ public class ByteArrayReader extends AbstractReader {
         }
 
         this.pos = this.start + this.length;
-        throw new EOFException("End of stream.");
+        throw EndOfStream.exception();
     }
 
     @Override
     public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
-        // Also check for the actual byte array length, just to be sure.
-        if (this.pos < this.bytes.length - length + 1 && this.pos - this.start < this.length - length + 1) {
-            System.arraycopy(this.bytes, this.pos, bytes, start, length);
+        this.ensure(length);
+        System.arraycopy(this.bytes, this.pos, bytes, start, length);
+        this.pos += length;
+        return bytes;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        this.ensure(2);
+        return this.readUnsignedShortUnchecked();
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        this.ensure(2);
+        return this.readShortUnchecked();
+    }
+
+    @Override
+    public long readUnsignedInt() throws IOException {
+        this.ensure(4);
+        return this.readUnsignedIntUnchecked();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        this.ensure(4);
+        return this.readIntUnchecked();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        this.ensure(8);
+        return this.readLongUnchecked();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        this.ensure(2);
+        return this.readCharUnchecked();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        this.ensure(4);
+        return this.readFloatUnchecked();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        this.ensure(8);
+        return this.readDoubleUnchecked();
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        if (length <= this.remaining()) {
             this.pos += length;
-            return bytes;
+            return;
         }
 
         this.pos = this.start + this.length;
-        throw new EOFException("End of stream.");
+        throw EndOfStream.exception();
+    }
+
+    @Override
+    public ByteArrayReader slice(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        if (length > this.remaining()) {
+            this.pos = this.start + this.length;
+            throw EndOfStream.exception();
+        }
+
+        ByteArrayReader slice = new ByteArrayReader(this.endianness, this.bytes, this.pos, (int) length);
+        this.pos += length;
+        return slice;
     }
 
     @Override
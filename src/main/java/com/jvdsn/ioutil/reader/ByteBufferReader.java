@@ -0,0 +1,267 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads from a byte buffer (heap, direct or mapped).
+ * The reader uses its own view of the buffer, so the position and limit of the original buffer are never modified.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ByteBufferReader extends AbstractReader implements PositionalReader {
+    protected ByteBuffer buffer;
+
+    /**
+     * Constructs a new byte buffer reader reading from the position to the limit of a byte buffer.
+     *
+     * @param endianness the endianness of the reader
+     * @param buffer     the byte buffer to read from
+     */
+    public ByteBufferReader(Endianness endianness, ByteBuffer buffer) {
+        super(endianness);
+        this.reset(buffer);
+    }
+
+    /**
+     * Rebinds the reader to a new byte buffer, so it can be reused instead of constructing a new reader.
+     *
+     * @param buffer the byte buffer to read from
+     */
+    public void reset(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate().order(this.endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the position of the reader in the byte buffer.
+     *
+     * @return the position
+     */
+    @Override
+    public long position() {
+        return this.buffer.position();
+    }
+
+    /**
+     * Returns the amount of bytes remaining in the byte buffer.
+     *
+     * @return the amount of bytes remaining
+     */
+    @Override
+    public long remaining() {
+        return this.buffer.remaining();
+    }
+
+    /**
+     * Moves the reader to a new position in the byte buffer.
+     *
+     * @param position the new position
+     * @throws EOFException             if the position is beyond the end of the data
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    @Override
+    public void seek(long position) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position " + position + " is before the start 0");
+        }
+
+        if (position > this.buffer.limit()) {
+            this.buffer.position(this.buffer.limit());
+            throw EndOfStream.exception();
+        }
+
+        this.buffer.position((int) position);
+    }
+
+    /**
+     * Checks that at least length bytes remain, moving the reader to the end of the buffer if not.
+     *
+     * @param length the amount of bytes which should remain
+     * @throws EOFException if less than length bytes remain
+     */
+    protected void require(int length) throws EOFException {
+        if (this.buffer.remaining() < length) {
+            this.buffer.position(this.buffer.limit());
+            throw EndOfStream.exception();
+        }
+    }
+
+    /**
+     * Checks that length bytes can be read at an absolute position, without modifying the position of the reader.
+     *
+     * @param position the position to read at
+     * @param length   the amount of bytes to read
+     * @return the position as an index in the byte buffer
+     * @throws EOFException             if the data ends before position + length
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    protected int index(long position, int length) throws EOFException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position " + position + " is before the start 0");
+        }
+
+        if (position > this.buffer.limit() - length) {
+            throw EndOfStream.exception();
+        }
+
+        return (int) position;
+    }
+
+    @Override
+    public int readUnsignedByteAt(long position) throws IOException {
+        return this.buffer.get(this.index(position, 1)) & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytesAt(long position, byte[] bytes, int start, int length) throws IOException {
+        int index = this.index(position, length);
+        // Absolute bulk gets are not available in Java 8, so copy through a private view instead.
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(index);
+        view.get(bytes, start, length);
+        return bytes;
+    }
+
+    @Override
+    public short readShortAt(long position) throws IOException {
+        return this.buffer.getShort(this.index(position, 2));
+    }
+
+    @Override
+    public int readIntAt(long position) throws IOException {
+        return this.buffer.getInt(this.index(position, 4));
+    }
+
+    @Override
+    public long readLongAt(long position) throws IOException {
+        return this.buffer.getLong(this.index(position, 8));
+    }
+
+    @Override
+    public char readCharAt(long position) throws IOException {
+        return this.buffer.getChar(this.index(position, 2));
+    }
+
+    @Override
+    public float readFloatAt(long position) throws IOException {
+        return this.buffer.getFloat(this.index(position, 4));
+    }
+
+    @Override
+    public double readDoubleAt(long position) throws IOException {
+        return this.buffer.getDouble(this.index(position, 8));
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        this.require(1);
+        return this.buffer.get() & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        this.require(length);
+        this.buffer.get(bytes, start, length);
+        return bytes;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort() & 0xFFFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort();
+    }
+
+    @Override
+    public long readUnsignedInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt() & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        this.require(8);
+        return this.buffer.getLong();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        this.require(2);
+        return this.buffer.getChar();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        this.require(4);
+        return this.buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        this.require(8);
+        return this.buffer.getDouble();
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        if (length > this.buffer.remaining()) {
+            this.buffer.position(this.buffer.limit());
+            throw EndOfStream.exception();
+        }
+
+        this.buffer.position(this.buffer.position() + (int) length);
+    }
+
+    @Override
+    public ByteBufferReader slice(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        if (length > this.buffer.remaining()) {
+            this.buffer.position(this.buffer.limit());
+            throw EndOfStream.exception();
+        }
+
+        // The slice starts at position 0 in its own view of the buffer.
+        ByteBuffer slice = this.buffer.slice();
+        slice.limit((int) length);
+        this.buffer.position(this.buffer.position() + (int) length);
+        return new ByteBufferReader(this.endianness, slice);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.buffer.position(this.buffer.limit());
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads from a readable byte channel through a direct buffer.
+ * The channel should be in blocking mode.
+ * The buffer is borrowed from the default buffer pool, and released when the reader is closed.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ChannelReader extends AbstractReader {
+    /**
+     * The default size of the buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    protected ReadableByteChannel channel;
+    // The buffered bytes are between the position and the limit of the buffer.
+    protected ByteBuffer buffer;
+
+    /**
+     * Constructs a new channel reader.
+     *
+     * @param endianness the endianness of the reader
+     * @param channel    the channel to read from
+     * @param bufferSize the minimum size of the buffer
+     */
+    public ChannelReader(Endianness endianness, ReadableByteChannel channel, int bufferSize) {
+        super(endianness);
+        this.channel = channel;
+        this.buffer = BufferPool.DEFAULT.acquireDirect(bufferSize).order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        this.buffer.limit(0);
+    }
+
+    /**
+     * Constructs a new channel reader with the default buffer size.
+     *
+     * @param endianness the endianness of the reader
+     * @param channel    the channel to read from
+     */
+    public ChannelReader(Endianness endianness, ReadableByteChannel channel) {
+        this(endianness, channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Rebinds the reader to a new channel, so it can be reused (including its buffer) instead of constructing a new reader.
+     * Any buffered bytes are discarded. The previous channel is not closed, and this reader should not have been closed either.
+     *
+     * @param channel the channel to read from
+     */
+    public void reset(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer.clear().limit(0);
+    }
+
+    /**
+     * Returns the channel this reader reads from.
+     *
+     * @return the channel
+     */
+    public ReadableByteChannel channel() {
+        return this.channel;
+    }
+
+    /**
+     * Reads from the channel until at least length bytes (at most the capacity of the buffer) are buffered.
+     *
+     * @param length the minimum amount of bytes to buffer
+     * @return false if the end of the channel was reached first
+     * @throws IOException if an I/O error occurs
+     */
+    protected boolean fill(int length) throws IOException {
+        this.buffer.compact();
+        try {
+            while (this.buffer.position() < length) {
+                if (this.channel.read(this.buffer) < 0) {
+                    return false;
+                }
+            }
+
+            return true;
+        } finally {
+            this.buffer.flip();
+        }
+    }
+
+    /**
+     * Makes sure at least length bytes are buffered.
+     *
+     * @param length the amount of bytes
+     * @throws EOFException if the end of the channel is reached first
+     */
+    protected void require(int length) throws IOException {
+        if (this.buffer.remaining() < length && !this.fill(length)) {
+            this.buffer.position(this.buffer.limit());
+            throw EndOfStream.exception();
+        }
+    }
+
+    /**
+     * Returns the amount of buffered bytes, which can be read without reading from the channel.
+     *
+     * @return the amount of bytes
+     */
+    @Override
+    public long available() {
+        return this.buffer.remaining();
+    }
+
+    @Override
+    public boolean hasRemaining(int length) throws IOException {
+        if (length < 0 || length > this.buffer.capacity()) {
+            throw new IllegalArgumentException("length " + length + " is not between 0 and the buffer size " + this.buffer.capacity());
+        }
+
+        return this.buffer.remaining() >= length || this.fill(length);
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        this.require(1);
+        return this.buffer.get() & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        int n = Math.min(length, this.buffer.remaining());
+        this.buffer.get(bytes, start, n);
+        start += n;
+        length -= n;
+        if (length >= this.buffer.capacity()) {
+            // Large reads go to the array directly, rather than through the buffer.
+            this.readFully(ByteBuffer.wrap(bytes, start, length));
+            return bytes;
+        }
+
+        while (length > 0) {
+            this.require(1);
+            n = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, start, n);
+            start += n;
+            length -= n;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Reads into byte buffers from their position to their limit.
+     * If the channel supports scattering reads, all byte buffers are filled in as few calls as possible.
+     *
+     * @param buffers the byte buffers to read into
+     * @throws EOFException if no more data can be read
+     */
+    public void readFully(ByteBuffer... buffers) throws IOException {
+        long length = 0;
+        for (ByteBuffer buffer : buffers) {
+            // Drain the buffered bytes first.
+            while (this.buffer.hasRemaining() && buffer.hasRemaining()) {
+                int n = Math.min(this.buffer.remaining(), buffer.remaining());
+                ByteBuffer source = this.buffer.duplicate();
+                source.limit(source.position() + n);
+                buffer.put(source);
+                this.buffer.position(this.buffer.position() + n);
+            }
+
+            length += buffer.remaining();
+        }
+
+        if (this.channel instanceof ScatteringByteChannel) {
+            ScatteringByteChannel channel = (ScatteringByteChannel) this.channel;
+            while (length > 0) {
+                long n = channel.read(buffers);
+                if (n < 0) {
+                    throw EndOfStream.exception();
+                }
+
+                length -= n;
+            }
+
+            return;
+        }
+
+        for (ByteBuffer buffer : buffers) {
+            while (buffer.hasRemaining()) {
+                if (this.channel.read(buffer) < 0) {
+                    throw EndOfStream.exception();
+                }
+            }
+        }
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort() & 0xFFFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort();
+    }
+
+    @Override
+    public long readUnsignedInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt() & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        this.require(8);
+        return this.buffer.getLong();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        this.require(2);
+        return this.buffer.getChar();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        this.require(4);
+        return this.buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        this.require(8);
+        return this.buffer.getDouble();
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        while (length > 0) {
+            this.require(1);
+            int n = (int) Math.min(length, this.buffer.remaining());
+            this.buffer.position(this.buffer.position() + n);
+            length -= n;
+        }
+    }
+
+    /**
+     * Transfers length bytes to a channel.
+     * If either channel is a file channel, the bytes are not copied through the Java heap if the operating system supports it.
+     *
+     * @param target the channel to transfer to, which should be in blocking mode
+     * @param length the amount of bytes to transfer
+     * @throws EOFException if no more data can be read
+     */
+    public void transferTo(WritableByteChannel target, long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        // Transfer the buffered bytes first.
+        length -= this.drain(target, length);
+        if (this.channel instanceof FileChannel) {
+            FileChannel channel = (FileChannel) this.channel;
+            long position = channel.position();
+            try {
+                while (length > 0) {
+                    long n = channel.transferTo(position, length, target);
+                    if (n <= 0) {
+                        throw EndOfStream.exception();
+                    }
+
+                    position += n;
+                    length -= n;
+                }
+            } finally {
+                // Unlike regular reads, transferTo does not move the channel.
+                channel.position(position);
+            }
+
+            return;
+        }
+
+        if (target instanceof FileChannel) {
+            FileChannel channel = (FileChannel) target;
+            long position = channel.position();
+            try {
+                while (length > 0) {
+                    long n = channel.transferFrom(this.channel, position, length);
+                    if (n <= 0) {
+                        throw EndOfStream.exception();
+                    }
+
+                    position += n;
+                    length -= n;
+                }
+            } finally {
+                channel.position(position);
+            }
+
+            return;
+        }
+
+        while (length > 0) {
+            this.require(1);
+            length -= this.drain(target, length);
+        }
+    }
+
+    /**
+     * Writes at most length buffered bytes to a channel.
+     *
+     * @param target the channel to write to
+     * @param length the maximum amount of bytes to write
+     * @return the amount of bytes written
+     * @throws IOException if an I/O error occurs
+     */
+    private int drain(WritableByteChannel target, long length) throws IOException {
+        int n = (int) Math.min(length, this.buffer.remaining());
+        ByteBuffer source = this.buffer.duplicate();
+        source.limit(source.position() + n);
+        try {
+            while (source.hasRemaining()) {
+                target.write(source);
+            }
+        } finally {
+            this.buffer.position(source.position());
+        }
+
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.buffer.capacity() > 0) {
+            BufferPool.DEFAULT.releaseDirect(this.buffer);
+            // Any further read will end up at the end of the stream, rather than in a released buffer.
+            this.buffer = ByteBuffer.allocate(0);
+        }
+
+        this.channel.close();
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.checksum.Checksums;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.Checksum;
+
+/**
+ * Reads from another reader, keeping a running checksum of the bytes read.
+ * Bytes read as primitives are collected and added to the checksum together, bulk reads are added to the checksum at once.
+ * <p>
+ * To verify a block followed by its checksum, reset the checksum at the start of the block, and compare the checksum to the stored one after the block:
+ * <pre>
+ * reader.resetChecksum();
+ * // Read the block...
+ * long checksum = reader.checksum();
+ * reader.verify(checksum, reader.readUnsignedInt());
+ * </pre>
+ * Closing this reader closes the other reader.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ChecksumReader extends AbstractReader {
+    /**
+     * The maximum amount of bytes read as primitives which are collected before adding them to the checksum.
+     */
+    public static final int BUFFER_SIZE = 256;
+
+    protected final Reader reader;
+    protected final Checksum checksum;
+    // Bytes which have been read, but not added to the checksum yet.
+    private final byte[] pending = new byte[BUFFER_SIZE];
+    private final ByteBuffer view;
+    private int pendingLength;
+
+    /**
+     * Constructs a new checksum reader.
+     *
+     * @param endianness the endianness of the reader
+     * @param reader     the reader to read from
+     * @param checksum   the checksum to update
+     */
+    public ChecksumReader(Endianness endianness, Reader reader, Checksum checksum) {
+        super(endianness);
+        this.reader = reader;
+        this.checksum = checksum;
+        this.view = ByteBuffer.wrap(this.pending).order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Constructs a new checksum reader keeping a CRC-32C checksum.
+     *
+     * @param endianness the endianness of the reader
+     * @param reader     the reader to read from
+     */
+    public ChecksumReader(Endianness endianness, Reader reader) {
+        this(endianness, reader, Checksums.crc32c());
+    }
+
+    private void update() {
+        if (this.pendingLength > 0) {
+            this.checksum.update(this.pending, 0, this.pendingLength);
+            this.pendingLength = 0;
+        }
+    }
+
+    private void update(byte[] bytes, int start, int length) {
+        if (length <= BUFFER_SIZE - this.pendingLength) {
+            System.arraycopy(bytes, start, this.pending, this.pendingLength, length);
+            this.pendingLength += length;
+            return;
+        }
+
+        this.update();
+        this.checksum.update(bytes, start, length);
+    }
+
+    /**
+     * Reads length bytes from the other reader into the pending bytes.
+     *
+     * @param length the amount of bytes
+     * @return the index of the bytes in the pending bytes
+     * @throws IOException if an I/O error occurs
+     */
+    private int take(int length) throws IOException {
+        if (this.pendingLength > BUFFER_SIZE - length) {
+            this.update();
+        }
+
+        int index = this.pendingLength;
+        this.reader.readBytes(this.pending, index, length);
+        this.pendingLength = index + length;
+        return index;
+    }
+
+    /**
+     * Returns the checksum of the bytes read since the checksum was last reset.
+     *
+     * @return the checksum value
+     */
+    public long checksum() {
+        this.update();
+        return this.checksum.getValue();
+    }
+
+    /**
+     * Checks that a checksum returned by {@link #checksum()} matches the expected checksum.
+     *
+     * @param checksum the checksum of the bytes read
+     * @param expected the expected checksum, usually stored after the bytes
+     * @throws IOException if the checksums do not match
+     */
+    public void verify(long checksum, long expected) throws IOException {
+        if (checksum != expected) {
+            throw new IOException("checksum mismatch: expected " + Long.toHexString(expected) + " but was " + Long.toHexString(checksum));
+        }
+    }
+
+    /**
+     * Checks that the checksum of the bytes read since the checksum was last reset matches the expected checksum.
+     *
+     * @param expected the expected checksum
+     * @throws IOException if the checksums do not match
+     */
+    public void verify(long expected) throws IOException {
+        this.verify(this.checksum(), expected);
+    }
+
+    /**
+     * Resets the checksum, usually at the start of a block.
+     */
+    public void resetChecksum() {
+        this.pendingLength = 0;
+        this.checksum.reset();
+    }
+
+    @Override
+    public long available() throws IOException {
+        return this.reader.available();
+    }
+
+    @Override
+    public boolean hasRemaining(int length) throws IOException {
+        return this.reader.hasRemaining(length);
+    }
+
+    @Override
+    public int read(byte[] bytes, int start, int length) throws IOException {
+        int n = this.reader.read(bytes, start, length);
+        if (n > 0) {
+            this.update(bytes, start, n);
+        }
+
+        return n;
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        int b = this.reader.readUnsignedByte();
+        if (this.pendingLength == BUFFER_SIZE) {
+            this.update();
+        }
+
+        this.pending[this.pendingLength++] = (byte) b;
+        return b;
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        this.reader.readBytes(bytes, start, length);
+        this.update(bytes, start, length);
+        return bytes;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return this.view.getShort(this.take(2)) & 0xFFFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return this.view.getShort(this.take(2));
+    }
+
+    @Override
+    public long readUnsignedInt() throws IOException {
+        return this.view.getInt(this.take(4)) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return this.view.getInt(this.take(4));
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return this.view.getLong(this.take(8));
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return this.view.getChar(this.take(2));
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return this.view.getFloat(this.take(4));
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return this.view.getDouble(this.take(8));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads from a sequence of byte buffers (fragments) as if they were a single contiguous buffer.
+ * The reader uses its own views of the fragments, so the positions and limits of the original buffers are never modified.
+ * Values which lie within a single fragment are read directly from that fragment, values which span multiple fragments are assembled byte per byte.
+ * Positions are relative to the start of the first fragment.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class CompositeReader extends AbstractChunkedReader implements SeekableReader {
+    protected final ByteBuffer[] fragments;
+    // The positions of the fragments in the composite data.
+    protected final long[] offsets;
+    protected final long length;
+    // The index of the current fragment.
+    protected int fragment;
+
+    /**
+     * Constructs a new composite reader reading from the position to the limit of every fragment.
+     *
+     * @param endianness the endianness of the reader
+     * @param fragments  the fragments to read from
+     */
+    public CompositeReader(Endianness endianness, ByteBuffer... fragments) {
+        super(endianness);
+        ByteOrder order = endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        this.fragments = new ByteBuffer[fragments.length];
+        this.offsets = new long[fragments.length];
+        long length = 0;
+        for (int i = 0; i < fragments.length; i++) {
+            // Slice the fragments so every fragment starts at index 0.
+            this.fragments[i] = fragments[i].slice().order(order);
+            this.offsets[i] = length;
+            length += this.fragments[i].remaining();
+        }
+
+        this.length = length;
+    }
+
+    /**
+     * Constructs a new composite reader reading from the position to the limit of every fragment.
+     *
+     * @param endianness the endianness of the reader
+     * @param fragments  the fragments to read from
+     */
+    public CompositeReader(Endianness endianness, List<ByteBuffer> fragments) {
+        this(endianness, fragments.toArray(new ByteBuffer[0]));
+    }
+
+    /**
+     * Constructs a new composite reader reading from entire byte arrays.
+     *
+     * @param endianness the endianness of the reader
+     * @param fragments  the fragments to read from
+     */
+    public CompositeReader(Endianness endianness, byte[][] fragments) {
+        this(endianness, wrap(fragments));
+    }
+
+    private static ByteBuffer[] wrap(byte[][] fragments) {
+        ByteBuffer[] buffers = new ByteBuffer[fragments.length];
+        for (int i = 0; i < fragments.length; i++) {
+            buffers[i] = ByteBuffer.wrap(fragments[i]);
+        }
+
+        return buffers;
+    }
+
+    /**
+     * Returns the position of the reader in the composite data.
+     *
+     * @return the position
+     */
+    @Override
+    public long position() {
+        if (this.fragment == this.fragments.length) {
+            return this.length;
+        }
+
+        return this.offsets[this.fragment] + this.fragments[this.fragment].position();
+    }
+
+    /**
+     * Returns the amount of bytes remaining in the composite data.
+     *
+     * @return the amount of bytes remaining
+     */
+    @Override
+    public long remaining() {
+        return this.length - this.position();
+    }
+
+    /**
+     * Moves the reader to a new position in the composite data.
+     *
+     * @param position the new position
+     * @throws EOFException             if the position is beyond the end of the data
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    @Override
+    public void seek(long position) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position " + position + " is before the start 0");
+        }
+
+        if (position > this.length) {
+            this.close();
+            throw EndOfStream.exception();
+        }
+
+        // Fragments before the new position are fully read, fragments after it are not read at all.
+        this.fragment = this.fragments.length;
+        for (int i = this.fragments.length - 1; i >= 0; i--) {
+            ByteBuffer fragment = this.fragments[i];
+            long offset = this.offsets[i];
+            if (position >= offset + fragment.limit()) {
+                fragment.position(fragment.limit());
+            } else {
+                fragment.position((int) Math.max(0, position - offset));
+                this.fragment = i;
+            }
+        }
+    }
+
+    /**
+     * Returns the current fragment, moving to the next fragment if the current one has no bytes remaining.
+     *
+     * @return the current fragment, or null at the end of the data
+     */
+    @Override
+    protected ByteBuffer current() {
+        while (this.fragment < this.fragments.length) {
+            ByteBuffer fragment = this.fragments[this.fragment];
+            if (fragment.hasRemaining()) {
+                return fragment;
+            }
+
+            this.fragment++;
+        }
+
+        return null;
+    }
+
+    @Override
+    public CompositeReader slice(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        if (length > this.remaining()) {
+            this.close();
+            throw EndOfStream.exception();
+        }
+
+        // Share the fragments by creating views of the parts in the slice.
+        ByteBuffer[] fragments = new ByteBuffer[0];
+        int count = 0;
+        while (length > 0) {
+            ByteBuffer fragment = this.current();
+            int n = (int) Math.min(length, fragment.remaining());
+            ByteBuffer view = fragment.slice();
+            view.limit(n);
+            if (count == fragments.length) {
+                fragments = Arrays.copyOf(fragments, Math.max(4, count * 2));
+            }
+
+            fragments[count++] = view;
+            fragment.position(fragment.position() + n);
+            length -= n;
+        }
+
+        return new CompositeReader(this.endianness, Arrays.copyOf(fragments, count));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.fragment = this.fragments.length;
+    }
+}
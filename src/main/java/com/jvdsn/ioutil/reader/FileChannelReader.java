@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads from a file channel through a buffer.
+ * The reader uses positional reads, so the position of the file channel itself is never modified.
+ * The buffer is borrowed from the default buffer pool, and released when the reader is closed.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class FileChannelReader extends AbstractReader implements SeekableReader {
+    /**
+     * The default size of the buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    protected FileChannel channel;
+    protected byte[] buffer;
+    protected ByteBuffer byteBuffer;
+    // The position in the file of the first byte in the buffer.
+    protected long bufferStart;
+    protected int bufferPos;
+    protected int bufferLimit;
+
+    /**
+     * Constructs a new file channel reader.
+     *
+     * @param endianness the endianness of the reader
+     * @param channel    the file channel to read from
+     * @param position   the position in the file to start reading at
+     * @param bufferSize the minimum size of the buffer
+     */
+    public FileChannelReader(Endianness endianness, FileChannel channel, long position, int bufferSize) {
+        super(endianness);
+        this.channel = channel;
+        this.buffer = BufferPool.DEFAULT.acquireBytes(bufferSize);
+        this.byteBuffer = ByteBuffer.wrap(this.buffer);
+        this.bufferStart = position;
+    }
+
+    /**
+     * Constructs a new file channel reader reading from the current position of the file channel.
+     *
+     * @param endianness the endianness of the reader
+     * @param channel    the file channel to read from
+     * @throws IOException if an I/O error occurs
+     */
+    public FileChannelReader(Endianness endianness, FileChannel channel) throws IOException {
+        this(endianness, channel, channel.position(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Rebinds the reader to a new file channel, so it can be reused (including its buffer) instead of constructing a new reader.
+     * The previous file channel is not closed, and this reader should not have been closed either.
+     *
+     * @param channel  the file channel to read from
+     * @param position the position in the file to start reading at
+     */
+    public void reset(FileChannel channel, long position) {
+        this.channel = channel;
+        this.bufferStart = position;
+        this.bufferPos = 0;
+        this.bufferLimit = 0;
+    }
+
+    /**
+     * Returns the position of the reader in the file.
+     *
+     * @return the position
+     */
+    @Override
+    public long position() {
+        return this.bufferStart + this.bufferPos;
+    }
+
+    /**
+     * Returns the amount of bytes remaining in the file.
+     *
+     * @return the amount of bytes remaining
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public long remaining() throws IOException {
+        return Math.max(0, this.channel.size() - this.position());
+    }
+
+    /**
+     * Moves the reader to a new position in the file.
+     * If the new position is in the buffer, no I/O is performed.
+     *
+     * @param position the new position
+     * @throws EOFException             if the position is beyond the end of the data
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    @Override
+    public void seek(long position) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position " + position + " is before the start 0");
+        }
+
+        if (position >= this.bufferStart && position <= this.bufferStart + this.bufferLimit) {
+            this.bufferPos = (int) (position - this.bufferStart);
+            return;
+        }
+
+        long size = this.channel.size();
+        this.bufferStart = Math.min(position, size);
+        this.bufferPos = 0;
+        this.bufferLimit = 0;
+        if (position > size) {
+            throw EndOfStream.exception();
+        }
+    }
+
+    /**
+     * Refills the buffer starting at the current position.
+     *
+     * @return false if the end of the file was reached
+     * @throws IOException if an I/O error occurs
+     */
+    protected boolean fill() throws IOException {
+        this.bufferStart += this.bufferPos;
+        this.bufferPos = 0;
+        this.bufferLimit = 0;
+        this.byteBuffer.clear();
+        int n = this.channel.read(this.byteBuffer, this.bufferStart);
+        this.bufferLimit = this.byteBuffer.position();
+        return n > 0;
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        if (this.bufferPos == this.bufferLimit && !this.fill()) {
+            throw EndOfStream.exception();
+        }
+
+        return this.buffer[this.bufferPos++] & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        while (length > 0) {
+            if (this.bufferPos == this.bufferLimit && !this.fill()) {
+                throw EndOfStream.exception();
+            }
+
+            int n = Math.min(length, this.bufferLimit - this.bufferPos);
+            System.arraycopy(this.buffer, this.bufferPos, bytes, start, n);
+            this.bufferPos += n;
+            start += n;
+            length -= n;
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        this.seek(this.position() + length);
+    }
+
+    /**
+     * Transfers length bytes to a channel, without copying them through the Java heap if the operating system supports it.
+     * The reader is positioned after the transferred bytes.
+     *
+     * @param target the channel to transfer to, which should be in blocking mode
+     * @param length the amount of bytes to transfer
+     * @throws EOFException if no more data can be read
+     */
+    public void transferTo(WritableByteChannel target, long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        long position = this.position();
+        long end = position + length;
+        while (position < end) {
+            long n = this.channel.transferTo(position, end - position, target);
+            if (n <= 0) {
+                this.seek(position);
+                throw EndOfStream.exception();
+            }
+
+            position += n;
+        }
+
+        this.seek(end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.buffer.length > 0) {
+            BufferPool.DEFAULT.releaseBytes(this.buffer);
+            // Any further read will end up at the end of the stream, rather than in a released buffer.
+            this.buffer = new byte[0];
+            this.byteBuffer = ByteBuffer.wrap(this.buffer);
+            this.bufferStart += this.bufferPos;
+            this.bufferPos = 0;
+            this.bufferLimit = 0;
+        }
+
+        this.channel.close();
+    }
+}
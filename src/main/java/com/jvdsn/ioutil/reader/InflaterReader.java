@@ -0,0 +1,391 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.compress.DeflateFormat;
+import com.jvdsn.ioutil.compress.Gzip;
+import com.jvdsn.ioutil.compress.ZlibPool;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads deflate compressed data from another reader, decompressing it a block at a time.
+ * The decompressed bytes are buffered, so primitives are decoded from the buffer directly, and large reads are decompressed into the array directly.
+ * <p>
+ * Compressed bytes are read from the other reader in blocks of the buffer size, so bytes after the compressed data may have been read from it as well.
+ * The end of this reader is the end of the compressed data. If the compressed data is truncated, an EOFException is thrown instead.
+ * Like the gzip tool, concatenated gzip members are decompressed as one, so gzip data must extend to the end of the other reader: any bytes after a member must be another member.
+ * The inflater is borrowed from the default zlib pool and the buffers from the default buffer pool, they are released when the reader is closed.
+ * Closing this reader closes the other reader.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class InflaterReader extends AbstractReader {
+    /**
+     * The default size of the buffers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    protected final Reader reader;
+    protected final DeflateFormat format;
+    protected Inflater inflater;
+    // The decompressed bytes are between the position and the limit of the buffer.
+    protected ByteBuffer buffer;
+    private byte[] input;
+    private int inputOffset;
+    private int inputLength;
+    // The CRC-32 of the decompressed bytes, only for gzip.
+    private final CRC32 crc;
+    private boolean finished;
+
+    /**
+     * Constructs a new inflater reader. The gzip header, if any, is read immediately.
+     *
+     * @param endianness the endianness of the reader
+     * @param reader     the reader to read the compressed data from
+     * @param format     the format of the compressed data
+     * @param bufferSize the minimum size of the buffers
+     * @throws IOException if an I/O error occurs
+     */
+    public InflaterReader(Endianness endianness, Reader reader, DeflateFormat format, int bufferSize) throws IOException {
+        super(endianness);
+        this.reader = reader;
+        this.format = format;
+        this.crc = format == DeflateFormat.GZIP ? new CRC32() : null;
+        if (this.crc != null) {
+            Gzip.readHeader(reader);
+        }
+
+        this.inflater = ZlibPool.DEFAULT.acquireInflater(format.nowrap());
+        this.input = BufferPool.DEFAULT.acquireBytes(bufferSize);
+        this.buffer = ByteBuffer.wrap(BufferPool.DEFAULT.acquireBytes(bufferSize)).order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        this.buffer.limit(0);
+    }
+
+    /**
+     * Constructs a new inflater reader with the default buffer size. The gzip header, if any, is read immediately.
+     *
+     * @param endianness the endianness of the reader
+     * @param reader     the reader to read the compressed data from
+     * @param format     the format of the compressed data
+     * @throws IOException if an I/O error occurs
+     */
+    public InflaterReader(Endianness endianness, Reader reader, DeflateFormat format) throws IOException {
+        this(endianness, reader, format, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Decompresses into an array, reading compressed bytes from the other reader as needed.
+     *
+     * @param bytes  the array to decompress into
+     * @param start  the index to decompress to
+     * @param length the maximum amount of bytes to decompress
+     * @return the amount of bytes decompressed, 0 only if the end of the compressed data was reached
+     * @throws IOException if an I/O error occurs or the compressed data is corrupt
+     */
+    private int inflate(byte[] bytes, int start, int length) throws IOException {
+        if (this.finished) {
+            return 0;
+        }
+
+        try {
+            while (true) {
+                int n = this.inflater.inflate(bytes, start, length);
+                if (n > 0) {
+                    if (this.crc != null) {
+                        this.crc.update(bytes, start, n);
+                    }
+
+                    return n;
+                }
+
+                if (this.inflater.finished()) {
+                    this.finish();
+                    if (this.finished) {
+                        return 0;
+                    }
+
+                    continue;
+                }
+
+                if (this.inflater.needsDictionary()) {
+                    throw new ZipException("compressed data requires a preset dictionary");
+                }
+
+                if (this.inflater.needsInput()) {
+                    this.inputOffset = 0;
+                    this.inputLength = this.reader.read(this.input, 0, this.input.length);
+                    if (this.inputLength < 0) {
+                        this.inputLength = 0;
+                        throw new EOFException("Unexpected end of compressed data.");
+                    }
+
+                    this.inflater.setInput(this.input, 0, this.inputLength);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        }
+    }
+
+    private void finish() throws IOException {
+        if (this.crc == null) {
+            this.finished = true;
+            return;
+        }
+
+        // The trailer follows the compressed data, so part of it may have been read already.
+        byte[] trailer = new byte[Gzip.TRAILER_SIZE];
+        int n = Math.min(this.inflater.getRemaining(), Gzip.TRAILER_SIZE);
+        this.inputOffset = this.inputLength - this.inflater.getRemaining();
+        System.arraycopy(this.input, this.inputOffset, trailer, 0, n);
+        this.inputOffset += n;
+        this.reader.readBytes(trailer, n, Gzip.TRAILER_SIZE - n);
+        Gzip.checkTrailer(trailer, this.crc.getValue(), this.inflater.getBytesWritten());
+
+        // Any bytes after the trailer are the next member, which starts with its own header.
+        MemberReader member = new MemberReader();
+        if (!member.fill()) {
+            this.finished = true;
+            return;
+        }
+
+        Gzip.readHeader(member);
+        this.inflater.reset();
+        this.crc.reset();
+        this.inflater.setInput(this.input, this.inputOffset, this.inputLength - this.inputOffset);
+    }
+
+    /**
+     * Decompresses until at least length bytes (at most the capacity of the buffer) are buffered.
+     *
+     * @param length the minimum amount of bytes to buffer
+     * @return false if the end of the compressed data was reached first
+     * @throws IOException if an I/O error occurs or the compressed data is corrupt
+     */
+    protected boolean fill(int length) throws IOException {
+        this.buffer.compact();
+        try {
+            while (this.buffer.position() < length) {
+                int position = this.buffer.position();
+                int n = this.inflate(this.buffer.array(), position, this.buffer.capacity() - position);
+                if (n == 0) {
+                    return false;
+                }
+
+                this.buffer.position(position + n);
+            }
+
+            return true;
+        } finally {
+            this.buffer.flip();
+        }
+    }
+
+    /**
+     * Makes sure at least length bytes are buffered.
+     *
+     * @param length the amount of bytes
+     * @throws EOFException if the end of the compressed data is reached first
+     */
+    protected void require(int length) throws IOException {
+        if (this.buffer.remaining() < length && !this.fill(length)) {
+            this.buffer.position(this.buffer.limit());
+            throw EndOfStream.exception();
+        }
+    }
+
+    /**
+     * Returns the amount of buffered bytes, which can be read without decompressing.
+     *
+     * @return the amount of bytes
+     */
+    @Override
+    public long available() {
+        return this.buffer.remaining();
+    }
+
+    @Override
+    public boolean hasRemaining(int length) throws IOException {
+        if (length < 0 || length > this.buffer.capacity()) {
+            throw new IllegalArgumentException("length " + length + " is not between 0 and the buffer size " + this.buffer.capacity());
+        }
+
+        return this.buffer.remaining() >= length || this.fill(length);
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        this.require(1);
+        return this.buffer.get() & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        int n = Math.min(length, this.buffer.remaining());
+        this.buffer.get(bytes, start, n);
+        start += n;
+        length -= n;
+        while (length > 0) {
+            if (length >= this.buffer.capacity()) {
+                // Large reads are decompressed into the array directly, rather than through the buffer.
+                n = this.inflate(bytes, start, length);
+                if (n == 0) {
+                    throw EndOfStream.exception();
+                }
+            } else {
+                this.require(1);
+                n = Math.min(length, this.buffer.remaining());
+                this.buffer.get(bytes, start, n);
+            }
+
+            start += n;
+            length -= n;
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort() & 0xFFFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort();
+    }
+
+    @Override
+    public long readUnsignedInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt() & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        this.require(8);
+        return this.buffer.getLong();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        this.require(2);
+        return this.buffer.getChar();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        this.require(4);
+        return this.buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        this.require(8);
+        return this.buffer.getDouble();
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        while (length > 0) {
+            this.require(1);
+            int n = (int) Math.min(length, this.buffer.remaining());
+            this.buffer.position(this.buffer.position() + n);
+            length -= n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.inflater == null) {
+            return;
+        }
+
+        ZlibPool.DEFAULT.releaseInflater(this.inflater, this.format.nowrap());
+        BufferPool.DEFAULT.releaseBytes(this.input);
+        BufferPool.DEFAULT.releaseBytes(this.buffer.array());
+        this.inflater = null;
+        this.input = null;
+        this.buffer = ByteBuffer.allocate(0);
+        this.finished = true;
+        this.reader.close();
+    }
+
+    /**
+     * Reads the header of the next gzip member from the compressed bytes which were already read, followed by the other reader.
+     */
+    private class MemberReader extends AbstractReader {
+        private MemberReader() {
+            super(Endianness.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Reads compressed bytes from the other reader if none are left.
+         *
+         * @return false if the end of the other reader was reached first
+         * @throws IOException if an I/O error occurs
+         */
+        private boolean fill() throws IOException {
+            if (InflaterReader.this.inputOffset < InflaterReader.this.inputLength) {
+                return true;
+            }
+
+            InflaterReader.this.inputOffset = 0;
+            InflaterReader.this.inputLength = Math.max(0, InflaterReader.this.reader.read(InflaterReader.this.input, 0, InflaterReader.this.input.length));
+            return InflaterReader.this.inputLength > 0;
+        }
+
+        @Override
+        public int readUnsignedByte() throws IOException {
+            if (!this.fill()) {
+                throw new EOFException("Unexpected end of gzip header.");
+            }
+
+            return InflaterReader.this.input[InflaterReader.this.inputOffset++] & 0xFF;
+        }
+
+        @Override
+        public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                bytes[start + i] = (byte) this.readUnsignedByte();
+            }
+
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
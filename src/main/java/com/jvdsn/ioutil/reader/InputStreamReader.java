@@ -10,22 +10,27 @@
 
 package com.jvdsn.ioutil.reader;
 
+import com.jvdsn.ioutil.EndOfStream;
 import com.jvdsn.ioutil.Endianness;
 
-import java.io.EOFException;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
 /**
  * Reads from an input stream.
+ * To look ahead with {@link #hasRemaining(int)}, the input stream is wrapped in a buffered input stream the first time it is called,
+ * after which bytes may have been read from the input stream which this reader has not returned yet.
  *
  * @author Joachim Vandersmissen
  */
 public class InputStreamReader extends AbstractReader {
-    protected final InputStream inputStream;
+    protected InputStream inputStream;
 
     /**
      * Constructs a new input stream reader.
+     * The input stream is only read as far as the reader has read, unless {@link #hasRemaining(int)} is called:
+     * from then on the reader reads through a buffer, so the input stream should not be read directly anymore.
      *
      * @param endianness the endianness of the reader
      * @param inputStream  the input stream to read from
@@ -35,11 +40,21 @@ public class InputStreamReader extends AbstractReader {
         this.inputStream = inputStream;
     }
 
+    /**
+     * Rebinds the reader to a new input stream, so it can be reused instead of constructing a new reader.
+     * The previous input stream is not closed.
+     *
+     * @param inputStream the input stream to read from
+     */
+    public void reset(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
     @Override
     public int readUnsignedByte() throws IOException {
         int i = this.inputStream.read();
         if (i == -1) {
-            throw new EOFException("End of stream.");
+            throw EndOfStream.exception();
         }
 
         return i;
@@ -48,12 +63,76 @@ public class InputStreamReader extends AbstractReader {
     @Override
     public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
         if (this.inputStream.read(bytes, start, length) == -1) {
-            throw new EOFException("End of stream.");
+            throw EndOfStream.exception();
         }
 
         return bytes;
     }
 
+    /**
+     * Returns an estimate of the amount of bytes which can be read without blocking, as returned by the input stream.
+     *
+     * @return the amount of bytes
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public long available() throws IOException {
+        return this.inputStream.available();
+    }
+
+    @Override
+    public boolean hasRemaining(int length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        if (this.inputStream.available() >= length) {
+            return true;
+        }
+
+        if (!(this.inputStream instanceof LookAheadInputStream)) {
+            this.inputStream = new LookAheadInputStream(this.inputStream, Math.max(length, 8192));
+        }
+
+        return ((LookAheadInputStream) this.inputStream).buffer(length);
+    }
+
+    @Override
+    public int read(byte[] bytes, int start, int length) throws IOException {
+        int n = 0;
+        while (n < length) {
+            int count = this.inputStream.read(bytes, start + n, length - n);
+            if (count < 0) {
+                break;
+            }
+
+            n += count;
+        }
+
+        return n == 0 && length > 0 ? -1 : n;
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        while (length > 0) {
+            long skipped = this.inputStream.skip(length);
+            if (skipped <= 0) {
+                // The input stream might not support skipping, or might be at the end of the stream.
+                if (this.inputStream.read() == -1) {
+                    throw EndOfStream.exception();
+                }
+
+                skipped = 1;
+            }
+
+            length -= skipped;
+        }
+    }
+
     @Override
     public void close() throws IOException {
         this.inputStream.close();
@@ -62,9 +141,53 @@ public class InputStreamReader extends AbstractReader {
     @Override
     public byte[] readBytes(byte... bytes) throws IOException {
         if (this.inputStream.read(bytes) == -1) {
-            throw new EOFException("End of stream.");
+            throw EndOfStream.exception();
         }
 
         return bytes;
     }
+
+    /**
+     * A buffered input stream which looks ahead in its own buffer, instead of reading the bytes into another buffer and moving back to a mark.
+     */
+    private static final class LookAheadInputStream extends BufferedInputStream {
+        private LookAheadInputStream(InputStream inputStream, int size) {
+            super(inputStream, size);
+        }
+
+        /**
+         * Fills the buffer until it contains at least length unread bytes, or the end of the stream is reached.
+         *
+         * @param length the amount of bytes
+         * @return true if the buffer contains at least length unread bytes
+         * @throws IOException if an I/O error occurs
+         */
+        private synchronized boolean buffer(int length) throws IOException {
+            if (this.count - this.pos >= length) {
+                return true;
+            }
+
+            if (this.buf == null) {
+                throw new IOException("Stream closed");
+            }
+
+            // Move the unread bytes to the start of the buffer, growing it if they would not fit. Marks are not used by the reader.
+            byte[] buffer = this.buf.length >= length ? this.buf : new byte[Math.max(length, this.buf.length * 2)];
+            System.arraycopy(this.buf, this.pos, buffer, 0, this.count - this.pos);
+            this.buf = buffer;
+            this.count -= this.pos;
+            this.pos = 0;
+            this.markpos = -1;
+            while (this.count < length) {
+                int n = this.in.read(this.buf, this.count, this.buf.length - this.count);
+                if (n < 0) {
+                    return false;
+                }
+
+                this.count += n;
+            }
+
+            return true;
+        }
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import java.io.IOException;
+
+/**
+ * Decodes Little Endian Base 128 values for the positional reads. The sequential reads decode inline, as they are on the hot path.
+ *
+ * @author Joachim Vandersmissen
+ */
+final class LEB128 {
+    private LEB128() {
+    }
+
+    /**
+     * Supplies the bytes of an encoded value.
+     */
+    @FunctionalInterface
+    interface ByteSource {
+        /**
+         * Returns the next byte of the encoded value.
+         *
+         * @param index the index of the byte in the encoded value
+         * @return the unsigned byte
+         * @throws IOException if an I/O error occurs
+         */
+        int byteAt(int index) throws IOException;
+    }
+
+    /**
+     * Decodes an unsigned Little Endian Base 128 (32 bit integer decoded).
+     *
+     * @param source the bytes of the encoded value
+     * @return the decoded unsigned int
+     * @throws IOException if an I/O error occurs
+     */
+    static long decodeUnsigned(ByteSource source) throws IOException {
+        long result = 0;
+        int i = 0;
+        int b;
+        do {
+            b = source.byteAt(i / 7);
+            // The 7 last bits in the byte are the 7 most significant ones as of yet
+            result |= (b & 0b01111111L) << i;
+            i += 7;
+            // If the first bit is not set, no more data is coming
+        } while ((b & 0b10000000) != 0);
+        return result;
+    }
+
+    /**
+     * Decodes a signed Little Endian Base 128 (32 bit integer decoded).
+     *
+     * @param source the bytes of the encoded value
+     * @return the decoded signed int
+     * @throws IOException if an I/O error occurs
+     */
+    static int decodeSigned(ByteSource source) throws IOException {
+        int result = 0;
+        int i = 0;
+        int b;
+        do {
+            b = source.byteAt(i / 7);
+            // The 7 last bits in the byte are the 7 most significant ones as of yet
+            result |= (b & 0b01111111) << i;
+            i += 7;
+            // If the first bit is not set, no more data is coming
+        } while ((b & 0b10000000) != 0);
+        // If the last sign bit is set, sign extend
+        if (i < 31 && (b & 0b01000000) != 0) {
+            result |= 0b11111111111111111111111111111111 << i;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.compress.LZ4Decompressor;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads LZ4 compressed data, as written by an LZ4 writer, from another reader, decompressing it a block at a time.
+ * The decompressed block is buffered, so primitives are decoded from the buffer directly.
+ * <p>
+ * The end of this reader is the end marker of the compressed data, the other reader is never read past it.
+ * If the compressed data is truncated, an EOFException is thrown instead.
+ * The buffers are borrowed from the default buffer pool, and grow if a block does not fit. They are released when the reader is closed.
+ * Blocks larger than the maximum block size are rejected as corrupt before anything is allocated for them.
+ * Closing this reader closes the other reader.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class LZ4Reader extends AbstractReader {
+    /**
+     * The default size of the buffers.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 65536;
+    /**
+     * The default maximum block size, as a multiple of the block size.
+     */
+    public static final int DEFAULT_MAX_BLOCK_SIZE_FACTOR = 16;
+
+    private static final int HEADER_SIZE = 8;
+    // The maximum amount of bytes left in the buffer when the next block is decompressed, the size of the largest primitive minus 1.
+    private static final int MAX_LEFTOVER = 7;
+
+    protected final Reader reader;
+    // The decompressed bytes are between the position and the limit of the buffer.
+    protected ByteBuffer buffer;
+    private byte[] input;
+    private final byte[] header = new byte[HEADER_SIZE];
+    private final int maxBlockSize;
+    private boolean finished;
+
+    /**
+     * Constructs a new LZ4 reader.
+     *
+     * @param endianness   the endianness of the reader
+     * @param reader       the reader to read the compressed data from
+     * @param blockSize    the expected size of the uncompressed blocks
+     * @param maxBlockSize the maximum size of the uncompressed blocks
+     */
+    public LZ4Reader(Endianness endianness, Reader reader, int blockSize, int maxBlockSize) {
+        super(endianness);
+        if (blockSize <= 0 || maxBlockSize < blockSize) {
+            throw new IllegalArgumentException("block size " + blockSize + " is not between 1 and the maximum block size " + maxBlockSize);
+        }
+
+        this.reader = reader;
+        this.maxBlockSize = maxBlockSize;
+        this.buffer = this.allocate(MAX_LEFTOVER + blockSize);
+        this.buffer.limit(0);
+        this.input = BufferPool.DEFAULT.acquireBytes(blockSize);
+    }
+
+    /**
+     * Constructs a new LZ4 reader with the default maximum block size.
+     *
+     * @param endianness the endianness of the reader
+     * @param reader     the reader to read the compressed data from
+     * @param blockSize  the expected size of the uncompressed blocks
+     */
+    public LZ4Reader(Endianness endianness, Reader reader, int blockSize) {
+        this(endianness, reader, blockSize, (int) Math.min(Integer.MAX_VALUE - MAX_LEFTOVER, (long) blockSize * DEFAULT_MAX_BLOCK_SIZE_FACTOR));
+    }
+
+    /**
+     * Constructs a new LZ4 reader with the default block size.
+     *
+     * @param endianness the endianness of the reader
+     * @param reader     the reader to read the compressed data from
+     */
+    public LZ4Reader(Endianness endianness, Reader reader) {
+        this(endianness, reader, DEFAULT_BLOCK_SIZE);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return ByteBuffer.wrap(BufferPool.DEFAULT.acquireBytes(capacity)).order(this.endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private int readHeader(int i) {
+        return this.header[i] & 0xFF | (this.header[i + 1] & 0xFF) << 8 | (this.header[i + 2] & 0xFF) << 16 | this.header[i + 3] << 24;
+    }
+
+    /**
+     * Reads the next block, and decompresses it after the position of the buffer.
+     *
+     * @return false if the end of the compressed data was reached
+     * @throws IOException if an I/O error occurs or the block is corrupt
+     */
+    private boolean readBlock() throws IOException {
+        if (this.finished) {
+            return false;
+        }
+
+        try {
+            this.reader.readBytes(this.header);
+        } catch (EOFException e) {
+            throw new EOFException("Unexpected end of compressed data.");
+        }
+
+        int compressedLength = this.readHeader(0);
+        int length = this.readHeader(4);
+        if (length == 0 && compressedLength == 0) {
+            this.finished = true;
+            return false;
+        }
+
+        if (length <= 0 || compressedLength <= 0 || compressedLength > length || length > this.maxBlockSize) {
+            throw new IOException("corrupt LZ4 block header: compressed length " + compressedLength + ", length " + length);
+        }
+
+        if (this.buffer.remaining() < length) {
+            if (this.buffer.position() > Integer.MAX_VALUE - length) {
+                throw new IOException("block of length " + length + " does not fit after " + this.buffer.position() + " buffered bytes");
+            }
+
+            // The block is larger than expected, move the leftover bytes to a larger buffer.
+            ByteBuffer buffer = this.allocate(this.buffer.position() + length);
+            this.buffer.flip();
+            buffer.put(this.buffer);
+            BufferPool.DEFAULT.releaseBytes(this.buffer.array());
+            this.buffer = buffer;
+        }
+
+        int position = this.buffer.position();
+        try {
+            if (compressedLength == length) {
+                // The block is stored uncompressed.
+                this.reader.readBytes(this.buffer.array(), position, length);
+            } else {
+                if (this.input.length < compressedLength) {
+                    BufferPool.DEFAULT.releaseBytes(this.input);
+                    this.input = BufferPool.DEFAULT.acquireBytes(compressedLength);
+                }
+
+                this.reader.readBytes(this.input, 0, compressedLength);
+                if (LZ4Decompressor.decompress(this.input, 0, compressedLength, this.buffer.array(), position, length) != length) {
+                    throw new IOException("corrupt LZ4 block: decompressed length does not match length " + length);
+                }
+            }
+        } catch (EOFException e) {
+            throw new EOFException("Unexpected end of compressed data.");
+        }
+
+        this.buffer.position(position + length);
+        return true;
+    }
+
+    /**
+     * Decompresses blocks until at least length bytes are buffered, growing the buffer if needed.
+     *
+     * @param length the minimum amount of bytes to buffer
+     * @return false if the end of the compressed data was reached first
+     * @throws IOException if an I/O error occurs or a block is corrupt
+     */
+    protected boolean fill(int length) throws IOException {
+        this.buffer.compact();
+        try {
+            while (this.buffer.position() < length) {
+                if (!this.readBlock()) {
+                    return false;
+                }
+            }
+
+            return true;
+        } finally {
+            this.buffer.flip();
+        }
+    }
+
+    /**
+     * Makes sure at least length bytes are buffered.
+     *
+     * @param length the amount of bytes
+     * @throws EOFException if the end of the compressed data is reached first
+     */
+    protected void require(int length) throws IOException {
+        if (this.buffer.remaining() < length && !this.fill(length)) {
+            this.buffer.position(this.buffer.limit());
+            throw EndOfStream.exception();
+        }
+    }
+
+    /**
+     * Returns the amount of buffered bytes, which can be read without decompressing.
+     *
+     * @return the amount of bytes
+     */
+    @Override
+    public long available() {
+        return this.buffer.remaining();
+    }
+
+    @Override
+    public boolean hasRemaining(int length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        return this.buffer.remaining() >= length || this.fill(length);
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        this.require(1);
+        return this.buffer.get() & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        while (length > 0) {
+            this.require(1);
+            int n = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, start, n);
+            start += n;
+            length -= n;
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort() & 0xFFFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort();
+    }
+
+    @Override
+    public long readUnsignedInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt() & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        this.require(8);
+        return this.buffer.getLong();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        this.require(2);
+        return this.buffer.getChar();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        this.require(4);
+        return this.buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        this.require(8);
+        return this.buffer.getDouble();
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        while (length > 0) {
+            this.require(1);
+            int n = (int) Math.min(length, this.buffer.remaining());
+            this.buffer.position(this.buffer.position() + n);
+            length -= n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.input == null) {
+            return;
+        }
+
+        BufferPool.DEFAULT.releaseBytes(this.input);
+        BufferPool.DEFAULT.releaseBytes(this.buffer.array());
+        this.input = null;
+        this.buffer = ByteBuffer.allocate(0);
+        this.finished = true;
+        this.reader.close();
+    }
+}
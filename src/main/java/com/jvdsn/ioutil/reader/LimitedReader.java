@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Reads a limited amount of bytes from another reader.
+ * Closing this reader skips the bytes which have not been read yet, but does not close the other reader.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class LimitedReader extends AbstractReader {
+    protected Reader reader;
+    protected long remaining;
+
+    /**
+     * Constructs a new limited reader.
+     *
+     * @param endianness the endianness of the reader
+     * @param reader     the reader to read from
+     * @param length     the amount of bytes to read before throwing EOFException
+     */
+    public LimitedReader(Endianness endianness, Reader reader, long length) {
+        super(endianness);
+        this.reset(reader, length);
+    }
+
+    /**
+     * Rebinds the reader to a new reader, so it can be reused instead of constructing a new reader.
+     * The unread bytes of the previous reader are not skipped.
+     *
+     * @param reader the reader to read from
+     * @param length the amount of bytes to read before throwing EOFException
+     */
+    public void reset(Reader reader, long length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        this.reader = reader;
+        this.remaining = length;
+    }
+
+    /**
+     * Returns the amount of bytes remaining before the limit is reached.
+     *
+     * @return the amount of bytes remaining
+     */
+    public long remaining() {
+        return this.remaining;
+    }
+
+    @Override
+    public long available() throws IOException {
+        return Math.min(this.remaining, this.reader.available());
+    }
+
+    @Override
+    public boolean hasRemaining(int length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        return this.remaining >= length && this.reader.hasRemaining(length);
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        if (this.remaining < 1) {
+            throw EndOfStream.exception();
+        }
+
+        int b = this.reader.readUnsignedByte();
+        this.remaining--;
+        return b;
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        if (this.remaining < length) {
+            throw EndOfStream.exception();
+        }
+
+        this.reader.readBytes(bytes, start, length);
+        this.remaining -= length;
+        return bytes;
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        if (this.remaining < length) {
+            throw EndOfStream.exception();
+        }
+
+        this.reader.skip(length);
+        this.remaining -= length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        long remaining = this.remaining;
+        this.remaining = 0;
+        this.reader.skip(remaining);
+    }
+}
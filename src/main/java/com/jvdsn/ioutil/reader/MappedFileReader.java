@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads from a memory mapped region of a file.
+ * Positions are relative to the start of the mapped region.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class MappedFileReader extends ByteBufferReader {
+    /**
+     * Constructs a new mapped file reader.
+     * The file channel can be closed after constructing the reader, the mapping remains valid.
+     *
+     * @param endianness the endianness of the reader
+     * @param channel    the file channel to map
+     * @param position   the position in the file to start the mapped region at
+     * @param size       the size of the mapped region
+     * @throws IOException if an I/O error occurs
+     */
+    public MappedFileReader(Endianness endianness, FileChannel channel, long position, long size) throws IOException {
+        super(endianness, channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+    }
+
+    /**
+     * Constructs a new mapped file reader mapping an entire file.
+     * The file channel can be closed after constructing the reader, the mapping remains valid.
+     *
+     * @param endianness the endianness of the reader
+     * @param channel    the file channel to map
+     * @throws IOException if an I/O error occurs
+     */
+    public MappedFileReader(Endianness endianness, FileChannel channel) throws IOException {
+        this(endianness, channel, 0, channel.size());
+    }
+}
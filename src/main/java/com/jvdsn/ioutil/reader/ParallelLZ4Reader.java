@@ -0,0 +1,493 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.compress.LZ4Decompressor;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads LZ4 compressed data from a positional reader, decompressing the blocks ahead of the reader concurrently on a fork/join pool.
+ * The compressed data must extend from the position of the positional reader to its end.
+ * <p>
+ * The block index written by a parallel LZ4 writer is used to find the blocks. Without an index, for example for data written by an LZ4 writer,
+ * the block headers are scanned once when the reader is constructed. Either way, the reader can seek to any position by decompressing only the block containing it.
+ * <p>
+ * This reader must only be used by one thread at a time, the positional reader is read concurrently by the pool.
+ * The buffers are borrowed from the default buffer pool, and released when the reader is closed.
+ * Closing this reader closes the positional reader.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ParallelLZ4Reader extends AbstractReader implements SeekableReader {
+    private static final int HEADER_SIZE = 8;
+    private static final int FOOTER_SIZE = 20;
+    private static final int INDEX_MAGIC = 0x49345A4C;
+    // Room in front of every decompressed block for the bytes left in the previous block, the size of the largest primitive minus 1.
+    private static final int HEADROOM = 7;
+
+    protected final PositionalReader reader;
+    protected final ForkJoinPool pool;
+    private final int readAhead;
+    // The position of the compressed data in the positional reader.
+    private final long start;
+    // The position of the header of every block, relative to the start of the compressed data.
+    private final long[] positions;
+    // The uncompressed position of every block, followed by the uncompressed length.
+    private final long[] offsets;
+    // The blocks after the current block which are being decompressed, in order.
+    private final ArrayDeque<BlockTask> pending = new ArrayDeque<>();
+    // The current block, between the headroom and the limit of the buffer.
+    protected ByteBuffer buffer;
+    private int block;
+    private boolean closed;
+
+    /**
+     * Constructs a new parallel LZ4 reader.
+     *
+     * @param endianness the endianness of the reader
+     * @param reader     the positional reader to read the compressed data from
+     * @param pool       the fork/join pool to decompress the blocks on
+     * @param readAhead  the maximum amount of blocks after the current block which are decompressed concurrently
+     * @throws IOException if an I/O error occurs or the compressed data is corrupt
+     */
+    public ParallelLZ4Reader(Endianness endianness, PositionalReader reader, ForkJoinPool pool, int readAhead) throws IOException {
+        super(endianness);
+        if (readAhead < 0) {
+            throw new IllegalArgumentException("negative read ahead " + readAhead);
+        }
+
+        this.reader = reader;
+        this.pool = pool;
+        this.readAhead = readAhead;
+        this.start = reader.position();
+        long end = this.start + reader.remaining();
+        byte[] footer = new byte[FOOTER_SIZE];
+        if (end - this.start >= HEADER_SIZE + FOOTER_SIZE && getInt(reader.readBytesAt(end - FOOTER_SIZE, footer), 16) == INDEX_MAGIC) {
+            int blockCount = getInt(footer, 0);
+            int blockSize = getInt(footer, 4);
+            long length = getLong(footer, 8);
+            if (blockCount < 0 || blockSize <= 0 || blockSize > Integer.MAX_VALUE - HEADROOM || (long) blockCount * 8 > end - this.start - HEADER_SIZE - FOOTER_SIZE || length > (long) blockCount * blockSize || (blockCount == 0 ? length != 0 : length <= (blockCount - 1L) * blockSize)) {
+                throw new IOException("corrupt LZ4 block index");
+            }
+
+            byte[] index = reader.readBytesAt(end - FOOTER_SIZE - blockCount * 8L, new byte[blockCount * 8]);
+            this.positions = new long[blockCount];
+            this.offsets = new long[blockCount + 1];
+            for (int i = 0; i < blockCount; i++) {
+                this.positions[i] = getLong(index, i * 8);
+                this.offsets[i] = (long) i * blockSize;
+            }
+
+            this.offsets[blockCount] = length;
+        } else {
+            long[] positions = new long[64];
+            long[] offsets = new long[65];
+            int blockCount = 0;
+            long position = 0;
+            byte[] header = new byte[HEADER_SIZE];
+            while (true) {
+                try {
+                    reader.readBytesAt(this.start + position, header);
+                } catch (EOFException e) {
+                    throw new EOFException("Unexpected end of compressed data.");
+                }
+
+                int compressedLength = getInt(header, 0);
+                int length = getInt(header, 4);
+                if (compressedLength == 0 && length == 0) {
+                    break;
+                }
+
+                if (length <= 0 || length > Integer.MAX_VALUE - HEADROOM || compressedLength <= 0 || compressedLength > length) {
+                    throw new IOException("corrupt LZ4 block header: compressed length " + compressedLength + ", length " + length);
+                }
+
+                if (blockCount == positions.length) {
+                    positions = Arrays.copyOf(positions, blockCount * 2);
+                    offsets = Arrays.copyOf(offsets, blockCount * 2 + 1);
+                }
+
+                positions[blockCount] = position;
+                offsets[blockCount + 1] = offsets[blockCount] + length;
+                blockCount++;
+                position += HEADER_SIZE + compressedLength;
+            }
+
+            this.positions = Arrays.copyOf(positions, blockCount);
+            this.offsets = Arrays.copyOf(offsets, blockCount + 1);
+        }
+
+        this.buffer = ByteBuffer.allocate(HEADROOM).order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        this.buffer.position(HEADROOM);
+        this.block = -1;
+    }
+
+    /**
+     * Constructs a new parallel LZ4 reader decompressing on the common pool, reading ahead as many blocks as the parallelism of the common pool.
+     *
+     * @param endianness the endianness of the reader
+     * @param reader     the positional reader to read the compressed data from
+     * @throws IOException if an I/O error occurs or the compressed data is corrupt
+     */
+    public ParallelLZ4Reader(Endianness endianness, PositionalReader reader) throws IOException {
+        this(endianness, reader, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    private static int getInt(byte[] bytes, int index) {
+        return bytes[index] & 0xFF | (bytes[index + 1] & 0xFF) << 8 | (bytes[index + 2] & 0xFF) << 16 | bytes[index + 3] << 24;
+    }
+
+    private static long getLong(byte[] bytes, int index) {
+        return getInt(bytes, index) & 0xFFFFFFFFL | (long) getInt(bytes, index + 4) << 32;
+    }
+
+    /**
+     * Decompresses a block after the headroom of a pooled array. The array is acquired and released by the reader, so it stays in the cache of the reading thread.
+     */
+    private final class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int block;
+        private final byte[] bytes;
+        private IOException failure;
+
+        BlockTask(int block) {
+            this.block = block;
+            this.bytes = ParallelLZ4Reader.this.acquire(block);
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                ParallelLZ4Reader.this.decompress(this.block, this.bytes);
+            } catch (IOException e) {
+                this.failure = e;
+            }
+        }
+    }
+
+    private byte[] acquire(int block) {
+        return BufferPool.DEFAULT.acquireBytes(HEADROOM + (int) (this.offsets[block + 1] - this.offsets[block]));
+    }
+
+    /**
+     * Decompresses a block after the headroom of an array.
+     *
+     * @param block the block
+     * @param bytes the array to decompress into, at least the headroom plus the length of the block
+     * @throws IOException if an I/O error occurs or the block is corrupt
+     */
+    private void decompress(int block, byte[] bytes) throws IOException {
+        long position = this.start + this.positions[block];
+        byte[] header = this.reader.readBytesAt(position, new byte[HEADER_SIZE]);
+        int compressedLength = getInt(header, 0);
+        int length = getInt(header, 4);
+        if (length != this.offsets[block + 1] - this.offsets[block] || compressedLength <= 0 || compressedLength > length) {
+            throw new IOException("corrupt LZ4 block header: compressed length " + compressedLength + ", length " + length);
+        }
+
+        if (compressedLength == length) {
+            // The block is stored uncompressed.
+            this.reader.readBytesAt(position + HEADER_SIZE, bytes, HEADROOM, length);
+            return;
+        }
+
+        byte[] input = BufferPool.DEFAULT.acquireBytes(compressedLength);
+        try {
+            this.reader.readBytesAt(position + HEADER_SIZE, input, 0, compressedLength);
+            if (LZ4Decompressor.decompress(input, 0, compressedLength, bytes, HEADROOM, length) != length) {
+                throw new IOException("corrupt LZ4 block: decompressed length does not match length " + length);
+            }
+        } finally {
+            BufferPool.DEFAULT.releaseBytes(input);
+        }
+    }
+
+    /**
+     * Waits until a block is decompressed, and returns it.
+     */
+    private byte[] join(BlockTask task) throws IOException {
+        try {
+            task.join();
+            if (task.failure != null) {
+                throw task.failure;
+            }
+        } catch (IOException | RuntimeException e) {
+            BufferPool.DEFAULT.releaseBytes(task.bytes);
+            throw e;
+        }
+
+        return task.bytes;
+    }
+
+    /**
+     * Cancels the blocks being decompressed, waiting for those which already started before releasing their buffers.
+     */
+    private void cancel() {
+        for (BlockTask task : this.pending) {
+            if (!task.cancel(false)) {
+                task.quietlyJoin();
+            }
+
+            BufferPool.DEFAULT.releaseBytes(task.bytes);
+        }
+
+        this.pending.clear();
+    }
+
+    /**
+     * Makes a block the current block, keeping the leftover bytes of the current block in front of it, and decompresses the blocks after it ahead.
+     *
+     * @param block    the block
+     * @param leftover the amount of bytes left in the current block, at most the headroom
+     * @throws IOException if an I/O error occurs or the block is corrupt
+     */
+    private void load(int block, int leftover) throws IOException {
+        byte[] bytes;
+        if (!this.pending.isEmpty() && this.pending.peek().block == block) {
+            bytes = this.join(this.pending.remove());
+        } else {
+            this.cancel();
+            bytes = this.acquire(block);
+            try {
+                this.decompress(block, bytes);
+            } catch (IOException | RuntimeException e) {
+                BufferPool.DEFAULT.releaseBytes(bytes);
+                throw e;
+            }
+        }
+
+        int next = this.pending.isEmpty() ? block + 1 : this.pending.peekLast().block + 1;
+        for (int i = next; i <= block + this.readAhead && i < this.positions.length; i++) {
+            BlockTask task = new BlockTask(i);
+            this.pool.execute(task);
+            this.pending.add(task);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, HEADROOM + (int) (this.offsets[block + 1] - this.offsets[block])).order(this.buffer.order());
+        buffer.position(HEADROOM - leftover);
+        for (int i = 0; i < leftover; i++) {
+            buffer.put(HEADROOM - leftover + i, this.buffer.get(this.buffer.position() + i));
+        }
+
+        this.release();
+        this.buffer = buffer;
+        this.block = block;
+    }
+
+    private void release() {
+        if (this.block >= 0) {
+            BufferPool.DEFAULT.releaseBytes(this.buffer.array());
+        }
+    }
+
+    /**
+     * Makes sure at least length bytes are buffered, moving to the next block if needed.
+     *
+     * @param length the amount of bytes, at most 8
+     * @throws EOFException if the end of the compressed data is reached first
+     */
+    protected void require(int length) throws IOException {
+        if (this.buffer.remaining() < length) {
+            if (this.block + 1 >= this.positions.length || this.closed) {
+                this.buffer.position(this.buffer.limit());
+                throw EndOfStream.exception();
+            }
+
+            this.load(this.block + 1, this.buffer.remaining());
+            if (this.buffer.remaining() < length) {
+                // Only the last block can be shorter than a primitive.
+                this.require(length);
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of blocks.
+     *
+     * @return the amount of blocks
+     */
+    public int blockCount() {
+        return this.positions.length;
+    }
+
+    /**
+     * Returns the uncompressed position of a block.
+     *
+     * @param block the block
+     * @return the position of the block
+     */
+    public long blockPosition(int block) {
+        return this.offsets[block];
+    }
+
+    /**
+     * Returns the uncompressed length of the data.
+     *
+     * @return the length
+     */
+    public long length() {
+        return this.offsets[this.positions.length];
+    }
+
+    @Override
+    public long position() {
+        return this.block < 0 ? 0 : this.offsets[this.block] + this.buffer.position() - HEADROOM;
+    }
+
+    @Override
+    public long remaining() {
+        return this.length() - this.position();
+    }
+
+    /**
+     * Moves the reader to an uncompressed position, decompressing only the block containing it.
+     */
+    @Override
+    public void seek(long position) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position " + position + " is before the start 0");
+        }
+
+        if (position > this.length()) {
+            throw EndOfStream.exception();
+        }
+
+        int block = Arrays.binarySearch(this.offsets, 0, this.positions.length, position);
+        if (block < 0) {
+            block = -block - 2;
+        }
+
+        if (block < 0) {
+            // The data is empty.
+            return;
+        }
+
+        if (block != this.block) {
+            this.load(block, 0);
+        }
+
+        this.buffer.position(HEADROOM + (int) (position - this.offsets[block]));
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        this.require(1);
+        return this.buffer.get() & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        if (length > this.remaining()) {
+            this.seek(this.length());
+            throw EndOfStream.exception();
+        }
+
+        while (length > 0) {
+            this.require(1);
+            int n = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, start, n);
+            start += n;
+            length -= n;
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort() & 0xFFFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        this.require(2);
+        return this.buffer.getShort();
+    }
+
+    @Override
+    public long readUnsignedInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt() & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        this.require(4);
+        return this.buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        this.require(8);
+        return this.buffer.getLong();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        this.require(2);
+        return this.buffer.getChar();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        this.require(4);
+        return this.buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        this.require(8);
+        return this.buffer.getDouble();
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        if (length > this.remaining()) {
+            this.seek(this.length());
+            throw EndOfStream.exception();
+        }
+
+        this.seek(this.position() + length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        this.cancel();
+        this.release();
+        // An empty block at the end, so the position is the length and nothing remains.
+        this.buffer = ByteBuffer.allocate(HEADROOM);
+        this.buffer.position(HEADROOM);
+        this.block = this.positions.length;
+        this.reader.close();
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A reader which supports reading at absolute positions in the underlying data.
+ * Positional reads never modify the position of the reader, so they can safely be performed by multiple threads concurrently.
+ *
+ * @author Joachim Vandersmissen
+ */
+public interface PositionalReader extends SeekableReader {
+    /**
+     * Reads an unsigned byte (8-bit integer) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the unsigned byte
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    int readUnsignedByteAt(long position) throws IOException;
+
+    /**
+     * Reads a signed byte (8-bit integer) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the byte
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    default byte readByteAt(long position) throws IOException {
+        return (byte) this.readUnsignedByteAt(position);
+    }
+
+    /**
+     * Reads length signed bytes in an array, starting at start (inclusive), at an absolute position.
+     *
+     * @param position the position to read at
+     * @param bytes    the array to read the bytes in
+     * @param start    the start position (inclusive)
+     * @param length   the amount of bytes to read
+     * @return the byte array
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    byte[] readBytesAt(long position, byte[] bytes, int start, int length) throws IOException;
+
+    /**
+     * Reads signed bytes in an array at an absolute position.
+     *
+     * @param position the position to read at
+     * @param bytes    the array to read the bytes in
+     * @return the byte array
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    default byte[] readBytesAt(long position, byte... bytes) throws IOException {
+        return this.readBytesAt(position, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads an unsigned short (16-bit integer) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the unsigned short
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    default int readUnsignedShortAt(long position) throws IOException {
+        return this.readShortAt(position) & 0xFFFF;
+    }
+
+    /**
+     * Reads a signed short (16-bit integer) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the short
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    short readShortAt(long position) throws IOException;
+
+    /**
+     * Reads an unsigned int (32-bit integer) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the unsigned int
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    default long readUnsignedIntAt(long position) throws IOException {
+        return this.readIntAt(position) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Reads a signed int (32-bit integer) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the int
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    int readIntAt(long position) throws IOException;
+
+    /**
+     * Reads a signed long (64-bit integer) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the long
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    long readLongAt(long position) throws IOException;
+
+    /**
+     * Reads a char (unsigned 16-bit integer) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the char
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    default char readCharAt(long position) throws IOException {
+        return (char) this.readShortAt(position);
+    }
+
+    /**
+     * Reads a float (IEEE 754 binary32) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the float
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    default float readFloatAt(long position) throws IOException {
+        return Float.intBitsToFloat(this.readIntAt(position));
+    }
+
+    /**
+     * Reads a double (IEEE 754 binary64) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the double
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    default double readDoubleAt(long position) throws IOException {
+        return Double.longBitsToDouble(this.readLongAt(position));
+    }
+
+    /**
+     * Reads an unsigned Little Endian Base 128 (32 bit integer decoded) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the decoded unsigned int
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    default long readUnsignedLEB128At(long position) throws IOException {
+        return LEB128.decodeUnsigned(index -> this.readUnsignedByteAt(position + index));
+    }
+
+    /**
+     * Reads a signed Little Endian Base 128 (32 bit integer decoded) at an absolute position.
+     *
+     * @param position the position to read at
+     * @return the decoded signed int
+     * @throws EOFException             if the data ends before the value
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    default int readSignedLEB128At(long position) throws IOException {
+        return LEB128.decodeSigned(index -> this.readUnsignedByteAt(position + index));
+    }
+
+    @Override
+    default int peekUnsignedByte() throws IOException {
+        return this.readUnsignedByteAt(this.position());
+    }
+
+    @Override
+    default byte[] peekBytes(byte... bytes) throws IOException {
+        return this.readBytesAt(this.position(), bytes);
+    }
+
+    @Override
+    default int peekUnsignedShort() throws IOException {
+        return this.readUnsignedShortAt(this.position());
+    }
+
+    @Override
+    default short peekShort() throws IOException {
+        return this.readShortAt(this.position());
+    }
+
+    @Override
+    default long peekUnsignedInt() throws IOException {
+        return this.readUnsignedIntAt(this.position());
+    }
+
+    @Override
+    default int peekInt() throws IOException {
+        return this.readIntAt(this.position());
+    }
+
+    @Override
+    default long peekLong() throws IOException {
+        return this.readLongAt(this.position());
+    }
+
+    @Override
+    default char peekChar() throws IOException {
+        return this.readCharAt(this.position());
+    }
+
+    @Override
+    default float peekFloat() throws IOException {
+        return this.readFloatAt(this.position());
+    }
+
+    @Override
+    default double peekDouble() throws IOException {
+        return this.readDoubleAt(this.position());
+    }
+
+    @Override
+    default long peekUnsignedLEB128() throws IOException {
+        return this.readUnsignedLEB128At(this.position());
+    }
+}
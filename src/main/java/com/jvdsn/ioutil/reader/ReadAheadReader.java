@@ -0,0 +1,294 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Reads from an input stream through a ring of buffers, which a background thread fills ahead of the reader.
+ * Reading from the input stream overlaps with decoding the data, instead of alternating with it.
+ * The buffers are borrowed from the default buffer pool, and released when the reader is closed.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ReadAheadReader extends AbstractChunkedReader {
+    /**
+     * The default size of a buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+    /**
+     * The default amount of buffers.
+     */
+    public static final int DEFAULT_DEPTH = 3;
+
+    // Filled after the last buffer, when the end of the stream has been reached or reading failed.
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+    private static final ThreadFactory DEFAULT_THREAD_FACTORY = defaultThreadFactory();
+
+    protected final InputStream inputStream;
+    protected final int depth;
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> filled;
+    private final Thread thread;
+    private volatile Throwable failure;
+    // The buffer being read, or null if the next buffer has to be taken first.
+    protected ByteBuffer buffer;
+    // The buffer after the current one, if it has already been taken to look ahead.
+    protected ByteBuffer next;
+    protected boolean closed;
+
+    /**
+     * Constructs a new read-ahead reader and starts its thread.
+     *
+     * @param endianness    the endianness of the reader
+     * @param inputStream   the input stream to read from
+     * @param bufferSize    the minimum size of a buffer
+     * @param depth         the amount of buffers, at least 2: the reader reads one while the thread fills the others
+     * @param threadFactory the thread factory to create the thread with
+     */
+    public ReadAheadReader(Endianness endianness, InputStream inputStream, int bufferSize, int depth, ThreadFactory threadFactory) {
+        super(endianness);
+        if (depth < 2) {
+            throw new IllegalArgumentException("depth " + depth + " is less than 2");
+        }
+
+        this.inputStream = inputStream;
+        this.depth = depth;
+        this.free = new ArrayBlockingQueue<>(depth);
+        this.filled = new ArrayBlockingQueue<>(depth + 1);
+        ByteOrder order = endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        for (int i = 0; i < depth; i++) {
+            this.free.add(ByteBuffer.wrap(BufferPool.DEFAULT.acquireBytes(bufferSize)).order(order));
+        }
+
+        this.thread = threadFactory.newThread(this::run);
+        this.thread.start();
+    }
+
+    /**
+     * Constructs a new read-ahead reader with the default buffer size and depth, running on a virtual thread if available (Java 21+) or a daemon thread otherwise.
+     *
+     * @param endianness  the endianness of the reader
+     * @param inputStream the input stream to read from
+     */
+    public ReadAheadReader(Endianness endianness, InputStream inputStream) {
+        this(endianness, inputStream, DEFAULT_BUFFER_SIZE, DEFAULT_DEPTH, DEFAULT_THREAD_FACTORY);
+    }
+
+    private static ThreadFactory defaultThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class).invoke(builder, "ioutil-read-ahead");
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return runnable -> {
+                Thread thread = new Thread(runnable, "ioutil-read-ahead");
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+    private void run() {
+        // The buffer being filled, which has to be returned if reading fails.
+        ByteBuffer buffer = null;
+        try {
+            while (true) {
+                buffer = this.free.take();
+                byte[] array = buffer.array();
+                int length = 0;
+                int n = 0;
+                while (length < array.length && (n = this.inputStream.read(array, length, array.length - length)) >= 0) {
+                    length += n;
+                }
+
+                buffer.clear();
+                buffer.limit(length);
+                if (length > 0) {
+                    this.filled.put(buffer);
+                } else {
+                    this.free.add(buffer);
+                }
+
+                buffer = null;
+                if (n < 0) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // The reader has been closed.
+        } catch (Throwable t) {
+            // Any failure is recorded, so the reader does not wait forever for a thread which stopped reading.
+            this.failure = t;
+        } finally {
+            if (buffer != null) {
+                this.free.add(buffer);
+            }
+
+            // There is always room for the end, as there is one more place than buffers.
+            this.filled.add(END);
+        }
+    }
+
+    /**
+     * Returns the current buffer, taking the next buffer if the current one has no bytes remaining.
+     *
+     * @return the current buffer, or null at the end of the stream
+     * @throws IOException if reading from the input stream failed
+     */
+    @Override
+    protected ByteBuffer current() throws IOException {
+        while (this.buffer == null || !this.buffer.hasRemaining()) {
+            if (this.closed || this.buffer == END) {
+                return null;
+            }
+
+            if (this.buffer != null) {
+                this.free.add(this.buffer);
+            }
+
+            this.buffer = this.next != null ? this.next : this.take();
+            this.next = null;
+            this.check(this.buffer);
+        }
+
+        return this.buffer;
+    }
+
+    private ByteBuffer take() throws IOException {
+        try {
+            return this.filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for data");
+        }
+    }
+
+    private void check(ByteBuffer buffer) throws IOException {
+        if (buffer == END && this.failure != null) {
+            throw new IOException("read-ahead failed", this.failure);
+        }
+    }
+
+    /**
+     * Returns the amount of bytes which have been read ahead and taken by the reader, which can be read without waiting for the thread.
+     *
+     * @return the amount of bytes
+     */
+    @Override
+    public long available() {
+        long available = this.buffer != null ? this.buffer.remaining() : 0;
+        return this.next != null ? available + this.next.remaining() : available;
+    }
+
+    /**
+     * Returns whether at least length more bytes can be read, waiting for the thread to read them if necessary.
+     * The reader can look ahead at most the size of a buffer.
+     *
+     * @param length the amount of bytes
+     * @return true if length bytes can be read before the end of the stream
+     * @throws IOException              if reading from the input stream failed
+     * @throws IllegalArgumentException if length is negative or larger than the size of a buffer
+     */
+    @Override
+    public boolean hasRemaining(int length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        ByteBuffer buffer = this.current();
+        if (buffer == null) {
+            return length == 0;
+        }
+
+        if (buffer.remaining() >= length) {
+            return true;
+        }
+
+        if (length > buffer.capacity()) {
+            throw new IllegalArgumentException("length " + length + " is larger than the buffer size " + buffer.capacity());
+        }
+
+        // Only the last buffer is not filled completely, so one more buffer is enough to look ahead.
+        if (this.next == null) {
+            this.next = this.take();
+        }
+
+        this.check(this.next);
+
+        return buffer.remaining() + this.next.remaining() >= length;
+    }
+
+    /**
+     * Stops the thread, closes the input stream and releases the buffers.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        boolean interrupted = false;
+        try {
+            // Closing the input stream unblocks a thread waiting for data.
+            this.inputStream.close();
+        } finally {
+            this.thread.interrupt();
+            while (true) {
+                try {
+                    this.thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (this.buffer != null && this.buffer != END) {
+                BufferPool.DEFAULT.releaseBytes(this.buffer.array());
+            }
+
+            if (this.next != null && this.next != END) {
+                BufferPool.DEFAULT.releaseBytes(this.next.array());
+            }
+
+            this.buffer = null;
+            this.next = null;
+            for (ByteBuffer buffer : this.free) {
+                BufferPool.DEFAULT.releaseBytes(buffer.array());
+            }
+
+            for (ByteBuffer buffer : this.filled) {
+                if (buffer != END) {
+                    BufferPool.DEFAULT.releaseBytes(buffer.array());
+                }
+            }
+
+            this.free.clear();
+            this.filled.clear();
+        }
+    }
+}
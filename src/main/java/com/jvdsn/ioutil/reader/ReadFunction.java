@@ -0,0 +1,31 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import java.io.IOException;
+
+/**
+ * Reads a value from a reader, for reads which should be undone if they cannot complete.
+ *
+ * @param <T> the type of the value
+ * @author Joachim Vandersmissen
+ */
+@FunctionalInterface
+public interface ReadFunction<T> {
+    /**
+     * Reads the value.
+     *
+     * @param reader the reader to read from
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    T read(Reader reader) throws IOException;
+}
@@ -10,6 +10,8 @@
 
 package com.jvdsn.ioutil.reader;
 
+import com.jvdsn.ioutil.pool.BufferPool;
+
 import java.io.EOFException;
 import java.io.IOException;
 import java.math.BigInteger;
@@ -152,6 +154,182 @@ public interface Reader extends AutoCloseable {
      */
     int readSignedLEB128() throws IOException;
 
+    /**
+     * Returns the amount of bytes which can be read without blocking, which may be less than the amount of bytes remaining.
+     *
+     * @return the amount of bytes, or 0 if unknown
+     * @throws IOException if an I/O error occurs
+     */
+    default long available() throws IOException {
+        return 0;
+    }
+
+    /**
+     * Returns whether at least length more bytes can be read, waiting for them if necessary.
+     * Nothing is read, so this does not throw an exception at the end of the data.
+     * Readers which buffer the data can look ahead at most their buffer size.
+     *
+     * @param length the amount of bytes
+     * @return true if length bytes can be read before the end of the data
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException      if length is negative or larger than the reader can look ahead
+     * @throws UnsupportedOperationException if the reader cannot look ahead, which is the default
+     */
+    default boolean hasRemaining(int length) throws IOException {
+        throw new UnsupportedOperationException("reader cannot look ahead");
+    }
+
+    /**
+     * Reads at most length signed bytes in an array, starting at start (inclusive).
+     * Less than length bytes are read only if the end of the data is reached.
+     *
+     * @param bytes  the array to read the bytes in
+     * @param start  the start position (inclusive)
+     * @param length the maximum amount of bytes to read
+     * @return the amount of bytes read, or -1 if the end of the data was reached before any byte was read
+     * @throws IOException                   if an I/O error occurs
+     * @throws UnsupportedOperationException if the reader cannot look ahead, and does not override this method
+     */
+    default int read(byte[] bytes, int start, int length) throws IOException {
+        int n = 0;
+        while (n < length && this.hasRemaining(1)) {
+            // Read everything which can be read without blocking at once, or a byte at a time if that is unknown.
+            int chunk = (int) Math.max(1, Math.min(length - n, this.available()));
+            this.readBytes(bytes, start + n, chunk);
+            n += chunk;
+        }
+
+        return n == 0 && length > 0 ? -1 : n;
+    }
+
+    /**
+     * Reads an unsigned byte (8-bit integer), or returns a default value at the end of the data.
+     *
+     * @param defaultValue the value to return at the end of the data
+     * @return the unsigned byte, or the default value
+     * @throws IOException if an I/O error occurs
+     */
+    default int readUnsignedByteOrDefault(int defaultValue) throws IOException {
+        return this.hasRemaining(1) ? this.readUnsignedByte() : defaultValue;
+    }
+
+    /**
+     * Reads an unsigned short (16-bit integer), or returns a default value if less than 2 bytes remain. Nothing is read in that case.
+     *
+     * @param defaultValue the value to return at the end of the data
+     * @return the unsigned short, or the default value
+     * @throws IOException if an I/O error occurs
+     */
+    default int readUnsignedShortOrDefault(int defaultValue) throws IOException {
+        return this.hasRemaining(2) ? this.readUnsignedShort() : defaultValue;
+    }
+
+    /**
+     * Reads a signed short (16-bit integer), or returns a default value if less than 2 bytes remain. Nothing is read in that case.
+     *
+     * @param defaultValue the value to return at the end of the data
+     * @return the short, or the default value
+     * @throws IOException if an I/O error occurs
+     */
+    default short readShortOrDefault(short defaultValue) throws IOException {
+        return this.hasRemaining(2) ? this.readShort() : defaultValue;
+    }
+
+    /**
+     * Reads an unsigned int (32-bit integer), or returns a default value if less than 4 bytes remain. Nothing is read in that case.
+     *
+     * @param defaultValue the value to return at the end of the data
+     * @return the unsigned int, or the default value
+     * @throws IOException if an I/O error occurs
+     */
+    default long readUnsignedIntOrDefault(long defaultValue) throws IOException {
+        return this.hasRemaining(4) ? this.readUnsignedInt() : defaultValue;
+    }
+
+    /**
+     * Reads a signed int (32-bit integer), or returns a default value if less than 4 bytes remain. Nothing is read in that case.
+     *
+     * @param defaultValue the value to return at the end of the data
+     * @return the int, or the default value
+     * @throws IOException if an I/O error occurs
+     */
+    default int readIntOrDefault(int defaultValue) throws IOException {
+        return this.hasRemaining(4) ? this.readInt() : defaultValue;
+    }
+
+    /**
+     * Reads a signed long (64-bit integer), or returns a default value if less than 8 bytes remain. Nothing is read in that case.
+     *
+     * @param defaultValue the value to return at the end of the data
+     * @return the long, or the default value
+     * @throws IOException if an I/O error occurs
+     */
+    default long readLongOrDefault(long defaultValue) throws IOException {
+        return this.hasRemaining(8) ? this.readLong() : defaultValue;
+    }
+
+    /**
+     * Reads a float (32-bit floating point), or returns a default value if less than 4 bytes remain. Nothing is read in that case.
+     *
+     * @param defaultValue the value to return at the end of the data
+     * @return the float, or the default value
+     * @throws IOException if an I/O error occurs
+     */
+    default float readFloatOrDefault(float defaultValue) throws IOException {
+        return this.hasRemaining(4) ? this.readFloat() : defaultValue;
+    }
+
+    /**
+     * Reads a double (64-bit floating point), or returns a default value if less than 8 bytes remain. Nothing is read in that case.
+     *
+     * @param defaultValue the value to return at the end of the data
+     * @return the double, or the default value
+     * @throws IOException if an I/O error occurs
+     */
+    default double readDoubleOrDefault(double defaultValue) throws IOException {
+        return this.hasRemaining(8) ? this.readDouble() : defaultValue;
+    }
+
+    /**
+     * Skips length bytes.
+     *
+     * @param length the amount of bytes to skip
+     * @throws EOFException             if no more data can be read
+     * @throws IllegalArgumentException if length is negative
+     */
+    default void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        // Read and discard the bytes, this should be overridden if the underlying data supports skipping.
+        byte[] buffer = BufferPool.DEFAULT.acquireBytes((int) Math.min(length, AbstractReader.SKIP_BUFFER_SIZE));
+        try {
+            while (length > 0) {
+                int n = (int) Math.min(length, buffer.length);
+                this.readBytes(buffer, 0, n);
+                length -= n;
+            }
+        } finally {
+            BufferPool.DEFAULT.releaseBytes(buffer);
+        }
+    }
+
+    /**
+     * Returns a reader reading the next length bytes, sharing the underlying data if possible.
+     * This reader is positioned after those bytes once the returned reader has been closed, and should not be used before then.
+     * Closing the returned reader does not close this reader.
+     *
+     * @param length the amount of bytes in the slice
+     * @return the reader reading the slice
+     * @throws EOFException             if no more data can be read
+     * @throws IllegalArgumentException      if length is negative
+     * @throws UnsupportedOperationException if the reader does not support slicing, which is the default
+     */
+    default Reader slice(long length) throws IOException {
+        throw new UnsupportedOperationException("reader cannot be sliced");
+    }
+
     @Override
     void close() throws IOException;
 }
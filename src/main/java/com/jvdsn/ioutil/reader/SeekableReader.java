@@ -0,0 +1,273 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A reader which supports random access to the underlying data.
+ *
+ * @author Joachim Vandersmissen
+ */
+public interface SeekableReader extends Reader {
+    /**
+     * Returns the position of the reader in the underlying data.
+     *
+     * @return the position
+     * @throws IOException if an I/O error occurs
+     */
+    long position() throws IOException;
+
+    /**
+     * Returns the amount of bytes remaining in the underlying data.
+     *
+     * @return the amount of bytes remaining
+     * @throws IOException if an I/O error occurs
+     */
+    long remaining() throws IOException;
+
+    /**
+     * Moves the reader to a new position in the underlying data.
+     *
+     * @param position the new position
+     * @throws EOFException             if the position is beyond the end of the data
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    void seek(long position) throws IOException;
+
+    /**
+     * Returns the amount of bytes remaining, which can all be read without blocking.
+     *
+     * @return the amount of bytes remaining
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    default long available() throws IOException {
+        return this.remaining();
+    }
+
+    @Override
+    default boolean hasRemaining(int length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        return this.remaining() >= length;
+    }
+
+    /**
+     * Reads a value, or moves the reader back to where it was if the data ends before the value does.
+     * This allows decoding partially received data, and decoding it again from the same position once more data has been received.
+     *
+     * @param function the function reading the value, which can read any amount of values from this reader
+     * @param <T>      the type of the value
+     * @return the value, or null if the data ends before the value
+     * @throws IOException if an I/O error occurs
+     */
+    default <T> T tryRead(ReadFunction<T> function) throws IOException {
+        // Most attempts at the end of the received data find nothing at all, which is detected without an exception.
+        if (this.remaining() == 0) {
+            return null;
+        }
+
+        long position = this.position();
+        try {
+            return function.read(this);
+        } catch (EOFException e) {
+            this.seek(position);
+            return null;
+        }
+    }
+
+    /**
+     * Reads a value without moving the reader.
+     *
+     * @param function the function reading the value, which can read any amount of values from this reader
+     * @param <T>      the type of the value
+     * @return the value
+     * @throws EOFException if the data ends before the value
+     */
+    default <T> T peek(ReadFunction<T> function) throws IOException {
+        long position = this.position();
+        try {
+            return function.read(this);
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads an unsigned byte (8-bit integer) without moving the reader.
+     *
+     * @return the unsigned byte
+     * @throws EOFException if the data ends before the value
+     */
+    default int peekUnsignedByte() throws IOException {
+        long position = this.position();
+        try {
+            return this.readUnsignedByte();
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads signed bytes in an array without moving the reader.
+     *
+     * @param bytes the array to read the bytes in
+     * @return the byte array
+     * @throws EOFException if the data ends before the value
+     */
+    default byte[] peekBytes(byte... bytes) throws IOException {
+        long position = this.position();
+        try {
+            return this.readBytes(bytes);
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads an unsigned short (16-bit integer) without moving the reader.
+     *
+     * @return the unsigned short
+     * @throws EOFException if the data ends before the value
+     */
+    default int peekUnsignedShort() throws IOException {
+        long position = this.position();
+        try {
+            return this.readUnsignedShort();
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads a signed short (16-bit integer) without moving the reader.
+     *
+     * @return the short
+     * @throws EOFException if the data ends before the value
+     */
+    default short peekShort() throws IOException {
+        long position = this.position();
+        try {
+            return this.readShort();
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads an unsigned int (32-bit integer) without moving the reader.
+     *
+     * @return the unsigned int
+     * @throws EOFException if the data ends before the value
+     */
+    default long peekUnsignedInt() throws IOException {
+        long position = this.position();
+        try {
+            return this.readUnsignedInt();
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads a signed int (32-bit integer) without moving the reader.
+     *
+     * @return the int
+     * @throws EOFException if the data ends before the value
+     */
+    default int peekInt() throws IOException {
+        long position = this.position();
+        try {
+            return this.readInt();
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads a signed long (64-bit integer) without moving the reader.
+     *
+     * @return the long
+     * @throws EOFException if the data ends before the value
+     */
+    default long peekLong() throws IOException {
+        long position = this.position();
+        try {
+            return this.readLong();
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads a char (16-bit UTF-16 code unit) without moving the reader.
+     *
+     * @return the char
+     * @throws EOFException if the data ends before the value
+     */
+    default char peekChar() throws IOException {
+        long position = this.position();
+        try {
+            return this.readChar();
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads a float (32-bit floating point) without moving the reader.
+     *
+     * @return the float
+     * @throws EOFException if the data ends before the value
+     */
+    default float peekFloat() throws IOException {
+        long position = this.position();
+        try {
+            return this.readFloat();
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads a double (64-bit floating point) without moving the reader.
+     *
+     * @return the double
+     * @throws EOFException if the data ends before the value
+     */
+    default double peekDouble() throws IOException {
+        long position = this.position();
+        try {
+            return this.readDouble();
+        } finally {
+            this.seek(position);
+        }
+    }
+
+    /**
+     * Reads an unsigned Little Endian Base 128 (32 bit integer decoded) without moving the reader.
+     *
+     * @return the decoded unsigned int
+     * @throws EOFException if the data ends before the value
+     */
+    default long peekUnsignedLEB128() throws IOException {
+        long position = this.position();
+        try {
+            return this.readUnsignedLEB128();
+        } finally {
+            this.seek(position);
+        }
+    }
+}
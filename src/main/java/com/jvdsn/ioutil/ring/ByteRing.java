@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.ring;
+
+/**
+ * A bounded ring of bytes between one writer thread and one reader thread, without locks or allocation per message.
+ * The writer writes through a {@link RingWriter}, the reader reads through a {@link RingReader}, both of which wait for the other side according to a wait strategy.
+ * <p>
+ * The ring is a byte stream, not a queue of messages: messages should be framed, for example by a length prefix.
+ * Closing the writer lets the reader read the remaining bytes before reaching the end of the stream, closing the reader makes the writer reach the end of the stream immediately.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ByteRing {
+    /**
+     * The minimum capacity of a ring, so every primitive fits in it.
+     */
+    public static final int MIN_CAPACITY = 8;
+
+    final byte[] data;
+    final int mask;
+    final WaitStrategy waitStrategy;
+    // The amount of bytes ever written, only advanced by the writer.
+    final Sequence written = new Sequence();
+    // The amount of bytes ever read, only advanced by the reader.
+    final Sequence read = new Sequence();
+    volatile boolean writerClosed;
+    volatile boolean readerClosed;
+
+    /**
+     * Constructs a new byte ring.
+     *
+     * @param capacity     the capacity of the ring, which must be a power of two and at least {@link #MIN_CAPACITY}
+     * @param waitStrategy how the reader and writer wait for each other
+     */
+    public ByteRing(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < MIN_CAPACITY || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity " + capacity + " is not a power of two of at least " + MIN_CAPACITY);
+        }
+
+        this.data = new byte[capacity];
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Returns the capacity of the ring.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return this.data.length;
+    }
+
+    /**
+     * Returns the amount of bytes written but not read yet. This is only an estimate while the ring is in use.
+     *
+     * @return the amount of bytes
+     */
+    public int size() {
+        return (int) (this.written.get() - this.read.get());
+    }
+}
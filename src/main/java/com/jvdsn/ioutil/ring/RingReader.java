@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.ring;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.reader.AbstractReader;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Reads from a byte ring. Only one thread should read from a ring, and only through one reader.
+ * Read bytes are released to the writer after every read.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class RingReader extends AbstractReader {
+    protected final ByteRing ring;
+    // The local copy of the read sequence.
+    protected long read;
+    // The cached position up to which bytes can be read without checking the written sequence again.
+    protected long limit;
+    protected boolean closed;
+
+    /**
+     * Constructs a new ring reader.
+     *
+     * @param endianness the endianness of the reader
+     * @param ring       the ring to read from
+     */
+    public RingReader(Endianness endianness, ByteRing ring) {
+        super(endianness);
+        this.ring = ring;
+        this.read = ring.read.get();
+        this.limit = ring.written.get();
+    }
+
+    /**
+     * Waits until at least length bytes (at most the capacity of the ring) can be read.
+     * If the writer is closed before they are written, the remaining bytes are skipped.
+     *
+     * @param length the amount of bytes
+     * @throws EOFException if less than length bytes remain in the stream or the reader has been closed
+     */
+    protected void require(int length) throws EOFException {
+        if (this.closed) {
+            throw EndOfStream.exception();
+        }
+
+        if (!this.await(length)) {
+            this.read = this.limit;
+            this.ring.read.lazySet(this.read);
+            throw EndOfStream.exception();
+        }
+    }
+
+    /**
+     * Waits until at least length bytes can be read, or the writer is closed before they are written.
+     *
+     * @param length the amount of bytes
+     * @return false if the writer was closed first
+     */
+    private boolean await(int length) {
+        int attempt = 0;
+        while (this.read + length > this.limit) {
+            // Check if the writer was closed before checking the written sequence, so the last bytes are not missed.
+            boolean writerClosed = this.ring.writerClosed;
+            this.limit = this.ring.written.get();
+            if (this.read + length <= this.limit) {
+                break;
+            }
+
+            if (writerClosed) {
+                return false;
+            }
+
+            this.ring.waitStrategy.idle(attempt++);
+        }
+
+        return true;
+    }
+
+    private long get(int length) {
+        byte[] data = this.ring.data;
+        int mask = this.ring.mask;
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int shift = this.endianness == Endianness.BIG_ENDIAN ? (length - 1 - i) * 8 : i * 8;
+            value |= (data[(int) (this.read + i) & mask] & 0xFFL) << shift;
+        }
+
+        this.read += length;
+        this.ring.read.lazySet(this.read);
+        return value;
+    }
+
+    /**
+     * Returns the amount of bytes which can be read without waiting.
+     *
+     * @return the amount of bytes
+     */
+    @Override
+    public long available() {
+        return this.closed ? 0 : this.ring.written.get() - this.read;
+    }
+
+    /**
+     * Returns whether at least length more bytes can be read, waiting for the writer to write them if necessary.
+     *
+     * @param length the amount of bytes
+     * @return true if length bytes can be read before the end of the stream
+     * @throws IllegalArgumentException if length is negative or larger than the capacity of the ring
+     */
+    @Override
+    public boolean hasRemaining(int length) {
+        if (length < 0 || length > this.ring.capacity()) {
+            throw new IllegalArgumentException("length " + length + " is not between 0 and the capacity " + this.ring.capacity());
+        }
+
+        return !this.closed && this.await(length);
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        this.require(1);
+        return (int) this.get(1);
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        byte[] data = this.ring.data;
+        while (length > 0) {
+            this.require(1);
+            int index = (int) this.read & this.ring.mask;
+            // Copy up to the end of the written bytes or the end of the array, whichever comes first.
+            int n = (int) Math.min(length, Math.min(this.limit - this.read, data.length - index));
+            System.arraycopy(data, index, bytes, start, n);
+            start += n;
+            length -= n;
+            this.read += n;
+            this.ring.read.lazySet(this.read);
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        this.require(2);
+        return (int) this.get(2);
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        this.require(2);
+        return (short) this.get(2);
+    }
+
+    @Override
+    public long readUnsignedInt() throws IOException {
+        this.require(4);
+        return this.get(4);
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        this.require(4);
+        return (int) this.get(4);
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        this.require(8);
+        return this.get(8);
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        this.require(2);
+        return (char) this.get(2);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        this.require(4);
+        return Float.intBitsToFloat((int) this.get(4));
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        this.require(8);
+        return Double.longBitsToDouble(this.get(8));
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        while (length > 0) {
+            this.require(1);
+            long n = Math.min(length, this.limit - this.read);
+            length -= n;
+            this.read += n;
+            this.ring.read.lazySet(this.read);
+        }
+    }
+
+    /**
+     * Closes the reader, after which the writer reaches the end of the stream.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.ring.readerClosed = true;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.ring;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.writer.AbstractWriter;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Writes to a byte ring. Only one thread should write to a ring, and only through one writer.
+ * Written bytes are published to the reader after every write, so flushing is not necessary.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class RingWriter extends AbstractWriter {
+    protected final ByteRing ring;
+    // The local copy of the written sequence.
+    protected long written;
+    // The cached position up to which bytes can be written without checking the read sequence again.
+    protected long limit;
+    protected boolean closed;
+
+    /**
+     * Constructs a new ring writer.
+     *
+     * @param endianness the endianness of the writer
+     * @param ring       the ring to write to
+     */
+    public RingWriter(Endianness endianness, ByteRing ring) {
+        super(endianness);
+        this.ring = ring;
+        this.written = ring.written.get();
+        this.limit = ring.read.get() + ring.data.length;
+    }
+
+    /**
+     * Waits until at least length bytes (at most the capacity of the ring) can be written.
+     *
+     * @param length the amount of bytes
+     * @throws EOFException if the writer or reader has been closed
+     */
+    protected void require(int length) throws EOFException {
+        if (this.closed) {
+            throw EndOfStream.exception();
+        }
+
+        int attempt = 0;
+        while (this.written + length > this.limit) {
+            if (this.ring.readerClosed) {
+                throw EndOfStream.exception();
+            }
+
+            this.limit = this.ring.read.get() + this.ring.data.length;
+            if (this.written + length <= this.limit) {
+                break;
+            }
+
+            this.ring.waitStrategy.idle(attempt++);
+        }
+    }
+
+    private void put(long value, int length) {
+        byte[] data = this.ring.data;
+        int mask = this.ring.mask;
+        for (int i = 0; i < length; i++) {
+            int shift = this.endianness == Endianness.BIG_ENDIAN ? (length - 1 - i) * 8 : i * 8;
+            data[(int) (this.written + i) & mask] = (byte) (value >>> shift);
+        }
+
+        this.written += length;
+        this.ring.written.lazySet(this.written);
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.require(1);
+        this.put(b, 1);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        byte[] data = this.ring.data;
+        while (length > 0) {
+            this.require(1);
+            int index = (int) this.written & this.ring.mask;
+            // Copy up to the end of the free space or the end of the array, whichever comes first.
+            int n = (int) Math.min(length, Math.min(this.limit - this.written, data.length - index));
+            System.arraycopy(bytes, start, data, index, n);
+            start += n;
+            length -= n;
+            this.written += n;
+            this.ring.written.lazySet(this.written);
+        }
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.require(2);
+        this.put(s, 2);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.require(2);
+        this.put(s, 2);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.require(4);
+        this.put(i, 4);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.require(4);
+        this.put(i, 4);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.require(8);
+        this.put(l, 8);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.require(2);
+        this.put(c, 2);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.require(4);
+        this.put(Float.floatToRawIntBits(f), 4);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.require(8);
+        this.put(Double.doubleToRawLongBits(d), 8);
+    }
+
+    /**
+     * Closes the writer, after which the reader can read the remaining bytes before reaching the end of the stream.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.ring.writerClosed = true;
+    }
+}
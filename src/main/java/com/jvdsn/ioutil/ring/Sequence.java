@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.ring;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A sequence which is written by one thread and read by another, padded to a cache line of its own to prevent false sharing.
+ *
+ * @author Joachim Vandersmissen
+ */
+final class Sequence extends SequencePadding {
+    private static final AtomicLongFieldUpdater<Sequence> VALUE = AtomicLongFieldUpdater.newUpdater(Sequence.class, "value");
+
+    private volatile long value;
+    protected long p9, p10, p11, p12, p13, p14, p15;
+
+    /**
+     * Returns the value of the sequence.
+     *
+     * @return the value
+     */
+    long get() {
+        return this.value;
+    }
+
+    /**
+     * Sets the value of the sequence, without waiting for the write to become visible to other threads.
+     * Writes before this one are visible before it, which is all a single writer needs to publish data.
+     *
+     * @param value the value
+     */
+    void lazySet(long value) {
+        VALUE.lazySet(this, value);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.ring;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Represents how the reader or writer of a byte ring waits for the other side.
+ *
+ * @author Joachim Vandersmissen
+ */
+public enum WaitStrategy {
+    /**
+     * Spin without giving up the processor. This has the lowest latency, but burns a processor per waiting thread.
+     */
+    BUSY_SPIN() {
+        @Override
+        protected void idle(int attempt) {
+        }
+    },
+    /**
+     * Spin for a while, and yield the processor afterwards.
+     */
+    YIELD() {
+        @Override
+        protected void idle(int attempt) {
+            if (attempt >= SPIN_ATTEMPTS) {
+                Thread.yield();
+            }
+        }
+    },
+    /**
+     * Spin for a while, yield the processor for a while, and park afterwards. This has the highest latency, but uses the least processor time.
+     */
+    PARK() {
+        @Override
+        protected void idle(int attempt) {
+            if (attempt >= SPIN_ATTEMPTS + YIELD_ATTEMPTS) {
+                LockSupport.parkNanos(PARK_NANOS);
+            } else if (attempt >= SPIN_ATTEMPTS) {
+                Thread.yield();
+            }
+        }
+    };
+
+    private static final int SPIN_ATTEMPTS = 100;
+    private static final int YIELD_ATTEMPTS = 100;
+    private static final long PARK_NANOS = 1000;
+
+    /**
+     * Waits once, after a number of unsuccessful attempts.
+     * The other side never signals a waiting thread, so this should always return within a short time.
+     *
+     * @param attempt the amount of unsuccessful attempts so far
+     */
+    protected abstract void idle(int attempt);
+}
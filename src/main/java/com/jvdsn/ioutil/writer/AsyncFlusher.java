@@ -0,0 +1,330 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes buffers submitted by any amount of producers to a channel on a dedicated thread.
+ * All buffers which are waiting when the thread becomes available are written together in one gathering write (group commit).
+ * The queue of waiting buffers is bounded, producers block when it is full.
+ * <p>
+ * The flusher never releases the submitted buffers. Once a buffer has been written, it is handed back to its producer through a queue,
+ * so the producer reuses or releases it on its own thread and the buffers stay in the cache of that thread.
+ * If a write fails, the failure is reported to every producer which submits or waits afterwards.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class AsyncFlusher implements AutoCloseable {
+    /**
+     * The default maximum amount of waiting buffers.
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+    /**
+     * The default maximum amount of buffers written together.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    // Submitted to stop the thread.
+    private static final Submission CLOSE = new Submission(ByteBuffer.allocate(0), null);
+
+    private final WritableByteChannel channel;
+    private final SyncPolicy syncPolicy;
+    private final long syncIntervalNanos;
+    private final int batchSize;
+    private final BlockingQueue<Submission> queue;
+    private final Thread thread;
+    // Keeps the sequence numbers in queue order. The thread never takes this lock, so producers can block on a full queue while holding it.
+    private final Object submitLock = new Object();
+    // Guards the amount of buffers written, waiting producers are notified on it.
+    private final Object lock = new Object();
+    private long submitted;
+    private long written;
+    private volatile Throwable failure;
+    private boolean closed;
+
+    /**
+     * Constructs a new asynchronous flusher and starts its thread.
+     *
+     * @param channel       the channel to write to, which should be in blocking mode
+     * @param syncPolicy    when to force written data to the storage device
+     * @param syncInterval  the minimum time between forces if the sync policy is {@link SyncPolicy#INTERVAL}
+     * @param unit          the unit of the sync interval
+     * @param queueSize     the maximum amount of waiting buffers
+     * @param batchSize     the maximum amount of buffers written together
+     * @param threadFactory the thread factory to create the thread with
+     */
+    public AsyncFlusher(WritableByteChannel channel, SyncPolicy syncPolicy, long syncInterval, TimeUnit unit, int queueSize, int batchSize, ThreadFactory threadFactory) {
+        if (syncInterval <= 0 && syncPolicy == SyncPolicy.INTERVAL) {
+            throw new IllegalArgumentException("sync interval " + syncInterval + " is not positive");
+        }
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size " + batchSize + " is not positive");
+        }
+
+        this.channel = channel;
+        this.syncPolicy = syncPolicy;
+        this.syncIntervalNanos = unit.toNanos(syncInterval);
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.thread = threadFactory.newThread(this::run);
+        this.thread.start();
+    }
+
+    /**
+     * Constructs a new asynchronous flusher with the default queue and batch sizes, running on a daemon thread.
+     *
+     * @param channel      the channel to write to, which should be in blocking mode
+     * @param syncPolicy   when to force written data to the storage device
+     * @param syncInterval the minimum time between forces if the sync policy is {@link SyncPolicy#INTERVAL}
+     * @param unit         the unit of the sync interval
+     */
+    public AsyncFlusher(WritableByteChannel channel, SyncPolicy syncPolicy, long syncInterval, TimeUnit unit) {
+        this(channel, syncPolicy, syncInterval, unit, DEFAULT_QUEUE_SIZE, DEFAULT_BATCH_SIZE, runnable -> {
+            Thread thread = new Thread(runnable, "ioutil-async-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Constructs a new asynchronous flusher which never forces written data, running on a daemon thread.
+     *
+     * @param channel the channel to write to, which should be in blocking mode
+     */
+    public AsyncFlusher(WritableByteChannel channel) {
+        this(channel, SyncPolicy.NONE, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A submitted buffer, and the queue to hand it back to once it has been written.
+     */
+    private static final class Submission {
+        private final ByteBuffer buffer;
+        private final Queue<? super ByteBuffer> written;
+
+        private Submission(ByteBuffer buffer, Queue<? super ByteBuffer> written) {
+            this.buffer = buffer;
+            this.written = written;
+        }
+    }
+
+    /**
+     * Submits a buffer to be written from its position to its limit, blocking while the queue is full.
+     * The buffer must not be modified until it has been written, as seen through {@link #await(long)}.
+     *
+     * @param buffer the buffer
+     * @return the sequence number of the buffer, to wait for with {@link #await(long)}
+     * @throws IOException if a previous write failed or the flusher has been closed
+     */
+    public long submit(ByteBuffer buffer) throws IOException {
+        return this.submit(buffer, null);
+    }
+
+    /**
+     * Submits a buffer to be written from its position to its limit, blocking while the queue is full.
+     * The buffer is added to the written queue once it has been written, or skipped because a previous write failed.
+     *
+     * @param buffer  the buffer
+     * @param written the queue to hand the buffer back to, which must be thread-safe, or null
+     * @return the sequence number of the buffer, to wait for with {@link #await(long)}
+     * @throws IOException if a previous write failed or the flusher has been closed
+     */
+    public long submit(ByteBuffer buffer, Queue<? super ByteBuffer> written) throws IOException {
+        synchronized (this.submitLock) {
+            this.check();
+            try {
+                this.queue.put(new Submission(buffer, written));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while submitting");
+            }
+
+            return ++this.submitted;
+        }
+    }
+
+    /**
+     * Waits until a submitted buffer and all buffers submitted before it have been written (and forced, depending on the sync policy).
+     *
+     * @param sequence the sequence number of the buffer
+     * @throws IOException if a write failed
+     */
+    public void await(long sequence) throws IOException {
+        synchronized (this.lock) {
+            while (this.written < sequence && this.failure == null) {
+                try {
+                    this.lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting");
+                }
+            }
+
+            if (this.failure != null) {
+                throw new IOException("asynchronous write failed", this.failure);
+            }
+        }
+    }
+
+    private void check() throws IOException {
+        if (this.failure != null) {
+            throw new IOException("asynchronous write failed", this.failure);
+        }
+
+        if (this.closed) {
+            throw new IOException("flusher is closed");
+        }
+    }
+
+    private void run() {
+        List<Submission> batch = new ArrayList<>(this.batchSize);
+        long lastSync = System.nanoTime();
+        boolean dirty = false;
+        boolean running = true;
+        while (running) {
+            try {
+                Submission first;
+                if (this.syncPolicy == SyncPolicy.INTERVAL && dirty) {
+                    // Wake up in time to force the data written since the last force.
+                    first = this.queue.poll(Math.max(0, lastSync + this.syncIntervalNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } else {
+                    first = this.queue.take();
+                }
+
+                if (first != null) {
+                    batch.add(first);
+                    this.queue.drainTo(batch, this.batchSize - 1);
+                }
+            } catch (InterruptedException e) {
+                // Only closing stops the thread.
+                continue;
+            }
+
+            if (!batch.isEmpty() && batch.get(batch.size() - 1) == CLOSE) {
+                batch.remove(batch.size() - 1);
+                running = false;
+            }
+
+            try {
+                if (this.failure == null) {
+                    this.write(batch);
+                    dirty |= !batch.isEmpty();
+                    long now = System.nanoTime();
+                    boolean sync = this.syncPolicy == SyncPolicy.BATCH || (this.syncPolicy == SyncPolicy.INTERVAL && (now - lastSync >= this.syncIntervalNanos || !running));
+                    if (dirty && sync && this.channel instanceof FileChannel) {
+                        ((FileChannel) this.channel).force(false);
+                        lastSync = now;
+                        dirty = false;
+                    }
+                }
+            } catch (Throwable t) {
+                // Any failure is recorded, so waiting producers are woken up instead of waiting for a thread which stopped writing.
+                synchronized (this.lock) {
+                    this.failure = t;
+                }
+            }
+
+            for (Submission submission : batch) {
+                if (submission.written != null) {
+                    submission.written.add(submission.buffer);
+                }
+            }
+
+            synchronized (this.lock) {
+                this.written += batch.size();
+                this.lock.notifyAll();
+            }
+
+            batch.clear();
+        }
+    }
+
+    private void write(List<Submission> batch) throws IOException {
+        if (this.channel instanceof GatheringByteChannel) {
+            ByteBuffer[] sources = new ByteBuffer[batch.size()];
+            long length = 0;
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = batch.get(i).buffer;
+                length += sources[i].remaining();
+            }
+
+            GatheringByteChannel channel = (GatheringByteChannel) this.channel;
+            while (length > 0) {
+                length -= channel.write(sources);
+            }
+
+            return;
+        }
+
+        for (Submission submission : batch) {
+            while (submission.buffer.hasRemaining()) {
+                this.channel.write(submission.buffer);
+            }
+        }
+    }
+
+    /**
+     * Writes all submitted buffers, stops the thread and closes the channel.
+     *
+     * @throws IOException if a write failed
+     */
+    @Override
+    public void close() throws IOException {
+        boolean interrupted = false;
+        synchronized (this.submitLock) {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            while (true) {
+                try {
+                    this.queue.put(CLOSE);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+
+        while (true) {
+            try {
+                this.thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.channel.close();
+        if (this.failure != null) {
+            throw new IOException("asynchronous write failed", this.failure);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Writes to a direct buffer, which is handed to an asynchronous flusher when it is full or submitted.
+ * Writing never waits for I/O, unless the queue of the flusher is full or the writer is flushed.
+ * <p>
+ * A writer should only be used by one thread, but many writers can share one flusher.
+ * The bytes written by one writer are written in order, but bytes of other writers can end up between them wherever a buffer is handed over.
+ * To keep a record contiguous, it should fit in the buffer and be followed by {@link #submit()}.
+ * <p>
+ * The flusher hands the written buffers back to this writer, which reuses them and releases them to the default buffer pool when it is closed,
+ * so the buffers are only acquired and released on the thread of the writer.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class AsyncWriter extends AbstractWriter {
+    /**
+     * The default size of the buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    protected final AsyncFlusher flusher;
+    protected final int bufferSize;
+    protected ByteBuffer buffer;
+    // The buffers which have been written by the flusher, ready to be reused.
+    private final Queue<ByteBuffer> written = new ConcurrentLinkedQueue<>();
+    // The sequence number of the last buffer handed to the flusher.
+    protected long sequence;
+
+    /**
+     * Constructs a new asynchronous writer.
+     *
+     * @param endianness the endianness of the writer
+     * @param flusher    the flusher to hand the buffers to
+     * @param bufferSize the minimum size of the buffer
+     */
+    public AsyncWriter(Endianness endianness, AsyncFlusher flusher, int bufferSize) {
+        super(endianness);
+        this.flusher = flusher;
+        this.bufferSize = bufferSize;
+        this.buffer = this.acquire();
+    }
+
+    /**
+     * Constructs a new asynchronous writer with the default buffer size.
+     *
+     * @param endianness the endianness of the writer
+     * @param flusher    the flusher to hand the buffers to
+     */
+    public AsyncWriter(Endianness endianness, AsyncFlusher flusher) {
+        this(endianness, flusher, DEFAULT_BUFFER_SIZE);
+    }
+
+    private ByteBuffer acquire() {
+        ByteBuffer buffer = this.written.poll();
+        if (buffer != null) {
+            buffer.clear();
+            return buffer;
+        }
+
+        return BufferPool.DEFAULT.acquireDirect(this.bufferSize).order(this.endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Hands the buffered bytes to the flusher without waiting for them to be written.
+     *
+     * @throws IOException if a previous write failed
+     * @throws EOFException if the writer has been closed
+     */
+    public void submit() throws IOException {
+        if (this.buffer == null) {
+            throw EndOfStream.exception();
+        }
+
+        if (this.buffer.position() == 0) {
+            return;
+        }
+
+        this.buffer.flip();
+        boolean submitted = false;
+        try {
+            this.sequence = this.flusher.submit(this.buffer, this.written);
+            submitted = true;
+        } finally {
+            if (!submitted) {
+                // The flusher did not take the buffer, so the buffered bytes are kept.
+                this.buffer.position(this.buffer.limit()).limit(this.buffer.capacity());
+            }
+        }
+
+        // The buffer belongs to the flusher from now on, so a new one is used for the next writes.
+        this.buffer = this.acquire();
+    }
+
+    /**
+     * Makes sure at least length bytes (at most the size of the buffer) can be buffered.
+     *
+     * @param length the amount of bytes
+     * @throws IOException if a previous write failed
+     */
+    protected void require(int length) throws IOException {
+        if (this.buffer == null) {
+            throw EndOfStream.exception();
+        }
+
+        if (this.buffer.remaining() < length) {
+            this.submit();
+        }
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.require(1);
+        this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        while (length > 0) {
+            this.require(1);
+            int n = Math.min(length, this.buffer.remaining());
+            this.buffer.put(bytes, start, n);
+            start += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.require(2);
+        this.buffer.putShort((short) s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.require(2);
+        this.buffer.putShort(s);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.require(4);
+        this.buffer.putInt((int) i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.require(4);
+        this.buffer.putInt(i);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.require(8);
+        this.buffer.putLong(l);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.require(2);
+        this.buffer.putChar(c);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.require(4);
+        this.buffer.putFloat(f);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.require(8);
+        this.buffer.putDouble(d);
+    }
+
+    /**
+     * Hands the buffered bytes to the flusher, and waits until every byte written by this writer has been written (and forced, depending on the sync policy).
+     *
+     * @throws IOException if a write failed
+     */
+    @Override
+    public void flush() throws IOException {
+        this.submit();
+        this.flusher.await(this.sequence);
+    }
+
+    /**
+     * Flushes the writer and releases its buffers. The flusher is not closed, as it can be shared.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.buffer == null) {
+            return;
+        }
+
+        try {
+            this.flush();
+        } finally {
+            BufferPool.DEFAULT.releaseDirect(this.buffer);
+            this.buffer = null;
+            // Buffers which are still being written when a write failed are not handed back in time, they are garbage collected instead.
+            ByteBuffer buffer;
+            while ((buffer = this.written.poll()) != null) {
+                BufferPool.DEFAULT.releaseDirect(buffer);
+            }
+        }
+    }
+}
@@ -10,6 +10,7 @@
 
 package com.jvdsn.ioutil.writer;
 
+import com.jvdsn.ioutil.EndOfStream;
 import com.jvdsn.ioutil.Endianness;
 
 import java.io.EOFException;
@@ -21,9 +22,9 @@ import java.io.IOException;
  * @author Joachim Vandersmissen
  */
 public class ByteArrayWriter extends AbstractWriter {
-    protected final byte[] bytes;
-    protected final int start;
-    protected final int length;
+    protected byte[] bytes;
+    protected int start;
+    protected int length;
     protected int pos;
 
     /**
@@ -52,6 +53,29 @@ public class ByteArrayWriter extends AbstractWriter {
         this(endianness, bytes, 0, bytes.length);
     }
 
+    /**
+     * Rebinds the writer to a new byte array, so it can be reused instead of constructing a new writer.
+     *
+     * @param bytes  the byte array to write to
+     * @param start  the position to start writing at
+     * @param length the amount of bytes to write before throwing EOFException
+     */
+    public void reset(byte[] bytes, int start, int length) {
+        this.bytes = bytes;
+        this.start = start;
+        this.length = length;
+        this.pos = start;
+    }
+
+    /**
+     * Rebinds the writer to a new entire byte array, so it can be reused instead of constructing a new writer.
+     *
+     * @param bytes the byte array to write to
+     */
+    public void reset(byte... bytes) {
+        this.reset(bytes, 0, bytes.length);
+    }
+
     /**
      * Returns the position of the writer in the byte array.
      *
@@ -79,20 +103,193 @@ public class ByteArrayWriter extends AbstractWriter {
         }
 
         this.pos = this.bytes.length;
-        throw new EOFException("End of stream.");
+        throw EndOfStream.exception();
     }
 
     @Override
     public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        this.ensure(length);
+        System.arraycopy(bytes, start, this.bytes, this.pos, length);
+        this.pos += length;
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.ensure(2);
+        this.writeShortUnchecked((short) s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.ensure(2);
+        this.writeShortUnchecked(s);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.ensure(4);
+        this.writeIntUnchecked((int) i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.ensure(4);
+        this.writeIntUnchecked(i);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.ensure(8);
+        this.writeLongUnchecked(l);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.ensure(2);
+        this.writeCharUnchecked(c);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.ensure(4);
+        this.writeFloatUnchecked(f);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.ensure(8);
+        this.writeDoubleUnchecked(d);
+    }
+
+    /**
+     * Checks once that at least length bytes remain, moving the writer to the end of the byte array if not.
+     * The next length bytes can then be written with the unchecked methods, without checking the bounds of the writer for every value:
+     * <pre>
+     * writer.ensure(14);
+     * writer.writeIntUnchecked(id);
+     * writer.writeLongUnchecked(timestamp);
+     * writer.writeShortUnchecked(flags);
+     * </pre>
+     *
+     * @param length the amount of bytes which should remain
+     * @throws EOFException if less than length bytes remain
+     */
+    public void ensure(int length) throws EOFException {
         // Also check for the actual byte array length, just to be sure.
-        if (this.pos < this.bytes.length - length + 1 && this.pos - this.start < this.length - length + 1) {
-            System.arraycopy(bytes, start, this.bytes, this.pos, length);
-            this.pos += length;
-            return;
+        if (this.pos > this.bytes.length - length || this.pos - this.start > this.length - length) {
+            this.pos = this.bytes.length;
+            throw EndOfStream.exception();
         }
+    }
 
-        this.pos = this.bytes.length;
-        throw new EOFException("End of stream.");
+    /**
+     * Writes an unsigned byte (8-bit integer) without checking the bounds of the writer, which should have been checked with {@link #ensure(int)}.
+     * Writing beyond the end of the writer is not detected, unless it is also beyond the end of the byte array.
+     *
+     * @param b the unsigned byte
+     */
+    public void writeUnsignedByteUnchecked(int b) {
+        this.bytes[this.pos++] = (byte) b;
+    }
+
+    /**
+     * Writes a short (16-bit integer) without checking the bounds of the writer, which should have been checked with {@link #ensure(int)}.
+     *
+     * @param s the short
+     */
+    public void writeShortUnchecked(short s) {
+        int index = this.pos;
+        switch (this.endianness) {
+            case BIG_ENDIAN:
+                this.bytes[index] = (byte) (s >> 8);
+                this.bytes[index + 1] = (byte) s;
+                break;
+            case LITTLE_ENDIAN:
+                this.bytes[index] = (byte) s;
+                this.bytes[index + 1] = (byte) (s >> 8);
+                break;
+        }
+
+        this.pos = index + 2;
+    }
+
+    /**
+     * Writes an int (32-bit integer) without checking the bounds of the writer, which should have been checked with {@link #ensure(int)}.
+     *
+     * @param i the int
+     */
+    public void writeIntUnchecked(int i) {
+        int index = this.pos;
+        switch (this.endianness) {
+            case BIG_ENDIAN:
+                this.bytes[index] = (byte) (i >> 24);
+                this.bytes[index + 1] = (byte) (i >> 16);
+                this.bytes[index + 2] = (byte) (i >> 8);
+                this.bytes[index + 3] = (byte) i;
+                break;
+            case LITTLE_ENDIAN:
+                this.bytes[index] = (byte) i;
+                this.bytes[index + 1] = (byte) (i >> 8);
+                this.bytes[index + 2] = (byte) (i >> 16);
+                this.bytes[index + 3] = (byte) (i >> 24);
+                break;
+        }
+
+        this.pos = index + 4;
+    }
+
+    /**
+     * Writes a long (64-bit integer) without checking the bounds of the writer, which should have been checked with {@link #ensure(int)}.
+     *
+     * @param l the long
+     */
+    public void writeLongUnchecked(long l) {
+        int index = this.pos;
+        switch (this.endianness) {
+            case BIG_ENDIAN:
+                for (int j = 7; j >= 0; j--) {
+                    this.bytes[index + j] = (byte) l;
+                    l >>>= 8;
+                }
+
+                break;
+            case LITTLE_ENDIAN:
+                for (int j = 0; j < 8; j++) {
+                    this.bytes[index + j] = (byte) l;
+                    l >>>= 8;
+                }
+
+                break;
+        }
+
+        this.pos = index + 8;
+    }
+
+    /**
+     * Writes a char (16-bit UTF-16 code unit) without checking the bounds of the writer, which should have been checked with {@link #ensure(int)}.
+     *
+     * @param c the char
+     */
+    public void writeCharUnchecked(char c) {
+        this.writeShortUnchecked((short) c);
+    }
+
+    /**
+     * Writes a float (32-bit floating point) without checking the bounds of the writer, which should have been checked with {@link #ensure(int)}.
+     *
+     * @param f the float
+     */
+    public void writeFloatUnchecked(float f) {
+        this.writeIntUnchecked(Float.floatToRawIntBits(f));
+    }
+
+    /**
+     * Writes a double (64-bit floating point) without checking the bounds of the writer, which should have been checked with {@link #ensure(int)}.
+     *
+     * @param d the double
+     */
+    public void writeDoubleUnchecked(double d) {
+        this.writeLongUnchecked(Double.doubleToRawLongBits(d));
     }
 
     @Override
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Writes to a byte buffer (heap, direct or mapped).
+ * The writer uses its own view of the buffer, so the position and limit of the original buffer are never modified.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ByteBufferWriter extends AbstractWriter {
+    protected ByteBuffer buffer;
+
+    /**
+     * Constructs a new byte buffer writer writing from the position to the limit of a byte buffer.
+     *
+     * @param endianness the endianness of the writer
+     * @param buffer     the byte buffer to write to
+     */
+    public ByteBufferWriter(Endianness endianness, ByteBuffer buffer) {
+        super(endianness);
+        this.reset(buffer);
+    }
+
+    /**
+     * Rebinds the writer to a new byte buffer, so it can be reused instead of constructing a new writer.
+     *
+     * @param buffer the byte buffer to write to
+     */
+    public void reset(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate().order(this.endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the position of the writer in the byte buffer.
+     *
+     * @return the position
+     */
+    public int position() {
+        return this.buffer.position();
+    }
+
+    /**
+     * Returns the amount of bytes remaining in the byte buffer.
+     *
+     * @return the amount of bytes remaining
+     */
+    public int remaining() {
+        return this.buffer.remaining();
+    }
+
+    /**
+     * Checks that at least length bytes remain, moving the writer to the end of the buffer if not.
+     *
+     * @param length the amount of bytes which should remain
+     * @throws EOFException if less than length bytes remain
+     */
+    protected void require(int length) throws EOFException {
+        if (this.buffer.remaining() < length) {
+            this.buffer.position(this.buffer.limit());
+            throw EndOfStream.exception();
+        }
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.require(1);
+        this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        this.require(length);
+        this.buffer.put(bytes, start, length);
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.require(2);
+        this.buffer.putShort((short) s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.require(2);
+        this.buffer.putShort(s);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.require(4);
+        this.buffer.putInt((int) i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.require(4);
+        this.buffer.putInt(i);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.require(8);
+        this.buffer.putLong(l);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.require(2);
+        this.buffer.putChar(c);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.require(4);
+        this.buffer.putFloat(f);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.require(8);
+        this.buffer.putDouble(d);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.buffer.position(this.buffer.limit());
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes to a writable byte channel through a direct buffer.
+ * The channel should be in blocking mode. Written data is only guaranteed to reach the channel after the writer is flushed or closed.
+ * The buffer is borrowed from the default buffer pool, and released when the writer is closed.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ChannelWriter extends AbstractWriter {
+    /**
+     * The default size of the buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    protected WritableByteChannel channel;
+    // The buffered bytes are between 0 and the position of the buffer.
+    protected ByteBuffer buffer;
+
+    /**
+     * Constructs a new channel writer.
+     *
+     * @param endianness the endianness of the writer
+     * @param channel    the channel to write to
+     * @param bufferSize the minimum size of the buffer
+     */
+    public ChannelWriter(Endianness endianness, WritableByteChannel channel, int bufferSize) {
+        super(endianness);
+        this.channel = channel;
+        this.buffer = BufferPool.DEFAULT.acquireDirect(bufferSize).order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Constructs a new channel writer with the default buffer size.
+     *
+     * @param endianness the endianness of the writer
+     * @param channel    the channel to write to
+     */
+    public ChannelWriter(Endianness endianness, WritableByteChannel channel) {
+        this(endianness, channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Rebinds the writer to a new channel, so it can be reused (including its buffer) instead of constructing a new writer.
+     * Any buffered bytes are discarded, so the writer should be flushed first. The previous channel is not closed, and this writer should not have been closed either.
+     *
+     * @param channel the channel to write to
+     */
+    public void reset(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer.clear();
+    }
+
+    /**
+     * Returns the channel this writer writes to.
+     *
+     * @return the channel
+     */
+    public WritableByteChannel channel() {
+        return this.channel;
+    }
+
+    /**
+     * Makes sure at least length bytes (at most the capacity of the buffer) can be buffered.
+     *
+     * @param length the amount of bytes
+     * @throws EOFException if the writer has been closed
+     */
+    protected void require(int length) throws IOException {
+        if (this.buffer.remaining() < length) {
+            this.flush();
+            if (this.buffer.remaining() < length) {
+                throw EndOfStream.exception();
+            }
+        }
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.require(1);
+        this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        if (length > this.buffer.remaining()) {
+            if (length >= this.buffer.capacity()) {
+                // Large writes are written together with the buffered bytes, rather than through the buffer.
+                this.write(ByteBuffer.wrap(bytes, start, length));
+                return;
+            }
+
+            this.flush();
+        }
+
+        this.buffer.put(bytes, start, length);
+    }
+
+    /**
+     * Writes byte buffers from their position to their limit, after the buffered bytes.
+     * If the channel supports gathering writes, the buffered bytes and all byte buffers are written in as few calls as possible.
+     *
+     * @param buffers the byte buffers to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(ByteBuffer... buffers) throws IOException {
+        ByteBuffer[] sources = new ByteBuffer[buffers.length + 1];
+        sources[0] = this.buffer;
+        System.arraycopy(buffers, 0, sources, 1, buffers.length);
+        this.buffer.flip();
+        try {
+            if (this.channel instanceof GatheringByteChannel) {
+                GatheringByteChannel channel = (GatheringByteChannel) this.channel;
+                long length = 0;
+                for (ByteBuffer source : sources) {
+                    length += source.remaining();
+                }
+
+                while (length > 0) {
+                    length -= channel.write(sources);
+                }
+
+                return;
+            }
+
+            for (ByteBuffer source : sources) {
+                while (source.hasRemaining()) {
+                    this.channel.write(source);
+                }
+            }
+        } finally {
+            this.buffer.compact();
+        }
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.require(2);
+        this.buffer.putShort((short) s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.require(2);
+        this.buffer.putShort(s);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.require(4);
+        this.buffer.putInt((int) i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.require(4);
+        this.buffer.putInt(i);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.require(8);
+        this.buffer.putLong(l);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.require(2);
+        this.buffer.putChar(c);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.require(4);
+        this.buffer.putFloat(f);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.require(8);
+        this.buffer.putDouble(d);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.buffer.flip();
+        try {
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+        } finally {
+            this.buffer.compact();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.buffer.capacity() > 0) {
+                try {
+                    this.flush();
+                } finally {
+                    BufferPool.DEFAULT.releaseDirect(this.buffer);
+                    // Any further write will fail, rather than end up in a released buffer.
+                    this.buffer = ByteBuffer.allocate(0);
+                }
+            }
+        } finally {
+            this.channel.close();
+        }
+    }
+}
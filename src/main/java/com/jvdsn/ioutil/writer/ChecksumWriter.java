@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.checksum.Checksums;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.Checksum;
+
+/**
+ * Writes to another writer, keeping a running checksum of the bytes written.
+ * Bytes written as primitives are collected, then added to the checksum and written to the other writer together.
+ * Bulk writes are added to the checksum and written at once.
+ * <p>
+ * To write a block followed by its checksum, reset the checksum at the start of the block, and write the checksum after the block:
+ * <pre>
+ * writer.resetChecksum();
+ * // Write the block...
+ * writer.writeUnsignedInt(writer.checksum());
+ * </pre>
+ * Closing this writer closes the other writer.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ChecksumWriter extends AbstractWriter {
+    /**
+     * The maximum amount of bytes written as primitives which are collected before writing them.
+     */
+    public static final int BUFFER_SIZE = 256;
+
+    protected final Writer writer;
+    protected final Checksum checksum;
+    // Bytes which have been written to this writer, but not to the other writer and the checksum yet.
+    private final byte[] pending = new byte[BUFFER_SIZE];
+    private final ByteBuffer view;
+    private int pendingLength;
+
+    /**
+     * Constructs a new checksum writer.
+     *
+     * @param endianness the endianness of the writer
+     * @param writer     the writer to write to
+     * @param checksum   the checksum to update
+     */
+    public ChecksumWriter(Endianness endianness, Writer writer, Checksum checksum) {
+        super(endianness);
+        this.writer = writer;
+        this.checksum = checksum;
+        this.view = ByteBuffer.wrap(this.pending).order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Constructs a new checksum writer keeping a CRC-32C checksum.
+     *
+     * @param endianness the endianness of the writer
+     * @param writer     the writer to write to
+     */
+    public ChecksumWriter(Endianness endianness, Writer writer) {
+        this(endianness, writer, Checksums.crc32c());
+    }
+
+    private void drain() throws IOException {
+        if (this.pendingLength > 0) {
+            int length = this.pendingLength;
+            this.pendingLength = 0;
+            this.checksum.update(this.pending, 0, length);
+            this.writer.writeBytes(this.pending, 0, length);
+        }
+    }
+
+    /**
+     * Reserves length pending bytes, writing the pending bytes first if there is not enough room.
+     *
+     * @param length the amount of bytes
+     * @return the index of the bytes in the pending bytes
+     * @throws IOException if an I/O error occurs
+     */
+    private int reserve(int length) throws IOException {
+        if (this.pendingLength > BUFFER_SIZE - length) {
+            this.drain();
+        }
+
+        int index = this.pendingLength;
+        this.pendingLength = index + length;
+        return index;
+    }
+
+    /**
+     * Returns the checksum of the bytes written since the checksum was last reset.
+     * The bytes written to this writer are written to the other writer first.
+     *
+     * @return the checksum value
+     * @throws IOException if an I/O error occurs
+     */
+    public long checksum() throws IOException {
+        this.drain();
+        return this.checksum.getValue();
+    }
+
+    /**
+     * Resets the checksum, usually at the start of a block.
+     * The bytes written to this writer are written to the other writer first.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void resetChecksum() throws IOException {
+        this.drain();
+        this.checksum.reset();
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.pending[this.reserve(1)] = (byte) b;
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        if (length <= BUFFER_SIZE - this.pendingLength) {
+            System.arraycopy(bytes, start, this.pending, this.pendingLength, length);
+            this.pendingLength += length;
+            return;
+        }
+
+        this.drain();
+        this.checksum.update(bytes, start, length);
+        this.writer.writeBytes(bytes, start, length);
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.view.putShort(this.reserve(2), (short) s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.view.putShort(this.reserve(2), s);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.view.putInt(this.reserve(4), (int) i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.view.putInt(this.reserve(4), i);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.view.putLong(this.reserve(8), l);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.view.putChar(this.reserve(2), c);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.view.putFloat(this.reserve(4), f);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.view.putDouble(this.reserve(8), d);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.drain();
+        this.writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.drain();
+        } finally {
+            this.writer.close();
+        }
+    }
+}
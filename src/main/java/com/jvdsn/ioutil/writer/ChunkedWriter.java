@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.pool.BufferPool;
+import com.jvdsn.ioutil.reader.CompositeReader;
+import com.jvdsn.ioutil.reader.Reader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes to an unbounded list of fixed-size chunks in memory.
+ * Unlike a growing byte array, written bytes are never copied when more space is needed.
+ * The chunks are borrowed from the default buffer pool, and released when the writer is reset.
+ * The written bytes can be exported without copying, these exports share the chunks and are only valid until the writer is reset.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ChunkedWriter extends AbstractWriter {
+    /**
+     * The default minimum size of a chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    protected final int chunkSize;
+    protected final List<byte[]> chunks = new ArrayList<>();
+    // The amount of bytes written to the chunks before the current chunk.
+    protected long filled;
+    protected byte[] chunk;
+    protected int pos;
+    protected boolean closed;
+
+    /**
+     * Constructs a new chunked writer.
+     *
+     * @param endianness the endianness of the writer
+     * @param chunkSize  the minimum size of a chunk
+     */
+    public ChunkedWriter(Endianness endianness, int chunkSize) {
+        super(endianness);
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size " + chunkSize + " is not positive");
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Constructs a new chunked writer with the default chunk size.
+     *
+     * @param endianness the endianness of the writer
+     */
+    public ChunkedWriter(Endianness endianness) {
+        this(endianness, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Returns the amount of bytes written.
+     *
+     * @return the amount of bytes written
+     */
+    public long size() {
+        return this.filled + this.pos;
+    }
+
+    /**
+     * Makes sure the current chunk has space for at least one more byte.
+     *
+     * @throws EOFException if the writer has been closed
+     */
+    protected void ensureChunk() throws EOFException {
+        if (this.closed) {
+            throw EndOfStream.exception();
+        }
+
+        if (this.chunk == null || this.pos == this.chunk.length) {
+            if (this.chunk != null) {
+                this.filled += this.pos;
+            }
+
+            this.chunk = BufferPool.DEFAULT.acquireBytes(this.chunkSize);
+            this.chunks.add(this.chunk);
+            this.pos = 0;
+        }
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.ensureChunk();
+        this.chunk[this.pos++] = (byte) b;
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        while (length > 0) {
+            this.ensureChunk();
+            int n = Math.min(length, this.chunk.length - this.pos);
+            System.arraycopy(bytes, start, this.chunk, this.pos, n);
+            this.pos += n;
+            start += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Copies the written bytes to a new byte array.
+     *
+     * @return the byte array
+     */
+    public byte[] toByteArray() {
+        long size = this.size();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("size " + size + " is too large for a byte array");
+        }
+
+        byte[] bytes = new byte[(int) size];
+        int offset = 0;
+        for (ByteBuffer buffer : this.toByteBuffers()) {
+            int length = buffer.remaining();
+            buffer.get(bytes, offset, length);
+            offset += length;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Returns byte buffers wrapping the written bytes in every chunk, without copying them.
+     * These can be used for gathering writes.
+     *
+     * @return the byte buffers
+     */
+    public ByteBuffer[] toByteBuffers() {
+        ByteBuffer[] buffers = new ByteBuffer[this.chunks.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            byte[] chunk = this.chunks.get(i);
+            // Every chunk but the last one is full.
+            buffers[i] = ByteBuffer.wrap(chunk, 0, i == buffers.length - 1 ? this.pos : chunk.length);
+        }
+
+        return buffers;
+    }
+
+    /**
+     * Returns a reader reading the written bytes in every chunk, without copying them.
+     *
+     * @return the reader
+     */
+    public Reader toReader() {
+        return new CompositeReader(this.endianness, this.toByteBuffers());
+    }
+
+    /**
+     * Discards the written bytes and releases the chunks, so the writer can be reused.
+     * Any exports of the previously written bytes should not be used anymore.
+     */
+    public void reset() {
+        for (byte[] chunk : this.chunks) {
+            BufferPool.DEFAULT.releaseBytes(chunk);
+        }
+
+        this.chunks.clear();
+        this.filled = 0;
+        this.chunk = null;
+        this.pos = 0;
+        this.closed = false;
+    }
+
+    /**
+     * Closes the writer, the written bytes can still be exported until the writer is reset.
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+    }
+}
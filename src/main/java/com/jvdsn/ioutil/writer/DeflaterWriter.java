@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.compress.DeflateFormat;
+import com.jvdsn.ioutil.compress.Gzip;
+import com.jvdsn.ioutil.compress.ZlibPool;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses data with deflate and writes it to another writer, a block at a time.
+ * Primitives are written to a buffer directly, and compressed together when the buffer is full. Large writes are compressed from the array directly.
+ * <p>
+ * Flushing compresses the buffered bytes with a sync flush, so everything written so far can be decompressed, and flushes the other writer.
+ * Finishing writes the end of the compressed data (and the gzip trailer), after which nothing can be written anymore.
+ * The deflater is borrowed from the default zlib pool and the buffers from the default buffer pool, they are released when the writer is closed.
+ * Closing this writer finishes it and closes the other writer.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class DeflaterWriter extends AbstractWriter {
+    /**
+     * The default size of the buffers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    protected final Writer writer;
+    protected final DeflateFormat format;
+    protected Deflater deflater;
+    // The uncompressed bytes are between the start and the position of the buffer.
+    protected ByteBuffer buffer;
+    private byte[] output;
+    // The CRC-32 of the uncompressed bytes, only for gzip.
+    private final CRC32 crc;
+    private boolean finished;
+
+    /**
+     * Constructs a new deflater writer. The gzip header, if any, is written immediately.
+     *
+     * @param endianness the endianness of the writer
+     * @param writer     the writer to write the compressed data to
+     * @param format     the format of the compressed data
+     * @param level      the compression level, from 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param strategy   the compression strategy, one of {@link Deflater#DEFAULT_STRATEGY}, {@link Deflater#FILTERED} and {@link Deflater#HUFFMAN_ONLY}
+     * @param bufferSize the minimum size of the buffers
+     * @throws IOException if an I/O error occurs
+     */
+    public DeflaterWriter(Endianness endianness, Writer writer, DeflateFormat format, int level, int strategy, int bufferSize) throws IOException {
+        super(endianness);
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level " + level);
+        }
+
+        if (strategy != Deflater.DEFAULT_STRATEGY && strategy != Deflater.FILTERED && strategy != Deflater.HUFFMAN_ONLY) {
+            throw new IllegalArgumentException("invalid compression strategy " + strategy);
+        }
+
+        this.writer = writer;
+        this.format = format;
+        this.crc = format == DeflateFormat.GZIP ? new CRC32() : null;
+        if (this.crc != null) {
+            Gzip.writeHeader(writer);
+        }
+
+        this.deflater = ZlibPool.DEFAULT.acquireDeflater(level, strategy, format.nowrap());
+        this.output = BufferPool.DEFAULT.acquireBytes(bufferSize);
+        this.buffer = ByteBuffer.wrap(BufferPool.DEFAULT.acquireBytes(bufferSize)).order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Constructs a new deflater writer with the default compression level, strategy and buffer size. The gzip header, if any, is written immediately.
+     *
+     * @param endianness the endianness of the writer
+     * @param writer     the writer to write the compressed data to
+     * @param format     the format of the compressed data
+     * @throws IOException if an I/O error occurs
+     */
+    public DeflaterWriter(Endianness endianness, Writer writer, DeflateFormat format) throws IOException {
+        this(endianness, writer, format, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Compresses bytes from an array, writing the compressed bytes which the deflater outputs to the other writer.
+     *
+     * @param bytes  the array to compress from
+     * @param start  the index to compress from
+     * @param length the amount of bytes to compress
+     * @throws IOException if an I/O error occurs
+     */
+    private void deflate(byte[] bytes, int start, int length) throws IOException {
+        if (this.crc != null) {
+            this.crc.update(bytes, start, length);
+        }
+
+        this.deflater.setInput(bytes, start, length);
+        while (!this.deflater.needsInput()) {
+            this.writer.writeBytes(this.output, 0, this.deflater.deflate(this.output, 0, this.output.length));
+        }
+    }
+
+    /**
+     * Compresses the buffered bytes.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    protected void drain() throws IOException {
+        if (this.buffer.position() > 0) {
+            this.deflate(this.buffer.array(), 0, this.buffer.position());
+            this.buffer.clear();
+        }
+    }
+
+    /**
+     * Makes sure at least length bytes can be buffered, compressing the buffered bytes if not.
+     *
+     * @param length the amount of bytes
+     * @throws IOException if an I/O error occurs or the writer is finished
+     */
+    protected void require(int length) throws IOException {
+        if (this.finished) {
+            throw new IOException("compressed data has been finished");
+        }
+
+        if (this.buffer.remaining() < length) {
+            this.drain();
+        }
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.require(1);
+        this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        this.require(0);
+        if (length <= this.buffer.remaining()) {
+            this.buffer.put(bytes, start, length);
+            return;
+        }
+
+        // Large writes are compressed from the array directly, rather than through the buffer.
+        this.drain();
+        this.deflate(bytes, start, length);
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.require(2);
+        this.buffer.putShort((short) s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.require(2);
+        this.buffer.putShort(s);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.require(4);
+        this.buffer.putInt((int) i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.require(4);
+        this.buffer.putInt(i);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.require(8);
+        this.buffer.putLong(l);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.require(2);
+        this.buffer.putChar(c);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.require(4);
+        this.buffer.putFloat(f);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.require(8);
+        this.buffer.putDouble(d);
+    }
+
+    /**
+     * Compresses the buffered bytes with a sync flush, and flushes the other writer.
+     * Flushing often makes the compression worse.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!this.finished) {
+            this.drain();
+            int n;
+            do {
+                n = this.deflater.deflate(this.output, 0, this.output.length, Deflater.SYNC_FLUSH);
+                this.writer.writeBytes(this.output, 0, n);
+            } while (n == this.output.length);
+        }
+
+        this.writer.flush();
+    }
+
+    /**
+     * Writes the end of the compressed data and the gzip trailer, if any, without closing the other writer.
+     * Nothing can be written to this writer anymore afterwards. Finishing a finished writer has no effect.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+
+        this.drain();
+        this.finished = true;
+        this.deflater.finish();
+        while (!this.deflater.finished()) {
+            this.writer.writeBytes(this.output, 0, this.deflater.deflate(this.output, 0, this.output.length));
+        }
+
+        if (this.crc != null) {
+            this.writer.writeBytes(Gzip.trailer(this.crc.getValue(), this.deflater.getBytesRead()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.deflater == null) {
+            return;
+        }
+
+        try {
+            this.finish();
+        } finally {
+            ZlibPool.DEFAULT.releaseDeflater(this.deflater, this.format.nowrap());
+            BufferPool.DEFAULT.releaseBytes(this.output);
+            BufferPool.DEFAULT.releaseBytes(this.buffer.array());
+            this.deflater = null;
+            this.output = null;
+            this.buffer = ByteBuffer.allocate(0);
+            this.finished = true;
+            this.writer.close();
+        }
+    }
+}
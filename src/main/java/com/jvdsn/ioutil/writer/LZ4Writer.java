@@ -0,0 +1,250 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.compress.LZ4Compressor;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Compresses data with LZ4 and writes it to another writer, a block at a time.
+ * Primitives are written to a buffer directly, and compressed as one block when the buffer is full. Large writes are compressed from the array directly.
+ * <p>
+ * Every block starts with a header of 8 bytes: the compressed length and the uncompressed length, as little endian ints.
+ * The block is stored uncompressed if compressing it does not make it smaller, in which case both lengths are equal.
+ * Finishing writes a header with both lengths 0, which marks the end of the compressed data.
+ * <p>
+ * The buffers are borrowed from the default buffer pool, and released when the writer is closed.
+ * Closing this writer finishes it and closes the other writer.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class LZ4Writer extends AbstractWriter {
+    /**
+     * The default size of the uncompressed blocks.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 65536;
+
+    private static final int HEADER_SIZE = 8;
+
+    protected final Writer writer;
+    protected final LZ4Compressor compressor = new LZ4Compressor();
+    // The uncompressed bytes are between the start and the position of the buffer.
+    protected ByteBuffer buffer;
+    // The header followed by the compressed block.
+    private byte[] output;
+    private boolean finished;
+
+    /**
+     * Constructs a new LZ4 writer.
+     *
+     * @param endianness the endianness of the writer
+     * @param writer     the writer to write the compressed data to
+     * @param blockSize  the minimum size of the uncompressed blocks, except for the last block and blocks which are flushed early
+     */
+    public LZ4Writer(Endianness endianness, Writer writer, int blockSize) {
+        super(endianness);
+        this.writer = writer;
+        this.buffer = ByteBuffer.wrap(BufferPool.DEFAULT.acquireBytes(blockSize)).order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        this.output = BufferPool.DEFAULT.acquireBytes(HEADER_SIZE + LZ4Compressor.maxCompressedLength(this.buffer.capacity()));
+    }
+
+    /**
+     * Constructs a new LZ4 writer with the default block size.
+     *
+     * @param endianness the endianness of the writer
+     * @param writer     the writer to write the compressed data to
+     */
+    public LZ4Writer(Endianness endianness, Writer writer) {
+        this(endianness, writer, DEFAULT_BLOCK_SIZE);
+    }
+
+    private void writeHeader(int compressedLength, int length) {
+        for (int i = 0; i < 4; i++) {
+            this.output[i] = (byte) (compressedLength >>> (i * 8));
+            this.output[4 + i] = (byte) (length >>> (i * 8));
+        }
+    }
+
+    /**
+     * Compresses a block from an array and writes it, with its header, to the other writer.
+     *
+     * @param bytes  the array to compress from
+     * @param start  the index of the block
+     * @param length the length of the block, at most the capacity of the buffer
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeBlock(byte[] bytes, int start, int length) throws IOException {
+        int n = this.compressor.compress(bytes, start, length, this.output, HEADER_SIZE);
+        if (n < length) {
+            this.writeHeader(n, length);
+            this.writer.writeBytes(this.output, 0, HEADER_SIZE + n);
+        } else {
+            this.writeHeader(length, length);
+            this.writer.writeBytes(this.output, 0, HEADER_SIZE);
+            this.writer.writeBytes(bytes, start, length);
+        }
+    }
+
+    /**
+     * Compresses the buffered bytes as one block.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    protected void drain() throws IOException {
+        if (this.buffer.position() > 0) {
+            this.writeBlock(this.buffer.array(), 0, this.buffer.position());
+            this.buffer.clear();
+        }
+    }
+
+    /**
+     * Makes sure at least length bytes can be buffered, compressing the buffered bytes if not.
+     *
+     * @param length the amount of bytes
+     * @throws IOException if an I/O error occurs or the writer is finished
+     */
+    protected void require(int length) throws IOException {
+        if (this.finished) {
+            throw new IOException("compressed data has been finished");
+        }
+
+        if (this.buffer.remaining() < length) {
+            this.drain();
+        }
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.require(1);
+        this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        this.require(0);
+        if (length <= this.buffer.remaining()) {
+            this.buffer.put(bytes, start, length);
+            return;
+        }
+
+        // Fill up the buffered block first, then compress whole blocks from the array directly, rather than through the buffer.
+        int n = this.buffer.remaining();
+        this.buffer.put(bytes, start, n);
+        start += n;
+        length -= n;
+        this.drain();
+        while (length >= this.buffer.capacity()) {
+            this.writeBlock(bytes, start, this.buffer.capacity());
+            start += this.buffer.capacity();
+            length -= this.buffer.capacity();
+        }
+
+        this.buffer.put(bytes, start, length);
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.require(2);
+        this.buffer.putShort((short) s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.require(2);
+        this.buffer.putShort(s);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.require(4);
+        this.buffer.putInt((int) i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.require(4);
+        this.buffer.putInt(i);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.require(8);
+        this.buffer.putLong(l);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.require(2);
+        this.buffer.putChar(c);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.require(4);
+        this.buffer.putFloat(f);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.require(8);
+        this.buffer.putDouble(d);
+    }
+
+    /**
+     * Compresses the buffered bytes as one (smaller) block, and flushes the other writer.
+     * Flushing often makes the compression worse.
+     */
+    @Override
+    public void flush() throws IOException {
+        this.drain();
+        this.writer.flush();
+    }
+
+    /**
+     * Compresses the buffered bytes and writes the end of the compressed data, without closing the other writer.
+     * Nothing can be written to this writer anymore afterwards. Finishing a finished writer has no effect.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+
+        this.drain();
+        this.finished = true;
+        this.writeHeader(0, 0);
+        this.writer.writeBytes(this.output, 0, HEADER_SIZE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.output == null) {
+            return;
+        }
+
+        try {
+            this.finish();
+        } finally {
+            BufferPool.DEFAULT.releaseBytes(this.output);
+            BufferPool.DEFAULT.releaseBytes(this.buffer.array());
+            this.output = null;
+            this.buffer = ByteBuffer.allocate(0);
+            this.finished = true;
+            this.writer.close();
+        }
+    }
+}
@@ -21,7 +21,7 @@ import java.io.OutputStream;
  * @author Joachim Vandersmissen
  */
 public class OutputStreamWriter extends AbstractWriter {
-    protected final OutputStream outputStream;
+    protected OutputStream outputStream;
 
     /**
      * Constructs a new output stream writer.
@@ -34,6 +34,16 @@ public class OutputStreamWriter extends AbstractWriter {
         this.outputStream = outputStream;
     }
 
+    /**
+     * Rebinds the writer to a new output stream, so it can be reused instead of constructing a new writer.
+     * The previous output stream is not closed.
+     *
+     * @param outputStream the output stream to write to
+     */
+    public void reset(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
     @Override
     public void writeUnsignedByte(int b) throws IOException {
         this.outputStream.write(b);
@@ -44,6 +54,11 @@ public class OutputStreamWriter extends AbstractWriter {
         this.outputStream.write(bytes, start, length);
     }
 
+    @Override
+    public void flush() throws IOException {
+        this.outputStream.flush();
+    }
+
     @Override
     public void close() throws IOException {
         this.outputStream.close();
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.compress.LZ4Compressor;
+import com.jvdsn.ioutil.pool.BufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compresses data with LZ4 in fixed-size blocks, which are compressed concurrently on a fork/join pool and written to another writer in order.
+ * The blocks are written exactly like those of an LZ4 writer, so the compressed data can be read by an LZ4 reader as well as a parallel LZ4 reader.
+ * <p>
+ * After the end marker, a block index is written: the position of every block relative to the start of the compressed data, as little endian longs,
+ * followed by a footer of {@link #FOOTER_SIZE} bytes: the amount of blocks and the block size as little endian ints,
+ * the uncompressed length as a little endian long and the magic {@link #INDEX_MAGIC} as a little endian int.
+ * An LZ4 reader never reads past the end marker, so it ignores the index.
+ * <p>
+ * Every block except the last has exactly the block size, so flushing only writes the blocks which are complete.
+ * At most a bounded amount of blocks is compressed concurrently, writing blocks faster than they can be compressed waits for the oldest block.
+ * This writer must only be used by one thread at a time. Closing this writer finishes it and closes the other writer.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class ParallelLZ4Writer extends AbstractWriter {
+    /**
+     * The default size of the uncompressed blocks. A block and its compressed output both fit in the default buffer pool.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 19;
+    /**
+     * The size of the footer after the block index.
+     */
+    public static final int FOOTER_SIZE = 20;
+    /**
+     * The magic at the end of the footer, "LZ4I" in ASCII.
+     */
+    public static final int INDEX_MAGIC = 0x49345A4C;
+
+    private static final int HEADER_SIZE = 8;
+    private static final ThreadLocal<LZ4Compressor> COMPRESSORS = ThreadLocal.withInitial(LZ4Compressor::new);
+
+    protected final Writer writer;
+    protected final ForkJoinPool pool;
+    protected final int blockSize;
+    private final int maxPending;
+    // The blocks which are being compressed, in order.
+    private final ArrayDeque<BlockTask> pending = new ArrayDeque<>();
+    // The uncompressed bytes of the current block are between the start and the position of the buffer.
+    protected ByteBuffer buffer;
+    private final ByteBuffer scratch;
+    private long[] positions = new long[64];
+    private int blockCount;
+    private long written;
+    private long length;
+    private boolean finished;
+
+    /**
+     * Constructs a new parallel LZ4 writer.
+     *
+     * @param endianness the endianness of the writer
+     * @param writer     the writer to write the compressed data to
+     * @param pool       the fork/join pool to compress the blocks on
+     * @param blockSize  the size of the uncompressed blocks
+     * @param maxPending the maximum amount of blocks which are compressed concurrently
+     */
+    public ParallelLZ4Writer(Endianness endianness, Writer writer, ForkJoinPool pool, int blockSize, int maxPending) {
+        super(endianness);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("block size " + blockSize + " is not positive");
+        }
+
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("maximum pending " + maxPending + " is not positive");
+        }
+
+        this.writer = writer;
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.maxPending = maxPending;
+        this.buffer = this.allocate();
+        this.scratch = ByteBuffer.allocate(8).order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Constructs a new parallel LZ4 writer compressing on the common pool, with the default block size.
+     * At most twice the parallelism of the common pool blocks are compressed concurrently.
+     *
+     * @param endianness the endianness of the writer
+     * @param writer     the writer to write the compressed data to
+     */
+    public ParallelLZ4Writer(Endianness endianness, Writer writer) {
+        this(endianness, writer, ForkJoinPool.commonPool(), DEFAULT_BLOCK_SIZE, 2 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    private ByteBuffer allocate() {
+        return ByteBuffer.wrap(BufferPool.DEFAULT.acquireBytes(this.blockSize), 0, this.blockSize).order(this.endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void putInt(byte[] bytes, int index, int i) {
+        for (int j = 0; j < 4; j++) {
+            bytes[index + j] = (byte) (i >>> (j * 8));
+        }
+    }
+
+    private static void putLong(byte[] bytes, int index, long l) {
+        for (int j = 0; j < 8; j++) {
+            bytes[index + j] = (byte) (l >>> (j * 8));
+        }
+    }
+
+    /**
+     * Compresses a block. Its buffers are acquired and released by the writer, so they stay in the cache of the writing thread.
+     */
+    private static final class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] bytes;
+        private final int length;
+        // The header followed by the (compressed) block.
+        private final byte[] output;
+        private int outputLength;
+
+        BlockTask(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+            this.output = BufferPool.DEFAULT.acquireBytes(HEADER_SIZE + LZ4Compressor.maxCompressedLength(length));
+        }
+
+        @Override
+        protected void compute() {
+            int n = COMPRESSORS.get().compress(this.bytes, 0, this.length, this.output, HEADER_SIZE);
+            if (n >= this.length) {
+                // Store the block uncompressed.
+                n = this.length;
+                System.arraycopy(this.bytes, 0, this.output, HEADER_SIZE, n);
+            }
+
+            putInt(this.output, 0, n);
+            putInt(this.output, 4, this.length);
+            this.outputLength = HEADER_SIZE + n;
+        }
+
+        private void release() {
+            BufferPool.DEFAULT.releaseBytes(this.bytes);
+            BufferPool.DEFAULT.releaseBytes(this.output);
+        }
+    }
+
+    /**
+     * Submits the current block to be compressed, if it has any bytes, and starts a new block.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void submit() throws IOException {
+        int n = this.buffer.position();
+        if (n == 0) {
+            return;
+        }
+
+        BlockTask task = new BlockTask(this.buffer.array(), n);
+        this.pool.execute(task);
+        this.pending.add(task);
+        this.buffer = this.allocate();
+        this.length += n;
+        while (this.pending.size() > this.maxPending) {
+            this.writeNext();
+        }
+    }
+
+    /**
+     * Waits until the oldest block is compressed, and writes it to the other writer.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeNext() throws IOException {
+        BlockTask task = this.pending.remove();
+        task.join();
+        try {
+            if (this.blockCount == this.positions.length) {
+                this.positions = Arrays.copyOf(this.positions, this.blockCount * 2);
+            }
+
+            this.positions[this.blockCount++] = this.written;
+            this.writer.writeBytes(task.output, 0, task.outputLength);
+            this.written += task.outputLength;
+        } finally {
+            task.release();
+        }
+    }
+
+    /**
+     * Makes sure a primitive of length bytes can be written, submitting the current block if it is full.
+     *
+     * @param length the length of the primitive
+     * @return true if the primitive fits in the current block, false if it spans two blocks and should be written through {@link #spill(int)}
+     * @throws IOException if an I/O error occurs or the writer is finished
+     */
+    private boolean require(int length) throws IOException {
+        if (this.buffer.remaining() >= length) {
+            return true;
+        }
+
+        if (this.finished) {
+            throw new IOException("compressed data has been finished");
+        }
+
+        if (this.buffer.hasRemaining()) {
+            this.scratch.clear();
+            return false;
+        }
+
+        this.submit();
+        return true;
+    }
+
+    private void spill(int length) throws IOException {
+        this.writeBytes(this.scratch.array(), 0, length);
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.require(1);
+        this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        if (this.finished) {
+            throw new IOException("compressed data has been finished");
+        }
+
+        while (length > 0) {
+            if (!this.buffer.hasRemaining()) {
+                this.submit();
+            }
+
+            int n = Math.min(length, this.buffer.remaining());
+            this.buffer.put(bytes, start, n);
+            start += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.writeShort((short) s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        if (this.require(2)) {
+            this.buffer.putShort(s);
+        } else {
+            this.scratch.putShort(s);
+            this.spill(2);
+        }
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.writeInt((int) i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        if (this.require(4)) {
+            this.buffer.putInt(i);
+        } else {
+            this.scratch.putInt(i);
+            this.spill(4);
+        }
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        if (this.require(8)) {
+            this.buffer.putLong(l);
+        } else {
+            this.scratch.putLong(l);
+            this.spill(8);
+        }
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        if (this.require(2)) {
+            this.buffer.putChar(c);
+        } else {
+            this.scratch.putChar(c);
+            this.spill(2);
+        }
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.writeInt(Float.floatToRawIntBits(f));
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.writeLong(Double.doubleToRawLongBits(d));
+    }
+
+    /**
+     * Writes the blocks which are complete, waiting until they are compressed, and flushes the other writer.
+     * The current block is not written until it is complete, so every block keeps the block size.
+     */
+    @Override
+    public void flush() throws IOException {
+        while (!this.pending.isEmpty()) {
+            this.writeNext();
+        }
+
+        this.writer.flush();
+    }
+
+    /**
+     * Writes the last block, the end marker and the block index, without closing the other writer.
+     * Nothing can be written to this writer anymore afterwards. Finishing a finished writer has no effect.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+
+        this.submit();
+        this.finished = true;
+        BufferPool.DEFAULT.releaseBytes(this.buffer.array());
+        this.buffer = ByteBuffer.allocate(0);
+        while (!this.pending.isEmpty()) {
+            this.writeNext();
+        }
+
+        byte[] index = new byte[HEADER_SIZE + this.blockCount * 8 + FOOTER_SIZE];
+        // The end marker is a header with both lengths 0.
+        for (int i = 0; i < this.blockCount; i++) {
+            putLong(index, HEADER_SIZE + i * 8, this.positions[i]);
+        }
+
+        int footer = HEADER_SIZE + this.blockCount * 8;
+        putInt(index, footer, this.blockCount);
+        putInt(index, footer + 4, this.blockSize);
+        putLong(index, footer + 8, this.length);
+        putInt(index, footer + 16, INDEX_MAGIC);
+        this.writer.writeBytes(index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.finish();
+        } finally {
+            // Blocks which were not written because of a failure still have to release their buffers.
+            for (BlockTask task : this.pending) {
+                task.quietlyJoin();
+                task.release();
+            }
+
+            this.pending.clear();
+            this.writer.close();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.reader.FileChannelReader;
+import com.jvdsn.ioutil.reader.Reader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes to memory until a threshold is exceeded, after which everything is moved to a temporary file and further writes go to that file.
+ * The written bytes can be read back with {@link #toReader()} in either case.
+ * The temporary file is deleted when the writer is closed, or when the reader is closed if the file was handed over to a reader.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class SpillingWriter extends AbstractWriter {
+    /**
+     * The default amount of bytes which can be written before spilling to a file.
+     */
+    public static final long DEFAULT_THRESHOLD = 1 << 20;
+
+    protected final long threshold;
+    protected final Path directory;
+    protected long size;
+    // Exactly one of these is set until the writer is closed.
+    protected ChunkedWriter memory;
+    protected ChannelWriter file;
+    protected Path path;
+    protected boolean spilled;
+    protected boolean closed;
+
+    /**
+     * Constructs a new spilling writer.
+     *
+     * @param endianness the endianness of the writer
+     * @param threshold  the amount of bytes which can be written before spilling to a file
+     * @param directory  the directory to create the temporary file in, or null for the default temporary directory
+     */
+    public SpillingWriter(Endianness endianness, long threshold, Path directory) {
+        super(endianness);
+        if (threshold < 0) {
+            throw new IllegalArgumentException("negative threshold " + threshold);
+        }
+
+        this.threshold = threshold;
+        this.directory = directory;
+        this.memory = new ChunkedWriter(endianness);
+    }
+
+    /**
+     * Constructs a new spilling writer which creates the temporary file in the default temporary directory.
+     *
+     * @param endianness the endianness of the writer
+     * @param threshold  the amount of bytes which can be written before spilling to a file
+     */
+    public SpillingWriter(Endianness endianness, long threshold) {
+        this(endianness, threshold, null);
+    }
+
+    /**
+     * Constructs a new spilling writer with the default threshold.
+     *
+     * @param endianness the endianness of the writer
+     */
+    public SpillingWriter(Endianness endianness) {
+        this(endianness, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Returns the amount of bytes written.
+     *
+     * @return the amount of bytes written
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the written bytes were moved to a temporary file.
+     *
+     * @return true if the writer spilled to a file
+     */
+    public boolean isSpilled() {
+        return this.spilled;
+    }
+
+    /**
+     * Returns the writer to write length more bytes to, spilling to a file first if the threshold would be exceeded.
+     *
+     * @param length the amount of bytes
+     * @return the writer
+     * @throws EOFException if the writer has been closed
+     */
+    protected Writer current(int length) throws IOException {
+        if (this.closed) {
+            throw EndOfStream.exception();
+        }
+
+        this.size += length;
+        if (this.memory == null) {
+            return this.file;
+        }
+
+        if (this.size <= this.threshold) {
+            return this.memory;
+        }
+
+        this.path = this.directory == null ? Files.createTempFile("ioutil", ".spill") : Files.createTempFile(this.directory, "ioutil", ".spill");
+        try {
+            this.file = new ChannelWriter(this.endianness, FileChannel.open(this.path, StandardOpenOption.WRITE));
+            // Move everything written so far in one gathering write.
+            this.file.write(this.memory.toByteBuffers());
+        } catch (IOException e) {
+            if (this.file != null) {
+                this.file.close();
+                this.file = null;
+            }
+
+            Files.deleteIfExists(this.path);
+            this.path = null;
+            this.size -= length;
+            throw e;
+        }
+
+        this.memory.reset();
+        this.memory = null;
+        this.spilled = true;
+        return this.file;
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.current(1).writeUnsignedByte(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        this.current(length).writeBytes(bytes, start, length);
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.current(2).writeUnsignedShort(s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.current(2).writeShort(s);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.current(4).writeUnsignedInt(i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.current(4).writeInt(i);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.current(8).writeLong(l);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.current(2).writeChar(c);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.current(4).writeFloat(f);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.current(8).writeDouble(d);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (this.file != null) {
+            this.file.flush();
+        }
+    }
+
+    /**
+     * Closes the writer and returns a reader reading the written bytes.
+     * The written bytes are handed over to the reader: if the writer spilled to a file, the file is deleted when the reader is closed.
+     *
+     * @return the reader
+     * @throws EOFException if the writer has been closed
+     */
+    public Reader toReader() throws IOException {
+        if (this.closed) {
+            throw EndOfStream.exception();
+        }
+
+        this.closed = true;
+        if (this.memory != null) {
+            Reader reader = this.memory.toReader();
+            // The chunks now belong to the reader, so they must not be released.
+            this.memory = null;
+            return reader;
+        }
+
+        this.file.flush();
+        FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+        try {
+            this.file.close();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        } finally {
+            this.file = null;
+            this.path = null;
+        }
+
+        return new FileChannelReader(this.endianness, channel, 0, FileChannelReader.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Closes the writer, discarding the written bytes and deleting the temporary file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        if (this.memory != null) {
+            this.memory.reset();
+            this.memory = null;
+        }
+
+        if (this.file != null) {
+            try {
+                this.file.close();
+            } finally {
+                Files.deleteIfExists(this.path);
+                this.file = null;
+                this.path = null;
+            }
+        }
+    }
+}
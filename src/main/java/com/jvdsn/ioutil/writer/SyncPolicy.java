@@ -0,0 +1,32 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+/**
+ * Represents when written data is forced to the storage device.
+ * Only file channels can be forced, for other channels every policy behaves like {@link #NONE}.
+ *
+ * @author Joachim Vandersmissen
+ */
+public enum SyncPolicy {
+    /**
+     * Never force written data, leaving it to the operating system.
+     */
+    NONE,
+    /**
+     * Force written data after every batch of writes.
+     */
+    BATCH,
+    /**
+     * Force written data at most once per interval.
+     */
+    INTERVAL
+}
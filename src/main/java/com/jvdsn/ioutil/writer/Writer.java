@@ -150,6 +150,14 @@ public interface Writer extends AutoCloseable {
      */
     void writeSignedLEB128(int i) throws IOException;
 
+    /**
+     * Writes any buffered data to the underlying destination. Writers which do not buffer have nothing to flush.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    default void flush() throws IOException {
+    }
+
     @Override
     void close() throws IOException;
 }
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Reads from a memory segment (heap, native or mapped), which can be larger than 2 GiB.
+ * The segment is not closed when the reader is closed, it is freed when its arena is closed.
+ * A segment of a confined arena can only be read by the thread which owns the arena.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class MemorySegmentReader extends AbstractReader implements PositionalReader {
+    private static final ValueLayout.OfShort SHORT_LE = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfShort SHORT_BE = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfInt INT_LE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT_BE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG_LE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG_BE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfChar CHAR_LE = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfChar CHAR_BE = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT_LE = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT_BE = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE_LE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE_BE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final ValueLayout.OfShort shortLayout;
+    private final ValueLayout.OfInt intLayout;
+    private final ValueLayout.OfLong longLayout;
+    private final ValueLayout.OfChar charLayout;
+    private final ValueLayout.OfFloat floatLayout;
+    private final ValueLayout.OfDouble doubleLayout;
+    protected MemorySegment segment;
+    protected long position;
+
+    /**
+     * Constructs a new memory segment reader reading from the start to the end of a memory segment.
+     *
+     * @param endianness the endianness of the reader
+     * @param segment    the memory segment to read from
+     */
+    public MemorySegmentReader(Endianness endianness, MemorySegment segment) {
+        super(endianness);
+        boolean bigEndian = endianness == Endianness.BIG_ENDIAN;
+        this.shortLayout = bigEndian ? SHORT_BE : SHORT_LE;
+        this.intLayout = bigEndian ? INT_BE : INT_LE;
+        this.longLayout = bigEndian ? LONG_BE : LONG_LE;
+        this.charLayout = bigEndian ? CHAR_BE : CHAR_LE;
+        this.floatLayout = bigEndian ? FLOAT_BE : FLOAT_LE;
+        this.doubleLayout = bigEndian ? DOUBLE_BE : DOUBLE_LE;
+        this.reset(segment);
+    }
+
+    /**
+     * Rebinds the reader to a new memory segment, so it can be reused instead of constructing a new reader.
+     *
+     * @param segment the memory segment to read from
+     */
+    public void reset(MemorySegment segment) {
+        this.segment = segment;
+        this.position = 0;
+    }
+
+    /**
+     * Returns the position of the reader in the memory segment.
+     *
+     * @return the position
+     */
+    @Override
+    public long position() {
+        return this.position;
+    }
+
+    /**
+     * Returns the amount of bytes remaining in the memory segment.
+     *
+     * @return the amount of bytes remaining
+     */
+    @Override
+    public long remaining() {
+        return this.segment.byteSize() - this.position;
+    }
+
+    /**
+     * Moves the reader to a new position in the memory segment.
+     *
+     * @param position the new position
+     * @throws EOFException             if the position is beyond the end of the data
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    @Override
+    public void seek(long position) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position " + position + " is before the start 0");
+        }
+
+        if (position > this.segment.byteSize()) {
+            this.position = this.segment.byteSize();
+            throw EndOfStream.exception();
+        }
+
+        this.position = position;
+    }
+
+    /**
+     * Checks that at least length bytes remain, moving the reader to the end of the segment if not.
+     * Returns the position of the reader, which is then advanced by length bytes.
+     *
+     * @param length the amount of bytes which should remain
+     * @return the position before advancing
+     * @throws EOFException if less than length bytes remain
+     */
+    protected long require(long length) throws EOFException {
+        long position = this.position;
+        if (this.segment.byteSize() - position < length) {
+            this.position = this.segment.byteSize();
+            throw EndOfStream.exception();
+        }
+
+        this.position = position + length;
+        return position;
+    }
+
+    /**
+     * Checks that length bytes can be read at an absolute position, without modifying the position of the reader.
+     *
+     * @param position the position to read at
+     * @param length   the amount of bytes to read
+     * @return the position as an offset in the memory segment
+     * @throws EOFException             if the data ends before position + length
+     * @throws IllegalArgumentException if the position is before the start of the data
+     */
+    protected long index(long position, int length) throws EOFException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position " + position + " is before the start 0");
+        }
+
+        if (position > this.segment.byteSize() - length) {
+            throw EndOfStream.exception();
+        }
+
+        return position;
+    }
+
+    @Override
+    public int readUnsignedByteAt(long position) throws IOException {
+        return this.segment.get(ValueLayout.JAVA_BYTE, this.index(position, 1)) & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytesAt(long position, byte[] bytes, int start, int length) throws IOException {
+        MemorySegment.copy(this.segment, ValueLayout.JAVA_BYTE, this.index(position, length), bytes, start, length);
+        return bytes;
+    }
+
+    @Override
+    public short readShortAt(long position) throws IOException {
+        return this.segment.get(this.shortLayout, this.index(position, 2));
+    }
+
+    @Override
+    public int readIntAt(long position) throws IOException {
+        return this.segment.get(this.intLayout, this.index(position, 4));
+    }
+
+    @Override
+    public long readLongAt(long position) throws IOException {
+        return this.segment.get(this.longLayout, this.index(position, 8));
+    }
+
+    @Override
+    public char readCharAt(long position) throws IOException {
+        return this.segment.get(this.charLayout, this.index(position, 2));
+    }
+
+    @Override
+    public float readFloatAt(long position) throws IOException {
+        return this.segment.get(this.floatLayout, this.index(position, 4));
+    }
+
+    @Override
+    public double readDoubleAt(long position) throws IOException {
+        return this.segment.get(this.doubleLayout, this.index(position, 8));
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return this.segment.get(ValueLayout.JAVA_BYTE, this.require(1)) & 0xFF;
+    }
+
+    @Override
+    public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+        MemorySegment.copy(this.segment, ValueLayout.JAVA_BYTE, this.require(length), bytes, start, length);
+        return bytes;
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return this.segment.get(this.shortLayout, this.require(2)) & 0xFFFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return this.segment.get(this.shortLayout, this.require(2));
+    }
+
+    @Override
+    public long readUnsignedInt() throws IOException {
+        return this.segment.get(this.intLayout, this.require(4)) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return this.segment.get(this.intLayout, this.require(4));
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return this.segment.get(this.longLayout, this.require(8));
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return this.segment.get(this.charLayout, this.require(2));
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return this.segment.get(this.floatLayout, this.require(4));
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return this.segment.get(this.doubleLayout, this.require(8));
+    }
+
+    @Override
+    public void skip(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        this.require(length);
+    }
+
+    @Override
+    public MemorySegmentReader slice(long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length " + length);
+        }
+
+        // The slice shares the memory of the segment, nothing is copied.
+        return new MemorySegmentReader(this.endianness, this.segment.asSlice(this.require(length), length));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.position = this.segment.byteSize();
+    }
+}
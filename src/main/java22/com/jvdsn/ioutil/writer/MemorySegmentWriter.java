@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.EndOfStream;
+import com.jvdsn.ioutil.Endianness;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Writes to a memory segment (heap, native or mapped), which can be larger than 2 GiB.
+ * The segment is not closed when the writer is closed, it is freed when its arena is closed.
+ * A segment of a confined arena can only be written by the thread which owns the arena.
+ *
+ * @author Joachim Vandersmissen
+ */
+public class MemorySegmentWriter extends AbstractWriter {
+    private static final ValueLayout.OfShort SHORT_LE = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfShort SHORT_BE = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfInt INT_LE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT_BE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG_LE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG_BE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfChar CHAR_LE = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfChar CHAR_BE = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT_LE = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT_BE = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE_LE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE_BE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final ValueLayout.OfShort shortLayout;
+    private final ValueLayout.OfInt intLayout;
+    private final ValueLayout.OfLong longLayout;
+    private final ValueLayout.OfChar charLayout;
+    private final ValueLayout.OfFloat floatLayout;
+    private final ValueLayout.OfDouble doubleLayout;
+    protected MemorySegment segment;
+    protected long position;
+
+    /**
+     * Constructs a new memory segment writer writing from the start to the end of a memory segment.
+     *
+     * @param endianness the endianness of the writer
+     * @param segment    the memory segment to write to
+     */
+    public MemorySegmentWriter(Endianness endianness, MemorySegment segment) {
+        super(endianness);
+        boolean bigEndian = endianness == Endianness.BIG_ENDIAN;
+        this.shortLayout = bigEndian ? SHORT_BE : SHORT_LE;
+        this.intLayout = bigEndian ? INT_BE : INT_LE;
+        this.longLayout = bigEndian ? LONG_BE : LONG_LE;
+        this.charLayout = bigEndian ? CHAR_BE : CHAR_LE;
+        this.floatLayout = bigEndian ? FLOAT_BE : FLOAT_LE;
+        this.doubleLayout = bigEndian ? DOUBLE_BE : DOUBLE_LE;
+        this.reset(segment);
+    }
+
+    /**
+     * Rebinds the writer to a new memory segment, so it can be reused instead of constructing a new writer.
+     *
+     * @param segment the memory segment to write to
+     */
+    public void reset(MemorySegment segment) {
+        this.segment = segment;
+        this.position = 0;
+    }
+
+    /**
+     * Returns the position of the writer in the memory segment.
+     *
+     * @return the position
+     */
+    public long position() {
+        return this.position;
+    }
+
+    /**
+     * Returns the amount of bytes remaining in the memory segment.
+     *
+     * @return the amount of bytes remaining
+     */
+    public long remaining() {
+        return this.segment.byteSize() - this.position;
+    }
+
+    /**
+     * Checks that at least length bytes remain, moving the writer to the end of the segment if not.
+     * Returns the position of the writer, which is then advanced by length bytes.
+     *
+     * @param length the amount of bytes which should remain
+     * @return the position before advancing
+     * @throws EOFException if less than length bytes remain
+     */
+    protected long require(long length) throws EOFException {
+        long position = this.position;
+        if (this.segment.byteSize() - position < length) {
+            this.position = this.segment.byteSize();
+            throw EndOfStream.exception();
+        }
+
+        this.position = position + length;
+        return position;
+    }
+
+    @Override
+    public void writeUnsignedByte(int b) throws IOException {
+        this.segment.set(ValueLayout.JAVA_BYTE, this.require(1), (byte) b);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int start, int length) throws IOException {
+        MemorySegment.copy(bytes, start, this.segment, ValueLayout.JAVA_BYTE, this.require(length), length);
+    }
+
+    @Override
+    public void writeUnsignedShort(int s) throws IOException {
+        this.segment.set(this.shortLayout, this.require(2), (short) s);
+    }
+
+    @Override
+    public void writeShort(short s) throws IOException {
+        this.segment.set(this.shortLayout, this.require(2), s);
+    }
+
+    @Override
+    public void writeUnsignedInt(long i) throws IOException {
+        this.segment.set(this.intLayout, this.require(4), (int) i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        this.segment.set(this.intLayout, this.require(4), i);
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        this.segment.set(this.longLayout, this.require(8), l);
+    }
+
+    @Override
+    public void writeChar(char c) throws IOException {
+        this.segment.set(this.charLayout, this.require(2), c);
+    }
+
+    @Override
+    public void writeFloat(float f) throws IOException {
+        this.segment.set(this.floatLayout, this.require(4), f);
+    }
+
+    @Override
+    public void writeDouble(double d) throws IOException {
+        this.segment.set(this.doubleLayout, this.require(8), d);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.position = this.segment.byteSize();
+    }
+}
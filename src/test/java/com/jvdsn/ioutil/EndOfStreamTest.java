@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil;
+
+import com.jvdsn.ioutil.reader.ByteArrayReader;
+import com.jvdsn.ioutil.reader.Reader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class EndOfStreamTest {
+    @Test
+    public void testStackless() throws IOException {
+        boolean stackless = EndOfStream.isStackless();
+        try (Reader reader = new ByteArrayReader(Endianness.LITTLE_ENDIAN)) {
+            EndOfStream.setStackless(false);
+            EOFException first = Assertions.assertThrows(EOFException.class, reader::readUnsignedByte);
+            EOFException second = Assertions.assertThrows(EOFException.class, reader::readUnsignedByte);
+            Assertions.assertNotSame(first, second);
+            Assertions.assertNotEquals(0, first.getStackTrace().length);
+
+            EndOfStream.setStackless(true);
+            first = Assertions.assertThrows(EOFException.class, reader::readUnsignedByte);
+            second = Assertions.assertThrows(EOFException.class, reader::readInt);
+            Assertions.assertSame(first, second);
+            Assertions.assertEquals(0, first.getStackTrace().length);
+            Assertions.assertEquals("End of stream.", first.getMessage());
+        } finally {
+            EndOfStream.setStackless(stackless);
+        }
+    }
+}
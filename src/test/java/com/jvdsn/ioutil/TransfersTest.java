@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil;
+
+import com.jvdsn.ioutil.reader.ByteArrayReader;
+import com.jvdsn.ioutil.reader.ChannelReader;
+import com.jvdsn.ioutil.reader.FileChannelReader;
+import com.jvdsn.ioutil.reader.Reader;
+import com.jvdsn.ioutil.writer.ByteArrayWriter;
+import com.jvdsn.ioutil.writer.ChannelWriter;
+import com.jvdsn.ioutil.writer.Writer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class TransfersTest {
+    @TempDir
+    public Path directory;
+
+    private static byte[] sequence(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        return bytes;
+    }
+
+    private Path file(byte[] bytes) throws IOException {
+        Path file = Files.createTempFile(this.directory, null, null);
+        Files.write(file, bytes);
+        return file;
+    }
+
+    private static byte[] expected(byte[] bytes, int start, int length) {
+        // Every test writes a marker byte before and after the transferred bytes.
+        byte[] expected = new byte[length + 2];
+        expected[0] = -1;
+        System.arraycopy(bytes, start, expected, 1, length);
+        expected[length + 1] = -2;
+        return expected;
+    }
+
+    private static void transfer(Reader reader, Writer writer, long length) throws IOException {
+        writer.writeByte((byte) -1);
+        reader.readUnsignedByte();
+        Transfers.transfer(reader, writer, length);
+        writer.writeByte((byte) -2);
+    }
+
+    @Test
+    public void testTransferFileToFile() throws IOException {
+        byte[] bytes = sequence(100000);
+        Path target = this.file(new byte[0]);
+        try (FileChannelReader reader = new FileChannelReader(Endianness.LITTLE_ENDIAN, FileChannel.open(this.file(bytes), StandardOpenOption.READ)); Writer writer = new ChannelWriter(Endianness.LITTLE_ENDIAN, FileChannel.open(target, StandardOpenOption.WRITE))) {
+            transfer(reader, writer, 90000);
+            Assertions.assertEquals(90001, reader.position());
+            Assertions.assertEquals(90001 & 0xFF, reader.readUnsignedByte());
+        }
+
+        Assertions.assertArrayEquals(expected(bytes, 1, 90000), Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testTransferChannelToFile() throws IOException {
+        byte[] bytes = sequence(100000);
+        Path target = this.file(new byte[0]);
+        try (Reader reader = new ChannelReader(Endianness.LITTLE_ENDIAN, Channels.newChannel(new ByteArrayInputStream(bytes))); Writer writer = new ChannelWriter(Endianness.LITTLE_ENDIAN, FileChannel.open(target, StandardOpenOption.WRITE))) {
+            transfer(reader, writer, 90000);
+            Assertions.assertEquals(90001 & 0xFF, reader.readUnsignedByte());
+        }
+
+        Assertions.assertArrayEquals(expected(bytes, 1, 90000), Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testTransferFileToChannel() throws IOException {
+        byte[] bytes = sequence(100000);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (ChannelReader reader = new ChannelReader(Endianness.LITTLE_ENDIAN, FileChannel.open(this.file(bytes), StandardOpenOption.READ)); Writer writer = new ChannelWriter(Endianness.LITTLE_ENDIAN, Channels.newChannel(target))) {
+            transfer(reader, writer, 90000);
+            Assertions.assertEquals(90001 & 0xFF, reader.readUnsignedByte());
+        }
+
+        Assertions.assertArrayEquals(expected(bytes, 1, 90000), target.toByteArray());
+    }
+
+    @Test
+    public void testTransferChannelToChannel() throws IOException {
+        byte[] bytes = sequence(100000);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (Reader reader = new ChannelReader(Endianness.LITTLE_ENDIAN, Channels.newChannel(new ByteArrayInputStream(bytes))); Writer writer = new ChannelWriter(Endianness.LITTLE_ENDIAN, Channels.newChannel(target))) {
+            transfer(reader, writer, 90000);
+            Assertions.assertEquals(90001 & 0xFF, reader.readUnsignedByte());
+        }
+
+        Assertions.assertArrayEquals(expected(bytes, 1, 90000), target.toByteArray());
+    }
+
+    @Test
+    public void testTransferFallback() throws IOException {
+        byte[] bytes = sequence(100000);
+        byte[] target = new byte[90002];
+        try (Reader reader = new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes); Writer writer = new ByteArrayWriter(Endianness.LITTLE_ENDIAN, target)) {
+            transfer(reader, writer, 90000);
+            Assertions.assertEquals(90001 & 0xFF, reader.readUnsignedByte());
+        }
+
+        Assertions.assertArrayEquals(expected(bytes, 1, 90000), target);
+    }
+
+    @Test
+    public void testTransferEOF() throws IOException {
+        byte[] bytes = sequence(100);
+        try (Reader reader = new FileChannelReader(Endianness.LITTLE_ENDIAN, FileChannel.open(this.file(bytes), StandardOpenOption.READ)); Writer writer = new ChannelWriter(Endianness.LITTLE_ENDIAN, Channels.newChannel(new ByteArrayOutputStream()))) {
+            Assertions.assertThrows(EOFException.class, () -> Transfers.transfer(reader, writer, 101));
+        }
+
+        try (Reader reader = new ChannelReader(Endianness.LITTLE_ENDIAN, Channels.newChannel(new ByteArrayInputStream(bytes))); Writer writer = new ChannelWriter(Endianness.LITTLE_ENDIAN, FileChannel.open(this.file(new byte[0]), StandardOpenOption.WRITE))) {
+            Assertions.assertThrows(EOFException.class, () -> Transfers.transfer(reader, writer, 101));
+        }
+
+        try (Reader reader = new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes); Writer writer = new ByteArrayWriter(Endianness.LITTLE_ENDIAN, new byte[200])) {
+            Assertions.assertThrows(EOFException.class, () -> Transfers.transfer(reader, writer, 101));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Transfers.transfer(reader, writer, -1));
+        }
+    }
+}
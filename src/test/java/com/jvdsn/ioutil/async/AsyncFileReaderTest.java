@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.async;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.StringEncoding;
+import com.jvdsn.ioutil.reader.ByteBufferReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class AsyncFileReaderTest {
+    @TempDir
+    public Path directory;
+
+    private AsynchronousFileChannel open(byte... bytes) throws IOException {
+        Path file = Files.createTempFile(this.directory, null, null);
+        Files.write(file, bytes);
+        return AsynchronousFileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        byte[] bytes = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, (byte) 0x96, 0x01};
+        try (AsynchronousFileChannel littleEndianChannel = this.open(bytes); AsynchronousFileChannel bigEndianChannel = this.open(bytes)) {
+            AsyncFileReader littleEndian = new AsyncFileReader(Endianness.LITTLE_ENDIAN, littleEndianChannel);
+            AsyncFileReader bigEndian = new AsyncFileReader(Endianness.BIG_ENDIAN, bigEndianChannel);
+            CompletableFuture<ByteBufferReader> littleEndianRegion = littleEndian.read(1, 4);
+            CompletableFuture<ByteBufferReader> bigEndianRegion = bigEndian.read(1, 4);
+            CompletableFuture<ByteBufferReader> leb128Region = littleEndian.read(8, 2);
+            Assertions.assertEquals(0x04030201, littleEndianRegion.get().readInt());
+            Assertions.assertEquals(0x01020304, bigEndianRegion.get().readInt());
+            Assertions.assertEquals(150, leb128Region.get().readUnsignedLEB128());
+            Assertions.assertEquals(0, littleEndian.read(10, 0).get().remaining());
+        }
+    }
+
+    @Test
+    public void testReadString() throws Exception {
+        byte[] bytes = StringEncoding.UTF_8.encode("héllo");
+        try (AsynchronousFileChannel channel = this.open(bytes)) {
+            AsyncFileReader reader = new AsyncFileReader(Endianness.BIG_ENDIAN, channel);
+            ByteBufferReader region = reader.read(0, bytes.length).get();
+            Assertions.assertEquals("héllo", StringEncoding.UTF_8.decode(region.readBytes(new byte[bytes.length])));
+        }
+    }
+
+    @Test
+    public void testReadBeyondEnd() throws IOException {
+        try (AsynchronousFileChannel channel = this.open(new byte[]{0x01, 0x02})) {
+            AsyncFileReader reader = new AsyncFileReader(Endianness.BIG_ENDIAN, channel);
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> reader.read(1, 2).get());
+            Assertions.assertTrue(e.getCause() instanceof EOFException);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> reader.read(-1, 2));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.async;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class AsyncFileWriterTest {
+    @TempDir
+    public Path directory;
+
+    @Test
+    public void testWrite() throws Exception {
+        Path littleEndianFile = Files.createTempFile(this.directory, null, null);
+        Path bigEndianFile = Files.createTempFile(this.directory, null, null);
+        try (AsynchronousFileChannel littleEndianChannel = AsynchronousFileChannel.open(littleEndianFile, StandardOpenOption.WRITE); AsynchronousFileChannel bigEndianChannel = AsynchronousFileChannel.open(bigEndianFile, StandardOpenOption.WRITE)) {
+            try (AsyncFileWriter littleEndian = new AsyncFileWriter(Endianness.LITTLE_ENDIAN, littleEndianChannel, 2, 64); AsyncFileWriter bigEndian = new AsyncFileWriter(Endianness.BIG_ENDIAN, bigEndianChannel, 2, 64)) {
+                for (int i = 0; i < 1000; i++) {
+                    littleEndian.writeInt(i);
+                    bigEndian.writeInt(i);
+                }
+
+                Assertions.assertEquals(4002, littleEndian.position());
+                Assertions.assertEquals(4002, bigEndian.position());
+                // Does not block, the writes complete in the background.
+                littleEndian.submit().get();
+                bigEndian.submit().get();
+            }
+        }
+
+        ByteBuffer littleEndian = ByteBuffer.wrap(Files.readAllBytes(littleEndianFile)).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer bigEndian = ByteBuffer.wrap(Files.readAllBytes(bigEndianFile)).order(ByteOrder.BIG_ENDIAN);
+        Assertions.assertEquals(4002, littleEndian.limit());
+        Assertions.assertEquals(4002, bigEndian.limit());
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals(i, littleEndian.getInt(2 + i * 4));
+            Assertions.assertEquals(i, bigEndian.getInt(2 + i * 4));
+        }
+    }
+
+    @Test
+    public void testWriteBytes() throws IOException {
+        Path file = Files.createTempFile(this.directory, null, null);
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE); AsyncFileWriter writer = new AsyncFileWriter(Endianness.BIG_ENDIAN, channel, 0, 64)) {
+            writer.writeBytes(bytes);
+            writer.flush();
+            Assertions.assertArrayEquals(bytes, Files.readAllBytes(file));
+        }
+    }
+
+    @Test
+    public void testFailure() throws IOException {
+        Path file = Files.createTempFile(this.directory, null, null);
+        // The channel is not writable, so every write fails.
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(file, StandardOpenOption.READ)) {
+            AsyncFileWriter writer = new AsyncFileWriter(Endianness.BIG_ENDIAN, channel, 0);
+            writer.writeInt(1);
+            Assertions.assertThrows(IOException.class, writer::flush);
+            Assertions.assertThrows(IOException.class, writer::close);
+            Assertions.assertThrows(EOFException.class, () -> writer.writeInt(1));
+        }
+    }
+
+    @Test
+    public void testMaxInFlight() throws IOException {
+        Path file = Files.createTempFile(this.directory, null, null);
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE)) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new AsyncFileWriter(Endianness.BIG_ENDIAN, channel, 0, 64, 0));
+            // Every submit waits for the previous buffer to be written, and reuses it.
+            try (AsyncFileWriter writer = new AsyncFileWriter(Endianness.BIG_ENDIAN, channel, 0, 64, 1)) {
+                writer.writeBytes(bytes);
+                writer.flush();
+                Assertions.assertArrayEquals(bytes, Files.readAllBytes(file));
+            }
+        }
+    }
+
+
+    @Test
+    public void testFailureWaitsForWrites() throws IOException {
+        AtomicBoolean completed = new AtomicBoolean();
+        AtomicInteger writes = new AtomicInteger();
+        // The first write fails immediately, the second completes a while later.
+        AsynchronousFileChannel channel = new AsynchronousFileChannel() {
+            @Override
+            public <A> void write(ByteBuffer src, long position, A attachment, CompletionHandler<Integer, ? super A> handler) {
+                if (writes.incrementAndGet() == 1) {
+                    handler.failed(new IOException("broken channel"), attachment);
+                    return;
+                }
+
+                new Thread(() -> {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException ignored) {
+                    }
+
+                    int n = src.remaining();
+                    src.position(src.limit());
+                    completed.set(true);
+                    handler.completed(n, attachment);
+                }).start();
+            }
+
+            @Override
+            public Future<Integer> write(ByteBuffer src, long position) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public <A> void read(ByteBuffer dst, long position, A attachment, CompletionHandler<Integer, ? super A> handler) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Future<Integer> read(ByteBuffer dst, long position) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long size() {
+                return 0;
+            }
+
+            @Override
+            public AsynchronousFileChannel truncate(long size) {
+                return this;
+            }
+
+            @Override
+            public void force(boolean metaData) {
+            }
+
+            @Override
+            public <A> void lock(long position, long size, boolean shared, A attachment, CompletionHandler<FileLock, ? super A> handler) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Future<FileLock> lock(long position, long size, boolean shared) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public FileLock tryLock(long position, long size, boolean shared) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        AsyncFileWriter writer = new AsyncFileWriter(Endianness.BIG_ENDIAN, channel, 0, 64, 2);
+        writer.writeInt(1);
+        writer.submit();
+        writer.writeInt(2);
+        writer.submit();
+        IOException e = Assertions.assertThrows(IOException.class, writer::flush);
+        Assertions.assertEquals("broken channel", e.getMessage());
+        // The failed write does not hide the write which was still in flight.
+        Assertions.assertTrue(completed.get());
+        Assertions.assertThrows(IOException.class, writer::close);
+        Assertions.assertEquals(2, writes.get());
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class BlockCacheTest {
+    @TempDir
+    public Path directory;
+
+    private FileChannel open(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        Path file = Files.createTempFile(this.directory, null, null);
+        Files.write(file, bytes);
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    @Test
+    public void testBlock() throws IOException {
+        try (FileChannel channel = this.open(10)) {
+            BlockCache cache = new BlockCache(channel, 4, 8);
+            Assertions.assertArrayEquals(new byte[]{4, 5, 6, 7}, cache.block(1));
+            // The last block is shorter, blocks beyond the end are empty.
+            Assertions.assertArrayEquals(new byte[]{8, 9}, cache.block(2));
+            Assertions.assertArrayEquals(new byte[0], cache.block(3));
+            Assertions.assertSame(cache.block(1), cache.block(1));
+            BlockCacheStatistics statistics = cache.statistics();
+            Assertions.assertEquals(2, statistics.hits());
+            Assertions.assertEquals(3, statistics.misses());
+            Assertions.assertEquals(0, statistics.evictions());
+            Assertions.assertEquals(0.4, statistics.hitRate());
+        }
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        try (FileChannel channel = this.open(64)) {
+            BlockCache cache = new BlockCache(channel, 4, 3);
+            byte[] hot = cache.block(0);
+            cache.block(1);
+            cache.block(2);
+            // Block 0 is used again, so it gets a second chance and block 1 is evicted instead.
+            Assertions.assertSame(hot, cache.block(0));
+            cache.block(3);
+            Assertions.assertEquals(1, cache.statistics().evictions());
+            Assertions.assertSame(hot, cache.block(0));
+            long misses = cache.statistics().misses();
+            cache.block(1);
+            Assertions.assertEquals(misses + 1, cache.statistics().misses());
+        }
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        try (FileChannel channel = this.open(8)) {
+            BlockCache cache = new BlockCache(channel, 4, 2);
+            cache.block(0);
+            cache.clear();
+            cache.block(0);
+            Assertions.assertEquals(2, cache.statistics().misses());
+        }
+    }
+
+    @Test
+    public void testConcurrentBlocks() throws Exception {
+        try (FileChannel channel = this.open(1024)) {
+            // Far more blocks than slots, so entries are constantly removed from the table while other threads search it.
+            BlockCache cache = new BlockCache(channel, 4, 7);
+            List<Thread> threads = new ArrayList<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            for (int i = 0; i < 4; i++) {
+                int seed = i;
+                Thread thread = new Thread(() -> {
+                    Random random = new Random(seed);
+                    try {
+                        for (int j = 0; j < 20000; j++) {
+                            int index = random.nextInt(16) == 0 ? random.nextInt(256) : random.nextInt(8);
+                            Assertions.assertEquals((byte) (index * 4), cache.block(index)[0]);
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            Assertions.assertNull(failure.get());
+            Assertions.assertEquals(80000, cache.statistics().hits() + cache.statistics().misses());
+        }
+    }
+
+
+    @Test
+    public void testConcurrentMisses() throws Exception {
+        try (FileChannel channel = this.open(1024)) {
+            BlockCache cache = new BlockCache(channel, 4, 8);
+            CyclicBarrier barrier = new CyclicBarrier(8);
+            List<Thread> threads = new ArrayList<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            for (int i = 0; i < 8; i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        barrier.await();
+                        Assertions.assertEquals((byte) 12, cache.block(3)[0]);
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            Assertions.assertNull(failure.get());
+            // The block is read once, the other threads either wait for that read or find the block cached.
+            Assertions.assertEquals(1, cache.statistics().misses());
+            Assertions.assertEquals(7, cache.statistics().hits());
+        }
+    }
+}
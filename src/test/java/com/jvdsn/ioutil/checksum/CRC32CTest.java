@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.checksum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Checksum;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class CRC32CTest {
+    @Test
+    public void testCheckValue() {
+        byte[] bytes = "123456789".getBytes(StandardCharsets.US_ASCII);
+        CRC32C bulk = new CRC32C();
+        bulk.update(bytes, 0, bytes.length);
+        Assertions.assertEquals(0xE3069283L, bulk.getValue());
+        CRC32C single = new CRC32C();
+        for (byte b : bytes) {
+            single.update(b);
+        }
+
+        Assertions.assertEquals(0xE3069283L, single.getValue());
+        single.reset();
+        Assertions.assertEquals(0, single.getValue());
+    }
+
+    @Test
+    public void testUpdate() {
+        // The checksum of the JDK (Java 9+) is the reference, if available.
+        Checksum reference = Checksums.crc32c();
+        CRC32C crc = new CRC32C();
+        Random random = new Random(0);
+        byte[] bytes = new byte[100];
+        random.nextBytes(bytes);
+        for (int length = 0; length < 50; length++) {
+            reference.update(bytes, length, length);
+            crc.update(bytes, length, length);
+            Assertions.assertEquals(reference.getValue(), crc.getValue());
+        }
+
+        Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, () -> crc.update(bytes, 90, 11));
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.checksum;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Checksum;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ChecksumsTest {
+    private static long checksum(Checksum checksum) {
+        byte[] bytes = "123456789".getBytes(StandardCharsets.US_ASCII);
+        checksum.update(bytes, 0, bytes.length);
+        return checksum.getValue();
+    }
+
+    @Test
+    public void testCheckValues() {
+        Assertions.assertEquals(0xE3069283L, checksum(Checksums.crc32c()));
+        Assertions.assertEquals(0xCBF43926L, checksum(Checksums.crc32()));
+        Assertions.assertEquals(0x091E01DEL, checksum(Checksums.adler32()));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.compress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class LZ4CompressorTest {
+    private static void assertRoundTrip(byte[] bytes) throws IOException {
+        LZ4Compressor compressor = new LZ4Compressor();
+        byte[] compressed = new byte[LZ4Compressor.maxCompressedLength(bytes.length) + 3];
+        int n = compressor.compress(bytes, 0, bytes.length, compressed, 3);
+        byte[] decompressed = new byte[bytes.length + 2];
+        Assertions.assertEquals(bytes.length, LZ4Decompressor.decompress(compressed, 3, n, decompressed, 1, bytes.length + 1));
+        Assertions.assertArrayEquals(bytes, Arrays.copyOfRange(decompressed, 1, bytes.length + 1));
+        // The hash table of the previous block does not affect the next one.
+        Assertions.assertEquals(n, compressor.compress(bytes, 0, bytes.length, compressed, 3));
+    }
+
+    @Test
+    public void testMaxCompressedLength() {
+        Assertions.assertEquals(16, LZ4Compressor.maxCompressedLength(0));
+        Assertions.assertEquals(65536 + 257 + 16, LZ4Compressor.maxCompressedLength(65536));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> LZ4Compressor.maxCompressedLength(-1));
+    }
+
+    @Test
+    public void testCompress() throws IOException {
+        assertRoundTrip(new byte[0]);
+        assertRoundTrip(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        assertRoundTrip("abcabcabcabcabcabcabcabc".getBytes(StandardCharsets.US_ASCII));
+        assertRoundTrip(new byte[100000]);
+        byte[] random = new byte[100000];
+        new Random(42).nextBytes(random);
+        assertRoundTrip(random);
+        byte[] text = new byte[100000];
+        byte[] words = "the quick brown fox jumps over the lazy dog ".getBytes(StandardCharsets.US_ASCII);
+        Random wordRandom = new Random(42);
+        for (int i = 0; i < text.length; i++) {
+            text[i] = wordRandom.nextInt(8) == 0 ? (byte) wordRandom.nextInt(256) : words[i % words.length];
+        }
+
+        assertRoundTrip(text);
+    }
+
+    @Test
+    public void testCompressRatio() {
+        byte[] bytes = new byte[65536];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 251 / 3);
+        }
+
+        byte[] compressed = new byte[LZ4Compressor.maxCompressedLength(bytes.length)];
+        Assertions.assertTrue(new LZ4Compressor().compress(bytes, 0, bytes.length, compressed, 0) < bytes.length / 10);
+        // Blocks of at most 12 bytes are stored as literals only.
+        Assertions.assertEquals(13, new LZ4Compressor().compress(new byte[12], 0, 12, compressed, 0));
+        Assertions.assertEquals((byte) 0xC0, compressed[0]);
+    }
+
+    @Test
+    public void testCompressByteBuffer() throws IOException {
+        byte[] bytes = "abcabcabcabcabcabcabcabc".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer src = ByteBuffer.allocateDirect(bytes.length);
+        src.put(bytes).flip();
+        ByteBuffer compressed = ByteBuffer.allocateDirect(LZ4Compressor.maxCompressedLength(bytes.length));
+        int n = new LZ4Compressor().compress(src, compressed);
+        Assertions.assertEquals(n, compressed.position());
+        Assertions.assertFalse(src.hasRemaining());
+        compressed.flip();
+        ByteBuffer decompressed = ByteBuffer.allocate(bytes.length);
+        Assertions.assertEquals(bytes.length, LZ4Decompressor.decompress(compressed, decompressed));
+        Assertions.assertArrayEquals(bytes, decompressed.array());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LZ4Compressor().compress(ByteBuffer.wrap(bytes), ByteBuffer.allocate(bytes.length)));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.compress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class LZ4DecompressorTest {
+    // "abc", a match of 12 bytes at offset 3 overlapping itself, and the last literals "abcab".
+    private static final byte[] BLOCK = {0x38, 'a', 'b', 'c', 0x03, 0x00, 0x50, 'a', 'b', 'c', 'a', 'b'};
+
+    @Test
+    public void testDecompress() throws IOException {
+        byte[] decompressed = new byte[20];
+        Assertions.assertEquals(20, LZ4Decompressor.decompress(BLOCK, 0, BLOCK.length, decompressed, 0, 20));
+        Assertions.assertArrayEquals("abcabcabcabcabcabcab".getBytes(StandardCharsets.US_ASCII), decompressed);
+    }
+
+    @Test
+    public void testDecompressLongLengths() throws IOException {
+        // 15 + 5 literals, then a match of 4 + 15 + 255 + 1 bytes at offset 1.
+        byte[] block = new byte[1 + 1 + 20 + 2 + 2 + 1 + 5];
+        block[0] = (byte) 0xFF;
+        block[1] = 5;
+        for (int i = 0; i < 20; i++) {
+            block[2 + i] = 7;
+        }
+
+        block[22] = 1;
+        block[24] = (byte) 255;
+        block[25] = 1;
+        block[26] = 0x50;
+        byte[] decompressed = new byte[300];
+        Assertions.assertEquals(20 + 275 + 5, LZ4Decompressor.decompress(block, 0, block.length, decompressed, 0, 300));
+        for (int i = 0; i < 295; i++) {
+            Assertions.assertEquals(7, decompressed[i]);
+        }
+    }
+
+    @Test
+    public void testDecompressCorrupt() {
+        // The decompressed block does not fit.
+        Assertions.assertThrows(IOException.class, () -> LZ4Decompressor.decompress(BLOCK, 0, BLOCK.length, new byte[20], 0, 19));
+        // Truncated blocks.
+        for (int i = 0; i < BLOCK.length; i++) {
+            if (i != 4) {
+                int length = i;
+                Assertions.assertThrows(IOException.class, () -> LZ4Decompressor.decompress(BLOCK, 0, length, new byte[20], 0, 20));
+            }
+        }
+
+        // The offset points before the start of the block.
+        byte[] block = BLOCK.clone();
+        block[4] = 4;
+        Assertions.assertThrows(IOException.class, () -> LZ4Decompressor.decompress(block, 0, block.length, new byte[20], 0, 20));
+        block[4] = 0;
+        Assertions.assertThrows(IOException.class, () -> LZ4Decompressor.decompress(block, 0, block.length, new byte[20], 0, 20));
+        Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, () -> LZ4Decompressor.decompress(BLOCK, 0, BLOCK.length, new byte[20], 1, 20));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.compress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ZlibPoolTest {
+    @Test
+    public void testInflater() {
+        ZlibPool pool = new ZlibPool(1);
+        Inflater inflater = pool.acquireInflater(true);
+        pool.releaseInflater(inflater, true);
+        Assertions.assertNotSame(inflater, pool.acquireInflater(false));
+        Assertions.assertSame(inflater, pool.acquireInflater(true));
+        Assertions.assertNotSame(inflater, pool.acquireInflater(true));
+        pool.clear();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ZlibPool(0));
+    }
+
+    @Test
+    public void testDeflater() throws DataFormatException {
+        ZlibPool pool = new ZlibPool(1);
+        Deflater deflater = pool.acquireDeflater(Deflater.BEST_SPEED, Deflater.DEFAULT_STRATEGY, false);
+        deflater.setInput(new byte[]{1, 2, 3});
+        deflater.finish();
+        deflater.deflate(new byte[64]);
+        pool.releaseDeflater(deflater, false);
+        // The released deflater is reset, and uses the new parameters.
+        Deflater reused = pool.acquireDeflater(Deflater.NO_COMPRESSION, Deflater.DEFAULT_STRATEGY, false);
+        Assertions.assertSame(deflater, reused);
+        byte[] compressed = new byte[64];
+        reused.setInput(new byte[]{4, 5, 6});
+        reused.finish();
+        int n = 0;
+        while (!reused.finished()) {
+            n += reused.deflate(compressed, n, compressed.length - n);
+        }
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed, 0, n);
+        byte[] bytes = new byte[3];
+        Assertions.assertEquals(3, inflater.inflate(bytes));
+        Assertions.assertArrayEquals(new byte[]{4, 5, 6}, bytes);
+        inflater.end();
+        pool.releaseDeflater(reused, false);
+        pool.clear();
+    }
+}
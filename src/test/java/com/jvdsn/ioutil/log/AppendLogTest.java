@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.log;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.reader.ByteBufferReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class AppendLogTest {
+    @Test
+    public void testReserve() throws IOException {
+        try (AppendLog littleEndian = new AppendLog(Endianness.LITTLE_ENDIAN, ByteBuffer.allocateDirect(64)); AppendLog bigEndian = new AppendLog(Endianness.BIG_ENDIAN, ByteBuffer.allocateDirect(64))) {
+            try (AppendLogWriter writer = littleEndian.reserve(5)) {
+                Assertions.assertNull(littleEndian.read(0));
+                writer.writeInt(0x01020304);
+                writer.writeUnsignedByte(0x05);
+                Assertions.assertThrows(EOFException.class, () -> writer.writeUnsignedByte(0x06));
+            }
+
+            try (AppendLogWriter writer = bigEndian.reserve(5)) {
+                writer.writeInt(0x01020304);
+                writer.writeUnsignedByte(0x05);
+            }
+
+            Assertions.assertEquals(12, littleEndian.tail());
+            Assertions.assertEquals(12, bigEndian.tail());
+            Assertions.assertEquals(12, littleEndian.next(0));
+            Assertions.assertEquals(12, bigEndian.next(0));
+            try (ByteBufferReader reader = littleEndian.read(0)) {
+                Assertions.assertEquals(5, reader.remaining());
+                Assertions.assertEquals(0x01020304, reader.readInt());
+                Assertions.assertEquals(0x05, reader.readUnsignedByte());
+            }
+
+            try (ByteBufferReader reader = bigEndian.read(0)) {
+                Assertions.assertEquals(0x01020304, reader.readInt());
+                Assertions.assertEquals(0x05, reader.readUnsignedByte());
+            }
+
+            Assertions.assertNull(littleEndian.read(12));
+            Assertions.assertNull(bigEndian.read(12));
+        }
+    }
+
+    @Test
+    public void testReserveUncommitted() throws IOException {
+        try (AppendLog log = new AppendLog(Endianness.BIG_ENDIAN, ByteBuffer.allocateDirect(64))) {
+            AppendLogWriter writer = log.reserve(4);
+            Assertions.assertThrows(IllegalStateException.class, () -> log.reserve(4));
+            writer.commit();
+            Assertions.assertThrows(IllegalStateException.class, writer::commit);
+            log.reserve(4).commit();
+            Assertions.assertEquals(16, log.tail());
+        }
+    }
+
+    @Test
+    public void testReserveFull() throws IOException {
+        try (AppendLog log = new AppendLog(Endianness.BIG_ENDIAN, ByteBuffer.allocateDirect(16))) {
+            log.reserve(8).commit();
+            Assertions.assertThrows(EOFException.class, () -> log.reserve(1));
+            // A failed reservation does not move the tail.
+            Assertions.assertEquals(12, log.tail());
+            log.reserve(0).commit();
+            Assertions.assertEquals(16, log.tail());
+            Assertions.assertThrows(EOFException.class, () -> log.reserve(0));
+            Assertions.assertEquals(16, log.next(12));
+            Assertions.assertNull(log.read(16));
+        }
+    }
+
+    @Test
+    public void testConcurrentReserve() throws IOException, InterruptedException {
+        int threads = 8;
+        int records = 1000;
+        try (AppendLog log = new AppendLog(Endianness.LITTLE_ENDIAN, ByteBuffer.allocateDirect(threads * records * AppendLog.size(12)))) {
+            List<Thread> producers = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                producers.add(new Thread(() -> {
+                    try {
+                        for (int i = 0; i < records; i++) {
+                            try (AppendLogWriter writer = log.reserve(12)) {
+                                writer.writeInt(thread);
+                                writer.writeLong(i);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }));
+            }
+
+            for (Thread producer : producers) {
+                producer.start();
+            }
+
+            // Read the records while they are being appended.
+            Set<Long> seen = new HashSet<>();
+            long position = 0;
+            while (seen.size() < threads * records) {
+                ByteBufferReader reader = log.read(position);
+                if (reader == null) {
+                    Assertions.assertTrue(failures.isEmpty());
+                    Thread.yield();
+                    continue;
+                }
+
+                Assertions.assertEquals(12, reader.remaining());
+                Assertions.assertTrue(seen.add((long) reader.readInt() * records + reader.readLong()));
+                position = log.next(position);
+            }
+
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            Assertions.assertTrue(failures.isEmpty());
+            Assertions.assertEquals(log.capacity(), log.tail());
+        }
+    }
+
+    @Test
+    public void testRecover() throws IOException {
+        Path path = Files.createTempFile("ioutil", ".log");
+        try {
+            try (AppendLog log = new AppendLog(Endianness.BIG_ENDIAN, FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE), 64)) {
+                try (AppendLogWriter writer = log.reserve(2)) {
+                    writer.writeShort((short) 0x0102);
+                }
+
+                try (AppendLogWriter writer = log.reserve(1)) {
+                    writer.writeUnsignedByte(0x03);
+                }
+
+                log.force();
+            }
+
+            try (AppendLog log = new AppendLog(Endianness.BIG_ENDIAN, FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE), 64)) {
+                Assertions.assertEquals(16, log.tail());
+                Assertions.assertEquals(0x0102, log.read(0).readShort());
+                Assertions.assertEquals(0x03, log.read(8).readUnsignedByte());
+                try (AppendLogWriter writer = log.reserve(1)) {
+                    writer.writeUnsignedByte(0x04);
+                }
+
+                Assertions.assertEquals(0x04, log.read(16).readUnsignedByte());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testForce() throws IOException {
+        Path path = Files.createTempFile("ioutil", ".log");
+        try {
+            try (AppendLog log = new AppendLog(Endianness.LITTLE_ENDIAN, FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE), 64)) {
+                // The original mapped buffer is forced, not the slice the log is stored in.
+                Assertions.assertNotNull(log.mapped);
+                Assertions.assertNotSame(log.buffer, log.mapped);
+                try (AppendLogWriter writer = log.reserve(4)) {
+                    writer.writeInt(0x01020304);
+                }
+
+                log.force();
+            }
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, 64);
+                AppendLog log = new AppendLog(Endianness.LITTLE_ENDIAN, buffer);
+                Assertions.assertNull(log.mapped);
+                Assertions.assertEquals(0x01020304, log.read(0).readInt());
+                log.force();
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+
+    @Test
+    public void testRecoverUncommitted() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        // A committed record, a reserved record which was partly written but not committed, and a committed record after it.
+        buffer.putInt(0, 3).putShort(4, (short) 0x0102);
+        buffer.putInt(12, 0x7F7F7F7F);
+        buffer.putInt(16, 2).put(20, (byte) 0x03);
+        AppendLog log = new AppendLog(Endianness.BIG_ENDIAN, buffer);
+        Assertions.assertEquals(8, log.tail());
+        for (int i = 8; i < 64; i++) {
+            Assertions.assertEquals(0, buffer.get(i));
+        }
+
+        // The stale bytes of the uncommitted record are not taken for a header after a shorter record.
+        log.reserve(0).commit();
+        Assertions.assertEquals(12, log.tail());
+        Assertions.assertFalse(log.isCommitted(12));
+    }
+}
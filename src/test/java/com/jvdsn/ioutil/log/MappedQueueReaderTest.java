@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.log;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class MappedQueueReaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testNext() throws IOException {
+        try (MappedQueueWriter writer = new MappedQueueWriter(Endianness.LITTLE_ENDIAN, this.directory, 1024); MappedQueueReader reader = new MappedQueueReader(Endianness.LITTLE_ENDIAN, this.directory)) {
+            Assertions.assertFalse(reader.next());
+            Assertions.assertThrows(IllegalStateException.class, reader::index);
+            writer.writeInt(0x01020304);
+            Assertions.assertFalse(reader.next());
+            long index = writer.commit();
+            Assertions.assertTrue(reader.next());
+            Assertions.assertEquals(index, reader.index());
+            Assertions.assertEquals(4, reader.remaining());
+            Assertions.assertEquals(0x01020304, reader.readInt());
+            Assertions.assertThrows(EOFException.class, reader::readUnsignedByte);
+            Assertions.assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void testRoll() throws IOException {
+        try (MappedQueueWriter writer = new MappedQueueWriter(Endianness.BIG_ENDIAN, this.directory, 128)) {
+            for (int i = 0; i < 20; i++) {
+                writer.writeLong(i);
+                writer.commit();
+            }
+        }
+
+        try (MappedQueueReader reader = new MappedQueueReader(Endianness.BIG_ENDIAN, this.directory)) {
+            for (int i = 0; i < 20; i++) {
+                Assertions.assertTrue(reader.next());
+                Assertions.assertEquals(i, reader.readLong());
+            }
+
+            Assertions.assertFalse(reader.next());
+            Assertions.assertTrue(reader.index() >>> 32 > 0);
+        }
+    }
+
+    @Test
+    public void testMoveTo() throws IOException {
+        long index = 0;
+        try (MappedQueueWriter writer = new MappedQueueWriter(Endianness.BIG_ENDIAN, this.directory, 128)) {
+            for (int i = 0; i < 20; i++) {
+                writer.writeLong(i);
+                if (i == 10) {
+                    index = writer.commit();
+                } else {
+                    writer.commit();
+                }
+            }
+        }
+
+        try (MappedQueueReader reader = new MappedQueueReader(Endianness.BIG_ENDIAN, this.directory)) {
+            reader.moveTo(index);
+            Assertions.assertTrue(reader.next());
+            Assertions.assertEquals(index, reader.index());
+            Assertions.assertEquals(10, reader.readLong());
+            Assertions.assertThrows(EOFException.class, () -> reader.moveTo(MappedQueue.index(0, 0)));
+            // The failed move leaves the reader where it was.
+            Assertions.assertTrue(reader.next());
+            Assertions.assertEquals(11, reader.readLong());
+        }
+    }
+
+    @Test
+    public void testTail() throws Exception {
+        int records = 10000;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (MappedQueueWriter writer = new MappedQueueWriter(Endianness.LITTLE_ENDIAN, this.directory, 4096); MappedQueueReader reader = new MappedQueueReader(Endianness.LITTLE_ENDIAN, this.directory)) {
+            Thread producer = new Thread(() -> {
+                try {
+                    for (int i = 0; i < records; i++) {
+                        writer.writeInt(i);
+                        writer.writeBytes(new byte[i % 50]);
+                        writer.commit();
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            producer.start();
+
+            for (int i = 0; i < records; i++) {
+                while (!reader.next()) {
+                    Assertions.assertNull(failure.get());
+                    Thread.yield();
+                }
+
+                Assertions.assertEquals(4 + i % 50, reader.remaining());
+                Assertions.assertEquals(i, reader.readInt());
+            }
+
+            producer.join();
+            Assertions.assertNull(failure.get());
+        }
+    }
+}
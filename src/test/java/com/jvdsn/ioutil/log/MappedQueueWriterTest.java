@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.log;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class MappedQueueWriterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testCommit() throws IOException {
+        try (MappedQueueWriter writer = new MappedQueueWriter(Endianness.LITTLE_ENDIAN, this.directory, 1024)) {
+            Assertions.assertEquals(MappedQueue.HEADER_SIZE, writer.index());
+            writer.writeInt(0x01020304);
+            Assertions.assertEquals(MappedQueue.HEADER_SIZE, writer.commit());
+            writer.writeLong(0x0102030405060708L);
+            Assertions.assertEquals(MappedQueue.HEADER_SIZE + 8, writer.commit());
+            Assertions.assertEquals(MappedQueue.HEADER_SIZE + 20, writer.index());
+        }
+
+        Assertions.assertTrue(Files.exists(MappedQueue.path(this.directory, 0)));
+    }
+
+    @Test
+    public void testRoll() throws IOException {
+        try (MappedQueueWriter writer = new MappedQueueWriter(Endianness.BIG_ENDIAN, this.directory, 128)) {
+            Assertions.assertEquals(128 - MappedQueue.HEADER_SIZE - 4, writer.maxRecordSize());
+            writer.writeBytes(new byte[40]);
+            writer.commit();
+            writer.writeBytes(new byte[10]);
+            // The record does not fit anymore, so it is moved to a new file.
+            writer.writeBytes(new byte[10]);
+            Assertions.assertEquals(MappedQueue.index(1, MappedQueue.HEADER_SIZE), writer.commit());
+            Assertions.assertThrows(EOFException.class, () -> writer.writeBytes(new byte[61]));
+        }
+
+        Assertions.assertArrayEquals(new int[]{0, 1}, MappedQueue.cycles(this.directory));
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        try (MappedQueueWriter writer = new MappedQueueWriter(Endianness.BIG_ENDIAN, this.directory, 1024)) {
+            writer.writeInt(0x01020304);
+            writer.commit();
+            // Not committed, so discarded.
+            writer.writeInt(0x05060708);
+        }
+
+        try (MappedQueueWriter writer = new MappedQueueWriter(Endianness.BIG_ENDIAN, this.directory, 1024)) {
+            Assertions.assertEquals(MappedQueue.HEADER_SIZE + 8, writer.index());
+        }
+
+        Assertions.assertThrows(IOException.class, () -> new MappedQueueWriter(Endianness.LITTLE_ENDIAN, this.directory, 1024));
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        MappedQueueWriter writer = new MappedQueueWriter(Endianness.BIG_ENDIAN, this.directory, 1024);
+        writer.close();
+        Assertions.assertThrows(EOFException.class, () -> writer.writeUnsignedByte(0x01));
+        Assertions.assertThrows(EOFException.class, writer::commit);
+    }
+
+    @Test
+    public void testReopenFull() throws IOException {
+        try (MappedQueueWriter writer = new MappedQueueWriter(Endianness.BIG_ENDIAN, this.directory, 128)) {
+            writer.writeBytes(new byte[56]);
+            writer.commit();
+        }
+
+        // Commit an empty record filling the file, as if the previous writer stopped before rolling over.
+        try (FileChannel channel = FileChannel.open(MappedQueue.path(this.directory, 0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, 128);
+            map.putInt(124, 0);
+            map.putLong(MappedQueue.COMMITTED_OFFSET, 128);
+        }
+
+        try (MappedQueueWriter writer = new MappedQueueWriter(Endianness.BIG_ENDIAN, this.directory, 128)) {
+            Assertions.assertEquals(MappedQueue.index(1, MappedQueue.HEADER_SIZE), writer.index());
+            writer.writeInt(0x01020304);
+            Assertions.assertEquals(MappedQueue.index(1, MappedQueue.HEADER_SIZE), writer.commit());
+        }
+
+        Assertions.assertArrayEquals(new int[]{0, 1}, MappedQueue.cycles(this.directory));
+    }
+}
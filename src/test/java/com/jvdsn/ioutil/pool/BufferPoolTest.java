@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.pool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class BufferPoolTest {
+    @Test
+    public void testAcquireBytes() {
+        BufferPool pool = new BufferPool();
+        Assertions.assertEquals(64, pool.acquireBytes(0).length);
+        Assertions.assertEquals(64, pool.acquireBytes(64).length);
+        Assertions.assertEquals(128, pool.acquireBytes(65).length);
+        Assertions.assertEquals(1 << 20, pool.acquireBytes(1 << 20).length);
+        // Too large to be pooled, so allocated with the exact size.
+        Assertions.assertEquals((1 << 20) + 1, pool.acquireBytes((1 << 20) + 1).length);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> pool.acquireBytes(-1));
+        Assertions.assertEquals(5, pool.statistics().misses());
+    }
+
+    @Test
+    public void testReleaseBytes() {
+        BufferPool pool = new BufferPool();
+        byte[] bytes = pool.acquireBytes(100);
+        pool.releaseBytes(bytes);
+        Assertions.assertEquals(128, pool.statistics().retainedBytes());
+        Assertions.assertSame(bytes, pool.acquireBytes(65));
+        Assertions.assertEquals(0, pool.statistics().retainedBytes());
+        Assertions.assertEquals(1, pool.statistics().threadCacheHits());
+        // Byte arrays which were not allocated by the pool are discarded.
+        pool.releaseBytes(new byte[100]);
+        Assertions.assertEquals(1, pool.statistics().discards());
+        Assertions.assertEquals(0, pool.statistics().retainedBytes());
+    }
+
+    @Test
+    public void testAcquireChars() {
+        BufferPool pool = new BufferPool();
+        char[] chars = pool.acquireChars(100);
+        Assertions.assertEquals(128, chars.length);
+        pool.releaseChars(chars);
+        Assertions.assertEquals(256, pool.statistics().retainedBytes());
+        Assertions.assertSame(chars, pool.acquireChars(128));
+    }
+
+    @Test
+    public void testAcquireDirect() {
+        BufferPool pool = new BufferPool();
+        ByteBuffer buffer = pool.acquireDirect(100);
+        Assertions.assertTrue(buffer.isDirect());
+        Assertions.assertEquals(128, buffer.capacity());
+        buffer.position(10).limit(20);
+        pool.releaseDirect(buffer);
+        ByteBuffer reacquired = pool.acquireDirect(128);
+        Assertions.assertSame(buffer, reacquired);
+        Assertions.assertEquals(0, reacquired.position());
+        Assertions.assertEquals(128, reacquired.limit());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> pool.releaseDirect(ByteBuffer.allocate(128)));
+    }
+
+    @Test
+    public void testSharedTier() throws Exception {
+        // A thread cache of 64 bytes only holds a single buffer of the smallest size class.
+        BufferPool pool = new BufferPool(1 << 10, 64, 1, 1 << 10);
+        byte[] first = pool.acquireBytes(64);
+        byte[] second = pool.acquireBytes(64);
+        pool.releaseBytes(first);
+        pool.releaseBytes(second);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<byte[]> future = executor.submit(() -> pool.acquireBytes(64));
+            Assertions.assertSame(second, future.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        BufferPoolStatistics statistics = pool.statistics();
+        Assertions.assertEquals(1, statistics.sharedHits());
+        Assertions.assertEquals(2, statistics.misses());
+        Assertions.assertEquals(64, statistics.retainedBytes());
+        Assertions.assertEquals(1.0 / 3.0, statistics.hitRate(), 1e-9);
+    }
+
+    @Test
+    public void testRetainedBytesOfTerminatedThread() throws Exception {
+        BufferPool pool = new BufferPool();
+        Thread thread = new Thread(() -> pool.releaseBytes(pool.acquireBytes(128)));
+        thread.start();
+        thread.join();
+        // The buffer went to the cache of the terminated thread, which is garbage collected with it.
+        Assertions.assertEquals(0, pool.statistics().retainedBytes());
+        pool.releaseBytes(pool.acquireBytes(128));
+        Assertions.assertEquals(128, pool.statistics().retainedBytes());
+    }
+
+
+    @Test
+    public void testThreadCacheCollected() throws Exception {
+        BufferPool pool = new BufferPool();
+        AtomicReference<WeakReference<byte[]>> buffer = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            byte[] bytes = pool.acquireBytes(128);
+            buffer.set(new WeakReference<>(bytes));
+            pool.releaseBytes(bytes);
+        });
+        thread.start();
+        thread.join();
+        // The pool does not keep the cache of the terminated thread, nor the buffers in it, reachable.
+        for (int i = 0; i < 100 && buffer.get().get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        Assertions.assertNull(buffer.get().get());
+    }
+}
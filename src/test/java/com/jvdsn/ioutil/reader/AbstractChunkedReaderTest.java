@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class AbstractChunkedReaderTest {
+    private static Reader reader(Endianness endianness, byte[]... chunks) {
+        Queue<ByteBuffer> queue = new ArrayDeque<>();
+        for (byte[] chunk : chunks) {
+            queue.add(ByteBuffer.wrap(chunk).order(endianness == Endianness.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN));
+        }
+
+        return new AbstractChunkedReader(endianness) {
+            @Override
+            protected ByteBuffer current() {
+                while (!queue.isEmpty() && !queue.peek().hasRemaining()) {
+                    queue.remove();
+                }
+
+                return queue.peek();
+            }
+
+            @Override
+            public void close() {
+                queue.clear();
+            }
+        };
+    }
+
+    @Test
+    public void testReadSpanning() throws IOException {
+        try (Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, new byte[]{0x01, 0x02, 0x03}, new byte[]{0x04, 0x05}, new byte[]{(byte) 0x80, 0x01}); Reader bigEndian = reader(Endianness.BIG_ENDIAN, new byte[]{0x01, 0x02, 0x03}, new byte[]{0x04, 0x05}, new byte[]{(byte) 0x80, 0x01})) {
+            Assertions.assertEquals(0x0201, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0102, bigEndian.readUnsignedShort());
+            // Spans the first two chunks.
+            Assertions.assertEquals(0x050403, littleEndian.readUnsignedByte() | littleEndian.readUnsignedShort() << 8);
+            Assertions.assertEquals(0x030405, bigEndian.readUnsignedByte() << 16 | bigEndian.readUnsignedShort());
+            Assertions.assertEquals(128, littleEndian.readUnsignedLEB128());
+            Assertions.assertEquals(128, bigEndian.readUnsignedLEB128());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testReadInt() throws IOException {
+        try (Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, new byte[]{0x01}, new byte[]{0x02, 0x03}, new byte[]{0x04, 0x05}); Reader bigEndian = reader(Endianness.BIG_ENDIAN, new byte[]{0x01}, new byte[]{0x02, 0x03}, new byte[]{0x04, 0x05})) {
+            Assertions.assertEquals(0x04030201, littleEndian.readInt());
+            Assertions.assertEquals(0x01020304, bigEndian.readInt());
+            Assertions.assertArrayEquals(new byte[]{0x05}, littleEndian.readBytes(new byte[1]));
+            Assertions.assertArrayEquals(new byte[]{0x05}, bigEndian.readBytes(new byte[1]));
+        }
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        try (Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, new byte[]{0x01, 0x02}, new byte[]{0x03, 0x04}); Reader bigEndian = reader(Endianness.BIG_ENDIAN, new byte[]{0x01, 0x02}, new byte[]{0x03, 0x04})) {
+            littleEndian.skip(3);
+            bigEndian.skip(3);
+            Assertions.assertEquals(0x04, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0x04, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.skip(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.skip(-1));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(1));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.skip(1));
+        }
+    }
+}
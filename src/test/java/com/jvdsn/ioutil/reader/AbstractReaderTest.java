@@ -271,4 +271,41 @@ public class AbstractReaderTest {
             Assertions.assertThrows(EOFException.class, bigEndian::readSignedLEB128);
         }
     }
+
+    @Test
+    public void testDefaults() throws IOException {
+        // A reader implementing only the required methods, from before the look ahead methods existed.
+        try (Reader reader = new AbstractReader(Endianness.LITTLE_ENDIAN) {
+            private int pos;
+
+            @Override
+            public int readUnsignedByte() throws IOException {
+                if (this.pos == 10) {
+                    throw new EOFException();
+                }
+
+                return this.pos++;
+            }
+
+            @Override
+            public byte[] readBytes(byte[] bytes, int start, int length) throws IOException {
+                for (int i = 0; i < length; i++) {
+                    bytes[start + i] = (byte) this.readUnsignedByte();
+                }
+
+                return bytes;
+            }
+
+            @Override
+            public void close() {
+            }
+        }) {
+            Assertions.assertEquals(0, reader.available());
+            Assertions.assertThrows(UnsupportedOperationException.class, () -> reader.hasRemaining(1));
+            reader.skip(5);
+            Assertions.assertEquals(5, reader.readUnsignedByte());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> reader.skip(-1));
+            Assertions.assertThrows(EOFException.class, () -> reader.skip(5));
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.cache.BlockCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class BlockCacheReaderTest {
+    @TempDir
+    public Path directory;
+
+    private BlockCache open(int blockSize, byte... bytes) throws IOException {
+        Path file = Files.createTempFile(this.directory, null, null);
+        Files.write(file, bytes);
+        return new BlockCache(FileChannel.open(file, StandardOpenOption.READ), blockSize, 2);
+    }
+
+    @Test
+    public void testReadUnsignedByte() throws IOException {
+        byte[] bytes = {0x00, 0x7F, (byte) 0x80, (byte) 0xFF};
+        try (BlockCacheReader littleEndian = new BlockCacheReader(Endianness.LITTLE_ENDIAN, this.open(3, bytes)); BlockCacheReader bigEndian = new BlockCacheReader(Endianness.BIG_ENDIAN, this.open(3, bytes))) {
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(127, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(127, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(128, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(128, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(255, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(255, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testReadSpanning() throws IOException {
+        byte[] bytes = {0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0A, 0x0B, 0x0C, 0x0D, 0x0E};
+        try (BlockCacheReader littleEndian = new BlockCacheReader(Endianness.LITTLE_ENDIAN, this.open(4, bytes)); BlockCacheReader bigEndian = new BlockCacheReader(Endianness.BIG_ENDIAN, this.open(4, bytes))) {
+            Assertions.assertEquals(0x0201, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0102, bigEndian.readUnsignedShort());
+            // Spans the first two blocks.
+            Assertions.assertEquals(0x06050403, littleEndian.readInt());
+            Assertions.assertEquals(0x03040506, bigEndian.readInt());
+            // Spans the last three blocks.
+            Assertions.assertEquals(0x0E0D0C0B0A090807L, littleEndian.readLong());
+            Assertions.assertEquals(0x0708090A0B0C0D0EL, bigEndian.readLong());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        byte[] bytes = {0, 1, 2, 3, 4, 5, 6};
+        try (BlockCacheReader littleEndian = new BlockCacheReader(Endianness.LITTLE_ENDIAN, this.open(3, bytes)); BlockCacheReader bigEndian = new BlockCacheReader(Endianness.BIG_ENDIAN, this.open(3, bytes))) {
+            Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3, 4}, littleEndian.readBytes(new byte[5]));
+            Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3, 4}, bigEndian.readBytes(new byte[5]));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.readBytes(new byte[3]));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[3]));
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        byte[] bytes = {0, 1, 2, 3, 4, 5, 6, 7, 8};
+        try (BlockCacheReader reader = new BlockCacheReader(Endianness.BIG_ENDIAN, this.open(4, bytes), 2)) {
+            Assertions.assertEquals(2, reader.position());
+            Assertions.assertEquals(7, reader.remaining());
+            Assertions.assertEquals(0x0203, reader.readUnsignedShort());
+            reader.seek(7);
+            Assertions.assertEquals(0x0708, reader.readUnsignedShort());
+            Assertions.assertEquals(9, reader.position());
+            reader.seek(1);
+            reader.skip(4);
+            Assertions.assertEquals(5, reader.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, () -> reader.seek(10));
+            Assertions.assertEquals(0, reader.remaining());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> reader.seek(-1));
+        }
+    }
+
+    @Test
+    public void testSharedCache() throws IOException {
+        BlockCache cache = this.open(4, new byte[]{0, 1, 2, 3, 4, 5, 6, 7});
+        try (BlockCacheReader first = new BlockCacheReader(Endianness.BIG_ENDIAN, cache); BlockCacheReader second = new BlockCacheReader(Endianness.BIG_ENDIAN, cache, 4)) {
+            Assertions.assertEquals(0x00010203, first.readInt());
+            Assertions.assertEquals(0x04050607, second.readInt());
+            Assertions.assertEquals(0x04050607, first.readInt());
+        }
+
+        Assertions.assertEquals(1, cache.statistics().hits());
+        Assertions.assertEquals(2, cache.statistics().misses());
+    }
+}
@@ -16,6 +16,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * @author Joachim Vandersmissen
@@ -46,6 +47,9 @@ public class ByteArrayReaderTest {
             bigEndian.readUnsignedByte();
             Assertions.assertEquals(0, littleEndian.remaining());
             Assertions.assertEquals(0, bigEndian.remaining());
+            // Nothing remains, so nothing is attempted.
+            Assertions.assertNull(littleEndian.tryRead(reader -> Assertions.fail()));
+            Assertions.assertNull(bigEndian.tryRead(reader -> Assertions.fail()));
         }
     }
 
@@ -82,4 +86,239 @@ public class ByteArrayReaderTest {
             Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[1]));
         }
     }
+
+    @Test
+    public void testSkip() throws IOException {
+        byte[] littleEndianBytes = {0, 1, 2, 3};
+        byte[] bigEndianBytes = {0, 1, 2, 3};
+        try (Reader littleEndian = new ByteArrayReader(Endianness.LITTLE_ENDIAN, littleEndianBytes); Reader bigEndian = new ByteArrayReader(Endianness.BIG_ENDIAN, bigEndianBytes)) {
+            littleEndian.skip(1);
+            bigEndian.skip(1);
+            Assertions.assertEquals(1, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(1, bigEndian.readUnsignedByte());
+            littleEndian.skip(0);
+            bigEndian.skip(0);
+            Assertions.assertEquals(2, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(2, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.skip(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.skip(-1));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(2));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.skip(2));
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        byte[] littleEndianBytes = {0, 1, 2, 3};
+        byte[] bigEndianBytes = {0, 1, 2, 3};
+        try (ByteArrayReader littleEndian = new ByteArrayReader(Endianness.LITTLE_ENDIAN, littleEndianBytes, 1, 2); ByteArrayReader bigEndian = new ByteArrayReader(Endianness.BIG_ENDIAN, bigEndianBytes, 1, 2)) {
+            littleEndian.seek(2);
+            bigEndian.seek(2);
+            Assertions.assertEquals(2, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(2, bigEndian.readUnsignedByte());
+            littleEndian.seek(1);
+            bigEndian.seek(1);
+            Assertions.assertEquals(1, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(1, bigEndian.readUnsignedByte());
+            littleEndian.seek(3);
+            bigEndian.seek(3);
+            Assertions.assertEquals(0, littleEndian.remaining());
+            Assertions.assertEquals(0, bigEndian.remaining());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.seek(0));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.seek(0));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.seek(4));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.seek(4));
+        }
+    }
+
+    @Test
+    public void testReadAt() throws IOException {
+        byte[] littleEndianBytes = {0x00, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, (byte) 0xE5, (byte) 0x8E, 0x26, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
+        byte[] bigEndianBytes = {0x00, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xE5, (byte) 0x8E, 0x26, 0x08, 0x07, 0x06, 0x05, 0x04, 0x03, 0x02, 0x01};
+        try (ByteArrayReader littleEndian = new ByteArrayReader(Endianness.LITTLE_ENDIAN, littleEndianBytes); ByteArrayReader bigEndian = new ByteArrayReader(Endianness.BIG_ENDIAN, bigEndianBytes)) {
+            Assertions.assertEquals(2147483647, littleEndian.readIntAt(1));
+            Assertions.assertEquals(2147483647, bigEndian.readIntAt(1));
+            Assertions.assertEquals(65535, littleEndian.readUnsignedShortAt(1));
+            Assertions.assertEquals(32767, bigEndian.readUnsignedShortAt(1));
+            Assertions.assertEquals(624485L, littleEndian.readUnsignedLEB128At(5));
+            Assertions.assertEquals(624485L, bigEndian.readUnsignedLEB128At(5));
+            Assertions.assertEquals(0x0807060504030201L, littleEndian.readLongAt(8));
+            Assertions.assertEquals(0x0807060504030201L, bigEndian.readLongAt(8));
+            Assertions.assertArrayEquals(new byte[]{0x01, 0x02}, littleEndian.readBytesAt(8, new byte[2]));
+            Assertions.assertArrayEquals(new byte[]{0x08, 0x07}, bigEndian.readBytesAt(8, new byte[2]));
+            // Positional reads do not move the reader.
+            Assertions.assertEquals(0, littleEndian.position());
+            Assertions.assertEquals(0, bigEndian.position());
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.readLongAt(9));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.readLongAt(9));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.readIntAt(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.readIntAt(-1));
+        }
+    }
+
+    @Test
+    public void testSlice() throws IOException {
+        byte[] littleEndianBytes = {0, 1, 2, 3, 4};
+        byte[] bigEndianBytes = {0, 1, 2, 3, 4};
+        try (ByteArrayReader littleEndian = new ByteArrayReader(Endianness.LITTLE_ENDIAN, littleEndianBytes); ByteArrayReader bigEndian = new ByteArrayReader(Endianness.BIG_ENDIAN, bigEndianBytes)) {
+            littleEndian.skip(2);
+            bigEndian.skip(2);
+            try (ByteArrayReader littleEndianSlice = littleEndian.slice(2); ByteArrayReader bigEndianSlice = bigEndian.slice(2)) {
+                Assertions.assertEquals(2, littleEndianSlice.position());
+                Assertions.assertEquals(2, bigEndianSlice.position());
+                Assertions.assertEquals(2, littleEndianSlice.remaining());
+                Assertions.assertEquals(2, bigEndianSlice.remaining());
+                Assertions.assertEquals(0x0302, littleEndianSlice.readUnsignedShort());
+                Assertions.assertEquals(0x0203, bigEndianSlice.readUnsignedShort());
+                Assertions.assertThrows(EOFException.class, littleEndianSlice::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndianSlice::readUnsignedByte);
+            }
+
+            Assertions.assertEquals(4, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(4, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.slice(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.slice(-1));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.slice(1));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.slice(1));
+        }
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        try (ByteArrayReader littleEndian = new ByteArrayReader(Endianness.LITTLE_ENDIAN, (byte) 0x01); ByteArrayReader bigEndian = new ByteArrayReader(Endianness.BIG_ENDIAN, (byte) 0x01)) {
+            Assertions.assertEquals(1, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(1, bigEndian.readUnsignedByte());
+            littleEndian.reset(new byte[]{0x00, 0x01, 0x02, 0x03}, 1, 2);
+            bigEndian.reset(new byte[]{0x00, 0x01, 0x02, 0x03}, 1, 2);
+            Assertions.assertEquals(1, littleEndian.position());
+            Assertions.assertEquals(1, bigEndian.position());
+            Assertions.assertEquals(0x0201, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0102, bigEndian.readUnsignedShort());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+            littleEndian.reset((byte) 0x04);
+            bigEndian.reset((byte) 0x04);
+            Assertions.assertEquals(4, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(4, bigEndian.readUnsignedByte());
+        }
+    }
+
+    @Test
+    public void testTryRead() throws IOException {
+        // A frame of a length and that many bytes, of which only part has been received.
+        byte[] littleEndianBytes = {0x00, 0x03, 0x00, 0x00, 0x00, 0x0A, 0x0B};
+        byte[] bigEndianBytes = {0x00, 0x00, 0x00, 0x00, 0x03, 0x0A, 0x0B};
+        try (ByteArrayReader littleEndian = new ByteArrayReader(Endianness.LITTLE_ENDIAN, littleEndianBytes); ByteArrayReader bigEndian = new ByteArrayReader(Endianness.BIG_ENDIAN, bigEndianBytes)) {
+            littleEndian.skip(1);
+            bigEndian.skip(1);
+            Assertions.assertNull(littleEndian.tryRead(reader -> reader.readBytes(new byte[reader.readInt()])));
+            Assertions.assertNull(bigEndian.tryRead(reader -> reader.readBytes(new byte[reader.readInt()])));
+            Assertions.assertEquals(1, littleEndian.position());
+            Assertions.assertEquals(1, bigEndian.position());
+
+            // The rest of the frame has been received.
+            littleEndian.reset(Arrays.copyOf(littleEndianBytes, 8), 1, 7);
+            bigEndian.reset(Arrays.copyOf(bigEndianBytes, 8), 1, 7);
+            Assertions.assertArrayEquals(new byte[]{0x0A, 0x0B, 0x00}, littleEndian.tryRead(reader -> reader.readBytes(new byte[reader.readInt()])));
+            Assertions.assertArrayEquals(new byte[]{0x0A, 0x0B, 0x00}, bigEndian.tryRead(reader -> reader.readBytes(new byte[reader.readInt()])));
+            Assertions.assertEquals(0, littleEndian.remaining());
+            Assertions.assertEquals(0, bigEndian.remaining());
+        }
+    }
+
+    @Test
+    public void testPeek() throws IOException {
+        byte[] littleEndianBytes = {0x01, 0x02, 0x03, 0x04, (byte) 0x96, 0x01};
+        byte[] bigEndianBytes = {0x01, 0x02, 0x03, 0x04, (byte) 0x96, 0x01};
+        try (ByteArrayReader littleEndian = new ByteArrayReader(Endianness.LITTLE_ENDIAN, littleEndianBytes); ByteArrayReader bigEndian = new ByteArrayReader(Endianness.BIG_ENDIAN, bigEndianBytes)) {
+            Assertions.assertEquals(0x01, littleEndian.peekUnsignedByte());
+            Assertions.assertEquals(0x01, bigEndian.peekUnsignedByte());
+            Assertions.assertEquals(0x0201, littleEndian.peekUnsignedShort());
+            Assertions.assertEquals(0x0102, bigEndian.peekUnsignedShort());
+            Assertions.assertEquals(0x0201, littleEndian.peekShort());
+            Assertions.assertEquals(0x0102, bigEndian.peekShort());
+            Assertions.assertEquals('\u0201', littleEndian.peekChar());
+            Assertions.assertEquals('\u0102', bigEndian.peekChar());
+            Assertions.assertEquals(0x04030201, littleEndian.peekInt());
+            Assertions.assertEquals(0x01020304, bigEndian.peekInt());
+            Assertions.assertEquals(Float.intBitsToFloat(0x04030201), littleEndian.peekFloat());
+            Assertions.assertEquals(Float.intBitsToFloat(0x01020304), bigEndian.peekFloat());
+            Assertions.assertThrows(EOFException.class, littleEndian::peekDouble);
+            Assertions.assertThrows(EOFException.class, bigEndian::peekDouble);
+            Assertions.assertThrows(EOFException.class, littleEndian::peekLong);
+            Assertions.assertThrows(EOFException.class, bigEndian::peekLong);
+            Assertions.assertEquals(0, littleEndian.position());
+            Assertions.assertEquals(0, bigEndian.position());
+            littleEndian.skip(4);
+            bigEndian.skip(4);
+            Assertions.assertEquals(150, littleEndian.peekUnsignedLEB128());
+            Assertions.assertEquals(150, bigEndian.peekUnsignedLEB128());
+            Assertions.assertEquals(150, littleEndian.readUnsignedLEB128());
+            Assertions.assertEquals(150, bigEndian.readUnsignedLEB128());
+        }
+    }
+
+    @Test
+    public void testHasRemaining() throws IOException {
+        byte[] bytes = {0x01, 0x02, 0x03, 0x04, 0x05, 0x06};
+        try (ByteArrayReader littleEndian = new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes, 1, 5); ByteArrayReader bigEndian = new ByteArrayReader(Endianness.BIG_ENDIAN, bytes, 1, 5)) {
+            Assertions.assertEquals(5, littleEndian.available());
+            Assertions.assertEquals(5, bigEndian.available());
+            Assertions.assertTrue(littleEndian.hasRemaining(5));
+            Assertions.assertTrue(bigEndian.hasRemaining(5));
+            Assertions.assertFalse(littleEndian.hasRemaining(6));
+            Assertions.assertFalse(bigEndian.hasRemaining(6));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.hasRemaining(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.hasRemaining(-1));
+            Assertions.assertEquals(0x0302, littleEndian.readShortOrDefault((short) -1));
+            Assertions.assertEquals(0x0203, bigEndian.readShortOrDefault((short) -1));
+            Assertions.assertEquals(-1L, littleEndian.readLongOrDefault(-1L));
+            Assertions.assertEquals(-1L, bigEndian.readLongOrDefault(-1L));
+            // Nothing was read for the default value.
+            Assertions.assertEquals(3, littleEndian.position());
+            Assertions.assertEquals(3, bigEndian.position());
+            byte[] littleEndianBytes = new byte[4];
+            byte[] bigEndianBytes = new byte[4];
+            Assertions.assertEquals(3, littleEndian.read(littleEndianBytes, 0, 4));
+            Assertions.assertEquals(3, bigEndian.read(bigEndianBytes, 0, 4));
+            Assertions.assertArrayEquals(new byte[]{0x04, 0x05, 0x06, 0}, littleEndianBytes);
+            Assertions.assertArrayEquals(new byte[]{0x04, 0x05, 0x06, 0}, bigEndianBytes);
+            Assertions.assertEquals(-1, littleEndian.read(littleEndianBytes, 0, 4));
+            Assertions.assertEquals(-1, bigEndian.read(bigEndianBytes, 0, 4));
+            Assertions.assertEquals(0, littleEndian.read(littleEndianBytes, 0, 0));
+            Assertions.assertEquals(0, bigEndian.read(bigEndianBytes, 0, 0));
+        }
+    }
+
+    @Test
+    public void testEnsure() throws IOException {
+        byte[] bytes = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0A, 0x0B, 0x0C, 0x0D, 0x0E, 0x0F, 0x10};
+        try (ByteArrayReader littleEndian = new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes, 1, 15); ByteArrayReader bigEndian = new ByteArrayReader(Endianness.BIG_ENDIAN, bytes, 1, 15)) {
+            littleEndian.ensure(15);
+            bigEndian.ensure(15);
+            Assertions.assertEquals(0x01, littleEndian.readUnsignedByteUnchecked());
+            Assertions.assertEquals(0x01, bigEndian.readUnsignedByteUnchecked());
+            Assertions.assertEquals(0x0302, littleEndian.readUnsignedShortUnchecked());
+            Assertions.assertEquals(0x0203, bigEndian.readUnsignedShortUnchecked());
+            Assertions.assertEquals(0x07060504, littleEndian.readIntUnchecked());
+            Assertions.assertEquals(0x04050607, bigEndian.readIntUnchecked());
+            Assertions.assertEquals(0x0F0E0D0C0B0A0908L, littleEndian.readLongUnchecked());
+            Assertions.assertEquals(0x08090A0B0C0D0E0FL, bigEndian.readLongUnchecked());
+            Assertions.assertEquals(16, littleEndian.position());
+            Assertions.assertEquals(16, bigEndian.position());
+            // The byte at 16 is outside of the reader.
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.ensure(1));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.ensure(1));
+        }
+    }
+
+    @Test
+    public void testReadPrimitives() throws IOException {
+        byte[] bytes = {0x00, 0x00, (byte) 0x80, 0x3F, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xF0, 0x3F, 0x41};
+        try (Reader reader = new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes)) {
+            Assertions.assertEquals(1.0f, reader.readFloat());
+            Assertions.assertEquals(1.0, reader.readDouble());
+            Assertions.assertThrows(EOFException.class, reader::readChar);
+        }
+    }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ByteBufferReaderTest {
+    @Test
+    public void testPosition() throws IOException {
+        ByteBuffer littleEndianBuffer = ByteBuffer.allocate(3);
+        ByteBuffer bigEndianBuffer = ByteBuffer.allocateDirect(3);
+        littleEndianBuffer.position(1);
+        bigEndianBuffer.position(1);
+        try (ByteBufferReader littleEndian = new ByteBufferReader(Endianness.LITTLE_ENDIAN, littleEndianBuffer); ByteBufferReader bigEndian = new ByteBufferReader(Endianness.BIG_ENDIAN, bigEndianBuffer)) {
+            Assertions.assertEquals(1, littleEndian.position());
+            Assertions.assertEquals(1, bigEndian.position());
+            littleEndian.readUnsignedByte();
+            bigEndian.readUnsignedByte();
+            Assertions.assertEquals(2, littleEndian.position());
+            Assertions.assertEquals(2, bigEndian.position());
+        }
+
+        // The original buffers are left untouched.
+        Assertions.assertEquals(1, littleEndianBuffer.position());
+        Assertions.assertEquals(1, bigEndianBuffer.position());
+    }
+
+    @Test
+    public void testRemaining() throws IOException {
+        ByteBuffer littleEndianBuffer = ByteBuffer.allocate(3);
+        ByteBuffer bigEndianBuffer = ByteBuffer.allocateDirect(3);
+        littleEndianBuffer.limit(2);
+        bigEndianBuffer.limit(2);
+        try (ByteBufferReader littleEndian = new ByteBufferReader(Endianness.LITTLE_ENDIAN, littleEndianBuffer); ByteBufferReader bigEndian = new ByteBufferReader(Endianness.BIG_ENDIAN, bigEndianBuffer)) {
+            Assertions.assertEquals(2, littleEndian.remaining());
+            Assertions.assertEquals(2, bigEndian.remaining());
+            littleEndian.readUnsignedShort();
+            bigEndian.readUnsignedShort();
+            Assertions.assertEquals(0, littleEndian.remaining());
+            Assertions.assertEquals(0, bigEndian.remaining());
+        }
+    }
+
+    @Test
+    public void testReadUnsignedByte() throws IOException {
+        byte[] littleEndianBytes = {0x00, 0x7F, (byte) 0x80, (byte) 0xFF};
+        byte[] bigEndianBytes = {0x00, 0x7F, (byte) 0x80, (byte) 0xFF};
+        try (Reader littleEndian = new ByteBufferReader(Endianness.LITTLE_ENDIAN, ByteBuffer.wrap(littleEndianBytes)); Reader bigEndian = new ByteBufferReader(Endianness.BIG_ENDIAN, ByteBuffer.wrap(bigEndianBytes))) {
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(127, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(127, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(128, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(128, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(255, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(255, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        byte[] littleEndianBytes = {0, 1, 2, 3};
+        byte[] bigEndianBytes = {0, 1, 2, 3};
+        try (Reader littleEndian = new ByteBufferReader(Endianness.LITTLE_ENDIAN, ByteBuffer.wrap(littleEndianBytes)); Reader bigEndian = new ByteBufferReader(Endianness.BIG_ENDIAN, ByteBuffer.wrap(bigEndianBytes))) {
+            Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, littleEndian.readBytes(new byte[4], 1, 2));
+            Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, bigEndian.readBytes(new byte[4], 1, 2));
+            Assertions.assertArrayEquals(new byte[]{2, 3}, littleEndian.readBytes(new byte[2]));
+            Assertions.assertArrayEquals(new byte[]{2, 3}, bigEndian.readBytes(new byte[2]));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.readBytes(new byte[1], 0, 1));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[1], 0, 1));
+        }
+    }
+
+    @Test
+    public void testReadInt() throws IOException {
+        byte[] littleEndianBytes = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 0x00, 0x00, 0x00, (byte) 0x80, 0x00};
+        byte[] bigEndianBytes = {0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x80, 0x00, 0x00, 0x00, 0x00};
+        try (Reader littleEndian = new ByteBufferReader(Endianness.LITTLE_ENDIAN, ByteBuffer.wrap(littleEndianBytes)); Reader bigEndian = new ByteBufferReader(Endianness.BIG_ENDIAN, ByteBuffer.wrap(bigEndianBytes))) {
+            Assertions.assertEquals(2147483647, littleEndian.readInt());
+            Assertions.assertEquals(2147483647, bigEndian.readInt());
+            Assertions.assertEquals(2147483648L, littleEndian.readUnsignedInt());
+            Assertions.assertEquals(2147483648L, bigEndian.readUnsignedInt());
+            Assertions.assertThrows(EOFException.class, littleEndian::readInt);
+            Assertions.assertThrows(EOFException.class, bigEndian::readInt);
+        }
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        byte[] littleEndianBytes = {0, 1, 2, 3};
+        byte[] bigEndianBytes = {0, 1, 2, 3};
+        try (Reader littleEndian = new ByteBufferReader(Endianness.LITTLE_ENDIAN, ByteBuffer.wrap(littleEndianBytes)); Reader bigEndian = new ByteBufferReader(Endianness.BIG_ENDIAN, ByteBuffer.wrap(bigEndianBytes))) {
+            littleEndian.skip(2);
+            bigEndian.skip(2);
+            Assertions.assertEquals(2, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(2, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.skip(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.skip(-1));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(2));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.skip(2));
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        byte[] littleEndianBytes = {0, 1, 2, 3};
+        byte[] bigEndianBytes = {0, 1, 2, 3};
+        try (ByteBufferReader littleEndian = new ByteBufferReader(Endianness.LITTLE_ENDIAN, ByteBuffer.wrap(littleEndianBytes)); ByteBufferReader bigEndian = new ByteBufferReader(Endianness.BIG_ENDIAN, ByteBuffer.wrap(bigEndianBytes))) {
+            littleEndian.seek(3);
+            bigEndian.seek(3);
+            Assertions.assertEquals(3, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(3, bigEndian.readUnsignedByte());
+            littleEndian.seek(0);
+            bigEndian.seek(0);
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.seek(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.seek(-1));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.seek(5));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.seek(5));
+        }
+    }
+
+    @Test
+    public void testReadAt() throws IOException {
+        byte[] littleEndianBytes = {0x00, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, (byte) 0xE5, (byte) 0x8E, 0x26, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
+        byte[] bigEndianBytes = {0x00, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xE5, (byte) 0x8E, 0x26, 0x08, 0x07, 0x06, 0x05, 0x04, 0x03, 0x02, 0x01};
+        try (ByteBufferReader littleEndian = new ByteBufferReader(Endianness.LITTLE_ENDIAN, ByteBuffer.wrap(littleEndianBytes)); ByteBufferReader bigEndian = new ByteBufferReader(Endianness.BIG_ENDIAN, ByteBuffer.wrap(bigEndianBytes))) {
+            Assertions.assertEquals(2147483647, littleEndian.readIntAt(1));
+            Assertions.assertEquals(2147483647, bigEndian.readIntAt(1));
+            Assertions.assertEquals(65535, littleEndian.readUnsignedShortAt(1));
+            Assertions.assertEquals(32767, bigEndian.readUnsignedShortAt(1));
+            Assertions.assertEquals(624485L, littleEndian.readUnsignedLEB128At(5));
+            Assertions.assertEquals(624485L, bigEndian.readUnsignedLEB128At(5));
+            Assertions.assertEquals(0x0807060504030201L, littleEndian.readLongAt(8));
+            Assertions.assertEquals(0x0807060504030201L, bigEndian.readLongAt(8));
+            Assertions.assertArrayEquals(new byte[]{0x01, 0x02}, littleEndian.readBytesAt(8, new byte[2]));
+            Assertions.assertArrayEquals(new byte[]{0x08, 0x07}, bigEndian.readBytesAt(8, new byte[2]));
+            // Positional reads do not move the reader.
+            Assertions.assertEquals(0, littleEndian.position());
+            Assertions.assertEquals(0, bigEndian.position());
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.readLongAt(9));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.readLongAt(9));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.readIntAt(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.readIntAt(-1));
+        }
+    }
+
+    @Test
+    public void testSlice() throws IOException {
+        byte[] littleEndianBytes = {0, 1, 2, 3, 4};
+        byte[] bigEndianBytes = {0, 1, 2, 3, 4};
+        try (ByteBufferReader littleEndian = new ByteBufferReader(Endianness.LITTLE_ENDIAN, ByteBuffer.wrap(littleEndianBytes)); ByteBufferReader bigEndian = new ByteBufferReader(Endianness.BIG_ENDIAN, ByteBuffer.wrap(bigEndianBytes))) {
+            littleEndian.skip(2);
+            bigEndian.skip(2);
+            try (ByteBufferReader littleEndianSlice = littleEndian.slice(2); ByteBufferReader bigEndianSlice = bigEndian.slice(2)) {
+                Assertions.assertEquals(0, littleEndianSlice.position());
+                Assertions.assertEquals(0, bigEndianSlice.position());
+                Assertions.assertEquals(2, littleEndianSlice.remaining());
+                Assertions.assertEquals(2, bigEndianSlice.remaining());
+                Assertions.assertEquals(0x0302, littleEndianSlice.readUnsignedShort());
+                Assertions.assertEquals(0x0203, bigEndianSlice.readUnsignedShort());
+                Assertions.assertThrows(EOFException.class, littleEndianSlice::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndianSlice::readUnsignedByte);
+            }
+
+            Assertions.assertEquals(4, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(4, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.slice(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.slice(-1));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.slice(1));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.slice(1));
+        }
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        try (ByteBufferReader littleEndian = new ByteBufferReader(Endianness.LITTLE_ENDIAN, ByteBuffer.allocate(0)); ByteBufferReader bigEndian = new ByteBufferReader(Endianness.BIG_ENDIAN, ByteBuffer.allocate(0))) {
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+            littleEndian.reset(ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+            bigEndian.reset(ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+            Assertions.assertEquals(0x0201, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0102, bigEndian.readUnsignedShort());
+        }
+    }
+}
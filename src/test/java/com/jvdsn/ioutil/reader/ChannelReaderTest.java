@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ChannelReaderTest {
+    @TempDir
+    public Path directory;
+
+    private FileChannel open(byte[] bytes) throws IOException {
+        Path file = Files.createTempFile(this.directory, null, null);
+        Files.write(file, bytes);
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    private static ReadableByteChannel stream(byte[] bytes) {
+        return Channels.newChannel(new ByteArrayInputStream(bytes));
+    }
+
+    private static byte[] sequence(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        return bytes;
+    }
+
+    @Test
+    public void testReadUnsignedByte() throws IOException {
+        byte[] bytes = {0x00, 0x7F, (byte) 0x80, (byte) 0xFF};
+        try (Reader littleEndian = new ChannelReader(Endianness.LITTLE_ENDIAN, stream(bytes)); Reader bigEndian = new ChannelReader(Endianness.BIG_ENDIAN, stream(bytes))) {
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(127, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(127, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(128, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(128, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(255, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(255, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        // The buffers hold 64 bytes, so reading 200 bytes goes around them.
+        byte[] bytes = sequence(300);
+        try (Reader littleEndian = new ChannelReader(Endianness.LITTLE_ENDIAN, stream(bytes), 64); Reader bigEndian = new ChannelReader(Endianness.BIG_ENDIAN, this.open(bytes), 64)) {
+            Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, littleEndian.readBytes(new byte[4], 1, 2));
+            Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, bigEndian.readBytes(new byte[4], 1, 2));
+            byte[] expected = new byte[200];
+            System.arraycopy(bytes, 2, expected, 0, 200);
+            Assertions.assertArrayEquals(expected, littleEndian.readBytes(new byte[200]));
+            Assertions.assertArrayEquals(expected, bigEndian.readBytes(new byte[200]));
+            expected = new byte[98];
+            System.arraycopy(bytes, 202, expected, 0, 98);
+            Assertions.assertArrayEquals(expected, littleEndian.readBytes(new byte[98]));
+            Assertions.assertArrayEquals(expected, bigEndian.readBytes(new byte[98]));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.readBytes(new byte[1]));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[1]));
+        }
+    }
+
+    @Test
+    public void testReadPrimitives() throws IOException {
+        // The long starting at 60 spans the end of the first buffer.
+        byte[] bytes = sequence(70);
+        try (Reader littleEndian = new ChannelReader(Endianness.LITTLE_ENDIAN, stream(bytes), 64); Reader bigEndian = new ChannelReader(Endianness.BIG_ENDIAN, this.open(bytes), 64)) {
+            Assertions.assertEquals(0x0100, littleEndian.readShort());
+            Assertions.assertEquals(0x0001, bigEndian.readShort());
+            Assertions.assertEquals(0x05040302, littleEndian.readInt());
+            Assertions.assertEquals(0x02030405, bigEndian.readInt());
+            littleEndian.skip(54);
+            bigEndian.skip(54);
+            Assertions.assertEquals(0x434241403F3E3D3CL, littleEndian.readLong());
+            Assertions.assertEquals(0x3C3D3E3F40414243L, bigEndian.readLong());
+            Assertions.assertThrows(EOFException.class, littleEndian::readLong);
+            Assertions.assertThrows(EOFException.class, bigEndian::readLong);
+        }
+    }
+
+    @Test
+    public void testReadFully() throws IOException {
+        byte[] bytes = sequence(10);
+        try (ChannelReader littleEndian = new ChannelReader(Endianness.LITTLE_ENDIAN, stream(bytes)); ChannelReader bigEndian = new ChannelReader(Endianness.BIG_ENDIAN, this.open(bytes))) {
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            ByteBuffer[] littleEndianBuffers = {ByteBuffer.allocate(3), ByteBuffer.allocateDirect(4)};
+            ByteBuffer[] bigEndianBuffers = {ByteBuffer.allocate(3), ByteBuffer.allocateDirect(4)};
+            littleEndian.readFully(littleEndianBuffers);
+            bigEndian.readFully(bigEndianBuffers);
+            for (ByteBuffer buffer : new ByteBuffer[]{littleEndianBuffers[0], bigEndianBuffers[0]}) {
+                Assertions.assertEquals(ByteBuffer.wrap(new byte[]{1, 2, 3}), buffer.flip());
+            }
+
+            for (ByteBuffer buffer : new ByteBuffer[]{littleEndianBuffers[1], bigEndianBuffers[1]}) {
+                Assertions.assertEquals(ByteBuffer.wrap(new byte[]{4, 5, 6, 7}), buffer.flip());
+            }
+
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.readFully(ByteBuffer.allocate(3)));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.readFully(ByteBuffer.allocate(3)));
+        }
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        byte[] bytes = sequence(100);
+        try (Reader littleEndian = new ChannelReader(Endianness.LITTLE_ENDIAN, stream(bytes), 64); Reader bigEndian = new ChannelReader(Endianness.BIG_ENDIAN, this.open(bytes), 64)) {
+            littleEndian.skip(90);
+            bigEndian.skip(90);
+            Assertions.assertEquals(90, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(90, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(10));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.skip(10));
+        }
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        try (ChannelReader littleEndian = new ChannelReader(Endianness.LITTLE_ENDIAN, stream(new byte[]{0, 1})); ChannelReader bigEndian = new ChannelReader(Endianness.BIG_ENDIAN, stream(new byte[]{0, 1}))) {
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            littleEndian.reset(stream(new byte[]{2, 3}));
+            bigEndian.reset(stream(new byte[]{2, 3}));
+            Assertions.assertEquals(0x0302, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0203, bigEndian.readUnsignedShort());
+        }
+    }
+
+    @Test
+    public void testHasRemaining() throws IOException {
+        byte[] bytes = sequence(100);
+        try (ChannelReader littleEndian = new ChannelReader(Endianness.LITTLE_ENDIAN, stream(bytes), 64); ChannelReader bigEndian = new ChannelReader(Endianness.BIG_ENDIAN, stream(bytes), 64)) {
+            Assertions.assertEquals(0, littleEndian.available());
+            Assertions.assertEquals(0, bigEndian.available());
+            Assertions.assertTrue(littleEndian.hasRemaining(64));
+            Assertions.assertTrue(bigEndian.hasRemaining(64));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.hasRemaining(65));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.hasRemaining(65));
+            littleEndian.skip(90);
+            bigEndian.skip(90);
+            Assertions.assertFalse(littleEndian.hasRemaining(11));
+            Assertions.assertFalse(bigEndian.hasRemaining(11));
+            Assertions.assertEquals(0x61605F5E5D5C5B5AL, littleEndian.readLongOrDefault(-1L));
+            Assertions.assertEquals(0x5A5B5C5D5E5F6061L, bigEndian.readLongOrDefault(-1L));
+            Assertions.assertEquals(-1, littleEndian.readIntOrDefault(-1));
+            Assertions.assertEquals(-1, bigEndian.readIntOrDefault(-1));
+            Assertions.assertEquals(0x6362, littleEndian.readUnsignedShortOrDefault(-1));
+            Assertions.assertEquals(0x6263, bigEndian.readUnsignedShortOrDefault(-1));
+            Assertions.assertFalse(littleEndian.hasRemaining(1));
+            Assertions.assertFalse(bigEndian.hasRemaining(1));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.checksum.Checksums;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.zip.Checksum;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ChecksumReaderTest {
+    private static long checksum(byte[] bytes, int start, int length) {
+        Checksum checksum = Checksums.crc32c();
+        checksum.update(bytes, start, length);
+        return checksum.getValue();
+    }
+
+    private static byte[] sequence(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        return bytes;
+    }
+
+    @Test
+    public void testChecksum() throws IOException {
+        // More bytes than fit in the pending bytes are read as primitives.
+        byte[] bytes = sequence(1000);
+        try (ChecksumReader littleEndian = new ChecksumReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes)); ChecksumReader bigEndian = new ChecksumReader(Endianness.BIG_ENDIAN, new InputStreamReader(Endianness.BIG_ENDIAN, new ByteArrayInputStream(bytes)))) {
+            Assertions.assertEquals(0x00, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0x00, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(0x0201, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0102, bigEndian.readUnsignedShort());
+            Assertions.assertEquals(0x06050403, littleEndian.readInt());
+            Assertions.assertEquals(0x03040506, bigEndian.readInt());
+            Assertions.assertEquals(0x0E0D0C0B0A090807L, littleEndian.readLong());
+            Assertions.assertEquals(0x0708090A0B0C0D0EL, bigEndian.readLong());
+            for (int i = 0; i < 123; i++) {
+                littleEndian.readLong();
+                bigEndian.readLong();
+            }
+
+            Assertions.assertEquals(checksum(bytes, 0, 999), littleEndian.checksum());
+            Assertions.assertEquals(checksum(bytes, 0, 999), bigEndian.checksum());
+            littleEndian.resetChecksum();
+            bigEndian.resetChecksum();
+            littleEndian.readBytes(new byte[1]);
+            bigEndian.readBytes(new byte[1]);
+            littleEndian.verify(checksum(bytes, 999, 1));
+            bigEndian.verify(checksum(bytes, 999, 1));
+            Assertions.assertThrows(IOException.class, () -> littleEndian.verify(0));
+            Assertions.assertThrows(IOException.class, () -> bigEndian.verify(0));
+            Assertions.assertThrows(EOFException.class, littleEndian::readInt);
+            Assertions.assertThrows(EOFException.class, bigEndian::readInt);
+        }
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        byte[] bytes = sequence(1000);
+        try (ChecksumReader littleEndian = new ChecksumReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes), Checksums.adler32()); ChecksumReader bigEndian = new ChecksumReader(Endianness.BIG_ENDIAN, new ByteArrayReader(Endianness.BIG_ENDIAN, bytes), Checksums.adler32())) {
+            Assertions.assertEquals(0x03020100, littleEndian.readInt());
+            Assertions.assertEquals(0x00010203, bigEndian.readInt());
+            Assertions.assertEquals(500, littleEndian.read(new byte[500], 0, 500));
+            Assertions.assertEquals(500, bigEndian.read(new byte[500], 0, 500));
+            littleEndian.skip(100);
+            bigEndian.skip(100);
+            Assertions.assertEquals(396, littleEndian.read(new byte[500], 0, 500));
+            Assertions.assertEquals(396, bigEndian.read(new byte[500], 0, 500));
+            Checksum adler32 = Checksums.adler32();
+            adler32.update(bytes, 0, bytes.length);
+            Assertions.assertEquals(adler32.getValue(), littleEndian.checksum());
+            Assertions.assertEquals(adler32.getValue(), bigEndian.checksum());
+        }
+    }
+
+    @Test
+    public void testBlock() throws IOException {
+        byte[] bytes = {0x01, 0x02, 0x03, 0x04, 0, 0, 0, 0};
+        long checksum = checksum(bytes, 0, 4);
+        bytes[4] = (byte) checksum;
+        bytes[5] = (byte) (checksum >> 8);
+        bytes[6] = (byte) (checksum >> 16);
+        bytes[7] = (byte) (checksum >> 24);
+        try (ChecksumReader reader = new ChecksumReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes))) {
+            reader.resetChecksum();
+            Assertions.assertEquals(0x04030201, reader.readInt());
+            reader.verify(reader.checksum(), reader.readUnsignedInt());
+        }
+
+        bytes[0] = 0x00;
+        try (ChecksumReader reader = new ChecksumReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes))) {
+            reader.resetChecksum();
+            Assertions.assertEquals(0x04030200, reader.readInt());
+            Assertions.assertThrows(IOException.class, () -> reader.verify(reader.checksum(), reader.readUnsignedInt()));
+        }
+    }
+}
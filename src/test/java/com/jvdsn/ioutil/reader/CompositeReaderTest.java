@@ -0,0 +1,200 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.StringEncoding;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class CompositeReaderTest {
+    @Test
+    public void testReadUnsignedByte() throws IOException {
+        try (Reader littleEndian = new CompositeReader(Endianness.LITTLE_ENDIAN, ByteBuffer.wrap(new byte[]{0x00, 0x7F}), ByteBuffer.allocate(0), ByteBuffer.wrap(new byte[]{(byte) 0x80, (byte) 0xFF})); Reader bigEndian = new CompositeReader(Endianness.BIG_ENDIAN, ByteBuffer.wrap(new byte[]{0x00, 0x7F}), ByteBuffer.allocate(0), ByteBuffer.wrap(new byte[]{(byte) 0x80, (byte) 0xFF}))) {
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(127, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(127, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(128, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(128, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(255, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(255, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        try (Reader littleEndian = new CompositeReader(Endianness.LITTLE_ENDIAN, ByteBuffer.wrap(new byte[]{0, 1, 2}), ByteBuffer.wrap(new byte[]{3})); Reader bigEndian = new CompositeReader(Endianness.BIG_ENDIAN, ByteBuffer.wrap(new byte[]{0, 1, 2}), ByteBuffer.wrap(new byte[]{3}))) {
+            Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, littleEndian.readBytes(new byte[4], 1, 2));
+            Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, bigEndian.readBytes(new byte[4], 1, 2));
+            Assertions.assertArrayEquals(new byte[]{2, 3}, littleEndian.readBytes(new byte[2]));
+            Assertions.assertArrayEquals(new byte[]{2, 3}, bigEndian.readBytes(new byte[2]));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.readBytes(new byte[1]));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[1]));
+        }
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        try (Reader littleEndian = new CompositeReader(Endianness.LITTLE_ENDIAN, ByteBuffer.wrap(new byte[]{0, 1, 2}), ByteBuffer.wrap(new byte[]{3})); Reader bigEndian = new CompositeReader(Endianness.BIG_ENDIAN, ByteBuffer.wrap(new byte[]{0, 1, 2}), ByteBuffer.wrap(new byte[]{3}))) {
+            littleEndian.skip(3);
+            bigEndian.skip(3);
+            Assertions.assertEquals(3, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(3, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(1));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.skip(1));
+        }
+    }
+
+    @Test
+    public void testReadPrimitives() throws IOException {
+        // Every value is read once from within a fragment and once across a fragment boundary.
+        byte[][] fragments = {{0x01, 0x02, 0x01}, {0x02, 0x01, 0x02, 0x03, 0x04, 0x01}, {0x02, 0x03}, {0x04, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x01, 0x02, 0x03, 0x04, 0x05}, {0x06, 0x07, 0x08}};
+        try (Reader littleEndian = new CompositeReader(Endianness.LITTLE_ENDIAN, fragments); Reader bigEndian = new CompositeReader(Endianness.BIG_ENDIAN, fragments)) {
+            Assertions.assertEquals(0x0201, littleEndian.readShort());
+            Assertions.assertEquals(0x0102, bigEndian.readShort());
+            Assertions.assertEquals(0x0201, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0102, bigEndian.readUnsignedShort());
+            Assertions.assertEquals(0x04030201, littleEndian.readInt());
+            Assertions.assertEquals(0x01020304, bigEndian.readInt());
+            Assertions.assertEquals(0x04030201L, littleEndian.readUnsignedInt());
+            Assertions.assertEquals(0x01020304L, bigEndian.readUnsignedInt());
+            Assertions.assertEquals(0x0807060504030201L, littleEndian.readLong());
+            Assertions.assertEquals(0x0102030405060708L, bigEndian.readLong());
+            Assertions.assertEquals(0x0807060504030201L, littleEndian.readLong());
+            Assertions.assertEquals(0x0102030405060708L, bigEndian.readLong());
+            Assertions.assertThrows(EOFException.class, littleEndian::readShort);
+            Assertions.assertThrows(EOFException.class, bigEndian::readShort);
+        }
+    }
+
+    @Test
+    public void testReadNegative() throws IOException {
+        byte[][] fragments = {{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF}, {(byte) 0xFF, (byte) 0xFE}, {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF}};
+        try (Reader littleEndian = new CompositeReader(Endianness.LITTLE_ENDIAN, fragments); Reader bigEndian = new CompositeReader(Endianness.BIG_ENDIAN, fragments)) {
+            Assertions.assertEquals(-1, littleEndian.readInt());
+            Assertions.assertEquals(-1, bigEndian.readInt());
+            Assertions.assertEquals((short) 0xFFFE, littleEndian.readShort());
+            Assertions.assertEquals((short) 0xFEFF, bigEndian.readShort());
+            Assertions.assertEquals(0xFFFF, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0xFFFF, bigEndian.readUnsignedShort());
+        }
+    }
+
+    @Test
+    public void testReadLEB128() throws IOException {
+        // 624485 is 0xE5 0x8E 0x26, -123456 is 0xC0 0xBB 0x78.
+        ByteBuffer[] fragments = {ByteBuffer.wrap(new byte[]{(byte) 0xE5, (byte) 0x8E, 0x26, (byte) 0xE5}), ByteBuffer.wrap(new byte[]{(byte) 0x8E}), ByteBuffer.wrap(new byte[]{0x26, (byte) 0xC0, (byte) 0xBB}), ByteBuffer.wrap(new byte[]{0x78})};
+        try (Reader littleEndian = new CompositeReader(Endianness.LITTLE_ENDIAN, Arrays.asList(fragments)); Reader bigEndian = new CompositeReader(Endianness.BIG_ENDIAN, Arrays.asList(fragments))) {
+            Assertions.assertEquals(624485L, littleEndian.readUnsignedLEB128());
+            Assertions.assertEquals(624485L, bigEndian.readUnsignedLEB128());
+            Assertions.assertEquals(624485L, littleEndian.readUnsignedLEB128());
+            Assertions.assertEquals(624485L, bigEndian.readUnsignedLEB128());
+            Assertions.assertEquals(-123456, littleEndian.readSignedLEB128());
+            Assertions.assertEquals(-123456, bigEndian.readSignedLEB128());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedLEB128);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedLEB128);
+        }
+    }
+
+    @Test
+    public void testReadString() throws IOException {
+        byte[] bytes = StringEncoding.UTF_8.encode("h\u00e9llo \u20ac");
+        byte[][] fragments = {Arrays.copyOfRange(bytes, 0, 2), Arrays.copyOfRange(bytes, 2, 8), Arrays.copyOfRange(bytes, 8, bytes.length)};
+        try (Reader littleEndian = new CompositeReader(Endianness.LITTLE_ENDIAN, fragments); Reader bigEndian = new CompositeReader(Endianness.BIG_ENDIAN, fragments)) {
+            Assertions.assertEquals("h\u00e9llo \u20ac", StringEncoding.UTF_8.decode(littleEndian.readBytes(new byte[bytes.length])));
+            Assertions.assertEquals("h\u00e9llo \u20ac", StringEncoding.UTF_8.decode(bigEndian.readBytes(new byte[bytes.length])));
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        byte[][] fragments = {{0, 1, 2}, {}, {3, 4}, {5}};
+        try (CompositeReader littleEndian = new CompositeReader(Endianness.LITTLE_ENDIAN, fragments); CompositeReader bigEndian = new CompositeReader(Endianness.BIG_ENDIAN, fragments)) {
+            Assertions.assertEquals(6, littleEndian.remaining());
+            Assertions.assertEquals(6, bigEndian.remaining());
+            littleEndian.seek(4);
+            bigEndian.seek(4);
+            Assertions.assertEquals(4, littleEndian.position());
+            Assertions.assertEquals(4, bigEndian.position());
+            Assertions.assertEquals(4, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(4, bigEndian.readUnsignedByte());
+            littleEndian.seek(2);
+            bigEndian.seek(2);
+            Assertions.assertEquals(0x0302, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0203, bigEndian.readUnsignedShort());
+            Assertions.assertEquals(4, littleEndian.position());
+            Assertions.assertEquals(4, bigEndian.position());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.seek(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.seek(-1));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.seek(7));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.seek(7));
+            Assertions.assertEquals(0, littleEndian.remaining());
+            Assertions.assertEquals(0, bigEndian.remaining());
+        }
+    }
+
+    @Test
+    public void testSlice() throws IOException {
+        byte[][] fragments = {{0, 1, 2}, {3, 4}, {5}};
+        try (Reader littleEndian = new CompositeReader(Endianness.LITTLE_ENDIAN, fragments); Reader bigEndian = new CompositeReader(Endianness.BIG_ENDIAN, fragments)) {
+            littleEndian.skip(1);
+            bigEndian.skip(1);
+            try (Reader littleEndianSlice = littleEndian.slice(4); Reader bigEndianSlice = bigEndian.slice(4)) {
+                Assertions.assertEquals(0x04030201, littleEndianSlice.readInt());
+                Assertions.assertEquals(0x01020304, bigEndianSlice.readInt());
+                Assertions.assertThrows(EOFException.class, littleEndianSlice::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndianSlice::readUnsignedByte);
+            }
+
+            Assertions.assertEquals(5, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(5, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.slice(1));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.slice(1));
+        }
+    }
+
+    @Test
+    public void testPeek() throws IOException {
+        try (CompositeReader littleEndian = new CompositeReader(Endianness.LITTLE_ENDIAN, new byte[][]{{0x01, 0x02}, {0x03}}); CompositeReader bigEndian = new CompositeReader(Endianness.BIG_ENDIAN, new byte[][]{{0x01, 0x02}, {0x03}})) {
+            littleEndian.skip(1);
+            bigEndian.skip(1);
+            Assertions.assertEquals(0x0302, littleEndian.peekUnsignedShort());
+            Assertions.assertEquals(0x0203, bigEndian.peekUnsignedShort());
+            Assertions.assertEquals(0x0302, littleEndian.peekShort());
+            Assertions.assertEquals(0x0203, bigEndian.peekShort());
+            Assertions.assertEquals('\u0302', littleEndian.peekChar());
+            Assertions.assertEquals('\u0203', bigEndian.peekChar());
+            Assertions.assertThrows(EOFException.class, littleEndian::peekFloat);
+            Assertions.assertThrows(EOFException.class, bigEndian::peekFloat);
+            Assertions.assertThrows(EOFException.class, littleEndian::peekDouble);
+            Assertions.assertThrows(EOFException.class, bigEndian::peekDouble);
+            Assertions.assertThrows(EOFException.class, littleEndian::peekInt);
+            Assertions.assertThrows(EOFException.class, bigEndian::peekInt);
+            Assertions.assertNull(littleEndian.tryRead(Reader::readInt));
+            Assertions.assertNull(bigEndian.tryRead(Reader::readInt));
+            Assertions.assertEquals(1, littleEndian.position());
+            Assertions.assertEquals(1, bigEndian.position());
+            Assertions.assertEquals(0x0302, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0203, bigEndian.readUnsignedShort());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class FileChannelReaderTest {
+    @TempDir
+    public Path directory;
+
+    private FileChannel open(byte... bytes) throws IOException {
+        Path file = Files.createTempFile(this.directory, null, null);
+        Files.write(file, bytes);
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    @Test
+    public void testReadUnsignedByte() throws IOException {
+        byte[] bytes = {0x00, 0x7F, (byte) 0x80, (byte) 0xFF};
+        try (Reader littleEndian = new FileChannelReader(Endianness.LITTLE_ENDIAN, this.open(bytes), 0, 3); Reader bigEndian = new FileChannelReader(Endianness.BIG_ENDIAN, this.open(bytes), 0, 3)) {
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(127, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(127, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(128, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(128, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(255, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(255, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        byte[] bytes = {0, 1, 2, 3, 4, 5, 6};
+        try (Reader littleEndian = new FileChannelReader(Endianness.LITTLE_ENDIAN, this.open(bytes), 0, 3); Reader bigEndian = new FileChannelReader(Endianness.BIG_ENDIAN, this.open(bytes), 0, 3)) {
+            Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, littleEndian.readBytes(new byte[4], 1, 2));
+            Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, bigEndian.readBytes(new byte[4], 1, 2));
+            Assertions.assertArrayEquals(new byte[]{2, 3, 4, 5}, littleEndian.readBytes(new byte[4]));
+            Assertions.assertArrayEquals(new byte[]{2, 3, 4, 5}, bigEndian.readBytes(new byte[4]));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.readBytes(new byte[2]));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[2]));
+        }
+    }
+
+    @Test
+    public void testReadInt() throws IOException {
+        try (Reader littleEndian = new FileChannelReader(Endianness.LITTLE_ENDIAN, this.open(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F}), 0, 3); Reader bigEndian = new FileChannelReader(Endianness.BIG_ENDIAN, this.open(new byte[]{0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}), 0, 3)) {
+            Assertions.assertEquals(2147483647, littleEndian.readInt());
+            Assertions.assertEquals(2147483647, bigEndian.readInt());
+        }
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        byte[] bytes = {0, 1, 2, 3, 4, 5, 6};
+        try (FileChannelReader littleEndian = new FileChannelReader(Endianness.LITTLE_ENDIAN, this.open(bytes), 0, 3); FileChannelReader bigEndian = new FileChannelReader(Endianness.BIG_ENDIAN, this.open(bytes), 0, 3)) {
+            littleEndian.skip(5);
+            bigEndian.skip(5);
+            Assertions.assertEquals(5, littleEndian.position());
+            Assertions.assertEquals(5, bigEndian.position());
+            Assertions.assertEquals(5, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(5, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.skip(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.skip(-1));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(2));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.skip(2));
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        byte[] bytes = {0, 1, 2, 3, 4, 5, 6};
+        try (FileChannelReader littleEndian = new FileChannelReader(Endianness.LITTLE_ENDIAN, this.open(bytes), 2, 3); FileChannelReader bigEndian = new FileChannelReader(Endianness.BIG_ENDIAN, this.open(bytes), 2, 3)) {
+            Assertions.assertEquals(2, littleEndian.position());
+            Assertions.assertEquals(2, bigEndian.position());
+            Assertions.assertEquals(5, littleEndian.remaining());
+            Assertions.assertEquals(5, bigEndian.remaining());
+            Assertions.assertEquals(2, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(2, bigEndian.readUnsignedByte());
+            littleEndian.seek(6);
+            bigEndian.seek(6);
+            Assertions.assertEquals(6, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(6, bigEndian.readUnsignedByte());
+            littleEndian.seek(0);
+            bigEndian.seek(0);
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.seek(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.seek(-1));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.seek(8));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.seek(8));
+        }
+    }
+}
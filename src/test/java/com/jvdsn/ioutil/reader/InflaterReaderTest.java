@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.compress.DeflateFormat;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class InflaterReaderTest {
+    private static byte[] compress(DeflateFormat format, byte... bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OutputStream deflaterStream = format == DeflateFormat.GZIP ? new GZIPOutputStream(outputStream) : new DeflaterOutputStream(outputStream, new Deflater(Deflater.DEFAULT_COMPRESSION, format.nowrap()))) {
+            deflaterStream.write(bytes);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static InflaterReader reader(Endianness endianness, DeflateFormat format, byte... bytes) throws IOException {
+        return new InflaterReader(endianness, new ByteArrayReader(endianness, compress(format, bytes)), format, 64);
+    }
+
+    @Test
+    public void testReadUnsignedByte() throws IOException {
+        byte[] bytes = {0x00, 0x7F, (byte) 0x80, (byte) 0xFF};
+        for (DeflateFormat format : DeflateFormat.values()) {
+            try (Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, format, bytes); Reader bigEndian = reader(Endianness.BIG_ENDIAN, format, bytes)) {
+                Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+                Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+                Assertions.assertEquals(127, littleEndian.readUnsignedByte());
+                Assertions.assertEquals(127, bigEndian.readUnsignedByte());
+                Assertions.assertEquals(128, littleEndian.readUnsignedByte());
+                Assertions.assertEquals(128, bigEndian.readUnsignedByte());
+                Assertions.assertEquals(255, littleEndian.readUnsignedByte());
+                Assertions.assertEquals(255, bigEndian.readUnsignedByte());
+                Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+            }
+        }
+    }
+
+    @Test
+    public void testReadPrimitives() throws IOException {
+        try (Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, DeflateFormat.ZLIB, new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 0x01, 0x02}); Reader bigEndian = reader(Endianness.BIG_ENDIAN, DeflateFormat.ZLIB, new byte[]{0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01, 0x02})) {
+            Assertions.assertEquals(2147483647, littleEndian.readInt());
+            Assertions.assertEquals(2147483647, bigEndian.readInt());
+            Assertions.assertEquals(0x0201, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0102, bigEndian.readUnsignedShort());
+            Assertions.assertThrows(EOFException.class, littleEndian::readShort);
+            Assertions.assertThrows(EOFException.class, bigEndian::readShort);
+        }
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 7);
+        }
+
+        for (DeflateFormat format : DeflateFormat.values()) {
+            try (Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, format, bytes); Reader bigEndian = reader(Endianness.BIG_ENDIAN, format, bytes)) {
+                Assertions.assertArrayEquals(Arrays.copyOf(bytes, 10), littleEndian.readBytes(new byte[10]));
+                Assertions.assertArrayEquals(Arrays.copyOf(bytes, 10), bigEndian.readBytes(new byte[10]));
+                // Larger than the buffer, decompressed into the array directly.
+                Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, 10, 990), littleEndian.readBytes(new byte[980]));
+                Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, 10, 990), bigEndian.readBytes(new byte[980]));
+                Assertions.assertThrows(EOFException.class, () -> littleEndian.readBytes(new byte[11]));
+                Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[11]));
+            }
+        }
+    }
+
+    @Test
+    public void testHasRemaining() throws IOException {
+        try (Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, DeflateFormat.GZIP, new byte[100]); Reader bigEndian = reader(Endianness.BIG_ENDIAN, DeflateFormat.GZIP, new byte[100])) {
+            Assertions.assertTrue(littleEndian.hasRemaining(64));
+            Assertions.assertTrue(bigEndian.hasRemaining(64));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.hasRemaining(65));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.hasRemaining(65));
+            littleEndian.skip(90);
+            bigEndian.skip(90);
+            Assertions.assertTrue(littleEndian.hasRemaining(10));
+            Assertions.assertTrue(bigEndian.hasRemaining(10));
+            Assertions.assertFalse(littleEndian.hasRemaining(11));
+            Assertions.assertFalse(bigEndian.hasRemaining(11));
+            littleEndian.skip(5);
+            bigEndian.skip(5);
+            Assertions.assertEquals(-1L, littleEndian.readLongOrDefault(-1L));
+            Assertions.assertEquals(-1L, bigEndian.readLongOrDefault(-1L));
+        }
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        byte[] compressed = compress(DeflateFormat.ZLIB, new byte[100]);
+        try (Reader littleEndian = new InflaterReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, Arrays.copyOf(compressed, compressed.length / 2)), DeflateFormat.ZLIB, 64)) {
+            EOFException e = Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(100));
+            Assertions.assertEquals("Unexpected end of compressed data.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCorruptTrailer() throws IOException {
+        byte[] compressed = compress(DeflateFormat.GZIP, new byte[100]);
+        compressed[compressed.length - 8]++;
+        try (Reader littleEndian = new InflaterReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, compressed), DeflateFormat.GZIP, 64)) {
+            Assertions.assertThrows(ZipException.class, () -> littleEndian.skip(101));
+        }
+
+        Assertions.assertThrows(ZipException.class, () -> new InflaterReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, new byte[10]), DeflateFormat.GZIP));
+    }
+
+
+    @Test
+    public void testConcatenatedMembers() throws IOException {
+        byte[] bytes = new byte[300];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(compress(DeflateFormat.GZIP, Arrays.copyOf(bytes, 100)));
+        outputStream.write(compress(DeflateFormat.GZIP, Arrays.copyOfRange(bytes, 100, 300)));
+        byte[] compressed = outputStream.toByteArray();
+        try (Reader littleEndian = new InflaterReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, compressed), DeflateFormat.GZIP, 64); Reader bigEndian = new InflaterReader(Endianness.BIG_ENDIAN, new ByteArrayReader(Endianness.BIG_ENDIAN, compressed), DeflateFormat.GZIP, 64)) {
+            Assertions.assertArrayEquals(bytes, littleEndian.readBytes(new byte[300]));
+            Assertions.assertFalse(littleEndian.hasRemaining(1));
+            Assertions.assertArrayEquals(bytes, bigEndian.readBytes(new byte[300]));
+            Assertions.assertFalse(bigEndian.hasRemaining(1));
+        }
+
+        // Trailing bytes which are not a member are not silently ignored.
+        byte[] garbage = Arrays.copyOf(compressed, compressed.length + 2);
+        try (Reader littleEndian = new InflaterReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, garbage), DeflateFormat.GZIP, 64)) {
+            Assertions.assertThrows(ZipException.class, () -> littleEndian.skip(301));
+        }
+
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length + 1);
+        truncated[compressed.length] = 0x1F;
+        try (Reader littleEndian = new InflaterReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, truncated), DeflateFormat.GZIP, 64)) {
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(301));
+        }
+    }
+}
@@ -18,6 +18,8 @@ import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
 
 /**
  * @author Joachim Vandersmissen
@@ -56,4 +58,88 @@ public class InputStreamReaderTest {
             Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[1]));
         }
     }
+
+    @Test
+    public void testSkip() throws IOException {
+        InputStream littleEndianStream = new ByteArrayInputStream(new byte[]{0, 1, 2, 3});
+        InputStream bigEndianStream = new ByteArrayInputStream(new byte[]{0, 1, 2, 3});
+        try (Reader littleEndian = new InputStreamReader(Endianness.LITTLE_ENDIAN, littleEndianStream); Reader bigEndian = new InputStreamReader(Endianness.BIG_ENDIAN, bigEndianStream)) {
+            littleEndian.skip(1);
+            bigEndian.skip(1);
+            Assertions.assertEquals(1, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(1, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.skip(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.skip(-1));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(3));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.skip(3));
+        }
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        try (InputStreamReader littleEndian = new InputStreamReader(Endianness.LITTLE_ENDIAN, new ByteArrayInputStream(new byte[0])); InputStreamReader bigEndian = new InputStreamReader(Endianness.BIG_ENDIAN, new ByteArrayInputStream(new byte[0]))) {
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+            littleEndian.reset(new ByteArrayInputStream(new byte[]{0x01, 0x02}));
+            bigEndian.reset(new ByteArrayInputStream(new byte[]{0x01, 0x02}));
+            Assertions.assertEquals(0x0201, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0x0102, bigEndian.readUnsignedShort());
+        }
+    }
+
+    @Test
+    public void testHasRemaining() throws IOException {
+        // The second stream does not have every byte available at once, so the reader has to buffer it to look ahead.
+        InputStream littleEndianStream = new ByteArrayInputStream(new byte[]{0x01, 0x02, 0x03, 0x04, 0x05});
+        InputStream bigEndianStream = new SequenceInputStream(new ByteArrayInputStream(new byte[]{0x01, 0x02, 0x03}), new ByteArrayInputStream(new byte[]{0x04, 0x05}));
+        try (Reader littleEndian = new InputStreamReader(Endianness.LITTLE_ENDIAN, littleEndianStream); Reader bigEndian = new InputStreamReader(Endianness.BIG_ENDIAN, bigEndianStream)) {
+            Assertions.assertTrue(littleEndian.hasRemaining(5));
+            Assertions.assertTrue(bigEndian.hasRemaining(5));
+            Assertions.assertFalse(littleEndian.hasRemaining(6));
+            Assertions.assertFalse(bigEndian.hasRemaining(6));
+            Assertions.assertEquals(0x04030201, littleEndian.readIntOrDefault(-1));
+            Assertions.assertEquals(0x01020304, bigEndian.readIntOrDefault(-1));
+            Assertions.assertEquals(-1, littleEndian.readIntOrDefault(-1));
+            Assertions.assertEquals(-1, bigEndian.readIntOrDefault(-1));
+            Assertions.assertEquals(0x05, littleEndian.readUnsignedByteOrDefault(-1));
+            Assertions.assertEquals(0x05, bigEndian.readUnsignedByteOrDefault(-1));
+            Assertions.assertEquals(-1, littleEndian.readUnsignedByteOrDefault(-1));
+            Assertions.assertEquals(-1, bigEndian.readUnsignedByteOrDefault(-1));
+        }
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        InputStream littleEndianStream = new ByteArrayInputStream(new byte[]{0, 1, 2});
+        InputStream bigEndianStream = new SequenceInputStream(new ByteArrayInputStream(new byte[]{0, 1}), new ByteArrayInputStream(new byte[]{2}));
+        try (Reader littleEndian = new InputStreamReader(Endianness.LITTLE_ENDIAN, littleEndianStream); Reader bigEndian = new InputStreamReader(Endianness.BIG_ENDIAN, bigEndianStream)) {
+            byte[] littleEndianBytes = new byte[5];
+            byte[] bigEndianBytes = new byte[5];
+            Assertions.assertEquals(3, littleEndian.read(littleEndianBytes, 1, 4));
+            Assertions.assertEquals(3, bigEndian.read(bigEndianBytes, 1, 4));
+            Assertions.assertArrayEquals(new byte[]{0, 0, 1, 2, 0}, littleEndianBytes);
+            Assertions.assertArrayEquals(new byte[]{0, 0, 1, 2, 0}, bigEndianBytes);
+            Assertions.assertEquals(-1, littleEndian.read(littleEndianBytes, 0, 1));
+            Assertions.assertEquals(-1, bigEndian.read(bigEndianBytes, 0, 1));
+        }
+    }
+
+    @Test
+    public void testHasRemainingLarge() throws IOException {
+        byte[] bytes = new byte[20000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        InputStream stream = new SequenceInputStream(new ByteArrayInputStream(bytes, 0, 100), new ByteArrayInputStream(bytes, 100, bytes.length - 100));
+        try (Reader reader = new InputStreamReader(Endianness.BIG_ENDIAN, stream)) {
+            Assertions.assertTrue(reader.hasRemaining(10));
+            Assertions.assertEquals(0x00, reader.readUnsignedByte());
+            // More than the initial buffer, which grows to look ahead.
+            Assertions.assertTrue(reader.hasRemaining(19999));
+            Assertions.assertFalse(reader.hasRemaining(20000));
+            Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, 1, bytes.length), reader.readBytes(new byte[19999]));
+            Assertions.assertFalse(reader.hasRemaining(1));
+        }
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.writer.ByteArrayWriter;
+import com.jvdsn.ioutil.writer.LZ4Writer;
+import com.jvdsn.ioutil.writer.OutputStreamWriter;
+import com.jvdsn.ioutil.writer.Writer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class LZ4ReaderTest {
+    private static byte[] compress(Endianness endianness, int blockSize, byte... bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (Writer writer = new LZ4Writer(endianness, new OutputStreamWriter(endianness, outputStream), blockSize)) {
+            writer.writeBytes(bytes);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static LZ4Reader reader(Endianness endianness, int blockSize, byte... bytes) throws IOException {
+        return new LZ4Reader(endianness, new ByteArrayReader(endianness, compress(endianness, blockSize, bytes)), blockSize);
+    }
+
+    @Test
+    public void testReadUnsignedByte() throws IOException {
+        byte[] bytes = {0x00, 0x7F, (byte) 0x80, (byte) 0xFF};
+        try (Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, 64, bytes); Reader bigEndian = reader(Endianness.BIG_ENDIAN, 64, bytes)) {
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(127, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(127, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(128, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(128, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(255, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(255, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testReadPrimitives() throws IOException {
+        // Blocks of 64 bytes with a 3 byte shift, so longs span two blocks.
+        byte[] littleEndianBytes = new byte[803];
+        byte[] bigEndianBytes = new byte[803];
+        ByteArrayWriter littleEndianWriter = new ByteArrayWriter(Endianness.LITTLE_ENDIAN, littleEndianBytes, 3, 800);
+        ByteArrayWriter bigEndianWriter = new ByteArrayWriter(Endianness.BIG_ENDIAN, bigEndianBytes, 3, 800);
+        for (int i = 0; i < 100; i++) {
+            littleEndianWriter.writeLong(i * 3L);
+            bigEndianWriter.writeLong(i * 3L);
+        }
+
+        try (Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, 64, littleEndianBytes); Reader bigEndian = reader(Endianness.BIG_ENDIAN, 64, bigEndianBytes)) {
+            littleEndian.skip(3);
+            bigEndian.skip(3);
+            for (int i = 0; i < 100; i++) {
+                Assertions.assertEquals(i * 3L, littleEndian.readLong());
+                Assertions.assertEquals(i * 3L, bigEndian.readLong());
+            }
+
+            Assertions.assertThrows(EOFException.class, littleEndian::readInt);
+            Assertions.assertThrows(EOFException.class, bigEndian::readInt);
+        }
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 7);
+        }
+
+        // A reader expecting smaller blocks than written grows its buffer.
+        try (Reader littleEndian = new LZ4Reader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, compress(Endianness.LITTLE_ENDIAN, 256, bytes)), 16); Reader bigEndian = reader(Endianness.BIG_ENDIAN, 64, bytes)) {
+            Assertions.assertArrayEquals(Arrays.copyOf(bytes, 10), littleEndian.readBytes(new byte[10]));
+            Assertions.assertArrayEquals(Arrays.copyOf(bytes, 10), bigEndian.readBytes(new byte[10]));
+            Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, 10, 990), littleEndian.readBytes(new byte[980]));
+            Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, 10, 990), bigEndian.readBytes(new byte[980]));
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.readBytes(new byte[11]));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[11]));
+        }
+    }
+
+    @Test
+    public void testHasRemaining() throws IOException {
+        try (Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, 64, new byte[1000]); Reader bigEndian = reader(Endianness.BIG_ENDIAN, 64, new byte[1000])) {
+            Assertions.assertTrue(littleEndian.hasRemaining(1000));
+            Assertions.assertTrue(bigEndian.hasRemaining(1000));
+            Assertions.assertFalse(littleEndian.hasRemaining(1001));
+            Assertions.assertFalse(bigEndian.hasRemaining(1001));
+            littleEndian.skip(995);
+            bigEndian.skip(995);
+            Assertions.assertEquals(-1L, littleEndian.readLongOrDefault(-1L));
+            Assertions.assertEquals(-1L, bigEndian.readLongOrDefault(-1L));
+            Assertions.assertEquals(0, littleEndian.readIntOrDefault(-1));
+            Assertions.assertEquals(0, bigEndian.readIntOrDefault(-1));
+        }
+    }
+
+    @Test
+    public void testEndMarker() throws IOException {
+        byte[] compressed = compress(Endianness.LITTLE_ENDIAN, 64, new byte[100]);
+        byte[] bytes = Arrays.copyOf(compressed, compressed.length + 1);
+        bytes[compressed.length] = 42;
+        ByteArrayReader other = new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes);
+        try (Reader reader = new LZ4Reader(Endianness.LITTLE_ENDIAN, other)) {
+            reader.skip(100);
+            Assertions.assertFalse(reader.hasRemaining(1));
+            // The other reader is not read past the end marker.
+            Assertions.assertEquals(42, other.readUnsignedByte());
+        }
+
+        try (Reader reader = new LZ4Reader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, Arrays.copyOf(compressed, compressed.length - 8)))) {
+            EOFException e = Assertions.assertThrows(EOFException.class, () -> reader.skip(101));
+            Assertions.assertEquals("Unexpected end of compressed data.", e.getMessage());
+        }
+    }
+
+
+    @Test
+    public void testMaxBlockSize() throws IOException {
+        byte[] compressed = compress(Endianness.LITTLE_ENDIAN, 256, new byte[256]);
+        try (Reader reader = new LZ4Reader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, compressed), 16, 256)) {
+            reader.skip(256);
+            Assertions.assertFalse(reader.hasRemaining(1));
+        }
+
+        try (Reader reader = new LZ4Reader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, compressed), 16, 255)) {
+            Assertions.assertThrows(IOException.class, reader::readUnsignedByte);
+        }
+
+        // The header is rejected before a buffer of the claimed length is allocated.
+        byte[] header = {1, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F};
+        try (Reader reader = new LZ4Reader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, header))) {
+            Assertions.assertThrows(IOException.class, reader::readUnsignedByte);
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LZ4Reader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, compressed), 16, 15));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class LimitedReaderTest {
+    @Test
+    public void testReadUnsignedByte() throws IOException {
+        try (Reader littleEndian = new InputStreamReader(Endianness.LITTLE_ENDIAN, new ByteArrayInputStream(new byte[]{0x00, 0x7F, (byte) 0x80, (byte) 0xFF})); Reader bigEndian = new InputStreamReader(Endianness.BIG_ENDIAN, new ByteArrayInputStream(new byte[]{0x00, 0x7F, (byte) 0x80, (byte) 0xFF}))) {
+            try (Reader littleEndianSlice = littleEndian.slice(2); Reader bigEndianSlice = bigEndian.slice(2)) {
+                Assertions.assertEquals(0, littleEndianSlice.readUnsignedByte());
+                Assertions.assertEquals(0, bigEndianSlice.readUnsignedByte());
+                Assertions.assertEquals(127, littleEndianSlice.readUnsignedByte());
+                Assertions.assertEquals(127, bigEndianSlice.readUnsignedByte());
+                Assertions.assertThrows(EOFException.class, littleEndianSlice::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndianSlice::readUnsignedByte);
+            }
+
+            Assertions.assertEquals(128, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(128, bigEndian.readUnsignedByte());
+        }
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        try (Reader littleEndian = new InputStreamReader(Endianness.LITTLE_ENDIAN, new ByteArrayInputStream(new byte[]{0, 1, 2, 3})); Reader bigEndian = new InputStreamReader(Endianness.BIG_ENDIAN, new ByteArrayInputStream(new byte[]{0, 1, 2, 3}))) {
+            try (Reader littleEndianSlice = littleEndian.slice(3); Reader bigEndianSlice = bigEndian.slice(3)) {
+                Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, littleEndianSlice.readBytes(new byte[4], 1, 2));
+                Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, bigEndianSlice.readBytes(new byte[4], 1, 2));
+                Assertions.assertThrows(EOFException.class, () -> littleEndianSlice.readBytes(new byte[2]));
+                Assertions.assertThrows(EOFException.class, () -> bigEndianSlice.readBytes(new byte[2]));
+            }
+
+            Assertions.assertEquals(3, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(3, bigEndian.readUnsignedByte());
+        }
+    }
+
+    @Test
+    public void testReadInt() throws IOException {
+        try (Reader littleEndian = new LimitedReader(Endianness.LITTLE_ENDIAN, new InputStreamReader(Endianness.LITTLE_ENDIAN, new ByteArrayInputStream(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 0x00})), 5); Reader bigEndian = new LimitedReader(Endianness.BIG_ENDIAN, new InputStreamReader(Endianness.BIG_ENDIAN, new ByteArrayInputStream(new byte[]{0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x00})), 5)) {
+            Assertions.assertEquals(2147483647, littleEndian.readInt());
+            Assertions.assertEquals(2147483647, bigEndian.readInt());
+            Assertions.assertThrows(EOFException.class, littleEndian::readInt);
+            Assertions.assertThrows(EOFException.class, bigEndian::readInt);
+        }
+    }
+
+    @Test
+    public void testRemaining() throws IOException {
+        try (LimitedReader littleEndian = new LimitedReader(Endianness.LITTLE_ENDIAN, new InputStreamReader(Endianness.LITTLE_ENDIAN, new ByteArrayInputStream(new byte[4])), 3); LimitedReader bigEndian = new LimitedReader(Endianness.BIG_ENDIAN, new InputStreamReader(Endianness.BIG_ENDIAN, new ByteArrayInputStream(new byte[4])), 3)) {
+            Assertions.assertEquals(3, littleEndian.remaining());
+            Assertions.assertEquals(3, bigEndian.remaining());
+            littleEndian.skip(2);
+            bigEndian.skip(2);
+            Assertions.assertEquals(1, littleEndian.remaining());
+            Assertions.assertEquals(1, bigEndian.remaining());
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(2));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.skip(2));
+        }
+    }
+
+    @Test
+    public void testHasRemaining() throws IOException {
+        try (Reader littleEndian = new InputStreamReader(Endianness.LITTLE_ENDIAN, new ByteArrayInputStream(new byte[]{0, 1, 2, 3, 4, 5})); Reader bigEndian = new InputStreamReader(Endianness.BIG_ENDIAN, new ByteArrayInputStream(new byte[]{0, 1, 2, 3, 4, 5}))) {
+            try (Reader littleEndianSlice = littleEndian.slice(3); Reader bigEndianSlice = bigEndian.slice(3)) {
+                Assertions.assertEquals(3, littleEndianSlice.available());
+                Assertions.assertEquals(3, bigEndianSlice.available());
+                Assertions.assertTrue(littleEndianSlice.hasRemaining(3));
+                Assertions.assertTrue(bigEndianSlice.hasRemaining(3));
+                Assertions.assertFalse(littleEndianSlice.hasRemaining(4));
+                Assertions.assertFalse(bigEndianSlice.hasRemaining(4));
+                Assertions.assertEquals(0x0100, littleEndianSlice.readUnsignedShortOrDefault(-1));
+                Assertions.assertEquals(0x0001, bigEndianSlice.readUnsignedShortOrDefault(-1));
+                Assertions.assertEquals(-1, littleEndianSlice.readUnsignedShortOrDefault(-1));
+                Assertions.assertEquals(-1, bigEndianSlice.readUnsignedShortOrDefault(-1));
+            }
+
+            Assertions.assertEquals(3, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(3, bigEndian.readUnsignedByte());
+        }
+    }
+
+    @Test
+    public void testRemainingAfterFailure() throws IOException {
+        // Not closed, closing skips the remaining bytes which the wrapped reader does not have.
+        LimitedReader littleEndian = new LimitedReader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, new byte[2]), 4);
+        LimitedReader bigEndian = new LimitedReader(Endianness.BIG_ENDIAN, new ByteArrayReader(Endianness.BIG_ENDIAN, new byte[2]), 4);
+        Assertions.assertThrows(EOFException.class, () -> littleEndian.readBytes(new byte[3]));
+        Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[3]));
+        Assertions.assertEquals(4, littleEndian.remaining());
+        Assertions.assertEquals(4, bigEndian.remaining());
+        Assertions.assertThrows(EOFException.class, () -> littleEndian.skip(3));
+        Assertions.assertThrows(EOFException.class, () -> bigEndian.skip(3));
+        Assertions.assertEquals(4, littleEndian.remaining());
+        Assertions.assertEquals(4, bigEndian.remaining());
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class MappedFileReaderTest {
+    @TempDir
+    public Path directory;
+
+    @Test
+    public void testReadUnsignedByte() throws IOException {
+        Path file = this.directory.resolve("file");
+        Files.write(file, new byte[]{0x00, 0x7F, (byte) 0x80, (byte) 0xFF});
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ); Reader littleEndian = new MappedFileReader(Endianness.LITTLE_ENDIAN, channel); Reader bigEndian = new MappedFileReader(Endianness.BIG_ENDIAN, channel)) {
+            Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(127, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(127, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(128, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(128, bigEndian.readUnsignedByte());
+            Assertions.assertEquals(255, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(255, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        Path file = this.directory.resolve("file");
+        Files.write(file, new byte[]{0, 1, 2, 3, 4, 5, 6});
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ); MappedFileReader littleEndian = new MappedFileReader(Endianness.LITTLE_ENDIAN, channel, 2, 4); MappedFileReader bigEndian = new MappedFileReader(Endianness.BIG_ENDIAN, channel, 2, 4)) {
+            Assertions.assertEquals(4, littleEndian.remaining());
+            Assertions.assertEquals(4, bigEndian.remaining());
+            littleEndian.seek(3);
+            bigEndian.seek(3);
+            Assertions.assertEquals(5, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(5, bigEndian.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.seek(5));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.seek(5));
+        }
+    }
+}
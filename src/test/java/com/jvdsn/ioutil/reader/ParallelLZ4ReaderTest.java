@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.writer.LZ4Writer;
+import com.jvdsn.ioutil.writer.OutputStreamWriter;
+import com.jvdsn.ioutil.writer.ParallelLZ4Writer;
+import com.jvdsn.ioutil.writer.Writer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ParallelLZ4ReaderTest {
+    private static byte[] compress(Endianness endianness, boolean parallel, int blockSize, int longs) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (Writer writer = parallel ? new ParallelLZ4Writer(endianness, new OutputStreamWriter(endianness, outputStream), ForkJoinPool.commonPool(), blockSize, 4) : new LZ4Writer(endianness, new OutputStreamWriter(endianness, outputStream), blockSize)) {
+            for (int i = 0; i < longs; i++) {
+                writer.writeLong(i);
+            }
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static ParallelLZ4Reader reader(Endianness endianness, boolean parallel, int blockSize, int longs) throws IOException {
+        return new ParallelLZ4Reader(endianness, new ByteArrayReader(endianness, compress(endianness, parallel, blockSize, longs)), ForkJoinPool.commonPool(), 3);
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        for (boolean parallel : new boolean[]{true, false}) {
+            // Blocks of 100 bytes, so some longs span two blocks.
+            try (ParallelLZ4Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, parallel, 100, 1000); ParallelLZ4Reader bigEndian = reader(Endianness.BIG_ENDIAN, parallel, 100, 1000)) {
+                Assertions.assertEquals(8000, littleEndian.length());
+                Assertions.assertEquals(8000, bigEndian.length());
+                // The LZ4 writer uses the whole pooled buffer of 128 bytes as its block size.
+                Assertions.assertEquals(parallel ? 80 : 63, littleEndian.blockCount());
+                Assertions.assertEquals(parallel ? 80 : 63, bigEndian.blockCount());
+                for (int i = 0; i < 1000; i++) {
+                    Assertions.assertEquals(i, littleEndian.readLong());
+                    Assertions.assertEquals(i, bigEndian.readLong());
+                }
+
+                Assertions.assertEquals(8000, littleEndian.position());
+                Assertions.assertEquals(8000, bigEndian.position());
+                Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+            }
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        for (boolean parallel : new boolean[]{true, false}) {
+            try (ParallelLZ4Reader littleEndian = reader(Endianness.LITTLE_ENDIAN, parallel, 100, 1000); ParallelLZ4Reader bigEndian = reader(Endianness.BIG_ENDIAN, parallel, 100, 1000)) {
+                littleEndian.seek(4000);
+                bigEndian.seek(4000);
+                Assertions.assertEquals(500, littleEndian.readLong());
+                Assertions.assertEquals(500, bigEndian.readLong());
+                littleEndian.seek(8);
+                bigEndian.seek(8);
+                Assertions.assertEquals(1, littleEndian.readLong());
+                Assertions.assertEquals(1, bigEndian.readLong());
+                littleEndian.skip(7976);
+                bigEndian.skip(7976);
+                Assertions.assertEquals(999, littleEndian.readLong());
+                Assertions.assertEquals(999, bigEndian.readLong());
+                Assertions.assertEquals(0, littleEndian.remaining());
+                Assertions.assertEquals(0, bigEndian.remaining());
+                littleEndian.seek(littleEndian.blockPosition(3));
+                bigEndian.seek(bigEndian.blockPosition(3));
+                Assertions.assertEquals(littleEndian.blockPosition(3), littleEndian.position());
+                Assertions.assertEquals(bigEndian.blockPosition(3), bigEndian.position());
+                Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.seek(-1));
+                Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.seek(-1));
+                Assertions.assertThrows(EOFException.class, () -> littleEndian.seek(8001));
+                Assertions.assertThrows(EOFException.class, () -> bigEndian.seek(8001));
+                Assertions.assertThrows(EOFException.class, () -> littleEndian.readBytes(new byte[8000]));
+                Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[8000]));
+            }
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        try (ParallelLZ4Reader reader = reader(Endianness.LITTLE_ENDIAN, true, 100, 0)) {
+            Assertions.assertEquals(0, reader.length());
+            Assertions.assertEquals(0, reader.blockCount());
+            Assertions.assertFalse(reader.hasRemaining(1));
+            reader.seek(0);
+            Assertions.assertThrows(EOFException.class, reader::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testCorrupt() throws IOException {
+        byte[] bytes = compress(Endianness.LITTLE_ENDIAN, true, 100, 1000);
+        // Corrupt the uncompressed length in the footer.
+        bytes[bytes.length - 9] = 0x7F;
+        Assertions.assertThrows(IOException.class, () -> new ParallelLZ4Reader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, bytes)));
+        // An uncompressed length too short for the amount of blocks, which would make the last block negative.
+        byte[] shortened = compress(Endianness.LITTLE_ENDIAN, true, 100, 1000);
+        shortened[shortened.length - 12] = 1;
+        shortened[shortened.length - 11] = 0;
+        IOException index = Assertions.assertThrows(IOException.class, () -> new ParallelLZ4Reader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, shortened)));
+        Assertions.assertEquals("corrupt LZ4 block index", index.getMessage());
+        byte[] truncated = compress(Endianness.LITTLE_ENDIAN, false, 100, 1000);
+        EOFException e = Assertions.assertThrows(EOFException.class, () -> new ParallelLZ4Reader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, truncated, 0, truncated.length - 8)));
+        Assertions.assertEquals("Unexpected end of compressed data.", e.getMessage());
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        ParallelLZ4Reader reader = reader(Endianness.LITTLE_ENDIAN, true, 100, 1000);
+        reader.skip(100);
+        reader.close();
+        Assertions.assertEquals(8000, reader.position());
+        Assertions.assertEquals(0, reader.remaining());
+        Assertions.assertThrows(EOFException.class, reader::readUnsignedByte);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.Executors;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ReadAheadReaderTest {
+    private InputStream open(int count, ByteOrder order) {
+        // Starts with one byte, so the values do not line up with the buffers.
+        ByteBuffer buffer = ByteBuffer.allocate(1 + count * 12).order(order);
+        buffer.put((byte) 0x7F);
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(i);
+            buffer.putLong(-i);
+        }
+
+        return new ByteArrayInputStream(buffer.array());
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        int count = 100000;
+        try (ReadAheadReader littleEndian = new ReadAheadReader(Endianness.LITTLE_ENDIAN, this.open(count, ByteOrder.LITTLE_ENDIAN), 1000, 2, Executors.defaultThreadFactory()); ReadAheadReader bigEndian = new ReadAheadReader(Endianness.BIG_ENDIAN, this.open(count, ByteOrder.BIG_ENDIAN))) {
+            Assertions.assertEquals(0x7F, littleEndian.readUnsignedByte());
+            Assertions.assertEquals(0x7F, bigEndian.readUnsignedByte());
+            for (int i = 0; i < count; i++) {
+                Assertions.assertEquals(i, littleEndian.readInt());
+                Assertions.assertEquals(i, bigEndian.readInt());
+                Assertions.assertEquals(-i, littleEndian.readLong());
+                Assertions.assertEquals(-i, bigEndian.readLong());
+            }
+
+            Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+            Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testEndianness() throws IOException {
+        byte[] bytes = {0x01, 0x02, 0x03, 0x04};
+        try (ReadAheadReader littleEndian = new ReadAheadReader(Endianness.LITTLE_ENDIAN, new ByteArrayInputStream(bytes)); ReadAheadReader bigEndian = new ReadAheadReader(Endianness.BIG_ENDIAN, new ByteArrayInputStream(bytes))) {
+            Assertions.assertEquals(0x04030201, littleEndian.readInt());
+            Assertions.assertEquals(0x01020304, bigEndian.readInt());
+        }
+    }
+
+    @Test
+    public void testReadBytesAndSkip() throws IOException {
+        byte[] bytes = new byte[10000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        try (ReadAheadReader reader = new ReadAheadReader(Endianness.BIG_ENDIAN, new ByteArrayInputStream(bytes), 1000, 3, Executors.defaultThreadFactory())) {
+            byte[] read = reader.readBytes(new byte[5000]);
+            for (int i = 0; i < read.length; i++) {
+                Assertions.assertEquals((byte) i, read[i]);
+            }
+
+            reader.skip(4000);
+            Assertions.assertEquals((byte) 9000, reader.readByte());
+            Assertions.assertThrows(EOFException.class, () -> reader.skip(1000));
+        }
+    }
+
+    @Test
+    public void testFailure() throws IOException {
+        InputStream failing = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (this.count++ >= 100) {
+                    throw new IOException("failure");
+                }
+
+                return 0;
+            }
+        };
+
+        try (ReadAheadReader reader = new ReadAheadReader(Endianness.BIG_ENDIAN, failing, 16, 2, Executors.defaultThreadFactory())) {
+            IOException e = Assertions.assertThrows(IOException.class, () -> reader.skip(1000));
+            Assertions.assertEquals("failure", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        // Nothing is ever written, so the thread is blocked until the reader is closed.
+        PipedInputStream inputStream = new PipedInputStream(new PipedOutputStream());
+        ReadAheadReader reader = new ReadAheadReader(Endianness.BIG_ENDIAN, inputStream);
+        reader.close();
+        Assertions.assertThrows(EOFException.class, reader::readUnsignedByte);
+    }
+
+    @Test
+    public void testHasRemaining() throws IOException {
+        // The buffers hold 64 bytes, so looking ahead at 60 needs the next buffer.
+        byte[] bytes = new byte[150];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        try (ReadAheadReader littleEndian = new ReadAheadReader(Endianness.LITTLE_ENDIAN, new ByteArrayInputStream(bytes), 64, 2, Executors.defaultThreadFactory()); ReadAheadReader bigEndian = new ReadAheadReader(Endianness.BIG_ENDIAN, new ByteArrayInputStream(bytes), 64, 2, Executors.defaultThreadFactory())) {
+            littleEndian.skip(60);
+            bigEndian.skip(60);
+            Assertions.assertTrue(littleEndian.hasRemaining(8));
+            Assertions.assertTrue(bigEndian.hasRemaining(8));
+            Assertions.assertEquals(68, littleEndian.available());
+            Assertions.assertEquals(68, bigEndian.available());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.hasRemaining(65));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.hasRemaining(65));
+            Assertions.assertEquals(0x434241403F3E3D3CL, littleEndian.readLongOrDefault(-1L));
+            Assertions.assertEquals(0x3C3D3E3F40414243L, bigEndian.readLongOrDefault(-1L));
+            littleEndian.skip(76);
+            bigEndian.skip(76);
+            Assertions.assertFalse(littleEndian.hasRemaining(8));
+            Assertions.assertFalse(bigEndian.hasRemaining(8));
+            Assertions.assertEquals(-1L, littleEndian.readLongOrDefault(-1L));
+            Assertions.assertEquals(-1L, bigEndian.readLongOrDefault(-1L));
+            Assertions.assertEquals(0x93929190L, littleEndian.readUnsignedIntOrDefault(-1L));
+            Assertions.assertEquals(0x90919293L, bigEndian.readUnsignedIntOrDefault(-1L));
+            byte[] littleEndianBytes = new byte[4];
+            byte[] bigEndianBytes = new byte[4];
+            Assertions.assertEquals(2, littleEndian.read(littleEndianBytes, 0, 4));
+            Assertions.assertEquals(2, bigEndian.read(bigEndianBytes, 0, 4));
+            Assertions.assertArrayEquals(new byte[]{(byte) 0x94, (byte) 0x95, 0, 0}, littleEndianBytes);
+            Assertions.assertArrayEquals(new byte[]{(byte) 0x94, (byte) 0x95, 0, 0}, bigEndianBytes);
+            Assertions.assertFalse(littleEndian.hasRemaining(1));
+            Assertions.assertFalse(bigEndian.hasRemaining(1));
+            Assertions.assertEquals(-1, littleEndian.read(littleEndianBytes, 0, 4));
+            Assertions.assertEquals(-1, bigEndian.read(bigEndianBytes, 0, 4));
+        }
+    }
+
+    @Test
+    public void testUncheckedFailure() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() {
+                throw new IllegalStateException("failure");
+            }
+        };
+
+        try (ReadAheadReader reader = new ReadAheadReader(Endianness.BIG_ENDIAN, failing, 16, 2, Executors.defaultThreadFactory())) {
+            // The reader does not wait forever for the stopped thread.
+            IOException e = Assertions.assertThrows(IOException.class, reader::readUnsignedByte);
+            Assertions.assertEquals("failure", e.getCause().getMessage());
+        }
+    }
+}
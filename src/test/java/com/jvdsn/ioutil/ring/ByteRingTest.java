@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.ring;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ByteRingTest {
+    @Test
+    public void testCapacity() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ByteRing(4, WaitStrategy.BUSY_SPIN));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ByteRing(12, WaitStrategy.BUSY_SPIN));
+        Assertions.assertEquals(16, new ByteRing(16, WaitStrategy.BUSY_SPIN).capacity());
+    }
+
+    @Test
+    public void testSize() throws IOException {
+        ByteRing ring = new ByteRing(16, WaitStrategy.BUSY_SPIN);
+        try (RingWriter writer = new RingWriter(Endianness.BIG_ENDIAN, ring); RingReader reader = new RingReader(Endianness.BIG_ENDIAN, ring)) {
+            writer.writeInt(0x01020304);
+            Assertions.assertEquals(4, ring.size());
+            Assertions.assertEquals(4, reader.available());
+            reader.readShort();
+            Assertions.assertEquals(2, ring.size());
+        }
+    }
+
+    @Test
+    public void testBusySpin() throws Exception {
+        this.testConcurrent(WaitStrategy.BUSY_SPIN);
+    }
+
+    @Test
+    public void testYield() throws Exception {
+        this.testConcurrent(WaitStrategy.YIELD);
+    }
+
+    @Test
+    public void testPark() throws Exception {
+        this.testConcurrent(WaitStrategy.PARK);
+    }
+
+    private void testConcurrent(WaitStrategy waitStrategy) throws Exception {
+        int messages = 1000;
+        // A small ring, so both sides have to wait for each other and the messages wrap around.
+        ByteRing ring = new ByteRing(1024, waitStrategy);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread producer = new Thread(() -> {
+            try (RingWriter writer = new RingWriter(Endianness.LITTLE_ENDIAN, ring)) {
+                for (int i = 0; i < messages; i++) {
+                    writer.writeInt(i);
+                    writer.writeLong(-i);
+                    writer.writeBytes(new byte[i % 100]);
+                    writer.writeDouble(i / 2.0);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        producer.start();
+
+        try (RingReader reader = new RingReader(Endianness.LITTLE_ENDIAN, ring)) {
+            for (int i = 0; i < messages; i++) {
+                Assertions.assertEquals(i, reader.readInt());
+                Assertions.assertEquals(-i, reader.readLong());
+                Assertions.assertEquals(i % 100, reader.readBytes(new byte[i % 100]).length);
+                Assertions.assertEquals(i / 2.0, reader.readDouble());
+            }
+        }
+
+        producer.join();
+        Assertions.assertNull(failure.get());
+    }
+}
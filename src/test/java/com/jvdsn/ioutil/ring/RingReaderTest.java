@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.ring;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class RingReaderTest {
+    @Test
+    public void testReadPrimitives() throws IOException {
+        ByteRing littleEndianRing = new ByteRing(16, WaitStrategy.BUSY_SPIN);
+        ByteRing bigEndianRing = new ByteRing(16, WaitStrategy.BUSY_SPIN);
+        try (RingWriter littleEndianWriter = new RingWriter(Endianness.LITTLE_ENDIAN, littleEndianRing); RingWriter bigEndianWriter = new RingWriter(Endianness.BIG_ENDIAN, bigEndianRing)) {
+            littleEndianWriter.writeUnsignedShort(0xFFFE);
+            bigEndianWriter.writeUnsignedShort(0xFFFE);
+            littleEndianWriter.writeUnsignedInt(0xFFFFFFFEL);
+            bigEndianWriter.writeUnsignedInt(0xFFFFFFFEL);
+            littleEndianWriter.writeLong(-2);
+            bigEndianWriter.writeLong(-2);
+        }
+
+        try (RingReader littleEndian = new RingReader(Endianness.LITTLE_ENDIAN, littleEndianRing); RingReader bigEndian = new RingReader(Endianness.BIG_ENDIAN, bigEndianRing)) {
+            Assertions.assertEquals(0xFFFE, littleEndian.readUnsignedShort());
+            Assertions.assertEquals(0xFFFE, bigEndian.readUnsignedShort());
+            Assertions.assertEquals(0xFFFFFFFEL, littleEndian.readUnsignedInt());
+            Assertions.assertEquals(0xFFFFFFFEL, bigEndian.readUnsignedInt());
+            Assertions.assertEquals(-2, littleEndian.readLong());
+            Assertions.assertEquals(-2, bigEndian.readLong());
+        }
+    }
+
+    @Test
+    public void testWriterClosed() throws IOException {
+        ByteRing ring = new ByteRing(8, WaitStrategy.BUSY_SPIN);
+        try (RingWriter writer = new RingWriter(Endianness.BIG_ENDIAN, ring)) {
+            writer.writeUnsignedShort(0x0102);
+            writer.writeUnsignedByte(0x03);
+        }
+
+        try (RingReader reader = new RingReader(Endianness.BIG_ENDIAN, ring)) {
+            Assertions.assertEquals(0x0102, reader.readUnsignedShort());
+            Assertions.assertThrows(EOFException.class, reader::readUnsignedShort);
+            // The remaining byte has been skipped.
+            Assertions.assertEquals(0, reader.available());
+            Assertions.assertThrows(EOFException.class, reader::readUnsignedByte);
+        }
+    }
+
+    @Test
+    public void testClose() {
+        ByteRing ring = new ByteRing(8, WaitStrategy.BUSY_SPIN);
+        RingReader reader = new RingReader(Endianness.BIG_ENDIAN, ring);
+        reader.close();
+        Assertions.assertThrows(EOFException.class, reader::readUnsignedByte);
+    }
+
+    @Test
+    public void testHasRemaining() throws IOException {
+        ByteRing littleEndianRing = new ByteRing(8, WaitStrategy.BUSY_SPIN);
+        ByteRing bigEndianRing = new ByteRing(8, WaitStrategy.BUSY_SPIN);
+        try (RingWriter littleEndianWriter = new RingWriter(Endianness.LITTLE_ENDIAN, littleEndianRing); RingWriter bigEndianWriter = new RingWriter(Endianness.BIG_ENDIAN, bigEndianRing)) {
+            littleEndianWriter.writeUnsignedShort(0x0102);
+            bigEndianWriter.writeUnsignedShort(0x0102);
+            littleEndianWriter.writeUnsignedByte(0x03);
+            bigEndianWriter.writeUnsignedByte(0x03);
+        }
+
+        try (RingReader littleEndian = new RingReader(Endianness.LITTLE_ENDIAN, littleEndianRing); RingReader bigEndian = new RingReader(Endianness.BIG_ENDIAN, bigEndianRing)) {
+            Assertions.assertEquals(3, littleEndian.available());
+            Assertions.assertEquals(3, bigEndian.available());
+            Assertions.assertTrue(littleEndian.hasRemaining(3));
+            Assertions.assertTrue(bigEndian.hasRemaining(3));
+            Assertions.assertFalse(littleEndian.hasRemaining(4));
+            Assertions.assertFalse(bigEndian.hasRemaining(4));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.hasRemaining(9));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.hasRemaining(9));
+            Assertions.assertEquals(-1, littleEndian.readIntOrDefault(-1));
+            Assertions.assertEquals(-1, bigEndian.readIntOrDefault(-1));
+            // Unlike a failed read, the remaining bytes are not skipped.
+            Assertions.assertEquals(0x0102, littleEndian.readUnsignedShortOrDefault(-1));
+            Assertions.assertEquals(0x0102, bigEndian.readUnsignedShortOrDefault(-1));
+            Assertions.assertEquals(0x03, littleEndian.readUnsignedByteOrDefault(-1));
+            Assertions.assertEquals(0x03, bigEndian.readUnsignedByteOrDefault(-1));
+            Assertions.assertEquals(-1, littleEndian.readUnsignedByteOrDefault(-1));
+            Assertions.assertEquals(-1, bigEndian.readUnsignedByteOrDefault(-1));
+        }
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        ByteRing ring = new ByteRing(8, WaitStrategy.BUSY_SPIN);
+        try (RingWriter writer = new RingWriter(Endianness.BIG_ENDIAN, ring)) {
+            writer.writeUnsignedShort(0x0102);
+            writer.writeUnsignedByte(0x03);
+        }
+
+        try (RingReader reader = new RingReader(Endianness.BIG_ENDIAN, ring)) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> reader.skip(-1));
+            reader.skip(2);
+            Assertions.assertEquals(0x03, reader.readUnsignedByte());
+            Assertions.assertThrows(EOFException.class, () -> reader.skip(1));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.ring;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class RingWriterTest {
+    @Test
+    public void testWriteInt() throws IOException {
+        ByteRing littleEndianRing = new ByteRing(8, WaitStrategy.BUSY_SPIN);
+        ByteRing bigEndianRing = new ByteRing(8, WaitStrategy.BUSY_SPIN);
+        try (RingWriter littleEndian = new RingWriter(Endianness.LITTLE_ENDIAN, littleEndianRing); RingWriter bigEndian = new RingWriter(Endianness.BIG_ENDIAN, bigEndianRing)) {
+            littleEndian.writeInt(0x01020304);
+            bigEndian.writeInt(0x01020304);
+        }
+
+        Assertions.assertEquals(0x04, littleEndianRing.data[0]);
+        Assertions.assertEquals(0x01, bigEndianRing.data[0]);
+    }
+
+    @Test
+    public void testWriteBytesWrapAround() throws IOException {
+        ByteRing ring = new ByteRing(8, WaitStrategy.BUSY_SPIN);
+        try (RingWriter writer = new RingWriter(Endianness.BIG_ENDIAN, ring); RingReader reader = new RingReader(Endianness.BIG_ENDIAN, ring)) {
+            writer.writeBytes(new byte[6]);
+            reader.skip(6);
+            writer.writeBytes(new byte[]{0x01, 0x02, 0x03, 0x04});
+            Assertions.assertEquals(0x03, ring.data[0]);
+            Assertions.assertEquals(0x01020304, reader.readInt());
+        }
+    }
+
+    @Test
+    public void testReaderClosed() throws IOException {
+        ByteRing ring = new ByteRing(8, WaitStrategy.BUSY_SPIN);
+        try (RingWriter writer = new RingWriter(Endianness.BIG_ENDIAN, ring)) {
+            writer.writeInt(0x01020304);
+            new RingReader(Endianness.BIG_ENDIAN, ring).close();
+            // The ring still has room for the int.
+            writer.writeInt(0x05060708);
+            Assertions.assertThrows(EOFException.class, () -> writer.writeUnsignedByte(0x09));
+        }
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        ByteRing ring = new ByteRing(8, WaitStrategy.BUSY_SPIN);
+        RingWriter writer = new RingWriter(Endianness.BIG_ENDIAN, ring);
+        writer.close();
+        Assertions.assertThrows(EOFException.class, () -> writer.writeUnsignedByte(0x01));
+    }
+}
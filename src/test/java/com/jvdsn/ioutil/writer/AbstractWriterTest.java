@@ -310,4 +310,34 @@ public class AbstractWriterTest {
         Assertions.assertArrayEquals(new byte[]{0x00, 0x01, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x78, (byte) 0x9B, (byte) 0xF1, 0x59}, littleEndianBytes);
         Assertions.assertArrayEquals(new byte[]{0x00, 0x01, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x78, (byte) 0x9B, (byte) 0xF1, 0x59}, bigEndianBytes);
     }
+
+
+    @Test
+    public void testDefaults() throws IOException {
+        // A writer implementing only the required methods, from before flush existed.
+        byte[] bytes = new byte[2];
+        try (Writer writer = new AbstractWriter(Endianness.LITTLE_ENDIAN) {
+            private int pos;
+
+            @Override
+            public void writeUnsignedByte(int b) {
+                bytes[this.pos++] = (byte) b;
+            }
+
+            @Override
+            public void writeBytes(byte[] bytes, int start, int length) {
+                for (int i = 0; i < length; i++) {
+                    this.writeUnsignedByte(bytes[start + i]);
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        }) {
+            writer.writeUnsignedShort(0x0102);
+            writer.flush();
+            Assertions.assertArrayEquals(new byte[]{2, 1}, bytes);
+        }
+    }
 }
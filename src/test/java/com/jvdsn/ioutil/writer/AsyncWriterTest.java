@@ -0,0 +1,226 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.reader.ByteArrayReader;
+import com.jvdsn.ioutil.reader.Reader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class AsyncWriterTest {
+    @TempDir
+    public Path directory;
+
+    @Test
+    public void testWrite() throws IOException {
+        ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+        try (AsyncFlusher littleEndianFlusher = new AsyncFlusher(Channels.newChannel(littleEndianStream)); AsyncFlusher bigEndianFlusher = new AsyncFlusher(Channels.newChannel(bigEndianStream))) {
+            try (Writer littleEndian = new AsyncWriter(Endianness.LITTLE_ENDIAN, littleEndianFlusher, 64); Writer bigEndian = new AsyncWriter(Endianness.BIG_ENDIAN, bigEndianFlusher, 64)) {
+                littleEndian.writeUnsignedByte(0);
+                bigEndian.writeUnsignedByte(0);
+                littleEndian.writeShort((short) 0x0102);
+                bigEndian.writeShort((short) 0x0102);
+                littleEndian.writeLong(0x0102030405060708L);
+                bigEndian.writeLong(0x0102030405060708L);
+                // Larger than the buffer, so it is handed over in pieces.
+                littleEndian.writeBytes(new byte[100]);
+                bigEndian.writeBytes(new byte[100]);
+                littleEndian.flush();
+                bigEndian.flush();
+                Assertions.assertEquals(111, littleEndianStream.size());
+                Assertions.assertEquals(111, bigEndianStream.size());
+            }
+        }
+
+        byte[] littleEndianBytes = littleEndianStream.toByteArray();
+        byte[] bigEndianBytes = bigEndianStream.toByteArray();
+        Assertions.assertArrayEquals(new byte[]{0x00, 0x02, 0x01, 0x08, 0x07, 0x06, 0x05, 0x04, 0x03, 0x02, 0x01}, Arrays.copyOf(littleEndianBytes, 11));
+        Assertions.assertArrayEquals(new byte[]{0x00, 0x01, 0x02, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08}, Arrays.copyOf(bigEndianBytes, 11));
+    }
+
+    @Test
+    public void testProducers() throws Exception {
+        // Every producer writes records of a length and 8 times its id, submitting after every record so records stay contiguous.
+        Path file = Files.createTempFile(this.directory, null, null);
+        int producers = 8;
+        int records = 1000;
+        try (AsyncFlusher flusher = new AsyncFlusher(FileChannel.open(file, StandardOpenOption.WRITE), SyncPolicy.BATCH, 0, TimeUnit.NANOSECONDS, 16, 64, Thread::new)) {
+            List<Thread> threads = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (int i = 0; i < producers; i++) {
+                int id = i;
+                Thread thread = new Thread(() -> {
+                    try (AsyncWriter writer = new AsyncWriter(Endianness.LITTLE_ENDIAN, flusher, 64)) {
+                        for (int j = 0; j < records; j++) {
+                            writer.writeInt(8);
+                            writer.writeLong(id);
+                            writer.submit();
+                        }
+                    } catch (Throwable t) {
+                        synchronized (failures) {
+                            failures.add(t);
+                        }
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            Assertions.assertEquals(new ArrayList<>(), failures);
+        }
+
+        int[] counts = new int[producers];
+        try (Reader reader = new ByteArrayReader(Endianness.LITTLE_ENDIAN, Files.readAllBytes(file))) {
+            for (int i = 0; i < producers * records; i++) {
+                Assertions.assertEquals(8, reader.readInt());
+                counts[(int) reader.readLong()]++;
+            }
+
+            Assertions.assertThrows(EOFException.class, reader::readUnsignedByte);
+        }
+
+        for (int count : counts) {
+            Assertions.assertEquals(records, count);
+        }
+    }
+
+    @Test
+    public void testSyncInterval() throws IOException, InterruptedException {
+        Path file = Files.createTempFile(this.directory, null, null);
+        try (AsyncFlusher flusher = new AsyncFlusher(FileChannel.open(file, StandardOpenOption.WRITE), SyncPolicy.INTERVAL, 10, TimeUnit.MILLISECONDS); AsyncWriter writer = new AsyncWriter(Endianness.BIG_ENDIAN, flusher)) {
+            writer.writeInt(0x01020304);
+            writer.flush();
+            Thread.sleep(20);
+            writer.writeInt(0x05060708);
+        }
+
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testFailure() throws IOException {
+        WritableByteChannel channel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        AsyncFlusher flusher = new AsyncFlusher(channel);
+        AsyncWriter writer = new AsyncWriter(Endianness.LITTLE_ENDIAN, flusher);
+        writer.writeInt(0);
+        IOException e = Assertions.assertThrows(IOException.class, writer::flush);
+        Assertions.assertEquals("disk full", e.getCause().getMessage());
+        Assertions.assertThrows(IOException.class, () -> {
+            writer.writeInt(0);
+            writer.submit();
+        });
+        Assertions.assertThrows(IOException.class, writer::close);
+        Assertions.assertThrows(EOFException.class, () -> writer.writeInt(0));
+        Assertions.assertThrows(IOException.class, flusher::close);
+    }
+
+    @Test
+    public void testUncheckedFailure() throws IOException {
+        WritableByteChannel channel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                throw new IllegalStateException("broken channel");
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        AsyncFlusher flusher = new AsyncFlusher(channel);
+        AsyncWriter writer = new AsyncWriter(Endianness.LITTLE_ENDIAN, flusher);
+        writer.writeInt(0);
+        IOException e = Assertions.assertThrows(IOException.class, writer::flush);
+        Assertions.assertEquals("broken channel", e.getCause().getMessage());
+        Assertions.assertThrows(IOException.class, writer::close);
+        Assertions.assertThrows(IOException.class, flusher::close);
+    }
+
+    @Test
+    public void testSubmitAfterClose() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        AsyncFlusher flusher = new AsyncFlusher(Channels.newChannel(stream));
+        AsyncWriter writer = new AsyncWriter(Endianness.LITTLE_ENDIAN, flusher, 64);
+        flusher.close();
+        writer.writeInt(0x01020304);
+        Assertions.assertThrows(IOException.class, writer::submit);
+        // The buffered bytes are kept when the flusher does not take the buffer.
+        Assertions.assertEquals(4, writer.buffer.position());
+        Assertions.assertEquals(writer.buffer.capacity(), writer.buffer.limit());
+        Assertions.assertThrows(IOException.class, writer::close);
+    }
+
+
+    @Test
+    public void testReuseBuffers() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        Set<ByteBuffer> buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+        try (AsyncFlusher flusher = new AsyncFlusher(Channels.newChannel(stream)); AsyncWriter writer = new AsyncWriter(Endianness.LITTLE_ENDIAN, flusher, 64)) {
+            for (int i = 0; i < 10; i++) {
+                buffers.add(writer.buffer);
+                writer.writeUnsignedByte(i);
+                writer.flush();
+                Assertions.assertEquals(0, writer.buffer.position());
+                Assertions.assertEquals(writer.buffer.capacity(), writer.buffer.limit());
+            }
+        }
+
+        // The flusher handed the written buffers back to the writer, instead of releasing them on its own thread.
+        Assertions.assertTrue(buffers.size() <= 2);
+        Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, stream.toByteArray());
+    }
+}
@@ -88,4 +88,65 @@ public class ByteArrayWriterTest {
         Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3}, littleEndianBytes);
         Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3}, bigEndianBytes);
     }
+
+    @Test
+    public void testReset() throws IOException {
+        byte[] littleEndianBytes = new byte[4];
+        byte[] bigEndianBytes = new byte[4];
+        try (ByteArrayWriter littleEndian = new ByteArrayWriter(Endianness.LITTLE_ENDIAN, new byte[1]); ByteArrayWriter bigEndian = new ByteArrayWriter(Endianness.BIG_ENDIAN, new byte[1])) {
+            littleEndian.writeUnsignedByte(0);
+            bigEndian.writeUnsignedByte(0);
+            littleEndian.reset(littleEndianBytes, 1, 2);
+            bigEndian.reset(bigEndianBytes, 1, 2);
+            Assertions.assertEquals(1, littleEndian.position());
+            Assertions.assertEquals(1, bigEndian.position());
+            littleEndian.writeUnsignedShort(0x0102);
+            bigEndian.writeUnsignedShort(0x0102);
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.writeUnsignedByte(0));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.writeUnsignedByte(0));
+        }
+
+        Assertions.assertArrayEquals(new byte[]{0x00, 0x02, 0x01, 0x00}, littleEndianBytes);
+        Assertions.assertArrayEquals(new byte[]{0x00, 0x01, 0x02, 0x00}, bigEndianBytes);
+    }
+
+    @Test
+    public void testEnsure() throws IOException {
+        byte[] littleEndianBytes = new byte[16];
+        byte[] bigEndianBytes = new byte[16];
+        try (ByteArrayWriter littleEndian = new ByteArrayWriter(Endianness.LITTLE_ENDIAN, littleEndianBytes, 1, 14); ByteArrayWriter bigEndian = new ByteArrayWriter(Endianness.BIG_ENDIAN, bigEndianBytes, 1, 14)) {
+            littleEndian.ensure(14);
+            bigEndian.ensure(14);
+            littleEndian.writeShortUnchecked((short) 0x0102);
+            bigEndian.writeShortUnchecked((short) 0x0102);
+            littleEndian.writeIntUnchecked(0x03040506);
+            bigEndian.writeIntUnchecked(0x03040506);
+            littleEndian.writeLongUnchecked(0x0708090A0B0C0D0EL);
+            bigEndian.writeLongUnchecked(0x0708090A0B0C0D0EL);
+            Assertions.assertEquals(15, littleEndian.position());
+            Assertions.assertEquals(15, bigEndian.position());
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.ensure(1));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.ensure(1));
+        }
+
+        Assertions.assertArrayEquals(new byte[]{0, 0x02, 0x01, 0x06, 0x05, 0x04, 0x03, 0x0E, 0x0D, 0x0C, 0x0B, 0x0A, 0x09, 0x08, 0x07, 0}, littleEndianBytes);
+        Assertions.assertArrayEquals(new byte[]{0, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0A, 0x0B, 0x0C, 0x0D, 0x0E, 0}, bigEndianBytes);
+    }
+
+    @Test
+    public void testWritePrimitives() throws IOException {
+        byte[] littleEndianBytes = new byte[13];
+        byte[] bigEndianBytes = new byte[13];
+        try (Writer littleEndian = new ByteArrayWriter(Endianness.LITTLE_ENDIAN, littleEndianBytes); Writer bigEndian = new ByteArrayWriter(Endianness.BIG_ENDIAN, bigEndianBytes)) {
+            littleEndian.writeFloat(1.0f);
+            bigEndian.writeFloat(1.0f);
+            littleEndian.writeDouble(1.0);
+            bigEndian.writeDouble(1.0);
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.writeChar('A'));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.writeChar('A'));
+        }
+
+        Assertions.assertArrayEquals(new byte[]{0x00, 0x00, (byte) 0x80, 0x3F, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xF0, 0x3F, 0x00}, littleEndianBytes);
+        Assertions.assertArrayEquals(new byte[]{0x3F, (byte) 0x80, 0x00, 0x00, 0x3F, (byte) 0xF0, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00}, bigEndianBytes);
+    }
 }
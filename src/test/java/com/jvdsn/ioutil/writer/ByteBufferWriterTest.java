@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ByteBufferWriterTest {
+    @Test
+    public void testPosition() throws IOException {
+        ByteBuffer littleEndianBuffer = ByteBuffer.allocate(3);
+        ByteBuffer bigEndianBuffer = ByteBuffer.allocateDirect(3);
+        littleEndianBuffer.position(1);
+        bigEndianBuffer.position(1);
+        try (ByteBufferWriter littleEndian = new ByteBufferWriter(Endianness.LITTLE_ENDIAN, littleEndianBuffer); ByteBufferWriter bigEndian = new ByteBufferWriter(Endianness.BIG_ENDIAN, bigEndianBuffer)) {
+            Assertions.assertEquals(1, littleEndian.position());
+            Assertions.assertEquals(1, bigEndian.position());
+            Assertions.assertEquals(2, littleEndian.remaining());
+            Assertions.assertEquals(2, bigEndian.remaining());
+            littleEndian.writeUnsignedByte(0x01);
+            bigEndian.writeUnsignedByte(0x01);
+            Assertions.assertEquals(2, littleEndian.position());
+            Assertions.assertEquals(2, bigEndian.position());
+        }
+
+        // The original buffers are left untouched.
+        Assertions.assertEquals(1, littleEndianBuffer.position());
+        Assertions.assertEquals(1, bigEndianBuffer.position());
+        Assertions.assertEquals(0x01, littleEndianBuffer.get(1));
+        Assertions.assertEquals(0x01, bigEndianBuffer.get(1));
+    }
+
+    @Test
+    public void testWriteInt() throws IOException {
+        ByteBuffer littleEndianBuffer = ByteBuffer.allocate(4);
+        ByteBuffer bigEndianBuffer = ByteBuffer.allocateDirect(4);
+        try (ByteBufferWriter littleEndian = new ByteBufferWriter(Endianness.LITTLE_ENDIAN, littleEndianBuffer); ByteBufferWriter bigEndian = new ByteBufferWriter(Endianness.BIG_ENDIAN, bigEndianBuffer)) {
+            littleEndian.writeInt(0x01020304);
+            bigEndian.writeInt(0x01020304);
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.writeUnsignedByte(0x05));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.writeUnsignedByte(0x05));
+        }
+
+        Assertions.assertEquals(0x04, littleEndianBuffer.get(0));
+        Assertions.assertEquals(0x01, bigEndianBuffer.get(0));
+    }
+
+    @Test
+    public void testWriteLong() throws IOException {
+        ByteBuffer littleEndianBuffer = ByteBuffer.allocate(8);
+        ByteBuffer bigEndianBuffer = ByteBuffer.allocateDirect(8);
+        try (ByteBufferWriter littleEndian = new ByteBufferWriter(Endianness.LITTLE_ENDIAN, littleEndianBuffer); ByteBufferWriter bigEndian = new ByteBufferWriter(Endianness.BIG_ENDIAN, bigEndianBuffer)) {
+            littleEndian.writeLong(0x0102030405060708L);
+            bigEndian.writeLong(0x0102030405060708L);
+        }
+
+        Assertions.assertEquals(0x08, littleEndianBuffer.get(0));
+        Assertions.assertEquals(0x01, bigEndianBuffer.get(0));
+    }
+
+    @Test
+    public void testWriteBytes() throws IOException {
+        ByteBuffer littleEndianBuffer = ByteBuffer.allocate(3);
+        ByteBuffer bigEndianBuffer = ByteBuffer.allocateDirect(3);
+        try (ByteBufferWriter littleEndian = new ByteBufferWriter(Endianness.LITTLE_ENDIAN, littleEndianBuffer); ByteBufferWriter bigEndian = new ByteBufferWriter(Endianness.BIG_ENDIAN, bigEndianBuffer)) {
+            littleEndian.writeBytes(new byte[]{0x01, 0x02, 0x03});
+            bigEndian.writeBytes(new byte[]{0x01, 0x02, 0x03});
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.writeBytes(new byte[]{0x04}));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.writeBytes(new byte[]{0x04}));
+        }
+
+        Assertions.assertEquals(0x03, littleEndianBuffer.get(2));
+        Assertions.assertEquals(0x03, bigEndianBuffer.get(2));
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        ByteBuffer first = ByteBuffer.allocate(2);
+        ByteBuffer second = ByteBuffer.allocate(2);
+        try (ByteBufferWriter writer = new ByteBufferWriter(Endianness.BIG_ENDIAN, first)) {
+            writer.writeShort((short) 0x0102);
+            writer.reset(second);
+            writer.writeShort((short) 0x0304);
+        }
+
+        Assertions.assertEquals(0x0102, first.getShort(0));
+        Assertions.assertEquals(0x0304, second.getShort(0));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ChannelWriterTest {
+    @TempDir
+    public Path directory;
+
+    private static byte[] sequence(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        return bytes;
+    }
+
+    private static ByteBuffer direct(byte... bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return buffer;
+    }
+
+    @Test
+    public void testWriteUnsignedByte() throws IOException {
+        ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+        try (Writer littleEndian = new ChannelWriter(Endianness.LITTLE_ENDIAN, Channels.newChannel(littleEndianStream)); Writer bigEndian = new ChannelWriter(Endianness.BIG_ENDIAN, Channels.newChannel(bigEndianStream))) {
+            littleEndian.writeUnsignedByte(0);
+            bigEndian.writeUnsignedByte(0);
+            littleEndian.writeUnsignedByte(127);
+            bigEndian.writeUnsignedByte(127);
+            littleEndian.writeUnsignedByte(128);
+            bigEndian.writeUnsignedByte(128);
+            littleEndian.writeUnsignedByte(255);
+            bigEndian.writeUnsignedByte(255);
+            // Nothing reaches the channel until the writer is flushed.
+            Assertions.assertEquals(0, littleEndianStream.size());
+            Assertions.assertEquals(0, bigEndianStream.size());
+        }
+
+        Assertions.assertArrayEquals(new byte[]{0x00, 0x7F, (byte) 0x80, (byte) 0xFF}, littleEndianStream.toByteArray());
+        Assertions.assertArrayEquals(new byte[]{0x00, 0x7F, (byte) 0x80, (byte) 0xFF}, bigEndianStream.toByteArray());
+    }
+
+    @Test
+    public void testWriteBytes() throws IOException {
+        // The buffers hold 64 bytes, so writing 200 bytes goes around them.
+        byte[] bytes = sequence(200);
+        ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+        try (Writer littleEndian = new ChannelWriter(Endianness.LITTLE_ENDIAN, Channels.newChannel(littleEndianStream), 64); Writer bigEndian = new ChannelWriter(Endianness.BIG_ENDIAN, Channels.newChannel(bigEndianStream), 64)) {
+            littleEndian.writeBytes(new byte[]{0, 0, 1, 0}, 1, 2);
+            bigEndian.writeBytes(new byte[]{0, 0, 1, 0}, 1, 2);
+            littleEndian.writeBytes(bytes);
+            bigEndian.writeBytes(bytes);
+            littleEndian.writeBytes(bytes, 0, 60);
+            bigEndian.writeBytes(bytes, 0, 60);
+            littleEndian.writeBytes(bytes, 0, 10);
+            bigEndian.writeBytes(bytes, 0, 10);
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(new byte[]{0, 1});
+        expected.write(bytes);
+        expected.write(bytes, 0, 60);
+        expected.write(bytes, 0, 10);
+        Assertions.assertArrayEquals(expected.toByteArray(), littleEndianStream.toByteArray());
+        Assertions.assertArrayEquals(expected.toByteArray(), bigEndianStream.toByteArray());
+    }
+
+    @Test
+    public void testWritePrimitives() throws IOException {
+        ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+        try (Writer littleEndian = new ChannelWriter(Endianness.LITTLE_ENDIAN, Channels.newChannel(littleEndianStream)); Writer bigEndian = new ChannelWriter(Endianness.BIG_ENDIAN, Channels.newChannel(bigEndianStream))) {
+            littleEndian.writeShort((short) 0x0102);
+            bigEndian.writeShort((short) 0x0102);
+            littleEndian.writeUnsignedInt(0x01020304L);
+            bigEndian.writeUnsignedInt(0x01020304L);
+            littleEndian.writeLong(0x0102030405060708L);
+            bigEndian.writeLong(0x0102030405060708L);
+        }
+
+        Assertions.assertArrayEquals(new byte[]{0x02, 0x01, 0x04, 0x03, 0x02, 0x01, 0x08, 0x07, 0x06, 0x05, 0x04, 0x03, 0x02, 0x01}, littleEndianStream.toByteArray());
+        Assertions.assertArrayEquals(new byte[]{0x01, 0x02, 0x01, 0x02, 0x03, 0x04, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08}, bigEndianStream.toByteArray());
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        Path littleEndianFile = Files.createTempFile(this.directory, null, null);
+        Path bigEndianFile = Files.createTempFile(this.directory, null, null);
+        try (ChannelWriter littleEndian = new ChannelWriter(Endianness.LITTLE_ENDIAN, FileChannel.open(littleEndianFile, StandardOpenOption.WRITE)); ChannelWriter bigEndian = new ChannelWriter(Endianness.BIG_ENDIAN, FileChannel.open(bigEndianFile, StandardOpenOption.WRITE))) {
+            littleEndian.writeUnsignedByte(0);
+            bigEndian.writeUnsignedByte(0);
+            littleEndian.write(ByteBuffer.wrap(new byte[]{1, 2}), direct((byte) 3, (byte) 4));
+            bigEndian.write(ByteBuffer.wrap(new byte[]{1, 2}), direct((byte) 3, (byte) 4));
+            // The buffered byte was written together with the byte buffers.
+            Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3, 4}, Files.readAllBytes(littleEndianFile));
+            Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3, 4}, Files.readAllBytes(bigEndianFile));
+            littleEndian.writeUnsignedByte(5);
+            bigEndian.writeUnsignedByte(5);
+            littleEndian.flush();
+            bigEndian.flush();
+            Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3, 4, 5}, Files.readAllBytes(littleEndianFile));
+            Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3, 4, 5}, Files.readAllBytes(bigEndianFile));
+        }
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        Writer writer = new ChannelWriter(Endianness.LITTLE_ENDIAN, Channels.newChannel(stream));
+        writer.writeUnsignedByte(0);
+        writer.close();
+        Assertions.assertArrayEquals(new byte[]{0}, stream.toByteArray());
+        Assertions.assertThrows(EOFException.class, () -> writer.writeUnsignedByte(1));
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+        try (ChannelWriter littleEndian = new ChannelWriter(Endianness.LITTLE_ENDIAN, Channels.newChannel(new ByteArrayOutputStream())); ChannelWriter bigEndian = new ChannelWriter(Endianness.BIG_ENDIAN, Channels.newChannel(new ByteArrayOutputStream()))) {
+            littleEndian.flush();
+            bigEndian.flush();
+            littleEndian.reset(Channels.newChannel(littleEndianStream));
+            bigEndian.reset(Channels.newChannel(bigEndianStream));
+            littleEndian.writeUnsignedShort(0x0102);
+            bigEndian.writeUnsignedShort(0x0102);
+        }
+
+        Assertions.assertArrayEquals(new byte[]{0x02, 0x01}, littleEndianStream.toByteArray());
+        Assertions.assertArrayEquals(new byte[]{0x01, 0x02}, bigEndianStream.toByteArray());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.checksum.Checksums;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.zip.Checksum;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ChecksumWriterTest {
+    private static long checksum(byte[] bytes, int start, int length) {
+        Checksum checksum = Checksums.crc32c();
+        checksum.update(bytes, start, length);
+        return checksum.getValue();
+    }
+
+    @Test
+    public void testChecksum() throws IOException {
+        ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+        try (ChecksumWriter littleEndian = new ChecksumWriter(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, littleEndianStream)); ChecksumWriter bigEndian = new ChecksumWriter(Endianness.BIG_ENDIAN, new OutputStreamWriter(Endianness.BIG_ENDIAN, bigEndianStream))) {
+            littleEndian.writeUnsignedByte(0x01);
+            bigEndian.writeUnsignedByte(0x01);
+            littleEndian.writeUnsignedShort(0x0203);
+            bigEndian.writeUnsignedShort(0x0203);
+            littleEndian.writeInt(0x04050607);
+            bigEndian.writeInt(0x04050607);
+            // The pending bytes are written before the bulk write.
+            littleEndian.writeBytes(new byte[300]);
+            bigEndian.writeBytes(new byte[300]);
+            for (int i = 0; i < 100; i++) {
+                littleEndian.writeDouble(i);
+                bigEndian.writeDouble(i);
+            }
+
+            long littleEndianChecksum = littleEndian.checksum();
+            long bigEndianChecksum = bigEndian.checksum();
+            Assertions.assertEquals(checksum(littleEndianStream.toByteArray(), 0, 1107), littleEndianChecksum);
+            Assertions.assertEquals(checksum(bigEndianStream.toByteArray(), 0, 1107), bigEndianChecksum);
+            byte[] littleEndianBytes = littleEndianStream.toByteArray();
+            byte[] bigEndianBytes = bigEndianStream.toByteArray();
+            Assertions.assertEquals(0x01, littleEndianBytes[0]);
+            Assertions.assertEquals(0x01, bigEndianBytes[0]);
+            Assertions.assertEquals(0x03, littleEndianBytes[1]);
+            Assertions.assertEquals(0x02, bigEndianBytes[1]);
+            Assertions.assertEquals(0x07, littleEndianBytes[3]);
+            Assertions.assertEquals(0x04, bigEndianBytes[3]);
+        }
+    }
+
+    @Test
+    public void testBlock() throws IOException {
+        byte[] bytes = new byte[12];
+        try (ChecksumWriter writer = new ChecksumWriter(Endianness.LITTLE_ENDIAN, new ByteArrayWriter(Endianness.LITTLE_ENDIAN, bytes))) {
+            writer.writeInt(0x01020304);
+            writer.resetChecksum();
+            writer.writeInt(0x05060708);
+            writer.writeUnsignedInt(writer.checksum());
+            writer.flush();
+            // The pending bytes only reach the end of the byte array when they are written.
+            writer.writeInt(0);
+            Assertions.assertThrows(EOFException.class, writer::flush);
+        }
+
+        long checksum = checksum(bytes, 4, 4);
+        Assertions.assertEquals((byte) checksum, bytes[8]);
+        Assertions.assertEquals((byte) (checksum >> 24), bytes[11]);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.reader.Reader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ChunkedWriterTest {
+    @Test
+    public void testWriteUnsignedByte() throws IOException {
+        try (ChunkedWriter littleEndian = new ChunkedWriter(Endianness.LITTLE_ENDIAN); ChunkedWriter bigEndian = new ChunkedWriter(Endianness.BIG_ENDIAN)) {
+            littleEndian.writeUnsignedByte(0);
+            bigEndian.writeUnsignedByte(0);
+            littleEndian.writeUnsignedByte(127);
+            bigEndian.writeUnsignedByte(127);
+            littleEndian.writeUnsignedByte(128);
+            bigEndian.writeUnsignedByte(128);
+            littleEndian.writeUnsignedByte(255);
+            bigEndian.writeUnsignedByte(255);
+            Assertions.assertArrayEquals(new byte[]{0x00, 0x7F, (byte) 0x80, (byte) 0xFF}, littleEndian.toByteArray());
+            Assertions.assertArrayEquals(new byte[]{0x00, 0x7F, (byte) 0x80, (byte) 0xFF}, bigEndian.toByteArray());
+        }
+    }
+
+    @Test
+    public void testWriteBytes() throws IOException {
+        byte[] bytes = new byte[200];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        try (ChunkedWriter littleEndian = new ChunkedWriter(Endianness.LITTLE_ENDIAN, 64); ChunkedWriter bigEndian = new ChunkedWriter(Endianness.BIG_ENDIAN, 64)) {
+            littleEndian.writeBytes(bytes, 0, 100);
+            bigEndian.writeBytes(bytes, 0, 100);
+            littleEndian.writeBytes(bytes, 100, 100);
+            bigEndian.writeBytes(bytes, 100, 100);
+            Assertions.assertEquals(200, littleEndian.size());
+            Assertions.assertEquals(200, bigEndian.size());
+            Assertions.assertArrayEquals(bytes, littleEndian.toByteArray());
+            Assertions.assertArrayEquals(bytes, bigEndian.toByteArray());
+        }
+    }
+
+    @Test
+    public void testToByteBuffers() throws IOException {
+        try (ChunkedWriter littleEndian = new ChunkedWriter(Endianness.LITTLE_ENDIAN, 64); ChunkedWriter bigEndian = new ChunkedWriter(Endianness.BIG_ENDIAN, 64)) {
+            littleEndian.writeBytes(new byte[100]);
+            bigEndian.writeBytes(new byte[100]);
+            ByteBuffer[] littleEndianBuffers = littleEndian.toByteBuffers();
+            ByteBuffer[] bigEndianBuffers = bigEndian.toByteBuffers();
+            Assertions.assertEquals(2, littleEndianBuffers.length);
+            Assertions.assertEquals(2, bigEndianBuffers.length);
+            Assertions.assertEquals(64, littleEndianBuffers[0].remaining());
+            Assertions.assertEquals(64, bigEndianBuffers[0].remaining());
+            Assertions.assertEquals(36, littleEndianBuffers[1].remaining());
+            Assertions.assertEquals(36, bigEndianBuffers[1].remaining());
+        }
+    }
+
+    @Test
+    public void testToReader() throws IOException {
+        try (ChunkedWriter littleEndian = new ChunkedWriter(Endianness.LITTLE_ENDIAN, 64); ChunkedWriter bigEndian = new ChunkedWriter(Endianness.BIG_ENDIAN, 64)) {
+            littleEndian.writeBytes(new byte[62]);
+            bigEndian.writeBytes(new byte[62]);
+            // This int spans two chunks.
+            littleEndian.writeInt(0x01020304);
+            bigEndian.writeInt(0x01020304);
+            littleEndian.writeUnsignedLEB128(624485);
+            bigEndian.writeUnsignedLEB128(624485);
+            try (Reader littleEndianReader = littleEndian.toReader(); Reader bigEndianReader = bigEndian.toReader()) {
+                littleEndianReader.skip(62);
+                bigEndianReader.skip(62);
+                Assertions.assertEquals(0x01020304, littleEndianReader.readInt());
+                Assertions.assertEquals(0x01020304, bigEndianReader.readInt());
+                Assertions.assertEquals(624485, littleEndianReader.readUnsignedLEB128());
+                Assertions.assertEquals(624485, bigEndianReader.readUnsignedLEB128());
+                Assertions.assertThrows(EOFException.class, littleEndianReader::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndianReader::readUnsignedByte);
+            }
+        }
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        try (ChunkedWriter littleEndian = new ChunkedWriter(Endianness.LITTLE_ENDIAN); ChunkedWriter bigEndian = new ChunkedWriter(Endianness.BIG_ENDIAN)) {
+            littleEndian.writeInt(1);
+            bigEndian.writeInt(1);
+            littleEndian.close();
+            bigEndian.close();
+            Assertions.assertThrows(EOFException.class, () -> littleEndian.writeUnsignedByte(0));
+            Assertions.assertThrows(EOFException.class, () -> bigEndian.writeUnsignedByte(0));
+            littleEndian.reset();
+            bigEndian.reset();
+            Assertions.assertEquals(0, littleEndian.size());
+            Assertions.assertEquals(0, bigEndian.size());
+            Assertions.assertEquals(0, littleEndian.toByteBuffers().length);
+            Assertions.assertEquals(0, bigEndian.toByteBuffers().length);
+            littleEndian.writeShort((short) 0x0102);
+            bigEndian.writeShort((short) 0x0102);
+            Assertions.assertArrayEquals(new byte[]{0x02, 0x01}, littleEndian.toByteArray());
+            Assertions.assertArrayEquals(new byte[]{0x01, 0x02}, bigEndian.toByteArray());
+        }
+    }
+}
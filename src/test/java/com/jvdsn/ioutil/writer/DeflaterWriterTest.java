@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.compress.DeflateFormat;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class DeflaterWriterTest {
+    private static byte[] decompress(DeflateFormat format, byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (InputStream inflaterStream = format == DeflateFormat.GZIP ? new GZIPInputStream(new ByteArrayInputStream(bytes)) : new InflaterInputStream(new ByteArrayInputStream(bytes), new Inflater(format.nowrap()))) {
+            byte[] buffer = new byte[256];
+            int n;
+            while ((n = inflaterStream.read(buffer)) > 0) {
+                outputStream.write(buffer, 0, n);
+            }
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void testWritePrimitives() throws IOException {
+        for (DeflateFormat format : DeflateFormat.values()) {
+            ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+            ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+            try (Writer littleEndian = new DeflaterWriter(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, littleEndianStream), format); Writer bigEndian = new DeflaterWriter(Endianness.BIG_ENDIAN, new OutputStreamWriter(Endianness.BIG_ENDIAN, bigEndianStream), format)) {
+                littleEndian.writeUnsignedByte(0x01);
+                bigEndian.writeUnsignedByte(0x01);
+                littleEndian.writeUnsignedShort(0x0203);
+                bigEndian.writeUnsignedShort(0x0203);
+                littleEndian.writeInt(0x04050607);
+                bigEndian.writeInt(0x04050607);
+            }
+
+            Assertions.assertArrayEquals(new byte[]{0x01, 0x03, 0x02, 0x07, 0x06, 0x05, 0x04}, decompress(format, littleEndianStream.toByteArray()));
+            Assertions.assertArrayEquals(new byte[]{0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07}, decompress(format, bigEndianStream.toByteArray()));
+        }
+    }
+
+    @Test
+    public void testWriteBytes() throws IOException {
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 7);
+        }
+
+        for (DeflateFormat format : DeflateFormat.values()) {
+            ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+            ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+            try (Writer littleEndian = new DeflaterWriter(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, littleEndianStream), format, 9, Deflater.FILTERED, 64); Writer bigEndian = new DeflaterWriter(Endianness.BIG_ENDIAN, new OutputStreamWriter(Endianness.BIG_ENDIAN, bigEndianStream), format, 9, Deflater.FILTERED, 64)) {
+                littleEndian.writeBytes(bytes, 0, 10);
+                bigEndian.writeBytes(bytes, 0, 10);
+                // Larger than the buffer, compressed from the array directly.
+                littleEndian.writeBytes(bytes, 10, 990);
+                bigEndian.writeBytes(bytes, 10, 990);
+            }
+
+            Assertions.assertArrayEquals(bytes, decompress(format, littleEndianStream.toByteArray()));
+            Assertions.assertArrayEquals(bytes, decompress(format, bigEndianStream.toByteArray()));
+            Assertions.assertTrue(littleEndianStream.size() < 100);
+        }
+    }
+
+    @Test
+    public void testFlush() throws IOException, DataFormatException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (Writer writer = new DeflaterWriter(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, stream), DeflateFormat.RAW)) {
+            writer.writeInt(0x04050607);
+            Assertions.assertEquals(0, stream.size());
+            writer.flush();
+            // Everything written before the sync flush can be decompressed.
+            Inflater inflater = new Inflater(true);
+            inflater.setInput(stream.toByteArray());
+            byte[] bytes = new byte[4];
+            Assertions.assertEquals(4, inflater.inflate(bytes));
+            Assertions.assertArrayEquals(new byte[]{0x07, 0x06, 0x05, 0x04}, bytes);
+            inflater.end();
+        }
+    }
+
+    @Test
+    public void testFinish() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (DeflaterWriter writer = new DeflaterWriter(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, stream), DeflateFormat.GZIP)) {
+            writer.writeInt(0x04050607);
+            writer.finish();
+            writer.finish();
+            Assertions.assertArrayEquals(new byte[]{0x07, 0x06, 0x05, 0x04}, decompress(DeflateFormat.GZIP, stream.toByteArray()));
+            Assertions.assertThrows(IOException.class, () -> writer.writeInt(0));
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new DeflaterWriter(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, stream), DeflateFormat.ZLIB, 10, Deflater.DEFAULT_STRATEGY, 64));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.compress.LZ4Decompressor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class LZ4WriterTest {
+    private static byte[] decompress(byte[] bytes) throws IOException {
+        ByteBuffer compressed = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        while (true) {
+            int compressedLength = compressed.getInt();
+            int length = compressed.getInt();
+            if (length == 0) {
+                Assertions.assertFalse(compressed.hasRemaining());
+                return outputStream.toByteArray();
+            }
+
+            byte[] block = new byte[length];
+            if (compressedLength == length) {
+                compressed.get(block);
+            } else {
+                Assertions.assertEquals(length, LZ4Decompressor.decompress(bytes, compressed.position(), compressedLength, block, 0, length));
+                compressed.position(compressed.position() + compressedLength);
+            }
+
+            outputStream.write(block);
+        }
+    }
+
+    @Test
+    public void testWritePrimitives() throws IOException {
+        ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+        try (Writer littleEndian = new LZ4Writer(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, littleEndianStream)); Writer bigEndian = new LZ4Writer(Endianness.BIG_ENDIAN, new OutputStreamWriter(Endianness.BIG_ENDIAN, bigEndianStream))) {
+            littleEndian.writeUnsignedByte(0x01);
+            bigEndian.writeUnsignedByte(0x01);
+            littleEndian.writeUnsignedShort(0x0203);
+            bigEndian.writeUnsignedShort(0x0203);
+            littleEndian.writeInt(0x04050607);
+            bigEndian.writeInt(0x04050607);
+        }
+
+        // Too short to compress, so stored uncompressed.
+        Assertions.assertArrayEquals(new byte[]{7, 0, 0, 0, 7, 0, 0, 0, 0x01, 0x03, 0x02, 0x07, 0x06, 0x05, 0x04, 0, 0, 0, 0, 0, 0, 0, 0}, littleEndianStream.toByteArray());
+        Assertions.assertArrayEquals(new byte[]{7, 0, 0, 0, 7, 0, 0, 0, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0, 0, 0, 0, 0, 0, 0, 0}, bigEndianStream.toByteArray());
+    }
+
+    @Test
+    public void testWriteBytes() throws IOException {
+        byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 7);
+        }
+
+        ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+        try (Writer littleEndian = new LZ4Writer(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, littleEndianStream), 64); Writer bigEndian = new LZ4Writer(Endianness.BIG_ENDIAN, new OutputStreamWriter(Endianness.BIG_ENDIAN, bigEndianStream), 64)) {
+            littleEndian.writeBytes(bytes, 0, 10);
+            bigEndian.writeBytes(bytes, 0, 10);
+            // Larger than a block, compressed from the array directly.
+            littleEndian.writeBytes(bytes, 10, 990);
+            bigEndian.writeBytes(bytes, 10, 990);
+            for (int i = 0; i < 100; i++) {
+                littleEndian.writeLong(i);
+                bigEndian.writeLong(i);
+            }
+        }
+
+        byte[] littleEndianBytes = decompress(littleEndianStream.toByteArray());
+        byte[] bigEndianBytes = decompress(bigEndianStream.toByteArray());
+        Assertions.assertEquals(1800, littleEndianBytes.length);
+        Assertions.assertEquals(1800, bigEndianBytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            Assertions.assertEquals(bytes[i], littleEndianBytes[i]);
+            Assertions.assertEquals(bytes[i], bigEndianBytes[i]);
+        }
+
+        ByteBuffer littleEndianLongs = ByteBuffer.wrap(littleEndianBytes, 1000, 800).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer bigEndianLongs = ByteBuffer.wrap(bigEndianBytes, 1000, 800).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(i, littleEndianLongs.getLong());
+            Assertions.assertEquals(i, bigEndianLongs.getLong());
+        }
+
+        Assertions.assertTrue(littleEndianStream.size() < 1000);
+    }
+
+    @Test
+    public void testFinish() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (LZ4Writer writer = new LZ4Writer(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, stream))) {
+            writer.writeInt(0x04050607);
+            writer.flush();
+            Assertions.assertEquals(12, stream.size());
+            writer.finish();
+            writer.finish();
+            Assertions.assertArrayEquals(new byte[]{0x07, 0x06, 0x05, 0x04}, decompress(stream.toByteArray()));
+            Assertions.assertThrows(IOException.class, () -> writer.writeInt(0));
+        }
+
+        Assertions.assertEquals(20, stream.size());
+    }
+}
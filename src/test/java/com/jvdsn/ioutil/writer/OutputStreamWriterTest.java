@@ -54,4 +54,21 @@ public class OutputStreamWriterTest {
         Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3}, littleEndianStream.toByteArray());
         Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3}, bigEndianStream.toByteArray());
     }
+
+    @Test
+    public void testReset() throws IOException {
+        ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+        try (OutputStreamWriter littleEndian = new OutputStreamWriter(Endianness.LITTLE_ENDIAN, new ByteArrayOutputStream()); OutputStreamWriter bigEndian = new OutputStreamWriter(Endianness.BIG_ENDIAN, new ByteArrayOutputStream())) {
+            littleEndian.writeUnsignedByte(0);
+            bigEndian.writeUnsignedByte(0);
+            littleEndian.reset(littleEndianStream);
+            bigEndian.reset(bigEndianStream);
+            littleEndian.writeUnsignedShort(0x0102);
+            bigEndian.writeUnsignedShort(0x0102);
+        }
+
+        Assertions.assertArrayEquals(new byte[]{0x02, 0x01}, littleEndianStream.toByteArray());
+        Assertions.assertArrayEquals(new byte[]{0x01, 0x02}, bigEndianStream.toByteArray());
+    }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.compress.LZ4Compressor;
+import com.jvdsn.ioutil.pool.BufferPool;
+import com.jvdsn.ioutil.reader.ByteArrayReader;
+import com.jvdsn.ioutil.reader.LZ4Reader;
+import com.jvdsn.ioutil.reader.Reader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class ParallelLZ4WriterTest {
+    @Test
+    public void testWrite() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ByteArrayOutputStream littleEndianStream = new ByteArrayOutputStream();
+            ByteArrayOutputStream bigEndianStream = new ByteArrayOutputStream();
+            // Blocks of 100 bytes, so some longs span two blocks.
+            try (Writer littleEndian = new ParallelLZ4Writer(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, littleEndianStream), pool, 100, 2); Writer bigEndian = new ParallelLZ4Writer(Endianness.BIG_ENDIAN, new OutputStreamWriter(Endianness.BIG_ENDIAN, bigEndianStream), pool, 100, 2)) {
+                for (int i = 0; i < 1000; i++) {
+                    littleEndian.writeUnsignedByte(i);
+                    bigEndian.writeUnsignedByte(i);
+                    littleEndian.writeLong(i);
+                    bigEndian.writeLong(i);
+                }
+            }
+
+            // The blocks can be read by an LZ4 reader, which ignores the index.
+            try (Reader littleEndian = new LZ4Reader(Endianness.LITTLE_ENDIAN, new ByteArrayReader(Endianness.LITTLE_ENDIAN, littleEndianStream.toByteArray())); Reader bigEndian = new LZ4Reader(Endianness.BIG_ENDIAN, new ByteArrayReader(Endianness.BIG_ENDIAN, bigEndianStream.toByteArray()))) {
+                for (int i = 0; i < 1000; i++) {
+                    Assertions.assertEquals(i & 0xFF, littleEndian.readUnsignedByte());
+                    Assertions.assertEquals(i & 0xFF, bigEndian.readUnsignedByte());
+                    Assertions.assertEquals(i, littleEndian.readLong());
+                    Assertions.assertEquals(i, bigEndian.readLong());
+                }
+
+                Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+            }
+
+            byte[] bytes = littleEndianStream.toByteArray();
+            ByteBuffer footer = ByteBuffer.wrap(bytes, bytes.length - ParallelLZ4Writer.FOOTER_SIZE, ParallelLZ4Writer.FOOTER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            Assertions.assertEquals(90, footer.getInt());
+            Assertions.assertEquals(100, footer.getInt());
+            Assertions.assertEquals(9000, footer.getLong());
+            Assertions.assertEquals(ParallelLZ4Writer.INDEX_MAGIC, footer.getInt());
+            // The first block starts at the start, the second after the first.
+            ByteBuffer index = ByteBuffer.wrap(bytes, bytes.length - ParallelLZ4Writer.FOOTER_SIZE - 90 * 8, 16).order(ByteOrder.LITTLE_ENDIAN);
+            Assertions.assertEquals(0, index.getLong());
+            Assertions.assertEquals(8 + ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt(0), index.getLong());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFlush() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (ParallelLZ4Writer writer = new ParallelLZ4Writer(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, stream), ForkJoinPool.commonPool(), 16, 4)) {
+            writer.writeBytes(new byte[20]);
+            writer.flush();
+            // Only the complete block is written.
+            Assertions.assertEquals(8 + ByteBuffer.wrap(stream.toByteArray()).order(ByteOrder.LITTLE_ENDIAN).getInt(0), stream.size());
+            writer.finish();
+            writer.finish();
+            Assertions.assertThrows(IOException.class, () -> writer.writeInt(0));
+            Assertions.assertThrows(IOException.class, () -> writer.writeBytes(new byte[1]));
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelLZ4Writer(Endianness.LITTLE_ENDIAN, new OutputStreamWriter(Endianness.LITTLE_ENDIAN, stream), ForkJoinPool.commonPool(), 0, 4));
+    }
+
+
+    @Test
+    public void testDefaultBlockSize() {
+        // The block and its compressed output have to be small enough to be pooled.
+        Assertions.assertTrue(8 + LZ4Compressor.maxCompressedLength(ParallelLZ4Writer.DEFAULT_BLOCK_SIZE) <= BufferPool.DEFAULT_MAX_BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import com.jvdsn.ioutil.reader.Reader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class SpillingWriterTest {
+    @TempDir
+    public Path directory;
+
+    private long files() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    public void testInMemory() throws IOException {
+        try (SpillingWriter littleEndian = new SpillingWriter(Endianness.LITTLE_ENDIAN, 8, this.directory); SpillingWriter bigEndian = new SpillingWriter(Endianness.BIG_ENDIAN, 8, this.directory)) {
+            littleEndian.writeInt(0x01020304);
+            bigEndian.writeInt(0x01020304);
+            littleEndian.writeBytes(new byte[]{5, 6, 7, 8});
+            bigEndian.writeBytes(new byte[]{5, 6, 7, 8});
+            Assertions.assertEquals(8, littleEndian.size());
+            Assertions.assertEquals(8, bigEndian.size());
+            Assertions.assertFalse(littleEndian.isSpilled());
+            Assertions.assertFalse(bigEndian.isSpilled());
+            Assertions.assertEquals(0, this.files());
+            try (Reader littleEndianReader = littleEndian.toReader(); Reader bigEndianReader = bigEndian.toReader()) {
+                Assertions.assertEquals(0x01020304, littleEndianReader.readInt());
+                Assertions.assertEquals(0x01020304, bigEndianReader.readInt());
+                Assertions.assertArrayEquals(new byte[]{5, 6, 7, 8}, littleEndianReader.readBytes(new byte[4]));
+                Assertions.assertArrayEquals(new byte[]{5, 6, 7, 8}, bigEndianReader.readBytes(new byte[4]));
+                Assertions.assertThrows(EOFException.class, littleEndianReader::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndianReader::readUnsignedByte);
+            }
+        }
+    }
+
+    @Test
+    public void testSpill() throws IOException {
+        try (SpillingWriter littleEndian = new SpillingWriter(Endianness.LITTLE_ENDIAN, 8, this.directory); SpillingWriter bigEndian = new SpillingWriter(Endianness.BIG_ENDIAN, 8, this.directory)) {
+            littleEndian.writeInt(0x01020304);
+            bigEndian.writeInt(0x01020304);
+            littleEndian.writeLong(0x0102030405060708L);
+            bigEndian.writeLong(0x0102030405060708L);
+            littleEndian.writeUnsignedByte(9);
+            bigEndian.writeUnsignedByte(9);
+            Assertions.assertEquals(13, littleEndian.size());
+            Assertions.assertEquals(13, bigEndian.size());
+            Assertions.assertTrue(littleEndian.isSpilled());
+            Assertions.assertTrue(bigEndian.isSpilled());
+            Assertions.assertEquals(2, this.files());
+            try (Reader littleEndianReader = littleEndian.toReader(); Reader bigEndianReader = bigEndian.toReader()) {
+                Assertions.assertEquals(0x01020304, littleEndianReader.readInt());
+                Assertions.assertEquals(0x01020304, bigEndianReader.readInt());
+                Assertions.assertEquals(0x0102030405060708L, littleEndianReader.readLong());
+                Assertions.assertEquals(0x0102030405060708L, bigEndianReader.readLong());
+                Assertions.assertEquals(9, littleEndianReader.readUnsignedByte());
+                Assertions.assertEquals(9, bigEndianReader.readUnsignedByte());
+                Assertions.assertThrows(EOFException.class, littleEndianReader::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndianReader::readUnsignedByte);
+            }
+        }
+
+        // Closing the readers deleted the files.
+        Assertions.assertEquals(0, this.files());
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        SpillingWriter writer = new SpillingWriter(Endianness.LITTLE_ENDIAN, 0, this.directory);
+        writer.writeUnsignedByte(0);
+        Assertions.assertEquals(1, this.files());
+        writer.close();
+        Assertions.assertEquals(0, this.files());
+        Assertions.assertThrows(EOFException.class, () -> writer.writeUnsignedByte(0));
+        Assertions.assertThrows(EOFException.class, writer::toReader);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.reader;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class MemorySegmentReaderTest {
+    private static MemorySegment allocate(Arena arena, byte... bytes) {
+        MemorySegment segment = arena.allocate(bytes.length);
+        MemorySegment.copy(MemorySegment.ofArray(bytes), 0, segment, 0, bytes.length);
+        return segment;
+    }
+
+    @Test
+    public void testReadUnsignedByte() throws IOException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = allocate(arena, (byte) 0x00, (byte) 0x7F, (byte) 0x80, (byte) 0xFF);
+            try (Reader littleEndian = new MemorySegmentReader(Endianness.LITTLE_ENDIAN, segment); Reader bigEndian = new MemorySegmentReader(Endianness.BIG_ENDIAN, segment)) {
+                Assertions.assertEquals(0, littleEndian.readUnsignedByte());
+                Assertions.assertEquals(0, bigEndian.readUnsignedByte());
+                Assertions.assertEquals(127, littleEndian.readUnsignedByte());
+                Assertions.assertEquals(127, bigEndian.readUnsignedByte());
+                Assertions.assertEquals(128, littleEndian.readUnsignedByte());
+                Assertions.assertEquals(128, bigEndian.readUnsignedByte());
+                Assertions.assertEquals(255, littleEndian.readUnsignedByte());
+                Assertions.assertEquals(255, bigEndian.readUnsignedByte());
+                Assertions.assertThrows(EOFException.class, littleEndian::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndian::readUnsignedByte);
+            }
+        }
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = allocate(arena, (byte) 0, (byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 5, (byte) 6);
+            try (Reader littleEndian = new MemorySegmentReader(Endianness.LITTLE_ENDIAN, segment); Reader bigEndian = new MemorySegmentReader(Endianness.BIG_ENDIAN, segment)) {
+                Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, littleEndian.readBytes(new byte[4], 1, 2));
+                Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, bigEndian.readBytes(new byte[4], 1, 2));
+                Assertions.assertArrayEquals(new byte[]{2, 3, 4, 5}, littleEndian.readBytes(new byte[4]));
+                Assertions.assertArrayEquals(new byte[]{2, 3, 4, 5}, bigEndian.readBytes(new byte[4]));
+                Assertions.assertThrows(EOFException.class, () -> littleEndian.readBytes(new byte[2]));
+                Assertions.assertThrows(EOFException.class, () -> bigEndian.readBytes(new byte[2]));
+            }
+        }
+    }
+
+    @Test
+    public void testReadInt() throws IOException {
+        try (Arena arena = Arena.ofShared()) {
+            MemorySegment segment = allocate(arena, (byte) 0x01, (byte) 0x02, (byte) 0x03, (byte) 0x04);
+            try (Reader littleEndian = new MemorySegmentReader(Endianness.LITTLE_ENDIAN, segment); Reader bigEndian = new MemorySegmentReader(Endianness.BIG_ENDIAN, segment)) {
+                Assertions.assertEquals(0x04030201, littleEndian.readInt());
+                Assertions.assertEquals(0x01020304, bigEndian.readInt());
+                Assertions.assertThrows(EOFException.class, littleEndian::readInt);
+                Assertions.assertThrows(EOFException.class, bigEndian::readInt);
+            }
+        }
+    }
+
+    @Test
+    public void testReadAt() throws IOException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = allocate(arena, (byte) 0, (byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 5, (byte) 6, (byte) 7, (byte) 8);
+            try (MemorySegmentReader littleEndian = new MemorySegmentReader(Endianness.LITTLE_ENDIAN, segment); MemorySegmentReader bigEndian = new MemorySegmentReader(Endianness.BIG_ENDIAN, segment)) {
+                Assertions.assertEquals(0x0807060504030201L, littleEndian.readLongAt(1));
+                Assertions.assertEquals(0x0102030405060708L, bigEndian.readLongAt(1));
+                Assertions.assertEquals(0x0304, littleEndian.readShortAt(3));
+                Assertions.assertEquals(0x0304, bigEndian.readShortAt(3));
+                Assertions.assertEquals(0, littleEndian.position());
+                Assertions.assertEquals(0, bigEndian.position());
+                Assertions.assertThrows(EOFException.class, () -> littleEndian.readIntAt(6));
+                Assertions.assertThrows(EOFException.class, () -> bigEndian.readIntAt(6));
+                Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.readUnsignedByteAt(-1));
+                Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.readUnsignedByteAt(-1));
+            }
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = allocate(arena, (byte) 0, (byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 5, (byte) 6);
+            try (MemorySegmentReader littleEndian = new MemorySegmentReader(Endianness.LITTLE_ENDIAN, segment); MemorySegmentReader bigEndian = new MemorySegmentReader(Endianness.BIG_ENDIAN, segment)) {
+                littleEndian.seek(6);
+                bigEndian.seek(6);
+                Assertions.assertEquals(1, littleEndian.remaining());
+                Assertions.assertEquals(1, bigEndian.remaining());
+                Assertions.assertEquals(6, littleEndian.readUnsignedByte());
+                Assertions.assertEquals(6, bigEndian.readUnsignedByte());
+                Assertions.assertThrows(IllegalArgumentException.class, () -> littleEndian.seek(-1));
+                Assertions.assertThrows(IllegalArgumentException.class, () -> bigEndian.seek(-1));
+                Assertions.assertThrows(EOFException.class, () -> littleEndian.seek(8));
+                Assertions.assertThrows(EOFException.class, () -> bigEndian.seek(8));
+            }
+        }
+    }
+
+    @Test
+    public void testSlice() throws IOException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = allocate(arena, (byte) 0, (byte) 1, (byte) 2, (byte) 3, (byte) 4);
+            try (MemorySegmentReader littleEndian = new MemorySegmentReader(Endianness.LITTLE_ENDIAN, segment); MemorySegmentReader bigEndian = new MemorySegmentReader(Endianness.BIG_ENDIAN, segment)) {
+                littleEndian.skip(1);
+                bigEndian.skip(1);
+                MemorySegmentReader littleEndianSlice = littleEndian.slice(2);
+                MemorySegmentReader bigEndianSlice = bigEndian.slice(2);
+                Assertions.assertEquals(0x0201, littleEndianSlice.readUnsignedShort());
+                Assertions.assertEquals(0x0102, bigEndianSlice.readUnsignedShort());
+                Assertions.assertThrows(EOFException.class, littleEndianSlice::readUnsignedByte);
+                Assertions.assertThrows(EOFException.class, bigEndianSlice::readUnsignedByte);
+                Assertions.assertEquals(3, littleEndian.readUnsignedByte());
+                Assertions.assertEquals(3, bigEndian.readUnsignedByte());
+                Assertions.assertThrows(EOFException.class, () -> littleEndian.slice(2));
+                Assertions.assertThrows(EOFException.class, () -> bigEndian.slice(2));
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Joachim Vandersmissen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.jvdsn.ioutil.writer;
+
+import com.jvdsn.ioutil.Endianness;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * @author Joachim Vandersmissen
+ */
+public class MemorySegmentWriterTest {
+    @Test
+    public void testPosition() throws IOException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment littleEndianSegment = arena.allocate(3);
+            MemorySegment bigEndianSegment = arena.allocate(3);
+            try (MemorySegmentWriter littleEndian = new MemorySegmentWriter(Endianness.LITTLE_ENDIAN, littleEndianSegment); MemorySegmentWriter bigEndian = new MemorySegmentWriter(Endianness.BIG_ENDIAN, bigEndianSegment)) {
+                Assertions.assertEquals(0, littleEndian.position());
+                Assertions.assertEquals(0, bigEndian.position());
+                Assertions.assertEquals(3, littleEndian.remaining());
+                Assertions.assertEquals(3, bigEndian.remaining());
+                littleEndian.writeUnsignedByte(0x01);
+                bigEndian.writeUnsignedByte(0x01);
+                Assertions.assertEquals(1, littleEndian.position());
+                Assertions.assertEquals(1, bigEndian.position());
+                Assertions.assertThrows(EOFException.class, () -> littleEndian.writeInt(0));
+                Assertions.assertThrows(EOFException.class, () -> bigEndian.writeInt(0));
+                Assertions.assertEquals(0, littleEndian.remaining());
+                Assertions.assertEquals(0, bigEndian.remaining());
+            }
+
+            Assertions.assertEquals(0x01, littleEndianSegment.get(ValueLayout.JAVA_BYTE, 0));
+            Assertions.assertEquals(0x01, bigEndianSegment.get(ValueLayout.JAVA_BYTE, 0));
+        }
+    }
+
+    @Test
+    public void testWriteInt() throws IOException {
+        try (Arena arena = Arena.ofShared()) {
+            MemorySegment littleEndianSegment = arena.allocate(4);
+            MemorySegment bigEndianSegment = arena.allocate(4);
+            try (MemorySegmentWriter littleEndian = new MemorySegmentWriter(Endianness.LITTLE_ENDIAN, littleEndianSegment); MemorySegmentWriter bigEndian = new MemorySegmentWriter(Endianness.BIG_ENDIAN, bigEndianSegment)) {
+                littleEndian.writeInt(0x01020304);
+                bigEndian.writeInt(0x01020304);
+                Assertions.assertThrows(EOFException.class, () -> littleEndian.writeUnsignedByte(0x05));
+                Assertions.assertThrows(EOFException.class, () -> bigEndian.writeUnsignedByte(0x05));
+            }
+
+            Assertions.assertArrayEquals(new byte[]{0x04, 0x03, 0x02, 0x01}, littleEndianSegment.toArray(ValueLayout.JAVA_BYTE));
+            Assertions.assertArrayEquals(new byte[]{0x01, 0x02, 0x03, 0x04}, bigEndianSegment.toArray(ValueLayout.JAVA_BYTE));
+        }
+    }
+
+    @Test
+    public void testWriteBytes() throws IOException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment littleEndianSegment = arena.allocate(4);
+            MemorySegment bigEndianSegment = arena.allocate(4);
+            try (MemorySegmentWriter littleEndian = new MemorySegmentWriter(Endianness.LITTLE_ENDIAN, littleEndianSegment); MemorySegmentWriter bigEndian = new MemorySegmentWriter(Endianness.BIG_ENDIAN, bigEndianSegment)) {
+                littleEndian.writeBytes(new byte[]{0, 1, 2, 3}, 1, 3);
+                bigEndian.writeBytes(new byte[]{0, 1, 2, 3}, 1, 3);
+                Assertions.assertThrows(EOFException.class, () -> littleEndian.writeBytes(new byte[2]));
+                Assertions.assertThrows(EOFException.class, () -> bigEndian.writeBytes(new byte[2]));
+            }
+
+            Assertions.assertArrayEquals(new byte[]{1, 2, 3, 0}, littleEndianSegment.toArray(ValueLayout.JAVA_BYTE));
+            Assertions.assertArrayEquals(new byte[]{1, 2, 3, 0}, bigEndianSegment.toArray(ValueLayout.JAVA_BYTE));
+        }
+    }
+}